@@ -0,0 +1,62 @@
+/*
+ Copyright 1995-2019 Esri
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+
+ For additional information, contact:
+ Environmental Systems Research Institute, Inc.
+ Attn: Contracts Dept
+ 380 New York Street
+ Redlands, California, USA 92373
+
+ email: contracts@esri.com
+ */
+
+package com.esri.core.geometry;
+
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Benchmark inputs for operators that accept any multivertex geometry. The
+ * second geometry overlaps the first one by about a half of its extent, so the
+ * binary operators have real work to do.
+ */
+@State(Scope.Benchmark)
+public class GeometryState {
+	@Param({ "Polygon", "Polyline", "MultiPoint" })
+	public String geometryType;
+
+	@Param({ "10", "1000", "100000", "1000000" })
+	public int vertexCount;
+
+	Geometry geometry;
+	Geometry other;
+	Envelope2D clipEnvelope;
+	Point queryPoint;
+	SpatialReference sr;
+
+	@Setup(Level.Trial)
+	public void setup() {
+		double r = SyntheticGeometries.RADIUS;
+		Geometry.Type type = Geometry.Type.valueOf(geometryType);
+		geometry = SyntheticGeometries.create(type, vertexCount, 0, 0, r, 1);
+		other = SyntheticGeometries.create(type, vertexCount, r / 2, r / 2, r, 2);
+		clipEnvelope = Envelope2D.construct(-r / 2, -r / 2, r / 2, r / 2);
+		queryPoint = new Point(r / 3, -r / 5);
+		sr = SpatialReference.create(102100);
+	}
+}
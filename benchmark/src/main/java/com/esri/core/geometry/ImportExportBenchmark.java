@@ -0,0 +1,109 @@
+/*
+ Copyright 1995-2019 Esri
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+
+ For additional information, contact:
+ Environmental Systems Research Institute, Inc.
+ Attn: Contracts Dept
+ 380 New York Street
+ Redlands, California, USA 92373
+
+ email: contracts@esri.com
+ */
+
+package com.esri.core.geometry;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks the import and export operators for the JSON, GeoJSON, WKT, WKB
+ * and ESRI shape formats.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class ImportExportBenchmark {
+	@Benchmark
+	public String exportToJson(ImportExportState state) {
+		return OperatorExportToJson.local().execute(state.sr, state.geometry);
+	}
+
+	@Benchmark
+	public MapGeometry importFromJson(ImportExportState state) {
+		return OperatorImportFromJson.local().execute(Geometry.Type.Unknown,
+				state.json);
+	}
+
+	@Benchmark
+	public String exportToGeoJson(ImportExportState state) {
+		return OperatorExportToGeoJson.local().execute(state.geometry);
+	}
+
+	@Benchmark
+	public MapGeometry importFromGeoJson(ImportExportState state) {
+		return OperatorImportFromGeoJson.local().execute(
+				GeoJsonImportFlags.geoJsonImportDefaults,
+				Geometry.Type.Unknown, state.geoJson, null);
+	}
+
+	@Benchmark
+	public String exportToWkt(ImportExportState state) {
+		return OperatorExportToWkt.local().execute(
+				WktExportFlags.wktExportDefaults, state.geometry, null);
+	}
+
+	@Benchmark
+	public Geometry importFromWkt(ImportExportState state) {
+		return OperatorImportFromWkt.local().execute(
+				WktImportFlags.wktImportDefaults, Geometry.Type.Unknown,
+				state.wkt, null);
+	}
+
+	@Benchmark
+	public ByteBuffer exportToWkb(ImportExportState state) {
+		return OperatorExportToWkb.local().execute(
+				WkbExportFlags.wkbExportDefaults, state.geometry, null);
+	}
+
+	@Benchmark
+	public Geometry importFromWkb(ImportExportState state) {
+		return OperatorImportFromWkb.local().execute(
+				WkbImportFlags.wkbImportDefaults, Geometry.Type.Unknown,
+				state.wkb, null);
+	}
+
+	@Benchmark
+	public ByteBuffer exportToESRIShape(ImportExportState state) {
+		return OperatorExportToESRIShape.local().execute(
+				ShapeExportFlags.ShapeExportDefaults, state.geometry);
+	}
+
+	@Benchmark
+	public Geometry importFromESRIShape(ImportExportState state) {
+		return OperatorImportFromESRIShape.local().execute(
+				ShapeImportFlags.ShapeImportDefaults, Geometry.Type.Unknown,
+				state.shape);
+	}
+}
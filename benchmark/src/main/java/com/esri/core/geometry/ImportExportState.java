@@ -0,0 +1,70 @@
+/*
+ Copyright 1995-2019 Esri
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+
+ For additional information, contact:
+ Environmental Systems Research Institute, Inc.
+ Attn: Contracts Dept
+ 380 New York Street
+ Redlands, California, USA 92373
+
+ email: contracts@esri.com
+ */
+
+package com.esri.core.geometry;
+
+import java.nio.ByteBuffer;
+
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Benchmark inputs for the import and export operators. Holds the geometry
+ * together with its representation in each of the supported formats.
+ */
+@State(Scope.Benchmark)
+public class ImportExportState {
+	@Param({ "Polygon", "Polyline", "MultiPoint" })
+	public String geometryType;
+
+	@Param({ "10", "1000", "100000", "1000000" })
+	public int vertexCount;
+
+	Geometry geometry;
+	SpatialReference sr;
+	String json;
+	String geoJson;
+	String wkt;
+	ByteBuffer wkb;
+	ByteBuffer shape;
+
+	@Setup(Level.Trial)
+	public void setup() {
+		Geometry.Type type = Geometry.Type.valueOf(geometryType);
+		geometry = SyntheticGeometries.create(type, vertexCount, 0, 0,
+				SyntheticGeometries.RADIUS, 1);
+		sr = SpatialReference.create(102100);
+		json = OperatorExportToJson.local().execute(sr, geometry);
+		geoJson = OperatorExportToGeoJson.local().execute(geometry);
+		wkt = OperatorExportToWkt.local().execute(
+				WktExportFlags.wktExportDefaults, geometry, null);
+		wkb = OperatorExportToWkb.local().execute(
+				WkbExportFlags.wkbExportDefaults, geometry, null);
+		shape = OperatorExportToESRIShape.local().execute(
+				ShapeExportFlags.ShapeExportDefaults, geometry);
+	}
+}
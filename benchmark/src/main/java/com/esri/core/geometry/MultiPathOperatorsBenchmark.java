@@ -0,0 +1,74 @@
+/*
+ Copyright 1995-2019 Esri
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+
+ For additional information, contact:
+ Environmental Systems Research Institute, Inc.
+ Attn: Contracts Dept
+ 380 New York Street
+ Redlands, California, USA 92373
+
+ email: contracts@esri.com
+ */
+
+package com.esri.core.geometry;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Benchmarks the operators that only apply to polylines and polygons.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class MultiPathOperatorsBenchmark {
+	@Benchmark
+	public void cut(MultiPathState state, Blackhole blackhole) {
+		GeometryCursor cuts = OperatorCut.local().execute(false,
+				state.geometry, state.cutter, state.sr, null);
+		Geometry cut;
+		while ((cut = cuts.next()) != null)
+			blackhole.consume(cut);
+	}
+
+	@Benchmark
+	public Geometry offset(MultiPathState state) {
+		return OperatorOffset.local().execute(state.geometry, state.sr,
+				SyntheticGeometries.RADIUS / 100,
+				OperatorOffset.JoinType.Round, 0, 0, null);
+	}
+
+	@Benchmark
+	public Geometry generalize(MultiPathState state) {
+		return OperatorGeneralize.local().execute(state.geometry,
+				SyntheticGeometries.RADIUS / 100, false, null);
+	}
+
+	@Benchmark
+	public Geometry densifyByLength(MultiPathState state) {
+		return OperatorDensifyByLength.local().execute(state.geometry,
+				SyntheticGeometries.RADIUS / 100, null);
+	}
+}
@@ -0,0 +1,58 @@
+/*
+ Copyright 1995-2019 Esri
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+
+ For additional information, contact:
+ Environmental Systems Research Institute, Inc.
+ Attn: Contracts Dept
+ 380 New York Street
+ Redlands, California, USA 92373
+
+ email: contracts@esri.com
+ */
+
+package com.esri.core.geometry;
+
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Benchmark inputs for operators that work on polylines and polygons only.
+ */
+@State(Scope.Benchmark)
+public class MultiPathState {
+	@Param({ "Polygon", "Polyline" })
+	public String geometryType;
+
+	@Param({ "10", "1000", "100000", "1000000" })
+	public int vertexCount;
+
+	MultiPath geometry;
+	Polyline cutter;
+	SpatialReference sr;
+
+	@Setup(Level.Trial)
+	public void setup() {
+		double r = SyntheticGeometries.RADIUS;
+		Geometry.Type type = Geometry.Type.valueOf(geometryType);
+		geometry = (MultiPath) SyntheticGeometries.create(type, vertexCount, 0, 0, r, 1);
+		cutter = new Polyline();
+		cutter.startPath(-2 * r, -r / 10);
+		cutter.lineTo(2 * r, r / 10);
+		sr = SpatialReference.create(102100);
+	}
+}
@@ -0,0 +1,99 @@
+/*
+ Copyright 1995-2019 Esri
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+
+ For additional information, contact:
+ Environmental Systems Research Institute, Inc.
+ Attn: Contracts Dept
+ 380 New York Street
+ Redlands, California, USA 92373
+
+ email: contracts@esri.com
+ */
+
+package com.esri.core.geometry;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks the relational operators on two overlapping geometries.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class RelationalOperatorsBenchmark {
+	@Benchmark
+	public boolean relate(GeometryState state) {
+		return OperatorRelate.local().execute(state.geometry, state.other,
+				state.sr, "T********", null);
+	}
+
+	@Benchmark
+	public boolean equals(GeometryState state) {
+		return OperatorEquals.local().execute(state.geometry, state.other,
+				state.sr, null);
+	}
+
+	@Benchmark
+	public boolean disjoint(GeometryState state) {
+		return OperatorDisjoint.local().execute(state.geometry, state.other,
+				state.sr, null);
+	}
+
+	@Benchmark
+	public boolean intersects(GeometryState state) {
+		return OperatorIntersects.local().execute(state.geometry, state.other,
+				state.sr, null);
+	}
+
+	@Benchmark
+	public boolean within(GeometryState state) {
+		return OperatorWithin.local().execute(state.geometry, state.other,
+				state.sr, null);
+	}
+
+	@Benchmark
+	public boolean contains(GeometryState state) {
+		return OperatorContains.local().execute(state.geometry, state.other,
+				state.sr, null);
+	}
+
+	@Benchmark
+	public boolean crosses(GeometryState state) {
+		return OperatorCrosses.local().execute(state.geometry, state.other,
+				state.sr, null);
+	}
+
+	@Benchmark
+	public boolean touches(GeometryState state) {
+		return OperatorTouches.local().execute(state.geometry, state.other,
+				state.sr, null);
+	}
+
+	@Benchmark
+	public boolean overlaps(GeometryState state) {
+		return OperatorOverlaps.local().execute(state.geometry, state.other,
+				state.sr, null);
+	}
+}
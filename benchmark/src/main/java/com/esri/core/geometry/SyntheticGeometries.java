@@ -0,0 +1,112 @@
+/*
+ Copyright 1995-2019 Esri
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+
+ For additional information, contact:
+ Environmental Systems Research Institute, Inc.
+ Attn: Contracts Dept
+ 380 New York Street
+ Redlands, California, USA 92373
+
+ email: contracts@esri.com
+ */
+
+package com.esri.core.geometry;
+
+import java.util.Random;
+
+/**
+ * Generates the deterministic synthetic inputs used by the benchmarks.
+ * 
+ * All geometries are built within the square centered at (cx, cy) with the
+ * half size r. Polygons are star shaped single rings, polylines are x-monotone
+ * single paths and multipoints are uniformly scattered, so all of them are
+ * simple and any vertex count produces a valid input.
+ */
+final class SyntheticGeometries {
+	static final double RADIUS = 1000.0;
+
+	private SyntheticGeometries() {
+	}
+
+	static Geometry create(Geometry.Type type, int vertexCount, double cx,
+			double cy, double r, long seed) {
+		switch (type) {
+		case Polygon:
+			return createPolygon(vertexCount, cx, cy, r, seed);
+		case Polyline:
+			return createPolyline(vertexCount, cx, cy, r, seed);
+		case MultiPoint:
+			return createMultiPoint(vertexCount, cx, cy, r, seed);
+		default:
+			throw new IllegalArgumentException();
+		}
+	}
+
+	/**
+	 * Creates a star shaped ring. The vertices go clockwise with a random
+	 * radius, which keeps the ring simple for any vertex count.
+	 */
+	static Polygon createPolygon(int vertexCount, double cx, double cy,
+			double r, long seed) {
+		Random random = new Random(seed);
+		Polygon polygon = new Polygon();
+		double step = -2 * Math.PI / vertexCount;
+		for (int i = 0; i < vertexCount; i++) {
+			double radius = r * (0.6 + 0.4 * random.nextDouble());
+			double angle = i * step;
+			double x = cx + radius * Math.cos(angle);
+			double y = cy + radius * Math.sin(angle);
+			if (i == 0)
+				polygon.startPath(x, y);
+			else
+				polygon.lineTo(x, y);
+		}
+
+		return polygon;
+	}
+
+	/**
+	 * Creates a single x-monotone path zigzagging through the square.
+	 */
+	static Polyline createPolyline(int vertexCount, double cx, double cy,
+			double r, long seed) {
+		Random random = new Random(seed);
+		Polyline polyline = new Polyline();
+		double step = 2 * r / Math.max(vertexCount - 1, 1);
+		for (int i = 0; i < vertexCount; i++) {
+			double x = cx - r + i * step;
+			double y = cy + r * (2 * random.nextDouble() - 1);
+			if (i == 0)
+				polyline.startPath(x, y);
+			else
+				polyline.lineTo(x, y);
+		}
+
+		return polyline;
+	}
+
+	static MultiPoint createMultiPoint(int vertexCount, double cx, double cy,
+			double r, long seed) {
+		Random random = new Random(seed);
+		MultiPoint multiPoint = new MultiPoint();
+		for (int i = 0; i < vertexCount; i++) {
+			double x = cx + r * (2 * random.nextDouble() - 1);
+			double y = cy + r * (2 * random.nextDouble() - 1);
+			multiPoint.add(x, y);
+		}
+
+		return multiPoint;
+	}
+}
@@ -0,0 +1,120 @@
+/*
+ Copyright 1995-2019 Esri
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+
+ For additional information, contact:
+ Environmental Systems Research Institute, Inc.
+ Attn: Contracts Dept
+ 380 New York Street
+ Redlands, California, USA 92373
+
+ email: contracts@esri.com
+ */
+
+package com.esri.core.geometry;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks the constructive operators that accept any multivertex geometry.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class TopologicalOperatorsBenchmark {
+	@Benchmark
+	public Geometry union(GeometryState state) {
+		return OperatorUnion.local().execute(state.geometry, state.other,
+				state.sr, null);
+	}
+
+	@Benchmark
+	public Geometry intersection(GeometryState state) {
+		return OperatorIntersection.local().execute(state.geometry,
+				state.other, state.sr, null);
+	}
+
+	@Benchmark
+	public Geometry difference(GeometryState state) {
+		return OperatorDifference.local().execute(state.geometry, state.other,
+				state.sr, null);
+	}
+
+	@Benchmark
+	public Geometry symmetricDifference(GeometryState state) {
+		return OperatorSymmetricDifference.local().execute(state.geometry,
+				state.other, state.sr, null);
+	}
+
+	@Benchmark
+	public Geometry buffer(GeometryState state) {
+		return OperatorBuffer.local().execute(state.geometry, state.sr,
+				SyntheticGeometries.RADIUS / 100, null);
+	}
+
+	@Benchmark
+	public Geometry simplify(GeometryState state) {
+		return OperatorSimplify.local().execute(state.geometry, state.sr, true,
+				null);
+	}
+
+	@Benchmark
+	public Geometry simplifyOGC(GeometryState state) {
+		return OperatorSimplifyOGC.local().execute(state.geometry, state.sr,
+				true, null);
+	}
+
+	@Benchmark
+	public Geometry clip(GeometryState state) {
+		return OperatorClip.local().execute(state.geometry,
+				state.clipEnvelope, state.sr, null);
+	}
+
+	@Benchmark
+	public Geometry convexHull(GeometryState state) {
+		return OperatorConvexHull.local().execute(state.geometry, null);
+	}
+
+	@Benchmark
+	public Geometry boundary(GeometryState state) {
+		return OperatorBoundary.local().execute(state.geometry, null);
+	}
+
+	@Benchmark
+	public Point2D centroid2D(GeometryState state) {
+		return OperatorCentroid2D.local().execute(state.geometry, null);
+	}
+
+	@Benchmark
+	public double distance(GeometryState state) {
+		return OperatorDistance.local().execute(state.geometry,
+				state.queryPoint, null);
+	}
+
+	@Benchmark
+	public Proximity2DResult proximity2D(GeometryState state) {
+		return OperatorProximity2D.local().getNearestCoordinate(
+				state.geometry, state.queryPoint, false);
+	}
+}
@@ -34,7 +34,7 @@ import static com.esri.core.geometry.SizeOf.SIZE_OF_ATTRIBUTE_STREAM_OF_DBL;
 import static com.esri.core.geometry.SizeOf.SIZE_OF_ATTRIBUTE_STREAM_OF_INT32;
 import static com.esri.core.geometry.SizeOf.sizeOfDoubleArray;
 
-final class AttributeStreamOfDbl extends AttributeStreamBase {
+class AttributeStreamOfDbl extends AttributeStreamBase {
 
 	private double[] m_buffer = null;
 	private int m_size;
@@ -81,8 +81,14 @@ final class AttributeStreamOfDbl extends AttributeStreamBase {
 	}
 
 	public AttributeStreamOfDbl(AttributeStreamOfDbl other) {
-		m_buffer = other.m_buffer.clone();
-		m_size = other.m_size;
+		m_size = other.size();
+		if (other.m_buffer != null)
+			m_buffer = other.m_buffer.clone();
+		else {
+			// The other stream is off-heap.
+			m_buffer = new double[Math.max(m_size, 2)];
+			other.readRange(0, m_size, m_buffer, 0, true);
+		}
 	}
 
 	public AttributeStreamOfDbl(AttributeStreamOfDbl other, int maxSize) {
@@ -93,7 +99,31 @@ final class AttributeStreamOfDbl extends AttributeStreamBase {
 		if (sz < 2)
 			sz = 2;
 		m_buffer = new double[sz];
-		System.arraycopy(other.m_buffer, 0, m_buffer, 0, m_size);
+		if (other.m_buffer != null)
+			System.arraycopy(other.m_buffer, 0, m_buffer, 0, m_size);
+		else
+			other.readRange(0, m_size, m_buffer, 0, true);
+	}
+
+	/**
+	 * Used by the off-heap subclass, that does not use the heap buffer.
+	 */
+	AttributeStreamOfDbl() {
+	}
+
+	/**
+	 * Returns the heap buffer of a source stream, or copies the range of an
+	 * off-heap stream into a temporary array of the range size. The range
+	 * starts at index 0 of the temporary array.
+	 */
+	private static double[] rangeBuffer_(AttributeStreamOfDbl src, int start,
+			int count) {
+		if (src.m_buffer != null)
+			return src.m_buffer;
+
+		double[] buffer = new double[count];
+		src.readRange(start, count, buffer, 0, true);
+		return buffer;
 	}
 
 	/**
@@ -371,18 +401,21 @@ final class AttributeStreamOfDbl extends AttributeStreamBase {
 		int newSize = oldSize + count;
 		resize(newSize);
 
+		AttributeStreamOfDbl dbl = (AttributeStreamOfDbl) src;
 		if (bForward) {
-			System.arraycopy(((AttributeStreamOfDbl) src).m_buffer, start,
-					m_buffer, oldSize, count);
+			dbl.readRange(start, count, m_buffer, oldSize, true);
 		} else {
+			double[] srcBuffer = rangeBuffer_(dbl, start, count);
+			if (srcBuffer != dbl.m_buffer)
+				start = 0;
+
 			int n = count;
 
 			for (int i = 0; i < count; i += stride) {
 				n -= stride;
 
 				for (int s = 0; s < stride; s++) {
-					m_buffer[oldSize + i + s] = ((AttributeStreamOfDbl) src).m_buffer[start
-							+ n + s];
+					m_buffer[oldSize + i + s] = srcBuffer[start + n + s];
 				}
 			}
 		}
@@ -435,18 +468,21 @@ final class AttributeStreamOfDbl extends AttributeStreamBase {
 				srcStart += count;
 		}
 
+		AttributeStreamOfDbl dbl = (AttributeStreamOfDbl) src;
 		if (bForward) {
-			System.arraycopy(((AttributeStreamOfDbl) src).m_buffer, srcStart,
-					m_buffer, start, count);
+			dbl.readRange(srcStart, count, m_buffer, start, true);
 		} else {
+			double[] srcBuffer = rangeBuffer_(dbl, srcStart, count);
+			if (srcBuffer != dbl.m_buffer)
+				srcStart = 0;
+
 			int n = count;
 
 			for (int i = 0; i < count; i += stride) {
 				n -= stride;
 
 				for (int s = 0; s < stride; s++) {
-					m_buffer[start + i + s] = ((AttributeStreamOfDbl) src).m_buffer[srcStart
-							+ n + s];
+					m_buffer[start + i + s] = srcBuffer[srcStart + n + s];
 				}
 			}
 		}
@@ -689,26 +725,24 @@ final class AttributeStreamOfDbl extends AttributeStreamBase {
 		}
 
 		if (bForward) {
-			int j = startElement;
-			int offset = srcStart;
-			for (int i = 0; i < count; i++) {
-				m_buffer[j] = src.m_buffer[offset];
-				j++;
-				offset++;
-			}
+			src.readRange(srcStart, count, m_buffer, startElement, true);
 		} else {
+			double[] srcBuffer = rangeBuffer_(src, srcStart, count);
+			if (srcBuffer != src.m_buffer)
+				srcStart = 0;
+
 			int j = startElement;
 			int offset = srcStart + count - stride;
 			if (stride == 1) {
 				for (int i = 0; i < count; i++) {
-					m_buffer[j] = src.m_buffer[offset];
+					m_buffer[j] = srcBuffer[offset];
 					j++;
 					offset--;
 				}
 			} else {
 				for (int i = 0, n = count / stride; i < n; i++) {
 					for (int k = 0; k < stride; k++)
-						m_buffer[j + k] = src.m_buffer[offset + k];
+						m_buffer[j + k] = srcBuffer[offset + k];
 
 					j += stride;
 					offset -= stride;
@@ -0,0 +1,661 @@
+/*
+ Copyright 1995-2019 Esri
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+
+ For additional information, contact:
+ Environmental Systems Research Institute, Inc.
+ Attn: Contracts Dept
+ 380 New York Street
+ Redlands, California, USA 92373
+
+ email: contracts@esri.com
+ */
+
+package com.esri.core.geometry;
+
+import static com.esri.core.geometry.SizeOf.SIZE_OF_ATTRIBUTE_STREAM_OF_DBL;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.DoubleBuffer;
+import java.nio.channels.FileChannel;
+import java.util.Arrays;
+
+/**
+ * An AttributeStreamOfDbl that stores the doubles outside of the Java heap,
+ * in direct or memory mapped buffers. The geometries use it through the
+ * AttributeStreamOfDbl interface.
+ * 
+ * The storage is split into chunks of 2^27 doubles (1GB), so a stream is not
+ * limited by the 2GB size of a ByteBuffer. All chunks but the last one are
+ * full. Growing the stream only reallocates the last chunk and adds new
+ * ones, the full chunks are never copied. A mapped chunk that has to grow is
+ * copied to direct memory, and is no longer backed by the file.
+ */
+final class AttributeStreamOfDblDirect extends AttributeStreamOfDbl {
+	static final int CHUNK_SHIFT = 27;
+	static final int CHUNK_SIZE = 1 << CHUNK_SHIFT;
+	static final int CHUNK_MASK = CHUNK_SIZE - 1;
+
+	private DoubleBuffer[] m_chunks;
+	private int m_capacity;
+	private int m_size;
+
+	AttributeStreamOfDblDirect(int size) {
+		m_chunks = new DoubleBuffer[0];
+		ensureCapacity_(Math.max(size, 2), true);
+		m_size = size;
+	}
+
+	AttributeStreamOfDblDirect(int size, double defaultValue) {
+		this(size);
+		fill_(0, size, defaultValue);
+	}
+
+	private AttributeStreamOfDblDirect(DoubleBuffer[] chunks, int size) {
+		m_chunks = chunks;
+		m_capacity = size;
+		m_size = size;
+	}
+
+	/**
+	 * Maps count doubles of the file, starting at the position, without
+	 * copying them. The stream is readonly for the READ_ONLY mode.
+	 */
+	static AttributeStreamOfDblDirect map(FileChannel channel,
+			FileChannel.MapMode mode, long position, int count,
+			ByteOrder order) throws IOException {
+		if (channel == null || mode == null || order == null || position < 0
+				|| count < 0)
+			throw new IllegalArgumentException();
+
+		DoubleBuffer[] chunks = new DoubleBuffer[(int) (((long) count
+				+ CHUNK_SIZE - 1) >>> CHUNK_SHIFT)];
+		for (int i = 0; i < chunks.length; i++) {
+			int size = Math.min(CHUNK_SIZE, count - (i << CHUNK_SHIFT));
+			chunks[i] = channel
+					.map(mode, position + 8L * ((long) i << CHUNK_SHIFT),
+							8L * size).order(order).asDoubleBuffer();
+		}
+
+		AttributeStreamOfDblDirect stream = new AttributeStreamOfDblDirect(
+				chunks, count);
+		if (mode == FileChannel.MapMode.READ_ONLY)
+			stream.setReadonly();
+
+		return stream;
+	}
+
+	private static DoubleBuffer allocateChunk_(int size) {
+		return ByteBuffer.allocateDirect(8 * size)
+				.order(ByteOrder.nativeOrder()).asDoubleBuffer();
+	}
+
+	// Makes sure the capacity is at least the given one. When bExact is
+	// false, reserves 25% more to amortize the growth.
+	private void ensureCapacity_(int capacity, boolean bExact) {
+		if (capacity <= m_capacity)
+			return;
+
+		long target = capacity;
+		if (!bExact)
+			target = capacity < 64 ? Math.max(capacity * 2L, 4L)
+					: capacity + (capacity >> 2);
+		if (target > Integer.MAX_VALUE)
+			target = Integer.MAX_VALUE;
+
+		int newCapacity = (int) target;
+		int chunkCount = (int) ((target + CHUNK_SIZE - 1) >>> CHUNK_SHIFT);
+		DoubleBuffer[] chunks = Arrays.copyOf(m_chunks, chunkCount);
+		for (int i = 0; i < chunkCount; i++) {
+			int size = i < chunkCount - 1 ? CHUNK_SIZE : newCapacity
+					- (i << CHUNK_SHIFT);
+			DoubleBuffer old = i < m_chunks.length ? m_chunks[i] : null;
+			if (old != null && old.capacity() == size)
+				continue;
+
+			DoubleBuffer chunk = allocateChunk_(size);
+			if (old != null) {
+				DoubleBuffer src = old.duplicate();
+				src.clear();
+				chunk.put(src);
+				chunk.clear();
+			}
+
+			chunks[i] = chunk;
+		}
+
+		m_chunks = chunks;
+		m_capacity = newCapacity;
+	}
+
+	private void checkWritable_() {
+		if (m_bReadonly)
+			throw new RuntimeException("invalid_call");
+	}
+
+	private void fill_(int start, int end, double value) {
+		for (int i = start; i < end; i++)
+			put_(i, value);
+	}
+
+	private void put_(int index, double value) {
+		m_chunks[index >>> CHUNK_SHIFT].put(index & CHUNK_MASK, value);
+	}
+
+	// Moves the elements inside of the stream. The ranges can overlap.
+	private void move_(int from, int to, int count) {
+		if (from == to || count <= 0)
+			return;
+
+		if (to < from) {
+			for (int i = 0; i < count; i++)
+				put_(to + i, read(from + i));
+		} else {
+			for (int i = count - 1; i >= 0; i--)
+				put_(to + i, read(from + i));
+		}
+	}
+
+	@Override
+	public int size() {
+		return m_size;
+	}
+
+	@Override
+	public void reserve(int reserve) {
+		if (reserve <= 0)
+			return;
+
+		ensureCapacity_(reserve, true);
+	}
+
+	@Override
+	public int capacity() {
+		return m_capacity;
+	}
+
+	@Override
+	public double read(int offset) {
+		return m_chunks[offset >>> CHUNK_SHIFT].get(offset & CHUNK_MASK);
+	}
+
+	@Override
+	public double get(int offset) {
+		return read(offset);
+	}
+
+	@Override
+	public void write(int offset, double value) {
+		checkWritable_();
+		put_(offset, value);
+	}
+
+	@Override
+	public void set(int offset, double value) {
+		write(offset, value);
+	}
+
+	@Override
+	public void read(int offset, Point2D outPoint) {
+		outPoint.x = read(offset);
+		outPoint.y = read(offset + 1);
+	}
+
+	@Override
+	void write(int offset, Point2D point) {
+		checkWritable_();
+		put_(offset, point.x);
+		put_(offset + 1, point.y);
+	}
+
+	@Override
+	public void add(double v) {
+		resize(m_size + 1);
+		put_(m_size - 1, v);
+	}
+
+	@Override
+	public AttributeStreamBase restrictedClone(int maxsize) {
+		int size = Math.min(m_size, maxsize);
+		AttributeStreamOfDblDirect clone = new AttributeStreamOfDblDirect(size);
+		clone.copyFrom_(this, 0, 0, size);
+		return clone;
+	}
+
+	// Copies count elements from the other direct stream, chunk by chunk.
+	private void copyFrom_(AttributeStreamOfDblDirect src, int srcStart,
+			int dstStart, int count) {
+		while (count > 0) {
+			int srcOffset = srcStart & CHUNK_MASK;
+			int dstOffset = dstStart & CHUNK_MASK;
+			int n = Math.min(count,
+					Math.min(CHUNK_SIZE - srcOffset, CHUNK_SIZE - dstOffset));
+			DoubleBuffer from = src.m_chunks[srcStart >>> CHUNK_SHIFT]
+					.duplicate();
+			from.limit(srcOffset + n).position(srcOffset);
+			DoubleBuffer to = m_chunks[dstStart >>> CHUNK_SHIFT].duplicate();
+			to.position(dstOffset);
+			to.put(from);
+			srcStart += n;
+			dstStart += n;
+			count -= n;
+		}
+	}
+
+	@Override
+	public long estimateMemorySize() {
+		// Only the heap memory is included.
+		return SIZE_OF_ATTRIBUTE_STREAM_OF_DBL;
+	}
+
+	@Override
+	public void resize(int newSize) {
+		if (m_bLockedInSize)
+			throw new GeometryException(
+					"invalid call. Attribute Stream is locked and cannot be resized.");
+
+		ensureCapacity_(newSize, false);
+		m_size = newSize;
+	}
+
+	@Override
+	public void resizePreserveCapacity(int newSize) {
+		resize(newSize);
+	}
+
+	@Override
+	public void resize(int newSize, double defaultValue) {
+		int oldSize = m_size;
+		resize(newSize);
+		if (newSize > oldSize)
+			fill_(oldSize, newSize, defaultValue);
+	}
+
+	@Override
+	public void addRange(AttributeStreamBase src, int start, int count,
+			boolean bForward, int stride) {
+		if (m_bReadonly)
+			throw new GeometryException("invalid_call");
+
+		if (!bForward && (stride < 1 || count % stride != 0))
+			throw new IllegalArgumentException();
+
+		int oldSize = m_size;
+		resize(oldSize + count);
+		writeRange(oldSize, count, src, start, bForward, stride);
+	}
+
+	@Override
+	public void insertRange(int start, AttributeStreamBase src, int srcStart,
+			int count, boolean bForward, int stride, int validSize) {
+		if (m_bReadonly)
+			throw new GeometryException("invalid_call");
+
+		if (!bForward && (stride < 1 || count % stride != 0))
+			throw new IllegalArgumentException();
+
+		int excess_space = m_size - validSize;
+		if (excess_space < count)
+			resize(m_size + count - excess_space);
+
+		move_(start, start + count, validSize - start);
+		if (src == this && start < srcStart)
+			srcStart += count;
+
+		AttributeStreamOfDbl dbl = (AttributeStreamOfDbl) src;
+		if (bForward) {
+			for (int i = 0; i < count; i++)
+				put_(start + i, dbl.read(srcStart + i));
+		} else {
+			int n = count;
+			for (int i = 0; i < count; i += stride) {
+				n -= stride;
+				for (int s = 0; s < stride; s++)
+					put_(start + i + s, dbl.read(srcStart + n + s));
+			}
+		}
+	}
+
+	@Override
+	public void insertRange(int start, double value, int count, int validSize) {
+		if (m_bReadonly)
+			throw new GeometryException("invalid_call");
+
+		move_(start, start + count, validSize - start);
+		fill_(start, start + count, value);
+	}
+
+	@Override
+	public void insertAttributes(int start, Point pt, int semantics,
+			int validSize) {
+		if (m_bReadonly)
+			throw new GeometryException("invalid_call");
+
+		int comp = VertexDescription.getComponentCount(semantics);
+		move_(start, start + comp, validSize - start);
+		for (int c = 0; c < comp; c++)
+			put_(start + c, pt.getAttributeAsDbl(semantics, c));
+	}
+
+	@Override
+	public void insert(int index, Point2D point, int validSize) {
+		if (m_bReadonly)
+			throw new GeometryException("invalid_call");
+
+		move_(index, index + 2, validSize - index);
+		put_(index, point.x);
+		put_(index + 1, point.y);
+	}
+
+	@Override
+	public void writeRange(int streamOffset, int count, double[][] src,
+			int arrayOffset, boolean bForward) {
+		if (streamOffset < 0 || count < 0 || arrayOffset < 0)
+			throw new IllegalArgumentException();
+
+		if (src.length * 2 < (arrayOffset << 1) + count)
+			throw new IllegalArgumentException();
+		if (count == 0)
+			return;
+
+		if (size() < count + streamOffset)
+			resize(count + streamOffset);
+
+		int j = streamOffset;
+		if (!bForward)
+			j += count - 1;
+
+		final int dj = bForward ? 2 : -2;
+		int end = arrayOffset + (count >> 1);
+		for (int i = arrayOffset; i < end; i++) {
+			put_(j, src[i][0]);
+			put_(j + 1, src[i][1]);
+			j += dj;
+		}
+	}
+
+	@Override
+	public void writeRange(int streamOffset, int count, double[] src,
+			int arrayOffset, boolean bForward) {
+		if (streamOffset < 0 || count < 0 || arrayOffset < 0)
+			throw new IllegalArgumentException();
+
+		if (src.length < arrayOffset + count)
+			throw new IllegalArgumentException();
+		if (count == 0)
+			return;
+
+		if (size() < count + streamOffset)
+			resize(count + streamOffset);
+
+		if (bForward) {
+			while (count > 0) {
+				int offset = streamOffset & CHUNK_MASK;
+				int n = Math.min(count, CHUNK_SIZE - offset);
+				DoubleBuffer to = m_chunks[streamOffset >>> CHUNK_SHIFT]
+						.duplicate();
+				to.position(offset);
+				to.put(src, arrayOffset, n);
+				streamOffset += n;
+				arrayOffset += n;
+				count -= n;
+			}
+		} else {
+			int j = streamOffset + count - 1;
+			for (int i = arrayOffset, end = arrayOffset + count; i < end; i++)
+				put_(j--, src[i]);
+		}
+	}
+
+	@Override
+	public void readRange(int streamOffset, int count, double[][] dst,
+			int arrayOffset, boolean bForward) {
+		if (streamOffset < 0 || count < 0 || arrayOffset < 0
+				|| count > NumberUtils.intMax()
+				|| size() < count + streamOffset)
+			throw new IllegalArgumentException();
+
+		if (dst.length * 2 < (arrayOffset << 1) + count)
+			throw new IllegalArgumentException();
+
+		if (count == 0)
+			return;
+
+		int j = streamOffset;
+		if (!bForward)
+			j += count - 1;
+
+		final int dj = bForward ? 2 : -2;
+		int end = arrayOffset + (count >> 1);
+		for (int i = arrayOffset; i < end; i++) {
+			dst[i][0] = read(j);
+			dst[i][1] = read(j + 1);
+			j += dj;
+		}
+	}
+
+	@Override
+	public void eraseRange(int index, int count, int validSize) {
+		if (m_bReadonly)
+			throw new GeometryException("invalid_call");
+
+		if (index + count > m_size)
+			throw new GeometryException("invalid_call");
+
+		move_(index + count, index, validSize - (index + count));
+		m_size -= count;
+	}
+
+	@Override
+	public void readRange(int srcStart, int count, ByteBuffer dst,
+			int dstOffset, boolean bForward) {
+		if (srcStart < 0 || count < 0 || dstOffset < 0
+				|| size() < count + srcStart)
+			throw new IllegalArgumentException();
+
+		final int elmSize = NumberUtils.sizeOf((double) 0);
+		if (dst.capacity() < dstOffset + elmSize * count)
+			throw new IllegalArgumentException();
+
+		int j = srcStart;
+		if (!bForward)
+			j += count - 1;
+
+		final int dj = bForward ? 1 : -1;
+		int offset = dstOffset;
+		for (int i = 0; i < count; i++, offset += elmSize) {
+			dst.putDouble(offset, read(j));
+			j += dj;
+		}
+	}
+
+	@Override
+	public void reverseRange(int index, int count, int stride) {
+		if (m_bReadonly)
+			throw new GeometryException("invalid_call");
+
+		if (stride < 1 || count % stride != 0)
+			throw new GeometryException("invalid_call");
+
+		int cIterations = count >> 1;
+		int n = count;
+		for (int i = 0; i < cIterations; i += stride) {
+			n -= stride;
+			for (int s = 0; s < stride; s++) {
+				double temp = read(index + i + s);
+				put_(index + i + s, read(index + n + s));
+				put_(index + n + s, temp);
+			}
+		}
+	}
+
+	@Override
+	public void setRange(double value, int start, int count) {
+		if (start < 0 || count < 0 || count + start > size())
+			throw new IllegalArgumentException();
+
+		checkWritable_();
+		fill_(start, start + count, value);
+	}
+
+	@Override
+	public void writeRange(int startElement, int count,
+			AttributeStreamBase _src, int srcStart, boolean bForward, int stride) {
+		if (startElement < 0 || count < 0 || srcStart < 0)
+			throw new IllegalArgumentException();
+
+		if (!bForward && (stride <= 0 || (count % stride != 0)))
+			throw new IllegalArgumentException();
+
+		AttributeStreamOfDbl src = (AttributeStreamOfDbl) _src;
+		if (src.size() < srcStart + count)
+			throw new IllegalArgumentException();
+
+		if (count == 0)
+			return;
+
+		if (size() < count + startElement)
+			resize(count + startElement);
+
+		if (bForward) {
+			if (src == this) {
+				move_(srcStart, startElement, count);
+			} else if (src instanceof AttributeStreamOfDblDirect) {
+				copyFrom_((AttributeStreamOfDblDirect) src, srcStart,
+						startElement, count);
+			} else {
+				for (int i = 0; i < count; i++)
+					put_(startElement + i, src.read(srcStart + i));
+			}
+
+			return;
+		}
+
+		if (src == this) {
+			// Copy, then reverse the strides in place.
+			move_(srcStart, startElement, count);
+			int j = startElement;
+			int offset = startElement + count - stride;
+			for (int i = 0, n = count / 2; i < n && j < offset; i++) {
+				for (int k = 0; k < stride; k++) {
+					double v = read(j + k);
+					put_(j + k, read(offset + k));
+					put_(offset + k, v);
+				}
+				j += stride;
+				offset -= stride;
+			}
+
+			return;
+		}
+
+		int j = startElement;
+		int offset = srcStart + count - stride;
+		for (int i = 0, n = count / stride; i < n; i++) {
+			for (int k = 0; k < stride; k++)
+				put_(j + k, src.read(offset + k));
+
+			j += stride;
+			offset -= stride;
+		}
+	}
+
+	@Override
+	public void writeRange(int startElement, int count, ByteBuffer src,
+			int offsetBytes, boolean bForward) {
+		if (startElement < 0 || count < 0 || offsetBytes < 0)
+			throw new IllegalArgumentException();
+
+		final int elmSize = NumberUtils.sizeOf((double) 0);
+		if (src.capacity() < offsetBytes + elmSize * count)
+			throw new IllegalArgumentException();
+
+		if (count == 0)
+			return;
+
+		if (size() < count + startElement)
+			resize(count + startElement);
+
+		int j = startElement;
+		if (!bForward)
+			j += count - 1;
+
+		final int dj = bForward ? 1 : -1;
+		int offset = offsetBytes;
+		for (int i = 0; i < count; i++, offset += elmSize) {
+			put_(j, src.getDouble(offset));
+			j += dj;
+		}
+	}
+
+	@Override
+	public void writeRange(int streamOffset, int pointCount, Point2D[] src,
+			int arrayOffset, boolean bForward) {
+		if (streamOffset < 0 || pointCount < 0 || arrayOffset < 0)
+			throw new IllegalArgumentException();
+
+		if (pointCount == 0)
+			return;
+
+		if (size() < (pointCount << 1) + streamOffset)
+			resize((pointCount << 1) + streamOffset);
+
+		int j = streamOffset;
+		if (!bForward)
+			j += (pointCount - 1) << 1;
+
+		final int dj = bForward ? 2 : -2;
+		for (int i = arrayOffset, end = arrayOffset + pointCount; i < end; i++) {
+			put_(j, src[i].x);
+			put_(j + 1, src[i].y);
+			j += dj;
+		}
+	}
+
+	@Override
+	public void readRange(int srcStart, int count, double[] dst, int dstOffset,
+			boolean bForward) {
+		if (srcStart < 0 || count < 0 || dstOffset < 0
+				|| size() < count + srcStart)
+			throw new IllegalArgumentException();
+
+		if (bForward) {
+			while (count > 0) {
+				int offset = srcStart & CHUNK_MASK;
+				int n = Math.min(count, CHUNK_SIZE - offset);
+				DoubleBuffer from = m_chunks[srcStart >>> CHUNK_SHIFT]
+						.duplicate();
+				from.position(offset);
+				from.get(dst, dstOffset, n);
+				srcStart += n;
+				dstOffset += n;
+				count -= n;
+			}
+		} else {
+			int j = dstOffset + count - 1;
+			for (int i = srcStart, end = srcStart + count; i < end; i++)
+				dst[j--] = read(i);
+		}
+	}
+
+	@Override
+	public void sort(int start, int end) {
+		double[] values = new double[end - start];
+		readRange(start, values.length, values, 0, true);
+		Arrays.sort(values);
+		writeRange(start, values.length, values, 0, true);
+	}
+}
@@ -0,0 +1,261 @@
+/*
+ Copyright 1995-2019 Esri
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+
+ For additional information, contact:
+ Environmental Systems Research Institute, Inc.
+ Attn: Contracts Dept
+ 380 New York Street
+ Redlands, California, USA 92373
+
+ email: contracts@esri.com
+ */
+
+package com.esri.core.geometry;
+
+import java.math.BigInteger;
+
+/**
+ * Parses decimal numbers from a region of a CharSequence without creating
+ * objects.
+ *
+ * Up to 19 significant digits are accumulated in a long. Values that are
+ * exact in double arithmetic are computed directly (Clinger's fast path),
+ * the others with the Eisel-Lemire algorithm (D. Lemire, "Number Parsing at
+ * a Gigabyte per Second", 2021), which is correctly rounded. The rare inputs
+ * it cannot decide, and the inputs with more significant digits, fall back to
+ * Double.parseDouble.
+ */
+final class DecimalToDouble {
+	private static final int MIN_EXP10 = -348;
+	private static final int MAX_EXP10 = 347;
+
+	// The 128 bit mantissas of the powers of ten, rounded down: the high
+	// and the low halves for each exponent.
+	private static final long[] POW10_MANTISSAS = createMantissas_();
+
+	private static final double[] POW10 = { 1e0, 1e1, 1e2, 1e3, 1e4, 1e5,
+			1e6, 1e7, 1e8, 1e9, 1e10, 1e11, 1e12, 1e13, 1e14, 1e15, 1e16, 1e17,
+			1e18, 1e19, 1e20, 1e21, 1e22 };
+
+	private DecimalToDouble() {
+	}
+
+	/**
+	 * Parses the number in [start, end). The number has an optional sign,
+	 * the digits with an optional decimal point, and an optional exponent.
+	 * @throws NumberFormatException when the region is not a number.
+	 */
+	static double parse(CharSequence s, int start, int end) {
+		int i = start;
+		if (i >= end)
+			throw new NumberFormatException();
+
+		boolean bNegative = false;
+		char c = s.charAt(i);
+		if (c == '-' || c == '+') {
+			bNegative = c == '-';
+			i++;
+		}
+
+		// The significand is unsigned: 19 digits can exceed Long.MAX_VALUE.
+		long w = 0;
+		int digits = 0;
+		int exp10 = 0;
+		boolean bTruncated = false;
+		boolean bAnyDigit = false;
+		for (; i < end; i++) {
+			c = s.charAt(i);
+			if (c < '0' || c > '9')
+				break;
+
+			bAnyDigit = true;
+			if (digits < 19) {
+				if (w != 0 || c != '0') {
+					w = 10 * w + (c - '0');
+					digits++;
+				}
+			} else {
+				exp10++;
+				bTruncated |= c != '0';
+			}
+		}
+
+		if (i < end && s.charAt(i) == '.') {
+			for (i++; i < end; i++) {
+				c = s.charAt(i);
+				if (c < '0' || c > '9')
+					break;
+
+				bAnyDigit = true;
+				if (digits < 19) {
+					if (w != 0 || c != '0') {
+						w = 10 * w + (c - '0');
+						digits++;
+					}
+					exp10--;
+				} else {
+					bTruncated |= c != '0';
+				}
+			}
+		}
+
+		if (!bAnyDigit)
+			throw new NumberFormatException();
+
+		if (i < end && (s.charAt(i) == 'e' || s.charAt(i) == 'E')) {
+			i++;
+			boolean bNegativeExp = false;
+			if (i < end && (s.charAt(i) == '-' || s.charAt(i) == '+')) {
+				bNegativeExp = s.charAt(i) == '-';
+				i++;
+			}
+
+			if (i == end)
+				throw new NumberFormatException();
+
+			int exp = 0;
+			for (; i < end; i++) {
+				c = s.charAt(i);
+				if (c < '0' || c > '9')
+					break;
+
+				if (exp < 100000)
+					exp = 10 * exp + (c - '0');
+			}
+			exp10 += bNegativeExp ? -exp : exp;
+		}
+
+		if (i != end)
+			throw new NumberFormatException();
+
+		if (bTruncated)
+			return Double.parseDouble(s.subSequence(start, end).toString());
+
+		double value;
+		if (w == 0) {
+			value = 0;
+		} else if (w > 0 && w <= (1L << 53) && exp10 >= -22 && exp10 <= 22) {
+			value = exp10 >= 0 ? w * POW10[exp10] : w / POW10[-exp10];
+		} else if (exp10 < MIN_EXP10) {
+			value = 0;
+		} else if (exp10 > MAX_EXP10) {
+			value = Double.POSITIVE_INFINITY;
+		} else {
+			long bits = eiselLemire_(w, exp10);
+			if (bits < 0)
+				return Double.parseDouble(s.subSequence(start, end).toString());
+
+			value = Double.longBitsToDouble(bits);
+		}
+
+		return bNegative ? -value : value;
+	}
+
+	/**
+	 * Returns the bits of the double nearest to w * 10^exp10, or -1 when the
+	 * result cannot be decided, is subnormal or overflows.
+	 */
+	private static long eiselLemire_(long w, int exp10) {
+		int clz = Long.numberOfLeadingZeros(w);
+		w <<= clz;
+		long exp2 = ((217706 * exp10) >> 16) + 64 + 1023 - clz;
+
+		int index = (exp10 - MIN_EXP10) << 1;
+		long hi = POW10_MANTISSAS[index];
+		long lo = POW10_MANTISSAS[index + 1];
+
+		long xHi = multiplyHigh_(w, hi);
+		long xLo = w * hi;
+		if ((xHi & 0x1FF) == 0x1FF && lessUnsigned_(xLo + w, w)) {
+			long yHi = multiplyHigh_(w, lo);
+			long yLo = w * lo;
+			long mergedHi = xHi;
+			long mergedLo = xLo + yHi;
+			if (lessUnsigned_(mergedLo, xLo))
+				mergedHi++;
+
+			if ((mergedHi & 0x1FF) == 0x1FF && mergedLo + 1 == 0
+					&& lessUnsigned_(yLo + w, w))
+				return -1;
+
+			xHi = mergedHi;
+			xLo = mergedLo;
+		}
+
+		long msb = xHi >>> 63;
+		long mantissa = xHi >>> (msb + 9);
+		exp2 -= 1 ^ msb;
+
+		if (xLo == 0 && (xHi & 0x1FF) == 0 && (mantissa & 3) == 1)
+			return -1;
+
+		mantissa += mantissa & 1;
+		mantissa >>>= 1;
+		if ((mantissa >>> 53) > 0) {
+			mantissa >>>= 1;
+			exp2++;
+		}
+
+		if (exp2 <= 0 || exp2 >= 0x7FF)
+			return -1;
+
+		return (exp2 << 52) | (mantissa & 0x000FFFFFFFFFFFFFL);
+	}
+
+	private static boolean lessUnsigned_(long a, long b) {
+		return (a ^ Long.MIN_VALUE) < (b ^ Long.MIN_VALUE);
+	}
+
+	/**
+	 * The high 64 bits of the unsigned product.
+	 */
+	private static long multiplyHigh_(long x, long y) {
+		long x0 = x & 0xffffffffL;
+		long x1 = x >>> 32;
+		long y0 = y & 0xffffffffL;
+		long y1 = y >>> 32;
+		long p01 = x0 * y1;
+		long p10 = x1 * y0;
+		long mid = ((x0 * y0) >>> 32) + (p01 & 0xffffffffL)
+				+ (p10 & 0xffffffffL);
+		return x1 * y1 + (p01 >>> 32) + (p10 >>> 32) + (mid >>> 32);
+	}
+
+	/**
+	 * For each exponent, the 128 bits of 10^e normalized to [2^127, 2^128)
+	 * and rounded down.
+	 */
+	private static long[] createMantissas_() {
+		long[] mantissas = new long[(MAX_EXP10 - MIN_EXP10 + 1) << 1];
+		BigInteger mask64 = BigInteger.ONE.shiftLeft(64).subtract(
+				BigInteger.ONE);
+		for (int e = MIN_EXP10; e <= MAX_EXP10; e++) {
+			BigInteger m;
+			if (e >= 0) {
+				m = BigInteger.TEN.pow(e);
+				int shift = m.bitLength() - 128;
+				m = shift > 0 ? m.shiftRight(shift) : m.shiftLeft(-shift);
+			} else {
+				BigInteger d = BigInteger.TEN.pow(-e);
+				m = BigInteger.ONE.shiftLeft(d.bitLength() + 127).divide(d);
+			}
+
+			int index = (e - MIN_EXP10) << 1;
+			mantissas[index] = m.shiftRight(64).longValue();
+			mantissas[index + 1] = m.and(mask64).longValue();
+		}
+		return mantissas;
+	}
+}
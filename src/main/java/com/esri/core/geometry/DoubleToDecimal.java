@@ -0,0 +1,334 @@
+/*
+ Copyright 1995-2019 Esri
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+
+ For additional information, contact:
+ Environmental Systems Research Institute, Inc.
+ Attn: Contracts Dept
+ 380 New York Street
+ Redlands, California, USA 92373
+
+ email: contracts@esri.com
+ */
+
+package com.esri.core.geometry;
+
+import java.math.BigInteger;
+
+/**
+ * Formats doubles into a StringBuilder without intermediate objects.
+ *
+ * The shortest decimal that rounds back to the same double is found with
+ * the Schubfach algorithm (R. Giulietti, "The Schubfach way to render
+ * doubles", 2020). For the reduced precisions, those shortest digits are
+ * rounded half up, which is what java.util.Formatter does, so the output
+ * matches the "%.Ng" and "%.Nf" formats with the trailing zeros removed.
+ */
+final class DoubleToDecimal {
+	private static final int P = 53;
+	private static final int Q_MIN = -1074;
+	private static final long C_MIN = 1L << (P - 1);
+	private static final long C_TINY = 3;
+	private static final long T_MASK = (1L << (P - 1)) - 1;
+	private static final int BQ_MASK = 0x7ff;
+	private static final long MASK_63 = 0x7fffffffffffffffL;
+
+	private static final int K_MIN = -325;
+	private static final int K_MAX = 293;
+
+	// The 126 bit approximations g of 10^-k, split into two 63 bit halves.
+	private static final long[] G = createG_();
+
+	private static final long[] POW10 = new long[19];
+	static {
+		POW10[0] = 1;
+		for (int i = 1; i < POW10.length; i++)
+			POW10[i] = 10 * POW10[i - 1];
+	}
+
+	private DoubleToDecimal() {
+	}
+
+	/**
+	 * Appends the value with the given number of significant digits, like
+	 * "%.Ng" with the trailing zeros removed. The precision of 17 appends the
+	 * shortest digits that round trip.
+	 */
+	static void appendDouble(double value, int precision,
+			StringBuilder stringBuilder) {
+		if (precision < 1)
+			precision = 1;
+		else if (precision > 17)
+			precision = 17;
+
+		append_(value, precision, false, stringBuilder);
+	}
+
+	/**
+	 * Appends the value with the given number of decimals, like "%.Nf" with
+	 * the trailing zeros removed.
+	 */
+	static void appendDoubleF(double value, int decimals,
+			StringBuilder stringBuilder) {
+		if (decimals < 0)
+			decimals = 0;
+		else if (decimals > 17)
+			decimals = 17;
+
+		append_(value, decimals, true, stringBuilder);
+	}
+
+	private static void append_(double v, int precision, boolean bFixed,
+			StringBuilder sb) {
+		long bits = Double.doubleToRawLongBits(v);
+		long t = bits & T_MASK;
+		int bq = (int) (bits >>> (P - 1)) & BQ_MASK;
+		if (bq == BQ_MASK) {
+			if (t != 0)
+				sb.append("NaN");
+			else
+				sb.append(bits > 0 ? "Infinity" : "-Infinity");
+			return;
+		}
+
+		if (bits < 0)
+			sb.append('-');
+
+		if (bq != 0) {
+			int mq = -Q_MIN + 1 - bq;
+			long c = C_MIN | t;
+			if (0 < mq && mq < P) {
+				long f = c >> mq;
+				if (f << mq == c) {
+					format_(f, 0, precision, bFixed, sb);
+					return;
+				}
+			}
+			toDecimal_(-mq, c, 0, precision, bFixed, sb);
+		} else if (t != 0) {
+			if (t < C_TINY)
+				toDecimal_(Q_MIN, 10 * t, -1, precision, bFixed, sb);
+			else
+				toDecimal_(Q_MIN, t, 0, precision, bFixed, sb);
+		} else {
+			sb.append('0');
+		}
+	}
+
+	/**
+	 * Finds the shortest decimal in the rounding interval of c * 2^q.
+	 */
+	private static void toDecimal_(int q, long c, int dk, int precision,
+			boolean bFixed, StringBuilder sb) {
+		int out = (int) c & 0x1;
+		long cb = c << 2;
+		long cbr = cb + 2;
+		long cbl;
+		int k;
+		if (c != C_MIN || q == Q_MIN) {
+			cbl = cb - 2;
+			k = flog10pow2_(q);
+		} else {
+			cbl = cb - 1;
+			k = flog10threeQuartersPow2_(q);
+		}
+		int h = q + flog2pow10_(-k) + 2;
+
+		int index = (k - K_MIN) << 1;
+		long g1 = G[index];
+		long g0 = G[index + 1];
+
+		long vb = rop_(g1, g0, cb << h);
+		long vbl = rop_(g1, g0, cbl << h);
+		long vbr = rop_(g1, g0, cbr << h);
+
+		long s = vb >> 2;
+		if (s >= 100) {
+			long sp10 = s / 10 * 10;
+			long tp10 = sp10 + 10;
+			boolean upin = vbl + out <= sp10 << 2;
+			boolean wpin = (tp10 << 2) + out <= vbr;
+			if (upin != wpin) {
+				format_(upin ? sp10 : tp10, k, precision, bFixed, sb);
+				return;
+			}
+		}
+
+		long t = s + 1;
+		boolean uin = vbl + out <= s << 2;
+		boolean win = (t << 2) + out <= vbr;
+		if (uin != win) {
+			format_(uin ? s : t, k + dk, precision, bFixed, sb);
+			return;
+		}
+
+		long cmp = vb - ((s + t) << 1);
+		format_(cmp < 0 || cmp == 0 && (s & 0x1) == 0 ? s : t, k + dk,
+				precision, bFixed, sb);
+	}
+
+	/**
+	 * Rounds f * 10^e to the precision and appends it.
+	 */
+	private static void format_(long f, int e, int precision, boolean bFixed,
+			StringBuilder sb) {
+		while (f % 10 == 0) {
+			f /= 10;
+			e++;
+		}
+
+		int n = digitCount_(f);
+		int drop = bFixed ? -precision - e : n - precision;
+		if (drop > 0) {
+			if (drop > n) {
+				f = 0;
+			} else {
+				long divisor = POW10[drop];
+				long rem = f % divisor;
+				f /= divisor;
+				if (rem >= divisor - rem)
+					f++;
+			}
+
+			e += drop;
+			if (f == 0) {
+				sb.append('0');
+				return;
+			}
+
+			while (f % 10 == 0) {
+				f /= 10;
+				e++;
+			}
+			n = digitCount_(f);
+		}
+
+		// The exponent of the first digit
+		int exp = e + n - 1;
+		if (bFixed || (exp >= -4 && exp < precision)) {
+			if (exp < 0) {
+				sb.append("0.");
+				for (int i = exp + 1; i < 0; i++)
+					sb.append('0');
+				appendDigits_(f, n, sb);
+			} else if (e >= 0) {
+				appendDigits_(f, n, sb);
+				for (int i = 0; i < e; i++)
+					sb.append('0');
+			} else {
+				long scale = POW10[-e];
+				appendDigits_(f / scale, exp + 1, sb);
+				sb.append('.');
+				appendDigits_(f % scale, -e, sb);
+			}
+		} else {
+			appendDigits_(f / POW10[n - 1], 1, sb);
+			if (n > 1) {
+				sb.append('.');
+				appendDigits_(f % POW10[n - 1], n - 1, sb);
+			}
+
+			sb.append(exp < 0 ? "e-" : "e+");
+			int absExp = Math.abs(exp);
+			if (absExp < 10)
+				sb.append('0');
+			sb.append(absExp);
+		}
+	}
+
+	/**
+	 * Appends the count lowest digits of the value, with the leading zeros.
+	 */
+	private static void appendDigits_(long value, int count,
+			StringBuilder sb) {
+		int start = sb.length();
+		sb.setLength(start + count);
+		for (int i = start + count - 1; i >= start; i--) {
+			sb.setCharAt(i, (char) ('0' + value % 10));
+			value /= 10;
+		}
+	}
+
+	private static int digitCount_(long value) {
+		int n = 1;
+		while (n < 19 && value >= POW10[n])
+			n++;
+		return n;
+	}
+
+	private static long rop_(long g1, long g0, long cp) {
+		long x1 = multiplyHigh_(g0, cp);
+		long y0 = g1 * cp;
+		long y1 = multiplyHigh_(g1, cp);
+		long z = (y0 >>> 1) + x1;
+		long vbp = y1 + (z >>> 63);
+		return vbp | (((z & MASK_63) + MASK_63) >>> 63);
+	}
+
+	/**
+	 * The high 64 bits of the product of two non negative longs.
+	 */
+	private static long multiplyHigh_(long x, long y) {
+		long x0 = x & 0xffffffffL;
+		long x1 = x >>> 32;
+		long y0 = y & 0xffffffffL;
+		long y1 = y >>> 32;
+		long p01 = x0 * y1;
+		long p10 = x1 * y0;
+		long mid = ((x0 * y0) >>> 32) + (p01 & 0xffffffffL)
+				+ (p10 & 0xffffffffL);
+		return x1 * y1 + (p01 >>> 32) + (p10 >>> 32) + (mid >>> 32);
+	}
+
+	private static int flog10pow2_(int e) {
+		return (int) (e * 661971961083L >> 41);
+	}
+
+	private static int flog10threeQuartersPow2_(int e) {
+		return (int) (e * 661971961083L - 274743187321L >> 41);
+	}
+
+	private static int flog2pow10_(int e) {
+		return (int) (e * 913124641741L >> 38);
+	}
+
+	/**
+	 * For each k, 10^-k = beta * 2^r with 2^125 &lt;= beta &lt; 2^126, and
+	 * g = floor(beta) + 1.
+	 */
+	private static long[] createG_() {
+		long[] g = new long[(K_MAX - K_MIN + 1) << 1];
+		BigInteger mask63 = BigInteger.valueOf(MASK_63);
+		for (int k = K_MIN; k <= K_MAX; k++) {
+			int r = flog2pow10_(-k) - 125;
+			BigInteger num = BigInteger.ONE;
+			BigInteger den = BigInteger.ONE;
+			if (k < 0)
+				num = BigInteger.TEN.pow(-k);
+			else
+				den = BigInteger.TEN.pow(k);
+
+			if (r < 0)
+				num = num.shiftLeft(-r);
+			else
+				den = den.shiftLeft(r);
+
+			BigInteger value = num.divide(den).add(BigInteger.ONE);
+			int index = (k - K_MIN) << 1;
+			g[index] = value.shiftRight(63).longValue();
+			g[index + 1] = value.and(mask63).longValue();
+		}
+		return g;
+	}
+}
@@ -0,0 +1,478 @@
+/*
+ Copyright 1995-2019 Esri
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+
+ For additional information, contact:
+ Environmental Systems Research Institute, Inc.
+ Attn: Contracts Dept
+ 380 New York Street
+ Redlands, California, USA 92373
+
+ email: contracts@esri.com
+ */
+
+package com.esri.core.geometry;
+
+import java.util.HashMap;
+import java.util.Locale;
+
+/**
+ * The reference ellipsoid of a geographic coordinate system, together with
+ * the constants that are needed for geodetic calculations on it.
+ */
+final class Ellipsoid {
+	/**
+	 * The number of terms of the series that are used for the ellipsoidal
+	 * correction of the area. The terms are powers of the second eccentricity
+	 * squared, so ten terms are well below the double precision for any
+	 * terrestrial ellipsoid.
+	 */
+	private static final int AREA_SERIES_ORDER = 10;
+
+	static final Ellipsoid WGS84 = new Ellipsoid(6378137.0, 298.257223563);
+
+	private static final HashMap<Integer, Ellipsoid> m_gcsEllipsoids = new HashMap<Integer, Ellipsoid>();
+
+	static {
+		Ellipsoid grs80 = new Ellipsoid(6378137.0, 298.257222101);
+		int[] grs80Gcs = new int[] { 4019, 4258, 4269, 4283, 4490, 4612,
+				4617, 4674, 4759, 6668, 7844 };
+		for (int i = 0; i < grs80Gcs.length; i++)
+			m_gcsEllipsoids.put(grs80Gcs[i], grs80);
+
+		m_gcsEllipsoids.put(4326, WGS84);
+		m_gcsEllipsoids.put(4030, WGS84);
+		m_gcsEllipsoids.put(4322, new Ellipsoid(6378135.0, 298.26));
+		m_gcsEllipsoids.put(4267, new Ellipsoid(6378206.4, 294.9786982));
+		m_gcsEllipsoids.put(4230, new Ellipsoid(6378388.0, 297.0));
+		m_gcsEllipsoids.put(4277, new Ellipsoid(6377563.396, 299.3249646));
+		m_gcsEllipsoids.put(4301, new Ellipsoid(6377397.155, 299.1528128));
+		m_gcsEllipsoids.put(4047, new Ellipsoid(6371007.181, 0));
+	}
+
+	private final double m_a;
+	private final double m_e2;
+	private final double m_ep2;
+	private final double m_n;
+	private final double m_c2;
+	private final double[] m_areaCoefficients;
+
+	/**
+	 * Creates an ellipsoid from the semi-major axis and the inverse
+	 * flattening. An inverse flattening of zero creates a sphere.
+	 */
+	Ellipsoid(double a, double inverseFlattening) {
+		if (!(a > 0) || inverseFlattening < 0 || (inverseFlattening > 0 && inverseFlattening <= 1))
+			throw new IllegalArgumentException();
+
+		double f = inverseFlattening == 0 ? 0 : 1.0 / inverseFlattening;
+		m_a = a;
+		m_e2 = f * (2 - f);
+		m_ep2 = m_e2 / ((1 - f) * (1 - f));
+		m_n = f / (2 - f);
+		if (m_e2 == 0)
+			m_c2 = a * a;
+		else {
+			double e = Math.sqrt(m_e2);
+			double b2 = a * a * (1 - m_e2);
+			m_c2 = (a * a + b2 * (0.5 * Math.log((1 + e) / (1 - e))) / e) / 2;
+		}
+
+		m_areaCoefficients = areaCoefficients_(m_ep2);
+	}
+
+	/**
+	 * Returns the ellipsoid of the geographic coordinate system of the given
+	 * spatial reference. Web Mercator uses WGS84. Throws GeometryException
+	 * when the ellipsoid is not known.
+	 */
+	static Ellipsoid fromSpatialReference(SpatialReference sr) {
+		if (sr == null)
+			throw new IllegalArgumentException();
+
+		int wkid = sr.getLatestID();
+		if (ProjectionTransformation.isWebMercator_(wkid))
+			return WGS84;
+
+		Ellipsoid ellipsoid = m_gcsEllipsoids.get(wkid);
+		if (ellipsoid != null)
+			return ellipsoid;
+
+		if (wkid == 0) {
+			ellipsoid = fromWkt_(sr.getText());
+			if (ellipsoid != null)
+				return ellipsoid;
+		}
+
+		throw new GeometryException("not implemented");
+	}
+
+	/**
+	 * Returns true if the coordinates of the spatial reference are
+	 * longitudes and latitudes in degrees from Greenwich. Returns false for
+	 * the geographic coordinate systems in other angular units, such as the
+	 * gradians of the Paris based systems.
+	 */
+	static boolean isGeographic(SpatialReference sr) {
+		int wkid = sr.getLatestID();
+		if (wkid == 0) {
+			String wkt = sr.getText();
+			return wkt != null && isWktInDegrees_(wkt.toUpperCase(Locale.ENGLISH));
+		}
+
+		if (m_gcsEllipsoids.containsKey(wkid))
+			return true;
+
+		Integer index = Wkid.m_gcsToTol.get(wkid);
+		if (index == null)
+			return false;
+
+		// The tolerance table gives the systems in gradians the tolerance of
+		// 1e-8 degrees expressed in gradians.
+		double tolerance = Wkid.m_gcs_tolerances.get(index);
+		return Math.abs(tolerance / (1e-8 * 400 / 360) - 1) > 1e-4;
+	}
+
+	/**
+	 * Returns true for the well-known text of a geographic coordinate system
+	 * with the Greenwich prime meridian and the degree unit.
+	 */
+	private static boolean isWktInDegrees_(String text) {
+		if (!text.trim().startsWith("GEOGCS"))
+			return false;
+
+		int primem = text.indexOf("PRIMEM[");
+		int unit = text.indexOf("UNIT[", Math.max(primem, 0));
+		if (primem < 0 || unit < 0)
+			return false;
+
+		try {
+			double longitude = Double.parseDouble(wktParameter_(text, primem));
+			double factor = Double.parseDouble(wktParameter_(text, unit));
+			return longitude == 0
+					&& Math.abs(factor * 180 / Math.PI - 1) < 1e-10;
+		} catch (IllegalArgumentException e) {
+			return false;
+		}
+	}
+
+	// Returns the number after the name of the WKT element at the index.
+	private static String wktParameter_(String text, int index) {
+		int start = text.indexOf(',', index);
+		int end = text.indexOf(']', index);
+		if (start < 0 || end < start)
+			throw new IllegalArgumentException();
+
+		int comma = text.indexOf(',', start + 1);
+		if (comma >= 0 && comma < end)
+			end = comma;
+
+		return text.substring(start + 1, end).trim();
+	}
+
+	/**
+	 * Reads the SPHEROID of a geographic coordinate system well-known text.
+	 * Returns null for projected coordinate systems, for the systems that
+	 * are not in degrees from Greenwich and when the text cannot be read.
+	 */
+	private static Ellipsoid fromWkt_(String wkt) {
+		if (wkt == null)
+			return null;
+
+		String text = wkt.toUpperCase(Locale.ENGLISH);
+		if (!isWktInDegrees_(text))
+			return null;
+
+		int i = text.indexOf("SPHEROID[");
+		if (i < 0)
+			return null;
+
+		String[] parts = text.substring(i + 9, text.indexOf(']', i)).split(",");
+		if (parts.length < 3)
+			return null;
+
+		try {
+			return new Ellipsoid(Double.parseDouble(parts[1].trim()),
+					Double.parseDouble(parts[2].trim()));
+		} catch (IllegalArgumentException e) {
+			return null;
+		}
+	}
+
+	double getSemiMajorAxis() {
+		return m_a;
+	}
+
+	double getEccentricitySquared() {
+		return m_e2;
+	}
+
+	/**
+	 * Returns the square of the radius of the sphere with the same area.
+	 */
+	double getAuthalicRadiusSquared() {
+		return m_c2;
+	}
+
+	/**
+	 * Returns the area of the ellipsoid.
+	 */
+	double getArea() {
+		return 4 * Math.PI * m_c2;
+	}
+
+	/**
+	 * Returns the distance along the meridian from the equator to the given
+	 * latitude in radians.
+	 */
+	double meridianDistance(double phi) {
+		double n = m_n;
+		double n2 = n * n;
+		return m_a / (1 + n) * ((1 + n2 / 4 + n2 * n2 / 64) * phi
+				- 1.5 * (n - n * n2 / 8) * Math.sin(2 * phi)
+				+ 15.0 / 16.0 * (n2 - n2 * n2 / 4) * Math.sin(4 * phi)
+				- 35.0 / 48.0 * n * n2 * Math.sin(6 * phi)
+				+ 315.0 / 512.0 * n2 * n2 * Math.sin(8 * phi));
+	}
+
+	/**
+	 * Returns the latitude in radians where the meridian distance from the
+	 * equator is m.
+	 */
+	double latitudeFromMeridianDistance(double m) {
+		double phi = m / meridianDistance(Math.PI / 2) * (Math.PI / 2);
+		for (int i = 0; i < 10; i++) {
+			double d = (meridianDistance(phi) - m) / meridianRadius(phi);
+			phi -= d;
+			if (Math.abs(d) < 1e-15)
+				break;
+		}
+
+		return phi;
+	}
+
+	/**
+	 * Returns the radius of curvature of the meridian at the given latitude in
+	 * radians.
+	 */
+	double meridianRadius(double phi) {
+		double s = Math.sin(phi);
+		double w = 1 - m_e2 * s * s;
+		return m_a * (1 - m_e2) / (w * Math.sqrt(w));
+	}
+
+	/**
+	 * Returns the isometric latitude of the given latitude in radians.
+	 */
+	double isometricLatitude(double phi) {
+		double e = Math.sqrt(m_e2);
+		double es = e * Math.sin(phi);
+		return Math.log(Math.tan(Math.PI / 4 + phi / 2)
+				* Math.pow((1 - es) / (1 + es), e / 2));
+	}
+
+	/**
+	 * Returns the radius of the parallel at the given latitude in radians.
+	 */
+	double parallelRadius(double phi) {
+		double s = Math.sin(phi);
+		return m_a * Math.cos(phi) / Math.sqrt(1 - m_e2 * s * s);
+	}
+
+	/**
+	 * Returns the length of the loxodrome from the latitude phi1 to the
+	 * latitude phi2 with the longitude difference lam12, all in radians. The
+	 * loxodrome is a straight line on the Mercator projection, so its length
+	 * is the meridian distance divided by the cosine of the constant azimuth.
+	 */
+	double loxodromeLength(double lam12, double phi1, double phi2) {
+		double dpsi = isometricLatitude(phi2) - isometricLatitude(phi1);
+		double dm = meridianDistance(phi2) - meridianDistance(phi1);
+		if (Math.abs(dpsi) < 1e-12)
+			return Math.abs(lam12) * parallelRadius(0.5 * (phi1 + phi2));
+
+		if (Double.isInfinite(dpsi) || Double.isNaN(dpsi))
+			return Math.abs(dm);
+
+		return Math.abs(dm) * Math.sqrt(1 + (lam12 / dpsi) * (lam12 / dpsi));
+	}
+
+	/**
+	 * Returns the area between the geodesic from (lam1, phi1) with the
+	 * azimuth az1 to (lam1 + lam12, phi2) with the forward azimuth az2 and
+	 * the equator. The area is positive for a geodesic that goes east in the
+	 * northern hemisphere. All angles are in radians.
+	 * 
+	 * The area is c^2 * (az2 - az1) plus a correction for the flattening
+	 * (Karney, Algorithms for geodesics, 2013, eq. 58 and 59). The azimuths
+	 * of an inverse solution are not accurate enough for short edges, so
+	 * az2 - az1 is computed from the end points on the auxiliary sphere like
+	 * in GeographicLib, and the integrals are evaluated over the arc length
+	 * of the edge instead of at its ends.
+	 */
+	double geodesicEdgeArea(double phi1, double phi2, double lam12,
+			double az1, double az2) {
+		double salp1 = Math.sin(az1), calp1 = Math.cos(az1);
+		double salp2 = Math.sin(az2), calp2 = Math.cos(az2);
+		if (m_e2 == 0) {
+			return m_c2 * auxiliaryAzimuthDifference_(Math.sin(phi1),
+					Math.cos(phi1), Math.sin(phi2), Math.cos(phi2), lam12,
+					salp1, calp1, salp2, calp2);
+		}
+
+		// Reduced latitudes and the arc lengths from the equator crossing on
+		// the auxiliary sphere.
+		double boa = Math.sqrt(1 - m_e2);
+		double f = 1 - boa;
+		double sbet1 = boa * Math.sin(phi1), cbet1 = Math.cos(phi1);
+		double r = Math.hypot(sbet1, cbet1);
+		sbet1 /= r;
+		cbet1 /= r;
+		double sbet2 = boa * Math.sin(phi2), cbet2 = Math.cos(phi2);
+		r = Math.hypot(sbet2, cbet2);
+		sbet2 /= r;
+		cbet2 /= r;
+
+		double salp0 = salp1 * cbet1;
+		double calp0 = Math.hypot(calp1, salp1 * sbet1);
+		double k2 = calp0 * calp0 * m_ep2;
+		double sig1 = Math.atan2(sbet1, calp1 * cbet1);
+		double sig2 = Math.atan2(sbet2, calp2 * cbet2);
+		double sig12 = sig2 - sig1;
+		if (sig12 < 0)
+			sig12 += 2 * Math.PI;
+		double sigm = sig1 + 0.5 * sig12;
+
+		// The longitude difference on the auxiliary sphere (eq. 8), and the
+		// arc length from it. Two passes converge because the correction is
+		// scaled by the flattening.
+		double omg12 = lam12;
+		double bet12 = Math.atan2(sbet2, cbet2) - Math.atan2(sbet1, cbet1);
+		for (int i = 0; i < 2; i++) {
+			omg12 = lam12 + f * salp0 * sig12
+					* gaussLegendre_(sigm, sig12, k2, f, true);
+			double sb = Math.sin(0.5 * bet12);
+			double so = Math.sin(0.5 * omg12);
+			double h = sb * sb + cbet1 * cbet2 * so * so;
+			if (h >= 0.5)
+				break; // long edge, keep the arc length of the azimuths
+
+			sig12 = 2 * Math.asin(Math.sqrt(h));
+		}
+
+		double area = m_c2
+				* auxiliaryAzimuthDifference_(sbet1, cbet1, sbet2, cbet2,
+						omg12, salp1, calp1, salp2, calp2);
+		if (salp0 == 0 || calp0 == 0)
+			return area;
+
+		double i4 = -sig12 * gaussLegendre_(sigm, sig12, k2, f, false);
+		return area + m_a * m_a * m_e2 * calp0 * salp0 * i4;
+	}
+
+	private static double auxiliaryAzimuthDifference_(double sbet1,
+			double cbet1, double sbet2, double cbet2, double omg12,
+			double salp1, double calp1, double salp2, double calp2) {
+		double somg12 = Math.sin(omg12), comg12 = Math.cos(omg12);
+		if (comg12 > -0.7071 && sbet2 - sbet1 < 1.75) {
+			// tan(alp12 / 2) = tan(omg12 / 2) * (tan(bet1 / 2) + tan(bet2 /
+			// 2)) / (1 + tan(bet1 / 2) * tan(bet2 / 2))
+			double domg12 = 1 + comg12, dbet1 = 1 + cbet1, dbet2 = 1 + cbet2;
+			return 2 * Math.atan2(somg12 * (sbet1 * dbet2 + sbet2 * dbet1),
+					domg12 * (sbet1 * sbet2 + dbet1 * dbet2));
+		}
+
+		return Math.atan2(salp2 * calp1 - calp2 * salp1, calp2 * calp1 + salp2
+				* salp1);
+	}
+
+	private static final double[] GL_NODES = new double[] {
+			0.1834346424956498, 0.5255324099163290, 0.7966664774136267,
+			0.9602898564975363 };
+	private static final double[] GL_WEIGHTS = new double[] {
+			0.3626837833783620, 0.3137066458778873, 0.2223810344533745,
+			0.1012285362903763 };
+
+	/**
+	 * Returns the mean over the arc from sigm - sig12 / 2 to sigm + sig12 / 2
+	 * of the I3 integrand (2 - f) / (1 + (1 - f) * sqrt(1 + k2 * sin^2)) or
+	 * of the I4 integrand q(k2 * sin^2) * sin / 2, using eight point
+	 * Gauss-Legendre quadrature.
+	 */
+	private double gaussLegendre_(double sigm, double sig12, double k2,
+			double f, boolean i3) {
+		double sum = 0;
+		for (int i = 0; i < GL_NODES.length; i++) {
+			for (int sign = -1; sign <= 1; sign += 2) {
+				double s = Math.sin(sigm + sign * 0.5 * sig12 * GL_NODES[i]);
+				double y = k2 * s * s;
+				double value;
+				if (i3)
+					value = (2 - f) / (1 + (1 - f) * Math.sqrt(1 + y));
+				else {
+					double[] d = m_areaCoefficients;
+					double q = d[d.length - 1];
+					for (int m = d.length - 2; m >= 0; m--)
+						q = q * y + d[m];
+					value = 0.5 * q * s;
+				}
+
+				sum += GL_WEIGHTS[i] * value;
+			}
+		}
+
+		return 0.5 * sum;
+	}
+
+	/**
+	 * The I4 integrand is (t(ep2) - t(y)) / (ep2 - y) * sin(sigma) / 2, with
+	 * y = k2 * sin(sigma)^2 and t(x) = x + sqrt(1 + 1 / x) * asinh(sqrt(x))
+	 * (eq. 59). Expanding t in a power series turns the quotient q(y) into a
+	 * polynomial in y. Returns its coefficients.
+	 */
+	private static double[] areaCoefficients_(double ep2) {
+		int order = AREA_SERIES_ORDER;
+		// sqrt(1 + x) and asinh(sqrt(x)) / sqrt(x)
+		double[] s = new double[order + 1];
+		double[] a = new double[order + 1];
+		s[0] = 1;
+		a[0] = 1;
+		double factor = 1;
+		for (int n = 1; n <= order; n++) {
+			s[n] = s[n - 1] * (1.5 - n) / n;
+			factor *= -(2.0 * n - 1) / (2.0 * n);
+			a[n] = factor / (2 * n + 1);
+		}
+
+		double[] t = new double[order + 1];
+		for (int n = 0; n <= order; n++) {
+			for (int i = 0; i <= n; i++)
+				t[n] += s[i] * a[n - i];
+		}
+		t[1] += 1;
+
+		double[] d = new double[order];
+		for (int m = 0; m < order; m++) {
+			double sum = 0;
+			double pow = 1;
+			for (int n = m + 1; n <= order; n++) {
+				sum += t[n] * pow;
+				pow *= ep2;
+			}
+			d[m] = sum;
+		}
+
+		return d;
+	}
+}
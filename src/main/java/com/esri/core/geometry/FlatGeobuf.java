@@ -0,0 +1,840 @@
+/*
+ Copyright 1995-2019 Esri
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+
+ For additional information, contact:
+ Environmental Systems Research Institute, Inc.
+ Attn: Contracts Dept
+ 380 New York Street
+ Redlands, California, USA 92373
+
+ email: contracts@esri.com
+ */
+
+package com.esri.core.geometry;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.Charset;
+
+/**
+ * The FlatGeobuf format helpers shared by the FlatGeobufReader and the
+ * FlatGeobufWriter.
+ * 
+ * The header and the features are FlatBuffers tables. Only the tables and
+ * fields of the FlatGeobuf schema that hold geometries are encoded here.
+ * The geometries are translated to and from WKB, so that the WKB operators
+ * define the mapping between the OGC and the Esri geometries.
+ */
+final class FlatGeobuf {
+	static final byte[] MAGIC = { 0x66, 0x67, 0x62, 0x03, 0x66, 0x67, 0x62,
+			0x00 };
+	static final int NODE_ITEM_SIZE = 40;
+	static final int DEFAULT_NODE_SIZE = 16;
+
+	static final Charset UTF8 = Charset.forName("UTF-8");
+
+	// The GeometryType enum of the schema
+	static final int Unknown = 0;
+	static final int Point = 1;
+	static final int LineString = 2;
+	static final int Polygon = 3;
+	static final int MultiPoint = 4;
+	static final int MultiLineString = 5;
+	static final int MultiPolygon = 6;
+
+	// The fields of the Header table
+	static final int HEADER_ENVELOPE = 1;
+	static final int HEADER_GEOMETRY_TYPE = 2;
+	static final int HEADER_HAS_Z = 3;
+	static final int HEADER_HAS_M = 4;
+	static final int HEADER_FEATURES_COUNT = 8;
+	static final int HEADER_INDEX_NODE_SIZE = 9;
+	static final int HEADER_CRS = 10;
+	static final int HEADER_FIELD_COUNT = 11;
+
+	// The fields of the Crs table
+	static final int CRS_ORG = 0;
+	static final int CRS_CODE = 1;
+	static final int CRS_FIELD_COUNT = 2;
+
+	// The fields of the Feature table
+	static final int FEATURE_GEOMETRY = 0;
+	static final int FEATURE_FIELD_COUNT = 1;
+
+	// The fields of the Geometry table
+	static final int GEOMETRY_ENDS = 0;
+	static final int GEOMETRY_XY = 1;
+	static final int GEOMETRY_Z = 2;
+	static final int GEOMETRY_M = 3;
+	static final int GEOMETRY_TYPE = 6;
+	static final int GEOMETRY_PARTS = 7;
+	static final int GEOMETRY_FIELD_COUNT = 8;
+
+	private FlatGeobuf() {
+	}
+
+	/**
+	 * Writes a size prefixed FlatBuffer front to back. The objects are
+	 * written after the tables that refer to them, so that the offsets are
+	 * positive, and the references are set when the objects are written.
+	 */
+	static final class Builder {
+		private ByteBuffer m_buffer;
+		private int m_pos;
+
+		Builder() {
+			m_buffer = ByteBuffer.allocate(1024).order(ByteOrder.LITTLE_ENDIAN);
+			m_pos = 0;
+		}
+
+		/**
+		 * Starts a buffer. The size prefix and the root offset are written at
+		 * finish.
+		 */
+		void start() {
+			m_pos = 0;
+			reserve_(8);
+		}
+
+		/**
+		 * Sets the root table and the size prefix.
+		 */
+		void finish(int root) {
+			pad_(8, 0);
+			m_buffer.putInt(0, m_pos - 4);
+			setReference(4, root);
+		}
+
+		ByteBuffer getBuffer() {
+			return m_buffer;
+		}
+
+		int size() {
+			return m_pos;
+		}
+
+		/**
+		 * Writes a table with its vtable. The sizes are the inline sizes of
+		 * the fields, 0 for the absent ones. The positions of the fields are
+		 * stored to fieldOffsets. The fields are zero.
+		 */
+		int table(int[] sizes, int[] fieldOffsets) {
+			int fieldCount = 0;
+			boolean bHas8 = false;
+			for (int i = 0; i < sizes.length; i++) {
+				fieldOffsets[i] = 0;
+				if (sizes[i] > 0)
+					fieldCount = i + 1;
+				if (sizes[i] == 8)
+					bHas8 = true;
+			}
+
+			int tableSize = bHas8 ? 8 : 4;
+			for (int s = 8; s >= 1; s >>= 1) {
+				for (int i = 0; i < fieldCount; i++) {
+					if (sizes[i] == s) {
+						fieldOffsets[i] = tableSize;
+						tableSize += s;
+					}
+				}
+			}
+			tableSize = (tableSize + 3) & ~3;
+
+			pad_(2, 0);
+			int vtable = m_pos;
+			reserve_(4 + 2 * fieldCount);
+			m_buffer.putShort(vtable, (short) (4 + 2 * fieldCount));
+			m_buffer.putShort(vtable + 2, (short) tableSize);
+			for (int i = 0; i < fieldCount; i++)
+				m_buffer.putShort(vtable + 4 + 2 * i, (short) fieldOffsets[i]);
+
+			pad_(bHas8 ? 8 : 4, 0);
+			int table = m_pos;
+			reserve_(tableSize);
+			m_buffer.putInt(table, table - vtable);
+			for (int i = 0; i < fieldCount; i++) {
+				if (fieldOffsets[i] != 0)
+					fieldOffsets[i] += table;
+			}
+			return table;
+		}
+
+		void putByte(int pos, int value) {
+			m_buffer.put(pos, (byte) value);
+		}
+
+		void putShort(int pos, int value) {
+			m_buffer.putShort(pos, (short) value);
+		}
+
+		void putInt(int pos, int value) {
+			m_buffer.putInt(pos, value);
+		}
+
+		void putLong(int pos, long value) {
+			m_buffer.putLong(pos, value);
+		}
+
+		/**
+		 * Points the offset at the location to the object.
+		 */
+		void setReference(int location, int object) {
+			m_buffer.putInt(location, object - location);
+		}
+
+		int doubles(double[] values, int start, int count) {
+			pad_(8, 4);
+			int vector = m_pos;
+			reserve_(4 + 8 * count);
+			m_buffer.putInt(vector, count);
+			for (int i = 0; i < count; i++)
+				m_buffer.putDouble(vector + 4 + 8 * i, values[start + i]);
+			return vector;
+		}
+
+		int uints(int[] values, int start, int count, int bias) {
+			pad_(4, 0);
+			int vector = m_pos;
+			reserve_(4 + 4 * count);
+			m_buffer.putInt(vector, count);
+			for (int i = 0; i < count; i++)
+				m_buffer.putInt(vector + 4 + 4 * i, values[start + i] - bias);
+			return vector;
+		}
+
+		/**
+		 * Writes a vector of offsets. The element i is at vector + 4 + 4 * i.
+		 */
+		int references(int count) {
+			pad_(4, 0);
+			int vector = m_pos;
+			reserve_(4 + 4 * count);
+			m_buffer.putInt(vector, count);
+			return vector;
+		}
+
+		int string(String value) {
+			byte[] bytes = value.getBytes(UTF8);
+			pad_(4, 0);
+			int vector = m_pos;
+			reserve_(4 + bytes.length + 1);
+			m_buffer.putInt(vector, bytes.length);
+			for (int i = 0; i < bytes.length; i++)
+				m_buffer.put(vector + 4 + i, bytes[i]);
+			return vector;
+		}
+
+		private void pad_(int alignment, int extra) {
+			int padding = (alignment - (m_pos + extra) % alignment) % alignment;
+			reserve_(padding);
+		}
+
+		private void reserve_(int count) {
+			if (m_pos + count > m_buffer.capacity()) {
+				ByteBuffer buffer = ByteBuffer.allocate(
+						Math.max(m_pos + count, 2 * m_buffer.capacity()))
+						.order(ByteOrder.LITTLE_ENDIAN);
+				m_buffer.limit(m_pos);
+				m_buffer.position(0);
+				buffer.put(m_buffer);
+				m_buffer.clear();
+				m_buffer = buffer;
+			}
+
+			for (int i = 0; i < count; i++)
+				m_buffer.put(m_pos + i, (byte) 0);
+			m_pos += count;
+		}
+	}
+
+	/**
+	 * Returns the position of the table field, or 0 when the field is
+	 * absent.
+	 */
+	static int field(ByteBuffer buffer, int table, int index) {
+		int vtable = table - buffer.getInt(table);
+		int vtableSize = buffer.getShort(vtable) & 0xFFFF;
+		int offset = 4 + 2 * index;
+		if (offset >= vtableSize)
+			return 0;
+
+		int fieldOffset = buffer.getShort(vtable + offset) & 0xFFFF;
+		return fieldOffset != 0 ? table + fieldOffset : 0;
+	}
+
+	/**
+	 * Returns the object the offset at the position refers to, or 0 for an
+	 * absent field.
+	 */
+	static int reference(ByteBuffer buffer, int pos) {
+		if (pos == 0)
+			return 0;
+
+		return pos + buffer.getInt(pos);
+	}
+
+	static int vectorLength(ByteBuffer buffer, int vector) {
+		return vector != 0 ? buffer.getInt(vector) : 0;
+	}
+
+	static String string(ByteBuffer buffer, int vector) {
+		if (vector == 0)
+			return null;
+
+		byte[] bytes = new byte[buffer.getInt(vector)];
+		for (int i = 0; i < bytes.length; i++)
+			bytes[i] = buffer.get(vector + 4 + i);
+
+		return new String(bytes, UTF8);
+	}
+
+	static int geometryType(Geometry.Type type) {
+		switch (type.value()) {
+		case Geometry.GeometryType.Point:
+			return Point;
+		case Geometry.GeometryType.MultiPoint:
+			return MultiPoint;
+		case Geometry.GeometryType.Polyline:
+			return MultiLineString;
+		case Geometry.GeometryType.Polygon:
+			return MultiPolygon;
+		default:
+			throw new IllegalArgumentException("invalid geometry type");
+		}
+	}
+
+	static Geometry.Type geometryType(int type) {
+		switch (type) {
+		case Unknown:
+			return Geometry.Type.Unknown;
+		case Point:
+			return Geometry.Type.Point;
+		case MultiPoint:
+			return Geometry.Type.MultiPoint;
+		case LineString:
+		case MultiLineString:
+			return Geometry.Type.Polyline;
+		case Polygon:
+		case MultiPolygon:
+			return Geometry.Type.Polygon;
+		default:
+			throw new GeometryException("invalid shape type");
+		}
+	}
+
+	/**
+	 * Translates the WKB geometries to the Geometry tables of the features.
+	 */
+	static final class GeometryEncoder {
+		private final int m_type;
+		private final boolean m_bHasZs;
+		private final boolean m_bHasMs;
+		private double[] m_xy = new double[64];
+		private double[] m_zs = new double[32];
+		private double[] m_ms = new double[32];
+		private int[] m_ends = new int[8];
+		private int[] m_parts = new int[8];// the first ring of each polygon
+		private int m_pointCount;
+		private int m_endCount;
+		private int m_partCount;
+		private final int[] m_featureFields = new int[FEATURE_FIELD_COUNT];
+		private final int[] m_geometryFields = new int[GEOMETRY_FIELD_COUNT];
+		private final int[] m_sizes = new int[GEOMETRY_FIELD_COUNT];
+
+		GeometryEncoder(int type, boolean bHasZs, boolean bHasMs) {
+			m_type = type;
+			m_bHasZs = bHasZs;
+			m_bHasMs = bHasMs;
+		}
+
+		/**
+		 * Writes the feature for the WKB geometry to the builder.
+		 */
+		void encodeFeature(ByteBuffer wkb, Builder builder) {
+			m_pointCount = 0;
+			m_endCount = 0;
+			m_partCount = 0;
+			readWkb_(wkb, 0);
+
+			builder.start();
+			int feature = builder.table(new int[] { 4 }, m_featureFields);
+			int geometry;
+			if (m_type == MultiPolygon && m_partCount > 0) {
+				geometry = writeGeometry_(builder, MultiPolygon, 0, 0, 0, 0,
+						true);
+				int partsField = m_geometryFields[GEOMETRY_PARTS];
+				int parts = builder.references(m_partCount);
+				builder.setReference(partsField, parts);
+				for (int i = 0; i < m_partCount; i++) {
+					int firstRing = m_parts[i];
+					int lastRing = i + 1 < m_partCount ? m_parts[i + 1]
+							: m_endCount;
+					int start = firstRing > 0 ? m_ends[firstRing - 1] : 0;
+					int end = m_ends[lastRing - 1];
+					int part = writeGeometry_(builder, Polygon, start, end,
+							firstRing, lastRing, false);
+					builder.setReference(parts + 4 + 4 * i, part);
+				}
+			} else {
+				geometry = writeGeometry_(builder, m_type, 0, m_pointCount, 0,
+						m_endCount, false);
+			}
+
+			builder.setReference(m_featureFields[FEATURE_GEOMETRY], geometry);
+			builder.finish(feature);
+		}
+
+		private int writeGeometry_(Builder builder, int type, int start,
+				int end, int firstRing, int lastRing, boolean bParts) {
+			int count = end - start;
+			boolean bEnds = lastRing - firstRing > 1;
+			m_sizes[GEOMETRY_ENDS] = bEnds ? 4 : 0;
+			m_sizes[GEOMETRY_XY] = count > 0 ? 4 : 0;
+			m_sizes[GEOMETRY_Z] = count > 0 && m_bHasZs ? 4 : 0;
+			m_sizes[GEOMETRY_M] = count > 0 && m_bHasMs ? 4 : 0;
+			m_sizes[GEOMETRY_TYPE] = 1;
+			m_sizes[GEOMETRY_PARTS] = bParts ? 4 : 0;
+			int geometry = builder.table(m_sizes, m_geometryFields);
+			builder.putByte(m_geometryFields[GEOMETRY_TYPE], type);
+			if (bEnds) {
+				int ends = builder.uints(m_ends, firstRing, lastRing
+						- firstRing, start);
+				builder.setReference(m_geometryFields[GEOMETRY_ENDS], ends);
+			}
+
+			if (count > 0) {
+				int xy = builder.doubles(m_xy, 2 * start, 2 * count);
+				builder.setReference(m_geometryFields[GEOMETRY_XY], xy);
+				if (m_bHasZs) {
+					int zs = builder.doubles(m_zs, start, count);
+					builder.setReference(m_geometryFields[GEOMETRY_Z], zs);
+				}
+				if (m_bHasMs) {
+					int ms = builder.doubles(m_ms, start, count);
+					builder.setReference(m_geometryFields[GEOMETRY_M], ms);
+				}
+			}
+
+			return geometry;
+		}
+
+		private int readWkb_(ByteBuffer wkb, int offset) {
+			wkb.order(wkb.get(offset) == WkbByteOrder.wkbNDR ? ByteOrder.LITTLE_ENDIAN
+					: ByteOrder.BIG_ENDIAN);
+			int wkbType = wkb.getInt(offset + 1);
+			int dims = wkbType / 1000;
+			boolean bZs = dims == 1 || dims == 3;
+			boolean bMs = dims == 2 || dims == 3;
+			offset += 5;
+			switch (wkbType % 1000) {
+			case WkbGeometryType.wkbPoint:
+				return readPoint_(wkb, offset, bZs, bMs);
+			case WkbGeometryType.wkbLineString: {
+				int count = wkb.getInt(offset);
+				offset += 4;
+				for (int i = 0; i < count; i++)
+					offset = readPoint_(wkb, offset, bZs, bMs);
+				addEnd_();
+				return offset;
+			}
+			case WkbGeometryType.wkbPolygon: {
+				addPart_();
+				int ringCount = wkb.getInt(offset);
+				offset += 4;
+				for (int ring = 0; ring < ringCount; ring++) {
+					int count = wkb.getInt(offset);
+					offset += 4;
+					for (int i = 0; i < count; i++)
+						offset = readPoint_(wkb, offset, bZs, bMs);
+					addEnd_();
+				}
+				return offset;
+			}
+			case WkbGeometryType.wkbMultiPoint:
+			case WkbGeometryType.wkbMultiLineString:
+			case WkbGeometryType.wkbMultiPolygon: {
+				int count = wkb.getInt(offset);
+				offset += 4;
+				for (int i = 0; i < count; i++)
+					offset = readWkb_(wkb, offset);
+				return offset;
+			}
+			default:
+				throw new GeometryException("invalid shape type");
+			}
+		}
+
+		private int readPoint_(ByteBuffer wkb, int offset, boolean bZs,
+				boolean bMs) {
+			if (2 * m_pointCount + 2 > m_xy.length) {
+				m_xy = grow_(m_xy, 2 * m_pointCount + 2);
+				m_zs = grow_(m_zs, m_pointCount + 1);
+				m_ms = grow_(m_ms, m_pointCount + 1);
+			}
+
+			double x = wkb.getDouble(offset);
+			double y = wkb.getDouble(offset + 8);
+			offset += 16;
+			double z = NumberUtils.NaN();
+			double m = NumberUtils.NaN();
+			if (bZs) {
+				z = wkb.getDouble(offset);
+				offset += 8;
+			}
+			if (bMs) {
+				m = wkb.getDouble(offset);
+				offset += 8;
+			}
+
+			// The empty point is exported with NaN coordinates.
+			if (!NumberUtils.isNaN(x)) {
+				m_xy[2 * m_pointCount] = x;
+				m_xy[2 * m_pointCount + 1] = y;
+				m_zs[m_pointCount] = z;
+				m_ms[m_pointCount] = m;
+				m_pointCount++;
+			}
+
+			return offset;
+		}
+
+		private void addEnd_() {
+			if (m_endCount == m_ends.length)
+				m_ends = grow_(m_ends, m_endCount + 1);
+
+			m_ends[m_endCount++] = m_pointCount;
+		}
+
+		private void addPart_() {
+			if (m_partCount == m_parts.length)
+				m_parts = grow_(m_parts, m_partCount + 1);
+
+			m_parts[m_partCount++] = m_endCount;
+		}
+	}
+
+	/**
+	 * Translates the Geometry tables of the features to WKB.
+	 */
+	static final class GeometryDecoder {
+		private final int m_type;
+		private final boolean m_bHasZs;
+		private final boolean m_bHasMs;
+		private final int m_dims;
+		private ByteBuffer m_wkb;
+		private int m_pos;
+
+		GeometryDecoder(int type, boolean bHasZs, boolean bHasMs) {
+			m_type = type;
+			m_bHasZs = bHasZs;
+			m_bHasMs = bHasMs;
+			m_dims = bHasZs ? (bHasMs ? 3000 : 1000) : (bHasMs ? 2000 : 0);
+			m_wkb = ByteBuffer.allocate(1024).order(ByteOrder.LITTLE_ENDIAN);
+		}
+
+		/**
+		 * Returns the WKB of the feature geometry at the start of the
+		 * returned buffer, or null when the feature has no geometry.
+		 * @param feature The size prefixed feature.
+		 */
+		ByteBuffer decodeFeature(ByteBuffer feature) {
+			feature.order(ByteOrder.LITTLE_ENDIAN);
+			int table = reference(feature, 4);
+			int geometry = reference(feature,
+					field(feature, table, FEATURE_GEOMETRY));
+			if (geometry == 0)
+				return null;
+
+			m_pos = 0;
+			writeGeometry_(feature, geometry, type_(feature, geometry, m_type));
+			return m_wkb;
+		}
+
+		private static int type_(ByteBuffer buffer, int geometry,
+				int defaultType) {
+			int typeField = field(buffer, geometry, GEOMETRY_TYPE);
+			return typeField != 0 ? buffer.get(typeField) & 0xFF : defaultType;
+		}
+
+		private void writeGeometry_(ByteBuffer buffer, int geometry, int type) {
+			int xy = reference(buffer, field(buffer, geometry, GEOMETRY_XY));
+			int zs = reference(buffer, field(buffer, geometry, GEOMETRY_Z));
+			int ms = reference(buffer, field(buffer, geometry, GEOMETRY_M));
+			int ends = reference(buffer,
+					field(buffer, geometry, GEOMETRY_ENDS));
+			int pointCount = vectorLength(buffer, xy) / 2;
+			int endCount = vectorLength(buffer, ends);
+
+			switch (type) {
+			case Point:
+				writeHeader_(WkbGeometryType.wkbPoint);
+				if (pointCount == 0)
+					writeEmptyPoint_();
+				else
+					writePoints_(buffer, xy, zs, ms, 0, 1);
+				break;
+			case MultiPoint:
+				writeHeader_(WkbGeometryType.wkbMultiPoint);
+				writeInt_(pointCount);
+				for (int i = 0; i < pointCount; i++) {
+					writeHeader_(WkbGeometryType.wkbPoint);
+					writePoints_(buffer, xy, zs, ms, i, i + 1);
+				}
+				break;
+			case LineString:
+				writeHeader_(WkbGeometryType.wkbLineString);
+				writeInt_(pointCount);
+				writePoints_(buffer, xy, zs, ms, 0, pointCount);
+				break;
+			case MultiLineString:
+				writeHeader_(WkbGeometryType.wkbMultiLineString);
+				if (pointCount == 0) {
+					writeInt_(0);
+					break;
+				}
+
+				if (endCount == 0) {
+					writeInt_(1);
+					writeHeader_(WkbGeometryType.wkbLineString);
+					writeInt_(pointCount);
+					writePoints_(buffer, xy, zs, ms, 0, pointCount);
+					break;
+				}
+
+				writeInt_(endCount);
+				for (int i = 0, start = 0; i < endCount; i++) {
+					int end = buffer.getInt(ends + 4 + 4 * i);
+					writeHeader_(WkbGeometryType.wkbLineString);
+					writeInt_(end - start);
+					writePoints_(buffer, xy, zs, ms, start, end);
+					start = end;
+				}
+				break;
+			case Polygon:
+				writeHeader_(WkbGeometryType.wkbPolygon);
+				if (pointCount == 0) {
+					writeInt_(0);
+					break;
+				}
+
+				if (endCount == 0) {
+					writeInt_(1);
+					writeInt_(pointCount);
+					writePoints_(buffer, xy, zs, ms, 0, pointCount);
+					break;
+				}
+
+				writeInt_(endCount);
+				for (int i = 0, start = 0; i < endCount; i++) {
+					int end = buffer.getInt(ends + 4 + 4 * i);
+					writeInt_(end - start);
+					writePoints_(buffer, xy, zs, ms, start, end);
+					start = end;
+				}
+				break;
+			case MultiPolygon: {
+				int parts = reference(buffer,
+						field(buffer, geometry, GEOMETRY_PARTS));
+				int partCount = vectorLength(buffer, parts);
+				writeHeader_(WkbGeometryType.wkbMultiPolygon);
+				if (partCount == 0 && pointCount > 0) {
+					// a single polygon stored without parts
+					writeInt_(1);
+					writeGeometry_(buffer, geometry, Polygon);
+					break;
+				}
+
+				writeInt_(partCount);
+				for (int i = 0; i < partCount; i++) {
+					int part = reference(buffer, parts + 4 + 4 * i);
+					writeGeometry_(buffer, part, type_(buffer, part, Polygon));
+				}
+				break;
+			}
+			default:
+				throw new GeometryException("invalid shape type");
+			}
+		}
+
+		private void writeHeader_(int wkbType) {
+			reserve_(5);
+			m_wkb.put(m_pos, (byte) WkbByteOrder.wkbNDR);
+			m_wkb.putInt(m_pos + 1, wkbType + m_dims);
+			m_pos += 5;
+		}
+
+		private void writeInt_(int value) {
+			reserve_(4);
+			m_wkb.putInt(m_pos, value);
+			m_pos += 4;
+		}
+
+		private void writeEmptyPoint_() {
+			int count = 2 + (m_bHasZs ? 1 : 0) + (m_bHasMs ? 1 : 0);
+			reserve_(8 * count);
+			for (int i = 0; i < count; i++)
+				m_wkb.putDouble(m_pos + 8 * i, NumberUtils.NaN());
+			m_pos += 8 * count;
+		}
+
+		private void writePoints_(ByteBuffer buffer, int xy, int zs, int ms,
+				int start, int end) {
+			int stride = 16 + (m_bHasZs ? 8 : 0) + (m_bHasMs ? 8 : 0);
+			reserve_(stride * (end - start));
+			int zCount = vectorLength(buffer, zs);
+			int mCount = vectorLength(buffer, ms);
+			for (int i = start; i < end; i++) {
+				m_wkb.putDouble(m_pos, buffer.getDouble(xy + 4 + 16 * i));
+				m_wkb.putDouble(m_pos + 8, buffer.getDouble(xy + 12 + 16 * i));
+				m_pos += 16;
+				if (m_bHasZs) {
+					m_wkb.putDouble(m_pos, i < zCount ? buffer.getDouble(zs
+							+ 4 + 8 * i) : NumberUtils.NaN());
+					m_pos += 8;
+				}
+				if (m_bHasMs) {
+					m_wkb.putDouble(m_pos, i < mCount ? buffer.getDouble(ms
+							+ 4 + 8 * i) : NumberUtils.NaN());
+					m_pos += 8;
+				}
+			}
+		}
+
+		private void reserve_(int count) {
+			if (m_pos + count > m_wkb.capacity()) {
+				ByteBuffer wkb = ByteBuffer.allocate(
+						Math.max(m_pos + count, 2 * m_wkb.capacity())).order(
+						ByteOrder.LITTLE_ENDIAN);
+				m_wkb.limit(m_pos);
+				m_wkb.position(0);
+				wkb.put(m_wkb);
+				m_wkb = wkb;
+			}
+		}
+	}
+
+	/**
+	 * The levels of the packed R-tree, from the leaves to the root. Each
+	 * level is the node range [bounds[2 * i], bounds[2 * i + 1]). The root
+	 * is stored first.
+	 */
+	static long[] levelBounds(long itemCount, int nodeSize) {
+		if (nodeSize < 2)
+			throw new GeometryException("invalid node size");
+		if (itemCount == 0)
+			throw new GeometryException("invalid item count");
+
+		long[] levelNodeCounts = new long[64];
+		int levelCount = 0;
+		long n = itemCount;
+		long nodeCount = n;
+		levelNodeCounts[levelCount++] = n;
+		do {
+			n = (n + nodeSize - 1) / nodeSize;
+			nodeCount += n;
+			levelNodeCounts[levelCount++] = n;
+		} while (n != 1);
+
+		long[] bounds = new long[2 * levelCount];
+		n = nodeCount;
+		for (int i = 0; i < levelCount; i++) {
+			bounds[2 * i] = n - levelNodeCounts[i];
+			bounds[2 * i + 1] = n;
+			n -= levelNodeCounts[i];
+		}
+		return bounds;
+	}
+
+	static long nodeCount(long itemCount, int nodeSize) {
+		long[] bounds = levelBounds(itemCount, nodeSize);
+		return bounds[1];
+	}
+
+	/**
+	 * Returns the position on the Hilbert curve of the 16 bit coordinates.
+	 */
+	static int hilbert(int x, int y) {
+		int a = x ^ y;
+		int b = 0xFFFF ^ a;
+		int c = 0xFFFF ^ (x | y);
+		int d = x & (y ^ 0xFFFF);
+
+		int A = a | (b >>> 1);
+		int B = (a >>> 1) ^ a;
+		int C = ((c >>> 1) ^ (b & (d >>> 1))) ^ c;
+		int D = ((a & (c >>> 1)) ^ (d >>> 1)) ^ d;
+
+		a = A;
+		b = B;
+		c = C;
+		d = D;
+		A = ((a & (a >>> 2)) ^ (b & (b >>> 2)));
+		B = ((a & (b >>> 2)) ^ (b & ((a ^ b) >>> 2)));
+		C ^= ((a & (c >>> 2)) ^ (b & (d >>> 2)));
+		D ^= ((b & (c >>> 2)) ^ ((a ^ b) & (d >>> 2)));
+
+		a = A;
+		b = B;
+		c = C;
+		d = D;
+		A = ((a & (a >>> 4)) ^ (b & (b >>> 4)));
+		B = ((a & (b >>> 4)) ^ (b & ((a ^ b) >>> 4)));
+		C ^= ((a & (c >>> 4)) ^ (b & (d >>> 4)));
+		D ^= ((b & (c >>> 4)) ^ ((a ^ b) & (d >>> 4)));
+
+		a = A;
+		b = B;
+		c = C;
+		d = D;
+		C ^= ((a & (c >>> 8)) ^ (b & (d >>> 8)));
+		D ^= ((b & (c >>> 8)) ^ ((a ^ b) & (d >>> 8)));
+
+		a = C ^ (C >>> 1);
+		b = D ^ (D >>> 1);
+
+		int i0 = x ^ y;
+		int i1 = b | (0xFFFF ^ (i0 | a));
+
+		i0 = (i0 | (i0 << 8)) & 0x00FF00FF;
+		i0 = (i0 | (i0 << 4)) & 0x0F0F0F0F;
+		i0 = (i0 | (i0 << 2)) & 0x33333333;
+		i0 = (i0 | (i0 << 1)) & 0x55555555;
+
+		i1 = (i1 | (i1 << 8)) & 0x00FF00FF;
+		i1 = (i1 | (i1 << 4)) & 0x0F0F0F0F;
+		i1 = (i1 | (i1 << 2)) & 0x33333333;
+		i1 = (i1 | (i1 << 1)) & 0x55555555;
+
+		return (i1 << 1) | i0;
+	}
+
+	static double[] grow_(double[] array, int minSize) {
+		double[] newArray = new double[Math.max(minSize, 2 * array.length)];
+		System.arraycopy(array, 0, newArray, 0, array.length);
+		return newArray;
+	}
+
+	static int[] grow_(int[] array, int minSize) {
+		int[] newArray = new int[Math.max(minSize, 2 * array.length)];
+		System.arraycopy(array, 0, newArray, 0, array.length);
+		return newArray;
+	}
+
+	static long[] grow_(long[] array, int minSize) {
+		long[] newArray = new long[Math.max(minSize, 2 * array.length)];
+		System.arraycopy(array, 0, newArray, 0, array.length);
+		return newArray;
+	}
+}
@@ -0,0 +1,471 @@
+/*
+ Copyright 1995-2019 Esri
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+
+ For additional information, contact:
+ Environmental Systems Research Institute, Inc.
+ Attn: Contracts Dept
+ 380 New York Street
+ Redlands, California, USA 92373
+
+ email: contracts@esri.com
+ */
+
+package com.esri.core.geometry;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * Reads the geometries of a FlatGeobuf file.
+ * 
+ * The file is memory mapped. The reads with an extent use the packed R-tree
+ * index to find the matching features, and read only the byte ranges of
+ * those features. Each cursor maps or reads the file on its own, so the
+ * cursors can be used on different threads. The geometry IDs of the cursors are the
+ * positions of the features in the file, starting at 0.
+ */
+public final class FlatGeobufReader implements Closeable {
+	private static final int WINDOW_SIZE = 64 * 1024 * 1024;
+	private static final int READ_SIZE = 64 * 1024;
+
+	private final RandomAccessFile m_file;
+	private final FileChannel m_channel;
+	private final int m_importFlags;
+	private final int m_type;
+	private final boolean m_bHasZs;
+	private final boolean m_bHasMs;
+	private final long m_featureCount;
+	private final int m_nodeSize;
+	private final Envelope2D m_extent;
+	private final SpatialReference m_spatialReference;
+	private final MappedByteBuffer m_index;
+	private final long[] m_levelBounds;
+	private final long m_featuresOffset;
+	private final long m_fileSize;
+
+	/**
+	 * Opens the FlatGeobuf file.
+	 * @param file The file.
+	 * @param importFlags Use the {@link WkbImportFlags} interface.
+	 */
+	public FlatGeobufReader(File file, int importFlags) throws IOException {
+		m_importFlags = importFlags;
+		m_file = new RandomAccessFile(file, "r");
+		try {
+			m_channel = m_file.getChannel();
+			m_fileSize = m_channel.size();
+			ByteBuffer start = read_(0, 12);
+			for (int i = 0; i < 3; i++) {
+				if (start.get(i) != FlatGeobuf.MAGIC[i]
+						|| start.get(i + 4) != FlatGeobuf.MAGIC[i + 4])
+					throw new GeometryException("invalid flatgeobuf");
+			}
+			if (start.get(3) != FlatGeobuf.MAGIC[3])
+				throw new GeometryException("unsupported flatgeobuf version");
+
+			int headerSize = start.getInt(8);
+			if (headerSize < 8 || 12L + headerSize > m_fileSize)
+				throw new GeometryException("invalid flatgeobuf");
+
+			// The header is read with its size prefix, the offsets are
+			// relative.
+			ByteBuffer header = read_(8, 4 + headerSize);
+			int table = FlatGeobuf.reference(header, 4);
+			m_type = byteField_(header, table, FlatGeobuf.HEADER_GEOMETRY_TYPE, 0);
+			m_bHasZs = byteField_(header, table, FlatGeobuf.HEADER_HAS_Z, 0) != 0;
+			m_bHasMs = byteField_(header, table, FlatGeobuf.HEADER_HAS_M, 0) != 0;
+			FlatGeobuf.geometryType(m_type);// validates the type
+
+			int pos = FlatGeobuf.field(header, table,
+					FlatGeobuf.HEADER_FEATURES_COUNT);
+			m_featureCount = pos != 0 ? header.getLong(pos) : 0;
+			pos = FlatGeobuf.field(header, table,
+					FlatGeobuf.HEADER_INDEX_NODE_SIZE);
+			m_nodeSize = pos != 0 ? header.getShort(pos) & 0xFFFF
+					: FlatGeobuf.DEFAULT_NODE_SIZE;
+
+			m_extent = new Envelope2D();
+			m_extent.setEmpty();
+			int envelope = FlatGeobuf.reference(header, FlatGeobuf.field(
+					header, table, FlatGeobuf.HEADER_ENVELOPE));
+			if (FlatGeobuf.vectorLength(header, envelope) >= 4)
+				m_extent.setCoords(header.getDouble(envelope + 4),
+						header.getDouble(envelope + 12),
+						header.getDouble(envelope + 20),
+						header.getDouble(envelope + 28));
+
+			m_spatialReference = spatialReference_(header, FlatGeobuf
+					.reference(header, FlatGeobuf.field(header, table,
+							FlatGeobuf.HEADER_CRS)));
+
+			long indexOffset = 12L + headerSize;
+			if (m_nodeSize > 0 && m_featureCount > 0) {
+				m_levelBounds = FlatGeobuf.levelBounds(m_featureCount,
+						m_nodeSize);
+				long indexSize = m_levelBounds[1] * FlatGeobuf.NODE_ITEM_SIZE;
+				if (indexSize > Integer.MAX_VALUE
+						|| indexOffset + indexSize > m_fileSize)
+					throw new GeometryException("invalid flatgeobuf");
+
+				m_index = m_channel.map(FileChannel.MapMode.READ_ONLY,
+						indexOffset, indexSize);
+				m_index.order(ByteOrder.LITTLE_ENDIAN);
+				m_featuresOffset = indexOffset + indexSize;
+			} else {
+				m_levelBounds = null;
+				m_index = null;
+				m_featuresOffset = indexOffset;
+			}
+		} catch (IOException e) {
+			m_file.close();
+			throw e;
+		} catch (RuntimeException e) {
+			m_file.close();
+			throw e;
+		}
+	}
+
+	/**
+	 * Opens the FlatGeobuf file with the default import flags.
+	 */
+	public FlatGeobufReader(File file) throws IOException {
+		this(file, WkbImportFlags.wkbImportDefaults);
+	}
+
+	/**
+	 * Returns the number of features stored in the header.
+	 */
+	public long getFeatureCount() {
+		return m_featureCount;
+	}
+
+	/**
+	 * Returns the geometry type. Returns Unknown when the features have
+	 * different types.
+	 */
+	public Geometry.Type getGeometryType() {
+		return FlatGeobuf.geometryType(m_type);
+	}
+
+	public boolean hasZ() {
+		return m_bHasZs;
+	}
+
+	public boolean hasM() {
+		return m_bHasMs;
+	}
+
+	/**
+	 * Returns true when the file has the spatial index.
+	 */
+	public boolean hasIndex() {
+		return m_index != null;
+	}
+
+	/**
+	 * Returns the extent stored in the header. It is empty when the header
+	 * has no envelope.
+	 */
+	public Envelope2D getExtent() {
+		Envelope2D extent = new Envelope2D();
+		extent.setCoords(m_extent);
+		return extent;
+	}
+
+	/**
+	 * Returns the spatial reference for the EPSG or Esri code of the header,
+	 * or null.
+	 */
+	public SpatialReference getSpatialReference() {
+		return m_spatialReference;
+	}
+
+	/**
+	 * Returns the cursor over all of the features.
+	 */
+	public GeometryCursor getGeometries() {
+		return new FeatureCursor(null, 0, null);
+	}
+
+	/**
+	 * Returns the cursor over the features whose extent intersects the given
+	 * extent. The index is used when the file has one, otherwise all of the
+	 * features are read and tested.
+	 */
+	public GeometryCursor getGeometries(Envelope2D extent) {
+		if (extent == null)
+			throw new IllegalArgumentException();
+
+		if (m_index == null)
+			return new FeatureCursor(null, 0, extent);
+
+		// search the index
+		long[] hits = new long[16];
+		int hitCount = 0;
+		long leafStart = m_levelBounds[0];
+		int[] queue = new int[16];
+		int[] queueLevels = new int[16];
+		int queueStart = 0;
+		int queueEnd = 0;
+		queue[queueEnd] = 0;
+		queueLevels[queueEnd++] = m_levelBounds.length / 2 - 1;
+		while (queueStart < queueEnd) {
+			int node = queue[queueStart];
+			int level = queueLevels[queueStart++];
+			boolean bLeaf = node >= leafStart;
+			long end = Math.min(node + (long) m_nodeSize,
+					m_levelBounds[2 * level + 1]);
+			for (int pos = node; pos < end; pos++) {
+				int item = pos * FlatGeobuf.NODE_ITEM_SIZE;
+				if (m_index.getDouble(item) > extent.xmax
+						|| m_index.getDouble(item + 8) > extent.ymax
+						|| m_index.getDouble(item + 16) < extent.xmin
+						|| m_index.getDouble(item + 24) < extent.ymin)
+					continue;
+
+				long offset = m_index.getLong(item + 32);
+				if (bLeaf) {
+					if (2 * hitCount + 2 > hits.length)
+						hits = FlatGeobuf.grow_(hits, 2 * hitCount + 2);
+
+					hits[2 * hitCount] = offset;
+					hits[2 * hitCount + 1] = pos - leafStart;
+					hitCount++;
+				} else {
+					if (queueEnd == queue.length) {
+						if (queueStart > 0) {
+							System.arraycopy(queue, queueStart, queue, 0,
+									queueEnd - queueStart);
+							System.arraycopy(queueLevels, queueStart,
+									queueLevels, 0, queueEnd - queueStart);
+							queueEnd -= queueStart;
+							queueStart = 0;
+						} else {
+							queue = FlatGeobuf.grow_(queue, queueEnd + 1);
+							queueLevels = FlatGeobuf.grow_(queueLevels,
+									queueEnd + 1);
+						}
+					}
+					queue[queueEnd] = (int) offset;
+					queueLevels[queueEnd++] = level - 1;
+				}
+			}
+		}
+
+		return new FeatureCursor(hits, hitCount, null);
+	}
+
+	@Override
+	public void close() throws IOException {
+		m_file.close();
+	}
+
+	/**
+	 * Reads the features in the order of the file, or the given features of
+	 * the index search.
+	 */
+	private final class FeatureCursor extends GeometryCursor {
+		private final long[] m_hits;// feature offset and index pairs
+		private final int m_hitCount;
+		private final Envelope2D m_filter;
+		private final FlatGeobuf.GeometryDecoder m_decoder;
+		private final Envelope2D m_env;
+		private int m_hit;
+		private long m_next;
+		private int m_index;
+		private int m_nextIndex;
+
+		private ByteBuffer m_window;
+		private long m_windowStart;
+		private long m_windowEnd;
+
+		FeatureCursor(long[] hits, int hitCount, Envelope2D filter) {
+			m_hits = hits;
+			m_hitCount = hitCount;
+			m_filter = filter;
+			m_decoder = new FlatGeobuf.GeometryDecoder(m_type, m_bHasZs,
+					m_bHasMs);
+			m_env = new Envelope2D();
+			m_hit = 0;
+			m_next = m_featuresOffset;
+			m_index = -1;
+			m_nextIndex = 0;
+			m_windowStart = 0;
+			m_windowEnd = 0;
+		}
+
+		@Override
+		public Geometry next() {
+			while (true) {
+				long offset;
+				if (m_hits != null) {
+					if (m_hit == m_hitCount)
+						return null;
+
+					offset = m_featuresOffset + m_hits[2 * m_hit];
+					m_index = (int) m_hits[2 * m_hit + 1];
+					m_hit++;
+				} else {
+					if (m_next >= m_fileSize)
+						return null;
+
+					offset = m_next;
+					m_index = m_nextIndex++;
+				}
+
+				ByteBuffer feature = feature_(offset);
+				m_next = offset + feature.capacity();
+				ByteBuffer wkb = m_decoder.decodeFeature(feature);
+				Geometry geometry = wkb != null ? OperatorImportFromWkbLocal
+						.importFromWkb(m_importFlags, Geometry.Type.Unknown,
+								wkb, 0) : emptyGeometry_();
+
+				if (m_filter != null) {
+					geometry.queryEnvelope2D(m_env);
+					if (!m_env.isIntersecting(m_filter))
+						continue;
+				}
+
+				return geometry;
+			}
+		}
+
+		@Override
+		public int getGeometryID() {
+			return m_index;
+		}
+
+		/**
+		 * Returns the size prefixed feature at the file offset.
+		 */
+		private ByteBuffer feature_(long offset) {
+			window_(offset, 4);
+			int size = m_window.order(ByteOrder.LITTLE_ENDIAN).getInt(
+					(int) (offset - m_windowStart));
+			if (size < 0)
+				throw new GeometryException("invalid flatgeobuf");
+
+			window_(offset, 4 + size);
+			ByteBuffer feature = m_window.duplicate();
+			int start = (int) (offset - m_windowStart);
+			feature.limit(start + 4 + size);
+			feature.position(start);
+			return feature.slice().order(ByteOrder.LITTLE_ENDIAN);
+		}
+
+		/**
+		 * Makes the window cover the byte range of the file. The sequential
+		 * reads map large windows. The index hits read into a reused heap
+		 * buffer, so that a large query does not create a mapping per
+		 * feature. The hits come in the file order, so the adjacent small
+		 * features share a read.
+		 */
+		private void window_(long offset, long size) {
+			if (offset >= m_windowStart && offset + size <= m_windowEnd)
+				return;
+
+			if (offset + size > m_fileSize)
+				throw new GeometryException("invalid flatgeobuf");
+
+			long windowSize = Math.max(size, Math.min(
+					m_hits != null ? READ_SIZE : WINDOW_SIZE, m_fileSize
+							- offset));
+			if (windowSize > Integer.MAX_VALUE)
+				throw new GeometryException("invalid flatgeobuf");
+
+			try {
+				if (m_hits != null) {
+					if (m_window == null || m_window.capacity() < windowSize)
+						m_window = ByteBuffer.allocate((int) windowSize);
+
+					m_window.clear();
+					m_window.limit((int) windowSize);
+					while (m_window.hasRemaining()) {
+						if (m_channel.read(m_window,
+								offset + m_window.position()) < 0)
+							throw new GeometryException("invalid flatgeobuf");
+					}
+				} else {
+					m_window = m_channel.map(FileChannel.MapMode.READ_ONLY,
+							offset, windowSize);
+				}
+			} catch (IOException e) {
+				throw new GeometryException(e.getMessage());
+			}
+			m_windowStart = offset;
+			m_windowEnd = offset + windowSize;
+		}
+	}
+
+	private Geometry emptyGeometry_() {
+		switch (m_type) {
+		case FlatGeobuf.Point:
+			return new Point();
+		case FlatGeobuf.MultiPoint:
+			return new MultiPoint();
+		case FlatGeobuf.LineString:
+		case FlatGeobuf.MultiLineString:
+			return new Polyline();
+		case FlatGeobuf.Polygon:
+		case FlatGeobuf.MultiPolygon:
+			return new Polygon();
+		default:
+			throw new GeometryException("invalid shape type");
+		}
+	}
+
+	private ByteBuffer read_(long position, int size) throws IOException {
+		ByteBuffer buffer = ByteBuffer.allocate(size).order(
+				ByteOrder.LITTLE_ENDIAN);
+		while (buffer.hasRemaining()) {
+			if (m_channel.read(buffer, position + buffer.position()) < 0)
+				throw new GeometryException("invalid flatgeobuf");
+		}
+		return buffer;
+	}
+
+	private static int byteField_(ByteBuffer buffer, int table, int index,
+			int defaultValue) {
+		int pos = FlatGeobuf.field(buffer, table, index);
+		return pos != 0 ? buffer.get(pos) & 0xFF : defaultValue;
+	}
+
+	private static SpatialReference spatialReference_(ByteBuffer header,
+			int crs) {
+		if (crs == 0)
+			return null;
+
+		String org = FlatGeobuf.string(header, FlatGeobuf.reference(header,
+				FlatGeobuf.field(header, crs, FlatGeobuf.CRS_ORG)));
+		int pos = FlatGeobuf.field(header, crs, FlatGeobuf.CRS_CODE);
+		int code = pos != 0 ? header.getInt(pos) : 0;
+		if (code <= 0
+				|| (org != null && !org.equalsIgnoreCase("EPSG") && !org
+						.equalsIgnoreCase("ESRI")))
+			return null;
+
+		try {
+			return SpatialReference.create(code);
+		} catch (IllegalArgumentException e) {
+			return null;
+		}
+	}
+}
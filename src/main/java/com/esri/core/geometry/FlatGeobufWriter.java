@@ -0,0 +1,417 @@
+/*
+ Copyright 1995-2019 Esri
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+
+ For additional information, contact:
+ Environmental Systems Research Institute, Inc.
+ Attn: Contracts Dept
+ 380 New York Street
+ Redlands, California, USA 92373
+
+ email: contracts@esri.com
+ */
+
+package com.esri.core.geometry;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.util.Arrays;
+
+/**
+ * Writes geometries to a FlatGeobuf file with a packed Hilbert R-tree index.
+ * 
+ * The index precedes the features in the file, so the encoded features are
+ * kept in a temporary file next to the output until close. Only the extent
+ * and the location of each feature are kept in memory. At close, the
+ * features are sorted along the Hilbert curve, and the header, the index and
+ * the sorted features are written.
+ * 
+ * The geometries are written as Point, MultiPoint, MultiLineString or
+ * MultiPolygon, through their WKB.
+ */
+public final class FlatGeobufWriter implements Closeable {
+	private static final int BUFFER_SIZE = 1024 * 1024;
+	private static final int HILBERT_MAX = (1 << 16) - 1;
+
+	private final File m_file;
+	private final File m_tempFile;
+	private final RandomAccessFile m_temp;
+	private final FileChannel m_tempChannel;
+	private final int m_type;
+	private final boolean m_bHasZs;
+	private final boolean m_bHasMs;
+	private final SpatialReference m_spatialReference;
+	private final int m_nodeSize;
+	private final int m_exportFlags;
+	private final FlatGeobuf.GeometryEncoder m_encoder;
+	private final FlatGeobuf.Builder m_builder;
+	private ByteBuffer m_wkb;
+
+	private double[] m_bounds;// xmin, ymin, xmax, ymax per feature
+	private long[] m_offsets;// offset of each feature in the temporary file
+	private int m_featureCount;
+	private long m_tempSize;
+	private final Envelope2D m_extent;
+	private final Envelope2D m_env;
+	private boolean m_bClosed;
+
+	/**
+	 * Creates the writer. The file is written at close.
+	 * @param file The FlatGeobuf file. An existing file is overwritten.
+	 * @param type The geometry type. Point, MultiPoint, Polyline or Polygon.
+	 * @param bHasZs Write z coordinates.
+	 * @param bHasMs Write m values.
+	 * @param spatialReference The spatial reference written to the header,
+	 * can be null.
+	 */
+	public FlatGeobufWriter(File file, Geometry.Type type, boolean bHasZs,
+			boolean bHasMs, SpatialReference spatialReference)
+			throws IOException {
+		this(file, type, bHasZs, bHasMs, spatialReference,
+				FlatGeobuf.DEFAULT_NODE_SIZE);
+	}
+
+	/**
+	 * Same as above, with the given R-tree node size. Pass 0 to write the
+	 * file without the index.
+	 */
+	public FlatGeobufWriter(File file, Geometry.Type type, boolean bHasZs,
+			boolean bHasMs, SpatialReference spatialReference, int nodeSize)
+			throws IOException {
+		if (nodeSize != 0 && (nodeSize < 2 || nodeSize > 0xFFFF))
+			throw new IllegalArgumentException("invalid node size");
+
+		m_type = FlatGeobuf.geometryType(type);
+		m_bHasZs = bHasZs;
+		m_bHasMs = bHasMs;
+		m_spatialReference = spatialReference;
+		m_nodeSize = nodeSize;
+		m_exportFlags = (bHasZs ? 0 : WkbExportFlags.wkbExportStripZs)
+				| (bHasMs ? 0 : WkbExportFlags.wkbExportStripMs);
+		m_encoder = new FlatGeobuf.GeometryEncoder(m_type, bHasZs, bHasMs);
+		m_builder = new FlatGeobuf.Builder();
+		m_wkb = ByteBuffer.allocate(1024).order(ByteOrder.LITTLE_ENDIAN);
+
+		m_file = file;
+		m_tempFile = File.createTempFile(file.getName(), ".tmp",
+				file.getAbsoluteFile().getParentFile());
+		m_temp = new RandomAccessFile(m_tempFile, "rw");
+		m_tempChannel = m_temp.getChannel();
+
+		m_bounds = new double[4 * 1024];
+		m_offsets = new long[1024];
+		m_featureCount = 0;
+		m_tempSize = 0;
+		m_extent = new Envelope2D();
+		m_extent.setEmpty();
+		m_env = new Envelope2D();
+		m_bClosed = false;
+	}
+
+	/**
+	 * Returns the number of features written.
+	 */
+	public int getFeatureCount() {
+		return m_featureCount;
+	}
+
+	/**
+	 * Writes the geometries of the cursor. Returns the number of geometries
+	 * written.
+	 */
+	public int write(GeometryCursor geometries) throws IOException {
+		int count = 0;
+		Geometry geometry;
+		while ((geometry = geometries.next()) != null) {
+			write(geometry);
+			count++;
+		}
+
+		return count;
+	}
+
+	/**
+	 * Writes the geometry as the next feature.
+	 */
+	public void write(Geometry geometry) throws IOException {
+		if (m_bClosed)
+			throw new GeometryException("file is closed");
+
+		if (geometry == null)
+			throw new IllegalArgumentException();
+
+		if (FlatGeobuf.geometryType(geometry.getType()) != m_type)
+			throw new GeometryException("invalid shape type");
+
+		OperatorExportToWkb exporter = OperatorExportToWkb.local();
+		int size = exporter.execute(m_exportFlags, geometry, null, null);
+		if (size > m_wkb.capacity())
+			m_wkb = ByteBuffer.allocate(Math.max(size, 2 * m_wkb.capacity()))
+					.order(ByteOrder.LITTLE_ENDIAN);
+
+		m_wkb.order(ByteOrder.LITTLE_ENDIAN);
+		exporter.execute(m_exportFlags, geometry, m_wkb, null);
+		m_encoder.encodeFeature(m_wkb, m_builder);
+
+		if (m_featureCount == m_offsets.length) {
+			m_offsets = FlatGeobuf.grow_(m_offsets, m_featureCount + 1);
+			m_bounds = FlatGeobuf.grow_(m_bounds, 4 * (m_featureCount + 1));
+		}
+
+		geometry.queryEnvelope2D(m_env);
+		if (m_env.isEmpty()) {
+			m_bounds[4 * m_featureCount] = Double.POSITIVE_INFINITY;
+			m_bounds[4 * m_featureCount + 1] = Double.POSITIVE_INFINITY;
+			m_bounds[4 * m_featureCount + 2] = Double.NEGATIVE_INFINITY;
+			m_bounds[4 * m_featureCount + 3] = Double.NEGATIVE_INFINITY;
+		} else {
+			m_bounds[4 * m_featureCount] = m_env.xmin;
+			m_bounds[4 * m_featureCount + 1] = m_env.ymin;
+			m_bounds[4 * m_featureCount + 2] = m_env.xmax;
+			m_bounds[4 * m_featureCount + 3] = m_env.ymax;
+			m_extent.merge(m_env);
+		}
+
+		m_offsets[m_featureCount] = m_tempSize;
+		ByteBuffer buffer = m_builder.getBuffer();
+		buffer.limit(m_builder.size());
+		buffer.position(0);
+		while (buffer.hasRemaining())
+			m_tempSize += m_tempChannel.write(buffer, m_tempSize);
+		buffer.clear();
+
+		m_featureCount++;
+	}
+
+	/**
+	 * Writes the file and deletes the temporary file.
+	 */
+	@Override
+	public void close() throws IOException {
+		if (m_bClosed)
+			return;
+
+		m_bClosed = true;
+		try {
+			writeFile_();
+		} finally {
+			try {
+				m_temp.close();
+			} finally {
+				m_tempFile.delete();
+			}
+		}
+	}
+
+	private void writeFile_() throws IOException {
+		int[] order = hilbertOrder_();
+
+		RandomAccessFile file = new RandomAccessFile(m_file, "rw");
+		try {
+			file.setLength(0);
+			FileChannel channel = file.getChannel();
+			writeFully_(channel, ByteBuffer.wrap(FlatGeobuf.MAGIC));
+			m_builder.start();
+			int header = writeHeader_(m_builder);
+			m_builder.finish(header);
+			ByteBuffer buffer = m_builder.getBuffer();
+			buffer.limit(m_builder.size());
+			buffer.position(0);
+			writeFully_(channel, buffer);
+			buffer.clear();
+
+			if (m_nodeSize > 0 && m_featureCount > 0)
+				writeIndex_(channel, order);
+
+			for (int i = 0; i < m_featureCount; i++) {
+				int feature = order[i];
+				long offset = m_offsets[feature];
+				long size = featureSize_(feature);
+				while (size > 0) {
+					long transferred = m_tempChannel.transferTo(offset, size,
+							channel);
+					offset += transferred;
+					size -= transferred;
+				}
+			}
+		} finally {
+			file.close();
+		}
+	}
+
+	private int writeHeader_(FlatGeobuf.Builder builder) {
+		int[] sizes = new int[FlatGeobuf.HEADER_FIELD_COUNT];
+		int[] fields = new int[FlatGeobuf.HEADER_FIELD_COUNT];
+		boolean bCrs = m_spatialReference != null
+				&& m_spatialReference.getLatestID() > 0;
+		sizes[FlatGeobuf.HEADER_ENVELOPE] = m_extent.isEmpty() ? 0 : 4;
+		sizes[FlatGeobuf.HEADER_GEOMETRY_TYPE] = 1;
+		sizes[FlatGeobuf.HEADER_HAS_Z] = 1;
+		sizes[FlatGeobuf.HEADER_HAS_M] = 1;
+		sizes[FlatGeobuf.HEADER_FEATURES_COUNT] = 8;
+		sizes[FlatGeobuf.HEADER_INDEX_NODE_SIZE] = 2;
+		sizes[FlatGeobuf.HEADER_CRS] = bCrs ? 4 : 0;
+		int header = builder.table(sizes, fields);
+		builder.putByte(fields[FlatGeobuf.HEADER_GEOMETRY_TYPE], m_type);
+		builder.putByte(fields[FlatGeobuf.HEADER_HAS_Z], m_bHasZs ? 1 : 0);
+		builder.putByte(fields[FlatGeobuf.HEADER_HAS_M], m_bHasMs ? 1 : 0);
+		builder.putLong(fields[FlatGeobuf.HEADER_FEATURES_COUNT],
+				m_featureCount);
+		builder.putShort(fields[FlatGeobuf.HEADER_INDEX_NODE_SIZE],
+				m_nodeSize);
+
+		if (!m_extent.isEmpty()) {
+			double[] envelope = new double[] { m_extent.xmin, m_extent.ymin,
+					m_extent.xmax, m_extent.ymax };
+			int vector = builder.doubles(envelope, 0, 4);
+			builder.setReference(fields[FlatGeobuf.HEADER_ENVELOPE], vector);
+		}
+
+		if (bCrs) {
+			int[] crsSizes = new int[FlatGeobuf.CRS_FIELD_COUNT];
+			int[] crsFields = new int[FlatGeobuf.CRS_FIELD_COUNT];
+			crsSizes[FlatGeobuf.CRS_ORG] = 4;
+			crsSizes[FlatGeobuf.CRS_CODE] = 4;
+			int crs = builder.table(crsSizes, crsFields);
+			// The latest ID is the EPSG code when there is one, such as 3857
+			// for 102100. The others are labeled as the Esri codes.
+			builder.putInt(crsFields[FlatGeobuf.CRS_CODE],
+					m_spatialReference.getLatestID());
+			int org = builder.string(((SpatialReferenceImpl) m_spatialReference)
+					.getAuthority());
+			builder.setReference(crsFields[FlatGeobuf.CRS_ORG], org);
+			builder.setReference(fields[FlatGeobuf.HEADER_CRS], crs);
+		}
+
+		return header;
+	}
+
+	private void writeIndex_(FileChannel channel, int[] order)
+			throws IOException {
+		long[] levelBounds = FlatGeobuf.levelBounds(m_featureCount,
+				m_nodeSize);
+		int nodeCount = (int) levelBounds[1];
+		if ((long) nodeCount * FlatGeobuf.NODE_ITEM_SIZE > Integer.MAX_VALUE)
+			throw new GeometryException("too many features");
+
+		double[] nodeBounds = new double[4 * nodeCount];
+		long[] nodeOffsets = new long[nodeCount];
+
+		// The leaves refer to the features by their offset in the feature
+		// section.
+		int leafStart = (int) levelBounds[0];
+		long offset = 0;
+		for (int i = 0; i < m_featureCount; i++) {
+			int feature = order[i];
+			System.arraycopy(m_bounds, 4 * feature, nodeBounds,
+					4 * (leafStart + i), 4);
+			nodeOffsets[leafStart + i] = offset;
+			offset += featureSize_(feature);
+		}
+
+		// The parents refer to the node index of their first child.
+		for (int level = 0; level < levelBounds.length / 2 - 1; level++) {
+			int pos = (int) levelBounds[2 * level];
+			int end = (int) levelBounds[2 * level + 1];
+			int parent = (int) levelBounds[2 * level + 2];
+			while (pos < end) {
+				double xmin = Double.POSITIVE_INFINITY;
+				double ymin = Double.POSITIVE_INFINITY;
+				double xmax = Double.NEGATIVE_INFINITY;
+				double ymax = Double.NEGATIVE_INFINITY;
+				nodeOffsets[parent] = pos;
+				for (int j = 0; j < m_nodeSize && pos < end; j++, pos++) {
+					if (nodeBounds[4 * pos] < xmin)
+						xmin = nodeBounds[4 * pos];
+					if (nodeBounds[4 * pos + 1] < ymin)
+						ymin = nodeBounds[4 * pos + 1];
+					if (nodeBounds[4 * pos + 2] > xmax)
+						xmax = nodeBounds[4 * pos + 2];
+					if (nodeBounds[4 * pos + 3] > ymax)
+						ymax = nodeBounds[4 * pos + 3];
+				}
+				nodeBounds[4 * parent] = xmin;
+				nodeBounds[4 * parent + 1] = ymin;
+				nodeBounds[4 * parent + 2] = xmax;
+				nodeBounds[4 * parent + 3] = ymax;
+				parent++;
+			}
+		}
+
+		ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE).order(
+				ByteOrder.LITTLE_ENDIAN);
+		for (int i = 0; i < nodeCount; i++) {
+			if (buffer.remaining() < FlatGeobuf.NODE_ITEM_SIZE) {
+				buffer.flip();
+				writeFully_(channel, buffer);
+				buffer.clear();
+			}
+
+			buffer.putDouble(nodeBounds[4 * i]);
+			buffer.putDouble(nodeBounds[4 * i + 1]);
+			buffer.putDouble(nodeBounds[4 * i + 2]);
+			buffer.putDouble(nodeBounds[4 * i + 3]);
+			buffer.putLong(nodeOffsets[i]);
+		}
+		buffer.flip();
+		writeFully_(channel, buffer);
+	}
+
+	/**
+	 * Returns the features ordered by the Hilbert value of their centers.
+	 */
+	private int[] hilbertOrder_() {
+		long[] keys = new long[m_featureCount];
+		double width = m_extent.getWidth();
+		double height = m_extent.getHeight();
+		for (int i = 0; i < m_featureCount; i++) {
+			int h = 0;
+			if (m_bounds[4 * i] <= m_bounds[4 * i + 2]) {
+				double cx = (m_bounds[4 * i] + m_bounds[4 * i + 2]) / 2;
+				double cy = (m_bounds[4 * i + 1] + m_bounds[4 * i + 3]) / 2;
+				int x = width > 0 ? (int) Math.floor(HILBERT_MAX
+						* (cx - m_extent.xmin) / width) : 0;
+				int y = height > 0 ? (int) Math.floor(HILBERT_MAX
+						* (cy - m_extent.ymin) / height) : 0;
+				h = FlatGeobuf.hilbert(x, y);
+			}
+
+			keys[i] = ((h & 0xFFFFFFFFL) << 31) | i;
+		}
+
+		Arrays.sort(keys);
+		int[] order = new int[m_featureCount];
+		for (int i = 0; i < m_featureCount; i++)
+			order[i] = (int) (keys[i] & 0x7FFFFFFFL);
+
+		return order;
+	}
+
+	private long featureSize_(int feature) {
+		long end = feature + 1 < m_featureCount ? m_offsets[feature + 1]
+				: m_tempSize;
+		return end - m_offsets[feature];
+	}
+
+	private static void writeFully_(FileChannel channel, ByteBuffer buffer)
+			throws IOException {
+		while (buffer.hasRemaining())
+			channel.write(buffer);
+	}
+}
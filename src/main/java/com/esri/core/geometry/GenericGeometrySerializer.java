@@ -27,7 +27,8 @@ import java.io.InvalidObjectException;
 import java.io.ObjectStreamException;
 import java.io.Serializable;
 
-//This is a writeReplace class for MultiPoint, Polyline, and Polygon
+//This was the writeReplace class for MultiPoint, Polyline, and Polygon. It is
+//still used for curves and to read old streams. See GeometryExternalizer.
 public class GenericGeometrySerializer implements Serializable {
 	private static final long serialVersionUID = 1L;
 	int geometryType;
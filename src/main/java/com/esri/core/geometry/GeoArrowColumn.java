@@ -0,0 +1,196 @@
+/*
+ Copyright 1995-2019 Esri
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+
+ For additional information, contact:
+ Environmental Systems Research Institute, Inc.
+ Attn: Contracts Dept
+ 380 New York Street
+ Redlands, California, USA 92373
+
+ email: contracts@esri.com
+ */
+
+package com.esri.core.geometry;
+
+/**
+ * A column of geometries in the GeoArrow native layout. The coordinates of all
+ * geometries are stored interleaved in one double buffer. The nesting is
+ * described by offset buffers, from the outermost to the innermost level. The
+ * last offset buffer indexes coordinates, the other ones index the entries of
+ * the next buffer. Each offset buffer has one more element than the number of
+ * entries it describes and starts with 0.
+ * 
+ * The offset buffers of each type are
+ * <ul>
+ * <li>Point: none, one coordinate per geometry.</li>
+ * <li>LineString, MultiPoint: geometry offsets into the coordinates.</li>
+ * <li>Polygon: geometry offsets into the rings, ring offsets into the
+ * coordinates.</li>
+ * <li>MultiLineString: geometry offsets into the parts, part offsets into the
+ * coordinates.</li>
+ * <li>MultiPolygon: geometry offsets into the polygons, polygon offsets into
+ * the rings, ring offsets into the coordinates.</li>
+ * </ul>
+ * Rings are closed, that is the last coordinate repeats the first one. The
+ * exterior rings are counter-clockwise, as in OGC. Empty points have NaN
+ * coordinates.
+ * 
+ * The buffers are shared with the caller, not copied.
+ */
+public final class GeoArrowColumn {
+	/**
+	 * The GeoArrow geometry types.
+	 */
+	public enum Type {
+		Point(0), LineString(1), Polygon(2), MultiPoint(1), MultiLineString(2), MultiPolygon(
+				3);
+
+		private final int m_nesting;
+
+		Type(int nesting) {
+			m_nesting = nesting;
+		}
+
+		/**
+		 * Returns the number of offset buffers of the type.
+		 */
+		public int getNestingLevels() {
+			return m_nesting;
+		}
+	}
+
+	/**
+	 * The coordinate dimensions of the interleaved coordinate buffer.
+	 */
+	public enum Dimensions {
+		XY(2, false, false), XYZ(3, true, false), XYM(3, false, true), XYZM(4,
+				true, true);
+
+		private final int m_size;
+		private final boolean m_bHasZ;
+		private final boolean m_bHasM;
+
+		Dimensions(int size, boolean hasZ, boolean hasM) {
+			m_size = size;
+			m_bHasZ = hasZ;
+			m_bHasM = hasM;
+		}
+
+		/**
+		 * Returns the number of doubles per coordinate.
+		 */
+		public int getSize() {
+			return m_size;
+		}
+
+		public boolean hasZ() {
+			return m_bHasZ;
+		}
+
+		public boolean hasM() {
+			return m_bHasM;
+		}
+	}
+
+	private final Type m_type;
+	private final Dimensions m_dimensions;
+	private final int m_length;
+	private final double[] m_coordinates;
+	private final int[][] m_offsets;
+
+	/**
+	 * Creates a column over existing buffers.
+	 * 
+	 * @param type
+	 *            The geometry type of the column.
+	 * @param dimensions
+	 *            The coordinate dimensions.
+	 * @param length
+	 *            The number of geometries in the column.
+	 * @param coordinates
+	 *            The interleaved coordinates. Can be longer than needed.
+	 * @param offsets
+	 *            The offset buffers from the outermost to the innermost. Their
+	 *            count must be equal to type.getNestingLevels(). Can be longer
+	 *            than needed.
+	 */
+	public GeoArrowColumn(Type type, Dimensions dimensions, int length,
+			double[] coordinates, int[]... offsets) {
+		if (type == null || dimensions == null || length < 0
+				|| coordinates == null || offsets == null
+				|| offsets.length != type.getNestingLevels())
+			throw new IllegalArgumentException();
+
+		int count = length;
+		for (int level = 0; level < offsets.length; level++) {
+			int[] levelOffsets = offsets[level];
+			if (levelOffsets == null || levelOffsets.length < count + 1
+					|| levelOffsets[0] != 0)
+				throw new IllegalArgumentException();
+
+			count = levelOffsets[count];
+		}
+
+		if (coordinates.length < (long) count * dimensions.getSize())
+			throw new IllegalArgumentException();
+
+		m_type = type;
+		m_dimensions = dimensions;
+		m_length = length;
+		m_coordinates = coordinates;
+		m_offsets = offsets;
+	}
+
+	public Type getType() {
+		return m_type;
+	}
+
+	public Dimensions getDimensions() {
+		return m_dimensions;
+	}
+
+	/**
+	 * Returns the number of geometries in the column.
+	 */
+	public int getLength() {
+		return m_length;
+	}
+
+	/**
+	 * Returns the interleaved coordinate buffer.
+	 */
+	public double[] getCoordinates() {
+		return m_coordinates;
+	}
+
+	/**
+	 * Returns the number of coordinates used by the column.
+	 */
+	public int getCoordinateCount() {
+		int count = m_length;
+		for (int level = 0; level < m_offsets.length; level++)
+			count = m_offsets[level][count];
+
+		return count;
+	}
+
+	/**
+	 * Returns the offset buffer of the given nesting level. Level 0 is the
+	 * geometry offsets.
+	 */
+	public int[] getOffsets(int level) {
+		return m_offsets[level];
+	}
+}
@@ -464,4 +464,80 @@ final class GeoDist {
 			}
 		}
 	}
+
+	static public void geodesic_forward(double a, double e2, double lam1,
+			double phi1, double dist, double az12, PeDouble p_lam2,
+			PeDouble p_phi2, PeDouble p_az21) {
+		/*
+		 * Direct problem: the point at the given distance and azimuth from
+		 * the start point. Vincenty, T. // Direct and Inverse Solutions of
+		 * Geodesics on the Ellipsoid with Application of Nested Equations //
+		 * Survey Review XXIII (176), 1975. Latitude positive north, longitude
+		 * positive east, azimuth clockwise from north, radians.
+		 */
+
+		double f = 1.0 - Math.sqrt(1.0 - e2);
+		double b = a * (1.0 - f);
+		double sin_az12 = Math.sin(az12);
+		double cos_az12 = Math.cos(az12);
+
+		double tan_u1 = (1.0 - f) * Math.tan(phi1);
+		double cos_u1 = 1.0 / Math.sqrt(1.0 + tan_u1 * tan_u1);
+		double sin_u1 = tan_u1 * cos_u1;
+		double sigma1 = Math.atan2(tan_u1, cos_az12);
+		double sin_alpha = cos_u1 * sin_az12;
+		double cos2_alpha = 1.0 - sin_alpha * sin_alpha;
+		double u2 = cos2_alpha * (a * a - b * b) / (b * b);
+		double biga = 1.0 + u2 / 16384.0
+				* (4096.0 + u2 * (-768.0 + u2 * (320.0 - 175.0 * u2)));
+		double bigb = u2 / 1024.0
+				* (256.0 + u2 * (-128.0 + u2 * (74.0 - 47.0 * u2)));
+
+		double sigma = dist / (b * biga);
+		double sin_sigma = 0.0, cos_sigma = 0.0, cos_2sigma_m = 0.0;
+		for (int i = 0; i < 100; i++) {
+			cos_2sigma_m = Math.cos(2.0 * sigma1 + sigma);
+			sin_sigma = Math.sin(sigma);
+			cos_sigma = Math.cos(sigma);
+			double dsigma = bigb
+					* sin_sigma
+					* (cos_2sigma_m + bigb
+							/ 4.0
+							* (cos_sigma * (-1.0 + 2.0 * cos_2sigma_m * cos_2sigma_m) - bigb
+									/ 6.0
+									* cos_2sigma_m
+									* (-3.0 + 4.0 * sin_sigma * sin_sigma)
+									* (-3.0 + 4.0 * cos_2sigma_m * cos_2sigma_m)));
+			double prev = sigma;
+			sigma = dist / (b * biga) + dsigma;
+			if (PE_ABS(sigma - prev) <= 1.0e-14)
+				break;
+		}
+
+		cos_2sigma_m = Math.cos(2.0 * sigma1 + sigma);
+		sin_sigma = Math.sin(sigma);
+		cos_sigma = Math.cos(sigma);
+
+		double tem = sin_u1 * sin_sigma - cos_u1 * cos_sigma * cos_az12;
+		double phi2 = Math.atan2(sin_u1 * cos_sigma + cos_u1 * sin_sigma
+				* cos_az12, (1.0 - f) * Math.sqrt(sin_alpha * sin_alpha + tem * tem));
+		double lam = Math.atan2(sin_sigma * sin_az12, cos_u1 * cos_sigma
+				- sin_u1 * sin_sigma * cos_az12);
+		double c = f / 16.0 * cos2_alpha * (4.0 + f * (4.0 - 3.0 * cos2_alpha));
+		double dlam = lam
+				- (1.0 - c)
+				* f
+				* sin_alpha
+				* (sigma + c
+						* sin_sigma
+						* (cos_2sigma_m + c * cos_sigma
+								* (-1.0 + 2.0 * cos_2sigma_m * cos_2sigma_m)));
+
+		if (p_lam2 != null)
+			p_lam2.val = lam_delta(lam1 + dlam);
+		if (p_phi2 != null)
+			p_phi2.val = phi2;
+		if (p_az21 != null)
+			p_az21.val = lam_delta(Math.atan2(sin_alpha, -tem) + PE_PI);
+	}
 }
@@ -0,0 +1,68 @@
+/*
+ Copyright 1995-2019 Esri
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+
+ For additional information, contact:
+ Environmental Systems Research Institute, Inc.
+ Attn: Contracts Dept
+ 380 New York Street
+ Redlands, California, USA 92373
+
+ email: contracts@esri.com
+ */
+
+package com.esri.core.geometry;
+
+/**
+ *A cursor over the features of a GeoJSON FeatureCollection.
+ *
+ *The next() method returns the geometry of the next feature. The feature id
+ *and the location of the raw properties object in the source are available
+ *until the next call. The geometry ID is the index of the feature, starting
+ *at 0.
+ */
+public abstract class GeoJsonFeatureCursor extends GeometryCursor {
+	/**
+	 *Returns false when the geometry of the current feature is null. The
+	 *next() method returns an empty geometry of the requested type for such a
+	 *feature, or an empty Point when the type is Unknown.
+	 */
+	public abstract boolean hasGeometry();
+
+	/**
+	 *Returns the id of the current feature, as a string for both the string
+	 *and the number ids, or null when the feature has no id.
+	 */
+	public abstract String getFeatureId();
+
+	/**
+	 *Returns the offset of the first character of the properties object of the
+	 *current feature in the source, or -1 when the feature has no properties.
+	 *The offset counts bytes for the byte sources and characters for the
+	 *character sources.
+	 */
+	public abstract long getPropertiesStart();
+
+	/**
+	 *Returns the offset after the last character of the properties object of
+	 *the current feature, or -1 when the feature has no properties.
+	 */
+	public abstract long getPropertiesEnd();
+
+	/**
+	 *Returns the spatial reference of the collection. Only a crs member that
+	 *precedes the features array is taken into account.
+	 */
+	public abstract SpatialReference getSpatialReference();
+}
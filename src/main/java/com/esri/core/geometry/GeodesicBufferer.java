@@ -0,0 +1,441 @@
+/*
+ Copyright 1995-2019 Esri
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+
+ For additional information, contact:
+ Environmental Systems Research Institute, Inc.
+ Attn: Contracts Dept
+ 380 New York Street
+ Redlands, California, USA 92373
+
+ email: contracts@esri.com
+ */
+
+package com.esri.core.geometry;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+
+/**
+ * Creates geodesic buffers on the ellipsoid of a geographic coordinate
+ * system. The buffer of a point is a geodesic circle. The buffer of a segment
+ * is bounded by the curves at the buffer distance perpendicular to the
+ * segment, with half circles at its ends. Buffers of paths and rings are the
+ * union of the buffers of their segments.
+ * 
+ * Point buffers by the same distance are created from circle templates that
+ * are computed once per latitude band, and moved and scaled to the point.
+ */
+class GeodesicBufferer {
+	/**
+	 * Templates are used only when the circle stays below this latitude.
+	 * Closer to the poles the shape of the circle changes too fast.
+	 */
+	private static final double TEMPLATE_MAX_LATITUDE = 80.0;
+
+	private static final int MAX_CACHED_TEMPLATES = 4096;
+
+	private static final int MAX_VERTICES_IN_FULL_CIRCLE = 4096;
+
+	private final SpatialReference m_sr;
+	private final Ellipsoid m_ellipsoid;
+	private final double m_a;
+	private final double m_e2;
+	private final int m_curveType;
+	private final double m_maxDeviation;
+	private final ProgressTracker m_progressTracker;
+	private final PeDouble m_lam = new PeDouble();
+	private final PeDouble m_phi = new PeDouble();
+	private final PeDouble m_az = new PeDouble();
+	private final PeDouble m_dist = new PeDouble();
+
+	// The parameters of the current distance.
+	private double m_distance = NumberUtils.NaN();
+	private double m_deviation;
+	private int m_circleVertexCount;
+	private double m_sideStep;
+
+	// The circle templates of the current distance.
+	private double m_bandHeight = NumberUtils.NaN();
+	private HashMap<Integer, double[]> m_templates;
+
+	GeodesicBufferer(SpatialReference sr, int curveType,
+			double maxDeviationMeters, ProgressTracker progressTracker) {
+		m_sr = sr;
+		m_ellipsoid = Ellipsoid.fromSpatialReference(sr);
+		m_a = m_ellipsoid.getSemiMajorAxis();
+		m_e2 = m_ellipsoid.getEccentricitySquared();
+		m_curveType = curveType;
+		m_maxDeviation = maxDeviationMeters;
+		m_progressTracker = progressTracker;
+	}
+
+	/**
+	 * Buffers the geometry, which is in degrees on the ellipsoid of the
+	 * spatial reference.
+	 */
+	Geometry buffer(Geometry geom, double distance) {
+		if (geom == null)
+			throw new IllegalArgumentException();
+
+		if (NumberUtils.isNaN(distance))
+			throw new IllegalArgumentException();
+
+		Geometry.Type type = geom.getType();
+		if (type == Geometry.Type.Envelope) {
+			Polygon polygon = new Polygon(geom.getDescription());
+			polygon.addEnvelope((Envelope) geom, false);
+			geom = polygon;
+			type = Geometry.Type.Polygon;
+		} else if (Geometry.isSegment(type.value())) {
+			Polyline polyline = new Polyline(geom.getDescription());
+			polyline.addSegment((Segment) geom, true);
+			geom = polyline;
+			type = Geometry.Type.Polyline;
+		}
+
+		if (geom.isEmpty()
+				|| (distance <= 0 && type != Geometry.Type.Polygon))
+			return new Polygon(geom.getDescription());
+
+		if (distance == 0)
+			return geom;
+
+		setDistance_(Math.abs(distance));
+		if (type == Geometry.Type.Point) {
+			Point2D pt = ((Point) geom).getXY();
+			return bufferPoint_(pt.x, pt.y);
+		}
+
+		if (Geometry.isMultiPath(type.value())
+				&& ((MultiPath) geom).hasNonLinearSegments())
+			throw new GeometryException("not implemented");
+
+		if (m_curveType == GeodeticCurveType.ShapePreserving
+				&& type != Geometry.Type.MultiPoint) {
+			// Densify in degrees, so that the geodesics between the new
+			// vertices stay close to the lines of the input.
+			geom = OperatorDensifyByLength.local().execute(geom,
+					Math.toDegrees(m_sideStep / m_a), m_progressTracker);
+		}
+
+		ArrayList<Geometry> pieces = new ArrayList<Geometry>();
+		MultiVertexGeometryImpl impl = (MultiVertexGeometryImpl) geom
+				._getImpl();
+		AttributeStreamOfDbl xy = (AttributeStreamOfDbl) impl
+				.getAttributeStreamRef(VertexDescription.Semantics.POSITION);
+		if (type == Geometry.Type.MultiPoint) {
+			for (int i = 0, n = impl.getPointCount(); i < n; i++)
+				pieces.add(bufferPoint_(xy.read(2 * i), xy.read(2 * i + 1)));
+		} else {
+			MultiPathImpl mp = (MultiPathImpl) impl;
+			for (int ipath = 0, npaths = mp.getPathCount(); ipath < npaths; ipath++) {
+				ProgressTracker.checkAndThrow(m_progressTracker);
+				int start = mp.getPathStart(ipath);
+				int end = mp.getPathEnd(ipath);
+				int last = mp.isClosedPath(ipath) ? end : end - 1;
+				if (end - start == 1 || (end - start == 2 && last == end)) {
+					// A path with one point, or a degenerate ring.
+					pieces.add(bufferPoint_(xy.read(2 * start),
+							xy.read(2 * start + 1)));
+				}
+
+				for (int i = start; i < last; i++) {
+					int inext = i + 1 < end ? i + 1 : start;
+					Polygon sausage = bufferSegment_(xy.read(2 * i),
+							xy.read(2 * i + 1), xy.read(2 * inext),
+							xy.read(2 * inext + 1));
+					if (sausage != null)
+						pieces.add(sausage);
+				}
+			}
+		}
+
+		if (type == Geometry.Type.Polygon) {
+			if (distance > 0)
+				pieces.add(geom);
+			else {
+				Geometry boundary = union_(pieces);
+				return OperatorDifference.local().execute(geom, boundary,
+						m_sr, m_progressTracker);
+			}
+		}
+
+		return union_(pieces);
+	}
+
+	private Geometry union_(ArrayList<Geometry> pieces) {
+		if (pieces.size() == 1)
+			return pieces.get(0);
+
+		return OperatorUnion.local()
+				.execute(new SimpleGeometryCursor(pieces), m_sr,
+						m_progressTracker).next();
+	}
+
+	/**
+	 * Sets the vertex count of the circles and the vertex spacing along
+	 * segments for the distance, and drops the templates of the previous
+	 * distance.
+	 */
+	private void setDistance_(double distance) {
+		if (distance == m_distance)
+			return;
+
+		m_distance = distance;
+		int vertexCount;
+		if (NumberUtils.isNaN(m_maxDeviation) || m_maxDeviation <= 0)
+			vertexCount = 96;
+		else if (m_maxDeviation >= distance)
+			vertexCount = 12;
+		else {
+			double count = Math.ceil(Math.PI
+					/ Math.acos(1.0 - m_maxDeviation / distance));
+			vertexCount = (int) Math.min(count, MAX_VERTICES_IN_FULL_CIRCLE);
+		}
+
+		vertexCount = Math.max(12, vertexCount + (vertexCount & 1));
+		m_circleVertexCount = vertexCount;
+		m_deviation = distance * (1 - Math.cos(Math.PI / vertexCount));
+		// The sagitta of a chord of the length L on a curve of the radius R
+		// is L^2 / (8 R).
+		m_sideStep = Math.max(Math.sqrt(8 * m_deviation * m_a), 2 * Math.PI
+				* distance / vertexCount);
+		m_bandHeight = NumberUtils.NaN();
+		m_templates = null;
+	}
+
+	private Polygon bufferPoint_(double x, double y) {
+		ProgressTracker.checkAndThrow(m_progressTracker);
+		double dlat = Math.toDegrees(m_distance
+				/ (m_a * (1 - m_e2)));
+		if (Math.abs(y) + dlat < TEMPLATE_MAX_LATITUDE) {
+			double[] template = getTemplate_(y);
+			if (template != null)
+				return placeTemplate_(template, x, y);
+		}
+
+		return circle_(x, y);
+	}
+
+	/**
+	 * Returns the template for the latitude band of y, or null when the
+	 * templates do not meet the deviation.
+	 */
+	private double[] getTemplate_(double y) {
+		if (NumberUtils.isNaN(m_bandHeight)) {
+			m_bandHeight = findBandHeight_();
+			m_templates = new HashMap<Integer, double[]>();
+		}
+
+		if (m_bandHeight == 0)
+			return null;
+
+		int band = (int) Math.floor(y / m_bandHeight);
+		double[] template = m_templates.get(band);
+		if (template == null) {
+			if (m_templates.size() >= MAX_CACHED_TEMPLATES)
+				m_templates.clear();
+
+			template = createTemplate_((band + 0.5) * m_bandHeight);
+			m_templates.put(band, template);
+		}
+
+		return template;
+	}
+
+	/**
+	 * Finds the band height where the template of a band and the circle at
+	 * the edge of the band differ by less than half of the deviation. The
+	 * difference grows with the latitude, so it is checked at the highest
+	 * latitude where templates are used. Returns 0 if there is no such band
+	 * height.
+	 */
+	private double findBandHeight_() {
+		double dlat = Math.toDegrees(m_distance / (m_a * (1 - m_e2)));
+		double top = TEMPLATE_MAX_LATITUDE - dlat;
+		if (top <= 0)
+			return 0;
+
+		for (double h = 1.0; h >= 1e-4; h *= 0.5) {
+			double center = top - 0.5 * h;
+			double[] template = createTemplate_(center);
+			double[] exact = createTemplate_(top);
+			if (templateError_(template, center, exact, top) <= 0.5 * m_deviation)
+				return h;
+		}
+
+		return 0;
+	}
+
+	private double templateError_(double[] template, double center,
+			double[] exact, double y) {
+		double sx = parallelRadius_(center) / parallelRadius_(y);
+		double sy = meridianRadius_(center) / meridianRadius_(y);
+		double mx = Math.toRadians(parallelRadius_(y));
+		double my = Math.toRadians(meridianRadius_(y));
+		double error = 0;
+		for (int i = 0; i < template.length; i += 2) {
+			double ex = (template[i] * sx - exact[i]) * mx;
+			double ey = (template[i + 1] * sy - exact[i + 1]) * my;
+			error = Math.max(error, Math.sqrt(ex * ex + ey * ey));
+		}
+
+		return error;
+	}
+
+	/**
+	 * Returns the offsets in degrees of the circle vertices from the center at
+	 * the longitude 0 and the given latitude.
+	 */
+	private double[] createTemplate_(double y) {
+		int n = m_circleVertexCount;
+		double[] template = new double[2 * n];
+		double phi = Math.toRadians(y);
+		for (int i = 0; i < n; i++) {
+			GeoDist.geodesic_forward(m_a, m_e2, 0, phi, m_distance, 2
+					* Math.PI * i / n, m_lam, m_phi, null);
+			template[2 * i] = Math.toDegrees(m_lam.val);
+			template[2 * i + 1] = Math.toDegrees(m_phi.val) - y;
+		}
+
+		return template;
+	}
+
+	private Polygon placeTemplate_(double[] template, double x, double y) {
+		double center = (Math.floor(y / m_bandHeight) + 0.5) * m_bandHeight;
+		double sx = parallelRadius_(center) / parallelRadius_(y);
+		double sy = meridianRadius_(center) / meridianRadius_(y);
+		Polygon polygon = new Polygon();
+		polygon.startPath(x + template[0] * sx, y + template[1] * sy);
+		for (int i = 2; i < template.length; i += 2)
+			polygon.lineTo(x + template[i] * sx, y + template[i + 1] * sy);
+
+		return polygon;
+	}
+
+	/**
+	 * Computes the circle around the point. A circle that contains a pole is
+	 * closed along the pole, and spans 360 degrees of longitude.
+	 */
+	private Polygon circle_(double x, double y) {
+		int n = m_circleVertexCount;
+		double phi = Math.toRadians(y);
+		double[] lons = new double[n];
+		double[] lats = new double[n];
+		double prev = x;
+		for (int i = 0; i < n; i++) {
+			GeoDist.geodesic_forward(m_a, m_e2, Math.toRadians(x), phi,
+					m_distance, 2 * Math.PI * i / n, m_lam, m_phi, null);
+			lons[i] = unwrap_(Math.toDegrees(m_lam.val), prev);
+			lats[i] = Math.toDegrees(m_phi.val);
+			prev = lons[i];
+		}
+
+		Polygon polygon = new Polygon();
+		polygon.startPath(lons[0], lats[0]);
+		for (int i = 1; i < n; i++)
+			polygon.lineTo(lons[i], lats[i]);
+
+		double wrap = unwrap_(lons[0], lons[n - 1]) - lons[0];
+		if (Math.abs(wrap) > 180) {
+			// The circle goes around a pole.
+			double pole = y > 0 ? 90 : -90;
+			polygon.lineTo(lons[0] + wrap, lats[0]);
+			polygon.lineTo(lons[0] + wrap, pole);
+			polygon.lineTo(lons[0], pole);
+			if (polygon.calculateArea2D() < 0)
+				polygon.reverseAllPaths();
+		}
+
+		return polygon;
+	}
+
+	/**
+	 * Returns the buffer of the geodesic segment, or null for a segment of
+	 * zero length.
+	 */
+	private Polygon bufferSegment_(double x1, double y1, double x2, double y2) {
+		double lam1 = Math.toRadians(x1), phi1 = Math.toRadians(y1);
+		GeoDist.geodesic_distance_ngs(m_a, m_e2, lam1, phi1,
+				Math.toRadians(x2), Math.toRadians(y2), m_dist, m_az, null);
+		double length = m_dist.val;
+		if (length == 0)
+			return null;
+
+		double az12 = m_az.val;
+		int steps = (int) Math.min(10000, Math.ceil(length / m_sideStep));
+		double[] lons = new double[steps + 1];
+		double[] lats = new double[steps + 1];
+		double[] azs = new double[steps + 1];
+		lons[0] = x1;
+		lats[0] = y1;
+		azs[0] = az12;
+		for (int i = 1; i <= steps; i++) {
+			GeoDist.geodesic_forward(m_a, m_e2, lam1, phi1, length * i
+					/ steps, az12, m_lam, m_phi, m_az);
+			lons[i] = unwrap_(Math.toDegrees(m_lam.val), lons[i - 1]);
+			lats[i] = Math.toDegrees(m_phi.val);
+			azs[i] = m_az.val - Math.PI;
+		}
+
+		// Clockwise: the left side forward, the cap at the end, the right
+		// side backward and the cap at the start.
+		int half = m_circleVertexCount / 2;
+		Polygon polygon = new Polygon();
+		for (int i = 0; i <= steps; i++)
+			offset_(polygon, lons[i], lats[i], azs[i] - Math.PI / 2, i == 0);
+
+		for (int i = 1; i < half; i++)
+			offset_(polygon, lons[steps], lats[steps], azs[steps] - Math.PI
+					/ 2 + Math.PI * i / half, false);
+
+		for (int i = steps; i >= 0; i--)
+			offset_(polygon, lons[i], lats[i], azs[i] + Math.PI / 2, false);
+
+		for (int i = 1; i < half; i++)
+			offset_(polygon, lons[0], lats[0], azs[0] + Math.PI / 2 + Math.PI
+					* i / half, false);
+
+		return polygon;
+	}
+
+	private void offset_(Polygon polygon, double x, double y, double az,
+			boolean bStart) {
+		GeoDist.geodesic_forward(m_a, m_e2, Math.toRadians(x),
+				Math.toRadians(y), m_distance, az, m_lam, m_phi, null);
+		double lon = unwrap_(Math.toDegrees(m_lam.val), x);
+		double lat = Math.toDegrees(m_phi.val);
+		if (bStart)
+			polygon.startPath(lon, lat);
+		else
+			polygon.lineTo(lon, lat);
+	}
+
+	/**
+	 * Returns the longitude that is equal to lon modulo 360 and closest to
+	 * ref.
+	 */
+	private static double unwrap_(double lon, double ref) {
+		return ref + Math.IEEEremainder(lon - ref, 360.0);
+	}
+
+	private double parallelRadius_(double y) {
+		return m_ellipsoid.parallelRadius(Math.toRadians(y));
+	}
+
+	private double meridianRadius_(double y) {
+		return m_ellipsoid.meridianRadius(Math.toRadians(y));
+	}
+}
@@ -0,0 +1,369 @@
+/*
+ Copyright 1995-2019 Esri
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+
+ For additional information, contact:
+ Environmental Systems Research Institute, Inc.
+ Attn: Contracts Dept
+ 380 New York Street
+ Redlands, California, USA 92373
+
+ email: contracts@esri.com
+ */
+
+package com.esri.core.geometry;
+
+/**
+ * Densifies the segments of multipaths along geodetic curves, or along the
+ * straight lines of the coordinate system while keeping the joining
+ * geodesics close to them.
+ * 
+ * The densified geometry is written in two passes. The first pass counts the
+ * vertices of each segment, so that the second pass can write them directly
+ * into attribute streams of the final size.
+ */
+class GeodeticDensifier {
+	private static final int MAX_PIECES_PER_SEGMENT = 1 << 20;
+
+	private final Ellipsoid m_ellipsoid;
+	private final double m_a;
+	private final double m_e2;
+	private final boolean m_bWebMercator;
+	private final int m_curveType;
+	private final double m_maxLength;
+	private final double m_maxDeviation;
+	private final ProgressTracker m_progressTracker;
+	private final PeDouble m_dist = new PeDouble();
+	private final PeDouble m_az = new PeDouble();
+	private final PeDouble m_lam = new PeDouble();
+	private final PeDouble m_phi = new PeDouble();
+	private final double[] m_xy = new double[2];
+
+	// The current segment, from its lower end point.
+	private double m_x1, m_y1, m_x2, m_y2;
+	private double m_lam1, m_phi1, m_lam12, m_phi2;
+	private double m_length;
+	private double m_azimuth;
+
+	/**
+	 * @param maxLength
+	 *            The maximum geodesic length of the new segments in meters.
+	 *            NaN or zero disables it.
+	 * @param maxDeviation
+	 *            For the shape preserving curve type, the maximum distance in
+	 *            meters between a segment and the geodesics that replace it.
+	 *            NaN or zero disables it.
+	 */
+	GeodeticDensifier(SpatialReference sr, int curveType, double maxLength,
+			double maxDeviation, ProgressTracker progressTracker) {
+		switch (curveType) {
+		case GeodeticCurveType.Geodesic:
+		case GeodeticCurveType.Loxodrome:
+		case GeodeticCurveType.ShapePreserving:
+			break;
+		default:
+			throw new GeometryException("not implemented");
+		}
+
+		m_ellipsoid = Ellipsoid.fromSpatialReference(sr);
+		m_a = m_ellipsoid.getSemiMajorAxis();
+		m_e2 = m_ellipsoid.getEccentricitySquared();
+		m_bWebMercator = ProjectionTransformation.isWebMercator_(sr
+				.getLatestID());
+		if (!m_bWebMercator && !Ellipsoid.isGeographic(sr))
+			throw new GeometryException("not implemented");
+
+		m_curveType = curveType;
+		m_maxLength = maxLength > 0 ? maxLength : 0;
+		m_maxDeviation = maxDeviation > 0 ? maxDeviation : 0;
+		m_progressTracker = progressTracker;
+	}
+
+	Geometry densify(Geometry geom) {
+		if (geom.isEmpty() || geom.getDimension() < 1)
+			return geom;
+
+		if (m_maxLength == 0 && m_maxDeviation == 0)
+			return geom;
+
+		Geometry.Type type = geom.getType();
+		MultiPath src;
+		if (type == Geometry.Type.Envelope) {
+			src = new Polygon(geom.getDescription());
+			src.addEnvelope((Envelope) geom, false);
+		} else if (Geometry.isSegment(type.value())) {
+			src = new Polyline(geom.getDescription());
+			src.addSegment((Segment) geom, true);
+		} else
+			src = (MultiPath) geom;
+
+		if (src.hasNonLinearSegments())
+			throw new GeometryException("not implemented");
+
+		MultiPathImpl srcImpl = (MultiPathImpl) src._getImpl();
+		AttributeStreamOfDbl srcXY = (AttributeStreamOfDbl) srcImpl
+				.getAttributeStreamRef(VertexDescription.Semantics.POSITION);
+		int pathCount = srcImpl.getPathCount();
+
+		// Count the pieces of each segment. The segments of a path are
+		// indexed by their start vertex.
+		int[] pieces = new int[srcImpl.getPointCount()];
+		int pointCount = 0;
+		for (int ipath = 0; ipath < pathCount; ipath++) {
+			ProgressTracker.checkAndThrow(m_progressTracker);
+			int start = srcImpl.getPathStart(ipath);
+			int end = srcImpl.getPathEnd(ipath);
+			boolean bClosed = srcImpl.isClosedPath(ipath);
+			int last = bClosed ? end : end - 1;
+			for (int i = start; i < last; i++) {
+				int inext = i + 1 < end ? i + 1 : start;
+				setSegment_(srcXY.read(2 * i), srcXY.read(2 * i + 1),
+						srcXY.read(2 * inext), srcXY.read(2 * inext + 1));
+				pieces[i] = countPieces_();
+				pointCount += pieces[i];
+			}
+
+			if (!bClosed)
+				pointCount++;
+		}
+
+		// Allocate the streams of the result with their final size.
+		VertexDescription vd = src.getDescription();
+		int attributeCount = vd.getAttributeCount();
+		AttributeStreamBase[] srcStreams = new AttributeStreamBase[attributeCount];
+		AttributeStreamBase[] dstStreams = new AttributeStreamBase[attributeCount];
+		for (int iattr = 0; iattr < attributeCount; iattr++) {
+			int semantics = vd.getSemantics(iattr);
+			srcStreams[iattr] = srcImpl.getAttributeStreamRef(semantics);
+			dstStreams[iattr] = AttributeStreamBase
+					.createAttributeStreamWithSemantics(semantics, pointCount);
+		}
+
+		AttributeStreamOfDbl dstXY = (AttributeStreamOfDbl) dstStreams[0];
+		AttributeStreamOfInt32 paths = (AttributeStreamOfInt32) AttributeStreamBase
+				.createIndexStream(pathCount + 1);
+		AttributeStreamOfInt8 pathFlags = (AttributeStreamOfInt8) AttributeStreamBase
+				.createByteStream(pathCount + 1, (byte) 0);
+		AttributeStreamOfInt8 srcPathFlags = srcImpl.getPathFlagsStreamRef();
+
+		int ipoint = 0;
+		for (int ipath = 0; ipath < pathCount; ipath++) {
+			ProgressTracker.checkAndThrow(m_progressTracker);
+			paths.write(ipath, ipoint);
+			byte flags = srcPathFlags.read(ipath);
+			flags &= ~(byte) PathFlags.enumCalcMask;
+			pathFlags.write(ipath, flags);
+			int start = srcImpl.getPathStart(ipath);
+			int end = srcImpl.getPathEnd(ipath);
+			boolean bClosed = srcImpl.isClosedPath(ipath);
+			int last = bClosed ? end : end - 1;
+			for (int i = start; i < last; i++) {
+				int inext = i + 1 < end ? i + 1 : start;
+				double x1 = srcXY.read(2 * i), y1 = srcXY.read(2 * i + 1);
+				double x2 = srcXY.read(2 * inext), y2 = srcXY.read(2 * inext + 1);
+				boolean bReversed = setSegment_(x1, y1, x2, y2);
+				int n = pieces[i];
+				copyVertex_(srcStreams, i, dstStreams, ipoint, vd);
+				dstXY.write(2 * ipoint, x1);
+				dstXY.write(2 * ipoint + 1, y1);
+				ipoint++;
+				for (int k = 1; k < n; k++) {
+					double t = (double) k / n;
+					position_(bReversed ? (double) (n - k) / n : t);
+					interpolateVertex_(srcStreams, i, inext, t, dstStreams,
+							ipoint, vd);
+					dstXY.write(2 * ipoint, m_xy[0]);
+					dstXY.write(2 * ipoint + 1, m_xy[1]);
+					ipoint++;
+				}
+			}
+
+			if (!bClosed) {
+				copyVertex_(srcStreams, end - 1, dstStreams, ipoint, vd);
+				ipoint++;
+			}
+		}
+
+		paths.write(pathCount, ipoint);
+		MultiPath dst = (MultiPath) src.createInstance();
+		MultiPathImpl dstImpl = (MultiPathImpl) dst._getImpl();
+		for (int iattr = 0; iattr < attributeCount; iattr++)
+			dstImpl.setAttributeStreamRef(vd.getSemantics(iattr),
+					dstStreams[iattr]);
+		dstImpl.setPathFlagsStreamRef(pathFlags);
+		dstImpl.setPathStreamRef(paths);
+		return dst;
+	}
+
+	private static void copyVertex_(AttributeStreamBase[] src, int isrc,
+			AttributeStreamBase[] dst, int idst, VertexDescription vd) {
+		for (int iattr = 0; iattr < src.length; iattr++) {
+			int ncomp = VertexDescription.getComponentCount(vd
+					.getSemantics(iattr));
+			for (int ord = 0; ord < ncomp; ord++)
+				dst[iattr].writeAsDbl(idst * ncomp + ord,
+						src[iattr].readAsDbl(isrc * ncomp + ord));
+		}
+	}
+
+	/**
+	 * Interpolates the attributes other than the position. IDs are copied
+	 * from the start of the segment.
+	 */
+	private static void interpolateVertex_(AttributeStreamBase[] src,
+			int i1, int i2, double t, AttributeStreamBase[] dst, int idst,
+			VertexDescription vd) {
+		for (int iattr = 1; iattr < src.length; iattr++) {
+			int semantics = vd.getSemantics(iattr);
+			int ncomp = VertexDescription.getComponentCount(semantics);
+			boolean bInterpolate = VertexDescription
+					.getPersistence(semantics) == VertexDescription.Persistence.enumDouble;
+			for (int ord = 0; ord < ncomp; ord++) {
+				double v1 = src[iattr].readAsDbl(i1 * ncomp + ord);
+				double v = v1;
+				if (bInterpolate)
+					v += (src[iattr].readAsDbl(i2 * ncomp + ord) - v1) * t;
+				dst[iattr].writeAsDbl(idst * ncomp + ord, v);
+			}
+		}
+	}
+
+	/**
+	 * Sets the current segment. The segment is processed from the lower end
+	 * point, so that segments that are equal except for the direction are
+	 * densified the same way. Returns true if the segment is reversed.
+	 */
+	private boolean setSegment_(double x1, double y1, double x2, double y2) {
+		boolean bReversed = y2 < y1 || (y2 == y1 && x2 < x1);
+		if (bReversed) {
+			double tx = x1, ty = y1;
+			x1 = x2;
+			y1 = y2;
+			x2 = tx;
+			y2 = ty;
+		}
+
+		m_x1 = x1;
+		m_y1 = y1;
+		m_x2 = x2;
+		m_y2 = y2;
+		toGeographic_(x1, y1);
+		m_lam1 = m_xy[0];
+		m_phi1 = m_xy[1];
+		toGeographic_(x2, y2);
+		m_lam12 = Math.IEEEremainder(m_xy[0] - m_lam1, 2 * Math.PI);
+		m_phi2 = m_xy[1];
+		if (m_curveType == GeodeticCurveType.Loxodrome)
+			m_length = m_ellipsoid.loxodromeLength(m_lam12, m_phi1, m_phi2);
+		else {
+			GeoDist.geodesic_distance_ngs(m_a, m_e2, m_lam1, m_phi1,
+					m_lam1 + m_lam12, m_phi2, m_dist, m_az, null);
+			m_length = m_dist.val;
+			m_azimuth = m_az.val;
+		}
+
+		return bReversed;
+	}
+
+	private int countPieces_() {
+		double count = 1;
+		if (m_maxLength > 0)
+			count = Math.ceil(m_length / m_maxLength);
+
+		if (m_curveType == GeodeticCurveType.ShapePreserving
+				&& m_maxDeviation > 0 && m_length > 0) {
+			// The deviation of a geodesic from the segment grows with the
+			// square of its length.
+			position_(0.5);
+			toGeographic_(m_xy[0], m_xy[1]);
+			double lam = m_xy[0], phi = m_xy[1];
+			GeoDist.geodesic_forward(m_a, m_e2, m_lam1, m_phi1, 0.5 * m_length,
+					m_azimuth, m_lam, m_phi, null);
+			GeoDist.geodesic_distance_ngs(m_a, m_e2, lam, phi, m_lam.val,
+					m_phi.val, m_dist, null, null);
+			count = Math.max(count, Math.ceil(Math.sqrt(m_dist.val
+					/ m_maxDeviation)));
+		}
+
+		return (int) Math.max(1, Math.min(count, MAX_PIECES_PER_SEGMENT));
+	}
+
+	/**
+	 * Computes the point at the fraction t of the current segment into m_xy.
+	 */
+	private void position_(double t) {
+		switch (m_curveType) {
+		case GeodeticCurveType.ShapePreserving:
+			m_xy[0] = m_x1 + (m_x2 - m_x1) * t;
+			m_xy[1] = m_y1 + (m_y2 - m_y1) * t;
+			return;
+		case GeodeticCurveType.Geodesic:
+			GeoDist.geodesic_forward(m_a, m_e2, m_lam1, m_phi1, m_length * t,
+					m_azimuth, m_lam, m_phi, null);
+			fromGeographic_(m_lam1 + Math.IEEEremainder(m_lam.val - m_lam1,
+					2 * Math.PI), m_phi.val);
+			return;
+		default:
+			loxodromePosition_(t);
+		}
+	}
+
+	private void loxodromePosition_(double t) {
+		double psi1 = m_ellipsoid.isometricLatitude(m_phi1);
+		double dpsi = m_ellipsoid.isometricLatitude(m_phi2) - psi1;
+		double phi, lam;
+		if (Math.abs(dpsi) < 1e-12) {
+			phi = m_phi1;
+			lam = m_lam1 + m_lam12 * t;
+		} else {
+			double m1 = m_ellipsoid.meridianDistance(m_phi1);
+			double m2 = m_ellipsoid.meridianDistance(m_phi2);
+			phi = m_ellipsoid.latitudeFromMeridianDistance(m1 + (m2 - m1) * t);
+			double psi = m_ellipsoid.isometricLatitude(phi);
+			lam = Double.isInfinite(dpsi) ? m_lam1 : m_lam1 + m_lam12
+					* (psi - psi1) / dpsi;
+		}
+
+		fromGeographic_(lam, phi);
+	}
+
+	private void toGeographic_(double x, double y) {
+		if (m_bWebMercator) {
+			x = ProjectionTransformation.webMercatorXToLongitude(x);
+			y = ProjectionTransformation.webMercatorYToLatitude(y);
+		}
+
+		m_xy[0] = Math.toRadians(x);
+		m_xy[1] = Math.toRadians(y);
+	}
+
+	/**
+	 * Converts radians to the coordinates of the spatial reference. The
+	 * longitude is kept next to the longitude of the segment start, so that
+	 * segments across the antimeridian stay continuous.
+	 */
+	private void fromGeographic_(double lam, double phi) {
+		double lon = Math.toDegrees(lam);
+		double lat = Math.toDegrees(phi);
+		if (m_bWebMercator) {
+			double x = ProjectionTransformation.longitudeToWebMercatorX(lon);
+			double period = 2 * ProjectionTransformation.WEB_MERCATOR_HALF_WIDTH;
+			m_xy[0] = m_x1 + Math.IEEEremainder(x - m_x1, period);
+			m_xy[1] = ProjectionTransformation.latitudeToWebMercatorY(lat);
+		} else {
+			m_xy[0] = m_x1 + Math.IEEEremainder(lon - m_x1, 360.0);
+			m_xy[1] = lat;
+		}
+	}
+}
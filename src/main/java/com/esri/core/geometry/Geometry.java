@@ -624,6 +624,9 @@ public abstract class Geometry implements Serializable {
 			return ln;
 		}
 		
+		if (GeometryExternalizer.canExternalize(this))
+			return new GeometryExternalizer(this, false);
+
 		GenericGeometrySerializer geomSerializer = new GenericGeometrySerializer();
 		geomSerializer.setGeometryByValue(this);
 		return geomSerializer;
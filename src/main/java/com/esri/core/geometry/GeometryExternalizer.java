@@ -0,0 +1,502 @@
+/*
+ Copyright 1995-2019 Esri
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+
+ For additional information, contact:
+ Environmental Systems Research Institute, Inc.
+ Attn: Contracts Dept
+ 380 New York Street
+ Redlands, California, USA 92373
+
+ email: contracts@esri.com
+ */
+
+package com.esri.core.geometry;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.Externalizable;
+import java.io.IOException;
+import java.io.InvalidObjectException;
+import java.io.ObjectInput;
+import java.io.ObjectOutput;
+import java.io.ObjectStreamException;
+
+import com.esri.core.geometry.VertexDescription.Persistence;
+
+/**
+ * A compact, versioned binary serialization of geometries. This is the
+ * writeReplace class for MultiPoint, Polyline and Polygon. It writes the
+ * vertex description, the attribute streams, the path sizes and flags, and the
+ * simple state directly, without building an ESRI shape buffer first. The
+ * older GenericGeometrySerializer and GeometrySerializer streams can still be
+ * read.
+ * 
+ * The static writeGeometry and readGeometry methods can be used with any
+ * DataOutput and DataInput, for example from the custom serializers of a cache
+ * or of a distributed engine. They support all geometry types.
+ * 
+ * With coordinate compression, each double is XORed with the previous value of
+ * the same ordinate and only the nonzero bytes of the result are written. The
+ * compression is lossless. It works best for dense vertices and for
+ * coordinates with few significant digits.
+ */
+public final class GeometryExternalizer implements Externalizable {
+	private static final long serialVersionUID = 1L;
+
+	static final int VERSION = 1;
+	static final int FLAG_COMPRESSED = 1;
+
+	private Geometry m_geometry;
+	private boolean m_bCompress;
+
+	/**
+	 * Used by the deserialization only.
+	 */
+	public GeometryExternalizer() {
+	}
+
+	/**
+	 * Creates an externalizer for the given geometry. Write it to an
+	 * ObjectOutput to serialize the geometry with coordinate compression. The
+	 * deserialized object is the geometry itself.
+	 * 
+	 * @param geometry
+	 *            The geometry to serialize. Curves are not supported.
+	 * @param compressCoordinates
+	 *            Compresses the double attribute streams when true.
+	 */
+	public GeometryExternalizer(Geometry geometry, boolean compressCoordinates) {
+		if (geometry == null)
+			throw new IllegalArgumentException();
+
+		m_geometry = geometry;
+		m_bCompress = compressCoordinates;
+	}
+
+	@Override
+	public void writeExternal(ObjectOutput out) throws IOException {
+		writeGeometry(m_geometry, out, m_bCompress);
+	}
+
+	@Override
+	public void readExternal(ObjectInput in) throws IOException {
+		m_geometry = readGeometry(in);
+	}
+
+	public Object readResolve() throws ObjectStreamException {
+		if (m_geometry == null)
+			throw new InvalidObjectException("Cannot read geometry from stream");
+
+		return m_geometry;
+	}
+
+	/**
+	 * Writes the geometry in the compact binary format.
+	 * 
+	 * @param geometry
+	 *            The geometry to write. Curves are not supported.
+	 * @param out
+	 *            The output to write to.
+	 * @param compressCoordinates
+	 *            Compresses the double attribute streams when true.
+	 */
+	public static void writeGeometry(Geometry geometry, DataOutput out,
+			boolean compressCoordinates) throws IOException {
+		if (!canExternalize(geometry))
+			throw new GeometryException("Cannot serialize this geometry");
+
+		Geometry.Type gt = geometry.getType();
+		VertexDescription vd = geometry.getDescription();
+		out.writeByte(VERSION);
+		out.writeByte(compressCoordinates ? FLAG_COMPRESSED : 0);
+		out.writeShort(gt.value());
+		out.writeInt(vd.m_semanticsBitArray);
+		switch (gt) {
+		case Point:
+			writePoint_((Point) geometry, out);
+			break;
+		case Envelope:
+			writeEnvelope_((Envelope) geometry, out);
+			break;
+		case Line:
+			writeLine_((Line) geometry, out);
+			break;
+		default:
+			writeMultiVertex_((MultiVertexGeometryImpl) geometry._getImpl(),
+					out, compressCoordinates);
+			break;
+		}
+	}
+
+	/**
+	 * Reads a geometry written by writeGeometry.
+	 * 
+	 * @param in
+	 *            The input to read from.
+	 * @return Returns the geometry.
+	 */
+	public static Geometry readGeometry(DataInput in) throws IOException {
+		int version = in.readUnsignedByte();
+		if (version != VERSION)
+			throw new InvalidObjectException(
+					"Unsupported geometry serialization version " + version);
+
+		boolean bCompressed = (in.readUnsignedByte() & FLAG_COMPRESSED) != 0;
+		int typeValue = in.readShort();
+		int descriptionBitMask = in.readInt();
+		VertexDescription vd;
+		Geometry.Type gt;
+		try {
+			vd = VertexDescriptionDesignerImpl
+					.getVertexDescription(descriptionBitMask);
+			gt = Geometry.Type.intToType(typeValue);
+		} catch (RuntimeException e) {
+			throw new InvalidObjectException("Cannot read geometry from stream");
+		}
+
+		switch (gt) {
+		case Point:
+			return readPoint_(vd, in);
+		case Envelope:
+			return readEnvelope_(vd, in);
+		case Line:
+			return readLine_(vd, in);
+		case MultiPoint:
+			return readMultiVertex_(new MultiPoint(vd), in, bCompressed);
+		case Polyline:
+			return readMultiVertex_(new Polyline(vd), in, bCompressed);
+		case Polygon:
+			return readMultiVertex_(new Polygon(vd), in, bCompressed);
+		default:
+			throw new InvalidObjectException("Cannot read geometry from stream");
+		}
+	}
+
+	static boolean canExternalize(Geometry geometry) {
+		if (geometry == null)
+			return false;
+
+		Geometry.Type gt = geometry.getType();
+		if (gt == Geometry.Type.Point || gt == Geometry.Type.Envelope
+				|| gt == Geometry.Type.Line)
+			return true;
+
+		if (Geometry.isMultiPath(gt.value()))
+			return !((MultiPathImpl) geometry._getImpl())
+					.hasNonLinearSegments();
+
+		return gt == Geometry.Type.MultiPoint;
+	}
+
+	private static void writePoint_(Point point, DataOutput out)
+			throws IOException {
+		out.writeBoolean(point.isEmpty());
+		if (point.isEmpty())
+			return;
+
+		VertexDescription vd = point.getDescription();
+		for (int i = 0, n = vd.getAttributeCount(); i < n; i++) {
+			int semantics = vd.getSemantics(i);
+			for (int ord = 0, comps = VertexDescription
+					.getComponentCount(semantics); ord < comps; ord++)
+				out.writeDouble(point.getAttributeAsDbl(semantics, ord));
+		}
+	}
+
+	private static Point readPoint_(VertexDescription vd, DataInput in)
+			throws IOException {
+		Point point = new Point(vd);
+		if (in.readBoolean())
+			return point;
+
+		point.setXY(in.readDouble(), in.readDouble());
+		for (int i = 1, n = vd.getAttributeCount(); i < n; i++) {
+			int semantics = vd.getSemantics(i);
+			for (int ord = 0, comps = VertexDescription
+					.getComponentCount(semantics); ord < comps; ord++)
+				point.setAttribute(semantics, ord, in.readDouble());
+		}
+
+		return point;
+	}
+
+	private static void writeEnvelope_(Envelope env, DataOutput out)
+			throws IOException {
+		out.writeBoolean(env.isEmpty());
+		if (env.isEmpty())
+			return;
+
+		VertexDescription vd = env.getDescription();
+		for (int i = 0, n = vd.getAttributeCount(); i < n; i++) {
+			int semantics = vd.getSemantics(i);
+			for (int ord = 0, comps = VertexDescription
+					.getComponentCount(semantics); ord < comps; ord++) {
+				Envelope1D interval = env.queryInterval(semantics, ord);
+				out.writeDouble(interval.vmin);
+				out.writeDouble(interval.vmax);
+			}
+		}
+	}
+
+	private static Envelope readEnvelope_(VertexDescription vd, DataInput in)
+			throws IOException {
+		Envelope env = new Envelope(vd);
+		if (in.readBoolean())
+			return env;
+
+		for (int i = 0, n = vd.getAttributeCount(); i < n; i++) {
+			int semantics = vd.getSemantics(i);
+			for (int ord = 0, comps = VertexDescription
+					.getComponentCount(semantics); ord < comps; ord++) {
+				double vmin = in.readDouble();
+				double vmax = in.readDouble();
+				env.setInterval(semantics, ord, vmin, vmax);
+			}
+		}
+
+		return env;
+	}
+
+	private static void writeLine_(Line line, DataOutput out)
+			throws IOException {
+		VertexDescription vd = line.getDescription();
+		for (int i = 0, n = vd.getAttributeCount(); i < n; i++) {
+			int semantics = vd.getSemantics(i);
+			for (int ord = 0, comps = VertexDescription
+					.getComponentCount(semantics); ord < comps; ord++) {
+				out.writeDouble(line.getStartAttributeAsDbl(semantics, ord));
+				out.writeDouble(line.getEndAttributeAsDbl(semantics, ord));
+			}
+		}
+	}
+
+	private static Line readLine_(VertexDescription vd, DataInput in)
+			throws IOException {
+		Line line = new Line(vd);
+		for (int i = 0, n = vd.getAttributeCount(); i < n; i++) {
+			int semantics = vd.getSemantics(i);
+			for (int ord = 0, comps = VertexDescription
+					.getComponentCount(semantics); ord < comps; ord++) {
+				line.setStartAttribute(semantics, ord, in.readDouble());
+				line.setEndAttribute(semantics, ord, in.readDouble());
+			}
+		}
+
+		return line;
+	}
+
+	private static void writeMultiVertex_(MultiVertexGeometryImpl impl,
+			DataOutput out, boolean bCompress) throws IOException {
+		int pointCount = impl.getPointCount();
+		writeVarInt_(out, pointCount);
+		if (pointCount == 0)
+			return;
+
+		out.writeByte(impl.getIsSimple(0));
+		out.writeDouble(impl.m_simpleTolerance);
+		if (impl instanceof MultiPathImpl) {
+			MultiPathImpl mpImpl = (MultiPathImpl) impl;
+			AttributeStreamOfInt32 paths = mpImpl.getPathStreamRef();
+			AttributeStreamOfInt8 pathFlags = mpImpl.getPathFlagsStreamRef();
+			int pathCount = mpImpl.getPathCount();
+			writeVarInt_(out, pathCount);
+			for (int ipath = 0; ipath < pathCount; ipath++) {
+				writeVarInt_(out, paths.read(ipath + 1) - paths.read(ipath));
+				out.writeByte(pathFlags.read(ipath));
+			}
+		}
+
+		VertexDescription vd = impl.getDescription();
+		for (int i = 0, n = vd.getAttributeCount(); i < n; i++) {
+			int semantics = vd.getSemantics(i);
+			int comps = VertexDescription.getComponentCount(semantics);
+			AttributeStreamBase stream = impl.getAttributeStreamRef(semantics);
+			int count = pointCount * comps;
+			int persistence = VertexDescription.getPersistence(semantics);
+			if (persistence == Persistence.enumDouble) {
+				AttributeStreamOfDbl dbl = (AttributeStreamOfDbl) stream;
+				if (bCompress) {
+					long[] prev = new long[comps];
+					for (int j = 0; j < count; j++) {
+						long bits = Double.doubleToRawLongBits(dbl.read(j));
+						writeXor_(out, bits ^ prev[j % comps]);
+						prev[j % comps] = bits;
+					}
+				} else {
+					for (int j = 0; j < count; j++)
+						out.writeDouble(dbl.read(j));
+				}
+			} else if (persistence == Persistence.enumInt32) {
+				AttributeStreamOfInt32 ints = (AttributeStreamOfInt32) stream;
+				if (bCompress) {
+					int prev = 0;
+					for (int j = 0; j < count; j++) {
+						int v = ints.read(j);
+						int delta = v - prev;
+						writeVarInt_(out, (delta << 1) ^ (delta >> 31));
+						prev = v;
+					}
+				} else {
+					for (int j = 0; j < count; j++)
+						out.writeInt(ints.read(j));
+				}
+			} else {
+				for (int j = 0; j < count; j++)
+					out.writeDouble(stream.readAsDbl(j));
+			}
+		}
+	}
+
+	private static Geometry readMultiVertex_(Geometry geometry, DataInput in,
+			boolean bCompressed) throws IOException {
+		MultiVertexGeometryImpl impl = (MultiVertexGeometryImpl) geometry
+				._getImpl();
+		int pointCount = readVarInt_(in);
+		if (pointCount == 0)
+			return geometry;
+
+		int simpleFlag = in.readByte();
+		double tolerance = in.readDouble();
+		if (impl instanceof MultiPathImpl) {
+			int pathCount = readVarInt_(in);
+			if (pathCount <= 0 || pathCount > pointCount)
+				throw new InvalidObjectException(
+						"Cannot read geometry from stream");
+
+			AttributeStreamOfInt32 paths = (AttributeStreamOfInt32) AttributeStreamBase
+					.createIndexStream(pathCount + 1);
+			AttributeStreamOfInt8 pathFlags = (AttributeStreamOfInt8) AttributeStreamBase
+					.createByteStream(pathCount + 1);
+			int start = 0;
+			paths.write(0, 0);
+			for (int ipath = 0; ipath < pathCount; ipath++) {
+				start += readVarInt_(in);
+				paths.write(ipath + 1, start);
+				pathFlags.write(ipath, in.readByte());
+			}
+
+			pathFlags.write(pathCount, (byte) 0);
+			if (start != pointCount)
+				throw new InvalidObjectException(
+						"Cannot read geometry from stream");
+
+			MultiPathImpl mpImpl = (MultiPathImpl) impl;
+			mpImpl.setPathStreamRef(paths);
+			mpImpl.setPathFlagsStreamRef(pathFlags);
+		} else {
+			((MultiPointImpl) impl).resize(pointCount);
+		}
+
+		VertexDescription vd = impl.getDescription();
+		for (int i = 0, n = vd.getAttributeCount(); i < n; i++) {
+			int semantics = vd.getSemantics(i);
+			int comps = VertexDescription.getComponentCount(semantics);
+			int count = pointCount * comps;
+			int persistence = VertexDescription.getPersistence(semantics);
+			AttributeStreamBase stream = AttributeStreamBase
+					.createAttributeStreamWithPersistence(persistence, count);
+			if (persistence == Persistence.enumDouble) {
+				AttributeStreamOfDbl dbl = (AttributeStreamOfDbl) stream;
+				if (bCompressed) {
+					long[] prev = new long[comps];
+					for (int j = 0; j < count; j++) {
+						long bits = readXor_(in) ^ prev[j % comps];
+						dbl.write(j, Double.longBitsToDouble(bits));
+						prev[j % comps] = bits;
+					}
+				} else {
+					for (int j = 0; j < count; j++)
+						dbl.write(j, in.readDouble());
+				}
+			} else if (persistence == Persistence.enumInt32) {
+				AttributeStreamOfInt32 ints = (AttributeStreamOfInt32) stream;
+				if (bCompressed) {
+					int prev = 0;
+					for (int j = 0; j < count; j++) {
+						int zigzag = readVarInt_(in);
+						prev += (zigzag >>> 1) ^ -(zigzag & 1);
+						ints.write(j, prev);
+					}
+				} else {
+					for (int j = 0; j < count; j++)
+						ints.write(j, in.readInt());
+				}
+			} else {
+				for (int j = 0; j < count; j++)
+					stream.writeAsDbl(j, in.readDouble());
+			}
+
+			impl.setAttributeStreamRef(semantics, stream);
+		}
+
+		impl.setIsSimple(simpleFlag, tolerance, false);
+		return geometry;
+	}
+
+	// Writes the nonzero bytes of the XOR of two doubles. The header byte
+	// holds the number of leading and trailing zero bytes, or 0 when the
+	// values are equal.
+	private static void writeXor_(DataOutput out, long x) throws IOException {
+		if (x == 0) {
+			out.writeByte(0);
+			return;
+		}
+
+		int lz = Long.numberOfLeadingZeros(x) >> 3;
+		int tz = Long.numberOfTrailingZeros(x) >> 3;
+		out.writeByte(1 + (lz << 3) + tz);
+		for (int shift = (7 - lz) << 3, end = tz << 3; shift >= end; shift -= 8)
+			out.writeByte((int) (x >>> shift));
+	}
+
+	private static long readXor_(DataInput in) throws IOException {
+		int header = in.readUnsignedByte();
+		if (header == 0)
+			return 0;
+
+		header--;
+		int lz = header >> 3;
+		int tz = header & 7;
+		if (lz + tz > 7)
+			throw new InvalidObjectException("Cannot read geometry from stream");
+
+		long x = 0;
+		for (int i = 0, n = 8 - lz - tz; i < n; i++)
+			x = (x << 8) | in.readUnsignedByte();
+
+		return x << (tz << 3);
+	}
+
+	private static void writeVarInt_(DataOutput out, int v) throws IOException {
+		while ((v & ~0x7F) != 0) {
+			out.writeByte((v & 0x7F) | 0x80);
+			v >>>= 7;
+		}
+
+		out.writeByte(v);
+	}
+
+	private static int readVarInt_(DataInput in) throws IOException {
+		int v = 0;
+		for (int shift = 0; shift < 35; shift += 7) {
+			int b = in.readUnsignedByte();
+			v |= (b & 0x7F) << shift;
+			if ((b & 0x80) == 0)
+				return v;
+		}
+
+		throw new InvalidObjectException("Cannot read geometry from stream");
+	}
+}
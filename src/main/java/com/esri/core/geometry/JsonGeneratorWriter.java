@@ -0,0 +1,222 @@
+/*
+ Copyright 1995-2019 Esri
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+
+ For additional information, contact:
+ Environmental Systems Research Institute, Inc.
+ Attn: Contracts Dept
+ 380 New York Street
+ Redlands, California, USA 92373
+
+ email: contracts@esri.com
+ */
+
+package com.esri.core.geometry;
+
+import java.io.IOException;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+
+/**
+ * A JsonWriter around the Jackson JsonGenerator. The doubles are formatted
+ * the same way as by the JsonStringWriter and written as raw values. The
+ * generator is not flushed or closed.
+ */
+final class JsonGeneratorWriter extends JsonWriter {
+	private final JsonGenerator m_generator;
+	private final StringBuilder m_number = new StringBuilder(32);
+	private char[] m_chars = new char[32];
+
+	JsonGeneratorWriter(JsonGenerator generator) {
+		if (generator == null)
+			throw new IllegalArgumentException();
+
+		m_generator = generator;
+	}
+
+	@Override
+	Object getJson() {
+		return null;
+	}
+
+	@Override
+	void startObject() {
+		try {
+			m_generator.writeStartObject();
+		} catch (IOException ex) {
+			throw new JsonGeometryException(ex);
+		}
+	}
+
+	@Override
+	void startArray() {
+		try {
+			m_generator.writeStartArray();
+		} catch (IOException ex) {
+			throw new JsonGeometryException(ex);
+		}
+	}
+
+	@Override
+	void endObject() {
+		try {
+			m_generator.writeEndObject();
+		} catch (IOException ex) {
+			throw new JsonGeometryException(ex);
+		}
+	}
+
+	@Override
+	void endArray() {
+		try {
+			m_generator.writeEndArray();
+		} catch (IOException ex) {
+			throw new JsonGeometryException(ex);
+		}
+	}
+
+	@Override
+	void addFieldName(String fieldName) {
+		try {
+			m_generator.writeFieldName(fieldName);
+		} catch (IOException ex) {
+			throw new JsonGeometryException(ex);
+		}
+	}
+
+	@Override
+	void addPairObject(String fieldName) {
+		addFieldName(fieldName);
+		startObject();
+	}
+
+	@Override
+	void addPairArray(String fieldName) {
+		addFieldName(fieldName);
+		startArray();
+	}
+
+	@Override
+	void addPairString(String fieldName, String v) {
+		addFieldName(fieldName);
+		addValueString(v);
+	}
+
+	@Override
+	void addPairDouble(String fieldName, double v) {
+		addFieldName(fieldName);
+		addValueDouble(v);
+	}
+
+	@Override
+	void addPairDouble(String fieldName, double v, int precision,
+			boolean bFixedPoint) {
+		addFieldName(fieldName);
+		addValueDouble(v, precision, bFixedPoint);
+	}
+
+	@Override
+	void addPairInt(String fieldName, int v) {
+		addFieldName(fieldName);
+		addValueInt(v);
+	}
+
+	@Override
+	void addPairBoolean(String fieldName, boolean v) {
+		addFieldName(fieldName);
+		addValueBoolean(v);
+	}
+
+	@Override
+	void addPairNull(String fieldName) {
+		addFieldName(fieldName);
+		addValueNull();
+	}
+
+	@Override
+	void addValueObject() {
+		startObject();
+	}
+
+	@Override
+	void addValueArray() {
+		startArray();
+	}
+
+	@Override
+	void addValueString(String v) {
+		try {
+			m_generator.writeString(v);
+		} catch (IOException ex) {
+			throw new JsonGeometryException(ex);
+		}
+	}
+
+	@Override
+	void addValueDouble(double v) {
+		addValueDouble(v, 17, false);
+	}
+
+	@Override
+	void addValueDouble(double v, int precision, boolean bFixedPoint) {
+		if (NumberUtils.isNaN(v)) {
+			addValueNull();
+			return;
+		}
+
+		m_number.setLength(0);
+		if (bFixedPoint)
+			StringUtils.appendDoubleF(v, precision, m_number);
+		else
+			StringUtils.appendDouble(v, precision, m_number);
+
+		int length = m_number.length();
+		if (m_chars.length < length)
+			m_chars = new char[length];
+
+		m_number.getChars(0, length, m_chars, 0);
+		try {
+			m_generator.writeRawValue(m_chars, 0, length);
+		} catch (IOException ex) {
+			throw new JsonGeometryException(ex);
+		}
+	}
+
+	@Override
+	void addValueInt(int v) {
+		try {
+			m_generator.writeNumber(v);
+		} catch (IOException ex) {
+			throw new JsonGeometryException(ex);
+		}
+	}
+
+	@Override
+	void addValueBoolean(boolean v) {
+		try {
+			m_generator.writeBoolean(v);
+		} catch (IOException ex) {
+			throw new JsonGeometryException(ex);
+		}
+	}
+
+	@Override
+	void addValueNull() {
+		try {
+			m_generator.writeNull();
+		} catch (IOException ex) {
+			throw new JsonGeometryException(ex);
+		}
+	}
+}
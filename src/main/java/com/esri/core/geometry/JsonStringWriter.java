@@ -23,11 +23,23 @@
  */
 package com.esri.core.geometry;
 
+import java.io.IOException;
+import java.io.Writer;
+
 final class JsonStringWriter extends JsonWriter {
 
+	/**
+	 * Returns the json string, or null when the writer streams to a Writer.
+	 * In that case the remaining buffered text is written out.
+	 */
 	@Override
 	Object getJson() {
 		next_(Action.accept);
+		if (m_out != null) {
+			flush_();
+			return null;
+		}
+
 		return m_jsonString.toString();
 	}
 
@@ -49,12 +61,14 @@ final class JsonStringWriter extends JsonWriter {
 	void endObject() {
 		next_(Action.popObject);
 		m_jsonString.append('}');
+		flushIfFull_();
 	}
 
 	@Override
 	void endArray() {
 		next_(Action.popArray);
 		m_jsonString.append(']');
+		flushIfFull_();
 	}
 
 	@Override
@@ -143,18 +157,21 @@ final class JsonStringWriter extends JsonWriter {
 	void addValueString(String v) {
 		next_(Action.addTerminal);
 		addValueString_(v);
+		flushIfFull_();
 	}
 
 	@Override
 	void addValueDouble(double v) {
 		next_(Action.addTerminal);
 		addValueDouble_(v);
+		flushIfFull_();
 	}
 
 	@Override
 	void addValueDouble(double v, int precision, boolean bFixedPoint) {
 		next_(Action.addTerminal);
 		addValueDouble_(v, precision, bFixedPoint);
+		flushIfFull_();
 	}
 
 	@Override
@@ -182,8 +199,44 @@ final class JsonStringWriter extends JsonWriter {
 		m_functionStack.add(State.start);
 	}
 
+	/**
+	 * Creates a writer that streams the json to the Writer. Only a small
+	 * buffer of text is held in memory. The Writer is not flushed or closed.
+	 */
+	JsonStringWriter(Writer out) {
+		this();
+		if (out == null)
+			throw new IllegalArgumentException();
+
+		m_out = out;
+		m_chars = new char[FLUSH_THRESHOLD + 256];
+	}
+
+	private static final int FLUSH_THRESHOLD = 8192;
+
 	private StringBuilder m_jsonString;
 	private AttributeStreamOfInt32 m_functionStack;
+	private Writer m_out;
+	private char[] m_chars;
+
+	private void flushIfFull_() {
+		if (m_out != null && m_jsonString.length() >= FLUSH_THRESHOLD)
+			flush_();
+	}
+
+	private void flush_() {
+		int length = m_jsonString.length();
+		if (m_chars.length < length)
+			m_chars = new char[length];
+
+		m_jsonString.getChars(0, length, m_chars, 0);
+		m_jsonString.setLength(0);
+		try {
+			m_out.write(m_chars, 0, length);
+		} catch (IOException ex) {
+			throw new JsonGeometryException(ex);
+		}
+	}
 
 	private void addValueObject_() {
 		m_jsonString.append('{');
@@ -0,0 +1,281 @@
+/*
+ Copyright 1995-2019 Esri
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+
+ For additional information, contact:
+ Environmental Systems Research Institute, Inc.
+ Attn: Contracts Dept
+ 380 New York Street
+ Redlands, California, USA 92373
+
+ email: contracts@esri.com
+ */
+
+package com.esri.core.geometry;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * A geometry in ESRI shape or WKB format that is decoded only when needed. The
+ * type and the 2D envelope are available without decoding the vertices. For
+ * ESRI shapes they are read from the shape header. For WKB they are found by
+ * a quick scan of the buffer, without allocations.
+ * 
+ * Use it to reject geometries by an envelope test before paying for the full
+ * import. The buffer is referenced, not copied, and must not be modified until
+ * getGeometry is called. The requested geometry type is checked when the
+ * geometry is decoded.
+ */
+public final class LazyGeometry {
+	private Geometry.Type m_type;
+	private Geometry.Type m_requestedType;
+	private int m_importFlags;
+	private ByteBuffer m_buffer;
+	private boolean m_bWkb;
+	private Envelope2D m_envelope;
+	private Geometry m_geometry;
+
+	private LazyGeometry(int importFlags, Geometry.Type requestedType,
+			Geometry.Type type, ByteBuffer buffer, boolean bWkb,
+			Envelope2D envelope) {
+		m_importFlags = importFlags;
+		m_requestedType = requestedType;
+		m_type = requestedType == Geometry.Type.Unknown ? type : requestedType;
+		m_buffer = buffer;
+		m_bWkb = bWkb;
+		m_envelope = envelope;
+	}
+
+	/**
+	 * Returns the geometry type. When the import was requested with
+	 * Geometry.Type.Unknown, this is the type found in the buffer. It is
+	 * Unknown for the null shape.
+	 */
+	public Geometry.Type getType() {
+		return m_type;
+	}
+
+	/**
+	 * Returns true if the geometry has no vertices.
+	 */
+	public boolean isEmpty() {
+		return m_envelope.isEmpty();
+	}
+
+	/**
+	 * Returns the 2D envelope of the geometry, without decoding it.
+	 */
+	public void queryEnvelope2D(Envelope2D env) {
+		env.setCoords(m_envelope);
+	}
+
+	/**
+	 * Returns true if the geometry has been decoded.
+	 */
+	public boolean isDecoded() {
+		return m_buffer == null;
+	}
+
+	/**
+	 * Decodes the geometry on the first call. The following calls return the
+	 * same instance. The buffer is released after decoding.
+	 * 
+	 * @return Returns the geometry, or null for the null shape.
+	 */
+	public Geometry getGeometry() {
+		if (m_buffer != null) {
+			if (m_bWkb)
+				m_geometry = OperatorImportFromWkb.local().execute(
+						m_importFlags, m_requestedType, m_buffer, null);
+			else
+				m_geometry = OperatorImportFromESRIShape.local().execute(
+						m_importFlags, m_requestedType, m_buffer);
+
+			m_buffer = null;
+		}
+
+		return m_geometry;
+	}
+
+	static LazyGeometry fromESRIShape(int importFlags, Geometry.Type type,
+			ByteBuffer shapeBuffer) {
+		if (shapeBuffer == null)
+			throw new IllegalArgumentException();
+
+		// The shape is always little endian. Absolute reads are used, so that
+		// the buffer is not modified.
+		ByteBuffer buffer = shapeBuffer.duplicate().order(
+				ByteOrder.LITTLE_ENDIAN);
+		Envelope2D envelope = new Envelope2D();
+		envelope.setEmpty();
+		Geometry.Type shapeType;
+		switch (buffer.getInt(0) & ShapeModifiers.ShapeBasicTypeMask) {
+		case ShapeType.ShapePoint:
+		case ShapeType.ShapePointM:
+		case ShapeType.ShapePointZM:
+		case ShapeType.ShapePointZ:
+		case ShapeType.ShapeGeneralPoint:
+			shapeType = Geometry.Type.Point;
+			// As in the importer, the point is empty when x is NaN.
+			double x = Interop.translateFromAVNaN(buffer.getDouble(4));
+			if (!NumberUtils.isNaN(x))
+				envelope.setCoords(x, buffer.getDouble(12));
+			break;
+		case ShapeType.ShapeMultiPoint:
+		case ShapeType.ShapeMultiPointM:
+		case ShapeType.ShapeMultiPointZM:
+		case ShapeType.ShapeMultiPointZ:
+		case ShapeType.ShapeGeneralMultiPoint:
+			shapeType = Geometry.Type.MultiPoint;
+			if (buffer.getInt(36) > 0)
+				readBoundingBox_(buffer, envelope);
+			break;
+		case ShapeType.ShapePolyline:
+		case ShapeType.ShapePolylineM:
+		case ShapeType.ShapePolylineZM:
+		case ShapeType.ShapePolylineZ:
+		case ShapeType.ShapeGeneralPolyline:
+			shapeType = Geometry.Type.Polyline;
+			if (buffer.getInt(40) > 0)
+				readBoundingBox_(buffer, envelope);
+			break;
+		case ShapeType.ShapePolygon:
+		case ShapeType.ShapePolygonM:
+		case ShapeType.ShapePolygonZM:
+		case ShapeType.ShapePolygonZ:
+		case ShapeType.ShapeGeneralPolygon:
+			shapeType = Geometry.Type.Polygon;
+			if (buffer.getInt(40) > 0)
+				readBoundingBox_(buffer, envelope);
+			break;
+		case ShapeType.ShapeNull:
+			shapeType = Geometry.Type.Unknown;
+			break;
+		default:
+			throw new GeometryException("invalid shape type");
+		}
+
+		return new LazyGeometry(importFlags, type, shapeType, shapeBuffer,
+				false, envelope);
+	}
+
+	static LazyGeometry fromWkb(int importFlags, Geometry.Type type,
+			ByteBuffer wkbBuffer) {
+		if (wkbBuffer == null)
+			throw new IllegalArgumentException();
+
+		// As the importer does, the byte order of the first geometry is used
+		// for the whole buffer.
+		ByteBuffer buffer = wkbBuffer.duplicate().order(
+				wkbBuffer.get(0) == WkbByteOrder.wkbNDR ? ByteOrder.LITTLE_ENDIAN
+						: ByteOrder.BIG_ENDIAN);
+		Envelope2D envelope = new Envelope2D();
+		envelope.setEmpty();
+		Geometry.Type wkbType;
+		switch (buffer.getInt(1) % 1000) {
+		case WkbGeometryType.wkbPoint:
+			wkbType = Geometry.Type.Point;
+			break;
+		case WkbGeometryType.wkbMultiPoint:
+			wkbType = Geometry.Type.MultiPoint;
+			break;
+		case WkbGeometryType.wkbLineString:
+		case WkbGeometryType.wkbMultiLineString:
+			wkbType = Geometry.Type.Polyline;
+			break;
+		case WkbGeometryType.wkbPolygon:
+		case WkbGeometryType.wkbMultiPolygon:
+			wkbType = Geometry.Type.Polygon;
+			break;
+		default:
+			throw new GeometryException("invalid shape type");
+		}
+
+		scanWkb_(buffer, 0, envelope);
+		return new LazyGeometry(importFlags, type, wkbType, wkbBuffer, true,
+				envelope);
+	}
+
+	// Merges the xy coordinates of the WKB geometry at the offset into the
+	// envelope. Returns the offset after the geometry. Only the exterior rings
+	// of polygons are read, the holes are skipped.
+	private static int scanWkb_(ByteBuffer buffer, int offset,
+			Envelope2D envelope) {
+		int wkbType = buffer.getInt(offset + 1);
+		int dimensions = wkbType / 1000;
+		if (dimensions < 0 || dimensions > 3)
+			throw new GeometryException("invalid shape type");
+
+		int vertexSize = 8 * (dimensions == 0 ? 2 : dimensions == 3 ? 4 : 3);
+		offset += 5;
+		switch (wkbType % 1000) {
+		case WkbGeometryType.wkbPoint:
+			mergeXY_(envelope, buffer.getDouble(offset),
+					buffer.getDouble(offset + 8));
+			return offset + vertexSize;
+		case WkbGeometryType.wkbLineString:
+			return scanVertices_(buffer, offset, vertexSize, envelope);
+		case WkbGeometryType.wkbPolygon: {
+			int ringCount = buffer.getInt(offset);
+			offset += 4;
+			for (int iring = 0; iring < ringCount; iring++) {
+				if (iring == 0)
+					offset = scanVertices_(buffer, offset, vertexSize,
+							envelope);
+				else
+					offset += 4 + buffer.getInt(offset) * vertexSize;
+			}
+
+			return offset;
+		}
+		case WkbGeometryType.wkbMultiPoint:
+		case WkbGeometryType.wkbMultiLineString:
+		case WkbGeometryType.wkbMultiPolygon:
+		case WkbGeometryType.wkbGeometryCollection: {
+			int count = buffer.getInt(offset);
+			offset += 4;
+			for (int i = 0; i < count; i++)
+				offset = scanWkb_(buffer, offset, envelope);
+
+			return offset;
+		}
+		default:
+			throw new GeometryException("invalid shape type");
+		}
+	}
+
+	private static int scanVertices_(ByteBuffer buffer, int offset,
+			int vertexSize, Envelope2D envelope) {
+		int pointCount = buffer.getInt(offset);
+		offset += 4;
+		for (int i = 0; i < pointCount; i++, offset += vertexSize)
+			mergeXY_(envelope, buffer.getDouble(offset),
+					buffer.getDouble(offset + 8));
+
+		return offset;
+	}
+
+	private static void readBoundingBox_(ByteBuffer buffer, Envelope2D envelope) {
+		envelope.setCoords(buffer.getDouble(4), buffer.getDouble(12),
+				buffer.getDouble(20), buffer.getDouble(28));
+	}
+
+	private static void mergeXY_(Envelope2D envelope, double x, double y) {
+		if (NumberUtils.isNaN(x) || NumberUtils.isNaN(y))
+			return;
+
+		envelope.merge(x, y);
+	}
+}
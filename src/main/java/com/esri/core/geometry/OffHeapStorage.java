@@ -0,0 +1,205 @@
+/*
+ Copyright 1995-2019 Esri
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+
+ For additional information, contact:
+ Environmental Systems Research Institute, Inc.
+ Attn: Contracts Dept
+ 380 New York Street
+ Redlands, California, USA 92373
+
+ email: contracts@esri.com
+ */
+
+package com.esri.core.geometry;
+
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+
+import com.esri.core.geometry.VertexDescription.Persistence;
+
+/**
+ * Stores the vertices of the multivertex geometries outside of the Java heap.
+ * 
+ * The x, y, z and m values of a geometry are kept in direct buffers, or are
+ * mapped from a file without being copied. Such geometries are used as any
+ * other geometry, but do not add to the garbage collected heap, which helps
+ * with very large geometries and with memory mapped datasets. The per path
+ * and per vertex integer data (the path offsets, the flags and the IDs) stay
+ * on the heap.
+ */
+public final class OffHeapStorage {
+	private OffHeapStorage() {
+	}
+
+	/**
+	 * Moves the x, y, z and m values of the geometry to direct buffers. The
+	 * geometry keeps its vertices and its cached simplicity state. Does
+	 * nothing for the values already stored off the heap, or for an empty
+	 * geometry.
+	 * 
+	 * @param geometry
+	 *            The geometry to move.
+	 */
+	public static void moveToDirectBuffers(MultiVertexGeometry geometry) {
+		MultiVertexGeometryImpl impl = (MultiVertexGeometryImpl) geometry
+				._getImpl();
+		if (impl.isEmpty())
+			return;
+
+		VertexDescription description = impl.getDescription();
+		int flagsMask = impl.m_flagsMask;
+		double tolerance = impl.m_simpleTolerance;
+		boolean bModified = false;
+		for (int i = 0, n = description.getAttributeCount(); i < n; i++) {
+			int semantics = description.getSemantics(i);
+			if (VertexDescription.getPersistence(semantics) != Persistence.enumDouble)
+				continue;
+
+			AttributeStreamBase stream = impl.getAttributeStreamRef(semantics);
+			if (stream == null || stream instanceof AttributeStreamOfDblDirect)
+				continue;
+
+			int size = stream.virtualSize();
+			AttributeStreamOfDblDirect direct = new AttributeStreamOfDblDirect(
+					size);
+			direct.writeRange(0, size, stream, 0, true, 1);
+			impl.setAttributeStreamRef(semantics, direct);
+			bModified = true;
+		}
+
+		if (bModified) {
+			// The vertices did not change, so the cached state is valid.
+			impl.m_flagsMask = flagsMask;
+			impl.m_simpleTolerance = tolerance;
+		}
+	}
+
+	/**
+	 * Returns True if the x and y values of the geometry are stored off the
+	 * heap.
+	 * 
+	 * @param geometry
+	 *            The geometry to test.
+	 * @return True for the geometries moved to direct buffers or mapped from a
+	 *         file. False for an empty geometry.
+	 */
+	public static boolean isOffHeap(MultiVertexGeometry geometry) {
+		MultiVertexGeometryImpl impl = (MultiVertexGeometryImpl) geometry
+				._getImpl();
+		return !impl.isEmpty()
+				&& impl.getAttributeStreamRef(VertexDescription.Semantics.POSITION) instanceof AttributeStreamOfDblDirect;
+	}
+
+	/**
+	 * Maps a MultiPoint from a file. The file stores the points as the
+	 * interleaved x and y doubles.
+	 * 
+	 * @param channel
+	 *            The file to map.
+	 * @param mode
+	 *            The mapping mode. The MultiPoint is readonly for the
+	 *            READ_ONLY mode. Changes to the points are written to the file
+	 *            for the READ_WRITE mode.
+	 * @param position
+	 *            The position of the first x value in the file, in bytes.
+	 * @param pointCount
+	 *            The number of points.
+	 * @param byteOrder
+	 *            The byte order of the doubles in the file.
+	 * @return The mapped MultiPoint.
+	 * @throws IOException
+	 *             When the file cannot be mapped.
+	 */
+	public static MultiPoint mapMultiPoint(FileChannel channel,
+			FileChannel.MapMode mode, long position, int pointCount,
+			ByteOrder byteOrder) throws IOException {
+		MultiPoint multiPoint = new MultiPoint();
+		MultiPointImpl impl = (MultiPointImpl) multiPoint._getImpl();
+		impl.setAttributeStreamRef(VertexDescription.Semantics.POSITION,
+				mapXY_(channel, mode, position, pointCount, byteOrder));
+		impl.resize(pointCount);
+		return multiPoint;
+	}
+
+	/**
+	 * Maps a Polyline or a Polygon from a file. The file stores the vertices
+	 * as the interleaved x and y doubles. The paths are given by the offsets
+	 * of their start vertices.
+	 * 
+	 * @param bPolygon
+	 *            True to map a Polygon, false to map a Polyline. The rings of
+	 *            a Polygon must follow the Esri orientation: clockwise
+	 *            exterior rings and counterclockwise holes, without the
+	 *            closing vertex.
+	 * @param pathOffsets
+	 *            The start vertex of each path, followed by the vertex count.
+	 *            Starts with zero and is not decreasing.
+	 * @param channel
+	 *            The file to map.
+	 * @param mode
+	 *            The mapping mode. The geometry is readonly for the READ_ONLY
+	 *            mode.
+	 * @param position
+	 *            The position of the first x value in the file, in bytes.
+	 * @param byteOrder
+	 *            The byte order of the doubles in the file.
+	 * @return The mapped Polyline or Polygon.
+	 * @throws IOException
+	 *             When the file cannot be mapped.
+	 */
+	public static MultiPath mapMultiPath(boolean bPolygon, int[] pathOffsets,
+			FileChannel channel, FileChannel.MapMode mode, long position,
+			ByteOrder byteOrder) throws IOException {
+		if (pathOffsets == null || pathOffsets.length == 0
+				|| pathOffsets[0] != 0)
+			throw new IllegalArgumentException();
+
+		int pathCount = pathOffsets.length - 1;
+		AttributeStreamOfInt32 paths = new AttributeStreamOfInt32(pathCount + 1);
+		AttributeStreamOfInt8 pathFlags = new AttributeStreamOfInt8(
+				pathCount + 1);
+		for (int i = 0; i <= pathCount; i++) {
+			if (i > 0 && pathOffsets[i] < pathOffsets[i - 1])
+				throw new IllegalArgumentException();
+
+			paths.write(i, pathOffsets[i]);
+			if (bPolygon && i < pathCount)
+				pathFlags.write(i, (byte) PathFlags.enumClosed);
+		}
+
+		MultiPath multiPath = bPolygon ? new Polygon() : new Polyline();
+		MultiPathImpl impl = (MultiPathImpl) multiPath._getImpl();
+		int pointCount = pathOffsets[pathCount];
+		impl.setAttributeStreamRef(VertexDescription.Semantics.POSITION,
+				mapXY_(channel, mode, position, pointCount, byteOrder));
+		if (pathCount > 0) {
+			impl.setPathFlagsStreamRef(pathFlags);
+			impl.setPathStreamRef(paths);
+		}
+
+		return multiPath;
+	}
+
+	private static AttributeStreamOfDblDirect mapXY_(FileChannel channel,
+			FileChannel.MapMode mode, long position, int pointCount,
+			ByteOrder byteOrder) throws IOException {
+		if (pointCount < 0 || 2L * pointCount > Integer.MAX_VALUE)
+			throw new IllegalArgumentException();
+
+		return AttributeStreamOfDblDirect.map(channel, mode, position,
+				2 * pointCount, byteOrder);
+	}
+}
@@ -51,7 +51,9 @@ public abstract class Operator {
 
 		Simplify, SimplifyOGC, Offset, Generalize,
 
-		ExportToWkb, ImportFromWkb, ExportToWkt, ImportFromWkt, ImportFromGeoJson, ExportToGeoJson, SymmetricDifference, ConvexHull, Boundary
+		ExportToWkb, ImportFromWkb, ExportToWkt, ImportFromWkt, ImportFromGeoJson, ExportToGeoJson, SymmetricDifference, ConvexHull, Boundary,
+
+		SpatialJoin, ExportToTwkb, ImportFromTwkb, ExportToMvt, ExportToGeoArrow, ImportFromGeoArrow
 
 	}
 
@@ -0,0 +1,64 @@
+/*
+ Copyright 1995-2019 Esri
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+
+ For additional information, contact:
+ Environmental Systems Research Institute, Inc.
+ Attn: Contracts Dept
+ 380 New York Street
+ Redlands, California, USA 92373
+
+ email: contracts@esri.com
+ */
+
+package com.esri.core.geometry;
+
+import com.esri.core.geometry.Operator.Type;
+
+/**
+ *Export of geometries to a GeoArrow column.
+ *
+ *All geometries are written into one shared coordinate buffer and the offset
+ *buffers of the column, instead of one buffer per geometry.
+ */
+public abstract class OperatorExportToGeoArrow extends Operator {
+	@Override
+	public Type getType() {
+		return Type.ExportToGeoArrow;
+	}
+
+	/**
+	 * Performs the ExportToGeoArrow operation.
+	 * @param type The GeoArrow type of the column. Point columns accept Points. MultiPoint columns accept Points and MultiPoints. LineString and MultiLineString columns accept Polylines, and Polygon and MultiPolygon columns accept Polygons. The LineString and Polygon columns require at most one path or one OGC polygon per geometry.
+	 * @param dimensions The coordinate dimensions. Missing attributes are written with their default values.
+	 * @param geometries The geometries to export.
+	 * @return Returns the column. The buffers are trimmed to their size.
+	 */
+	public abstract GeoArrowColumn execute(GeoArrowColumn.Type type,
+			GeoArrowColumn.Dimensions dimensions, GeometryCursor geometries,
+			ProgressTracker progressTracker);
+
+	/**
+	 * Performs the ExportToGeoArrow operation on an array of geometries.
+	 */
+	public abstract GeoArrowColumn execute(GeoArrowColumn.Type type,
+			GeoArrowColumn.Dimensions dimensions, Geometry[] geometries,
+			ProgressTracker progressTracker);
+
+	public static OperatorExportToGeoArrow local() {
+		return (OperatorExportToGeoArrow) OperatorFactoryLocal.getInstance()
+				.getOperator(Type.ExportToGeoArrow);
+	}
+
+}
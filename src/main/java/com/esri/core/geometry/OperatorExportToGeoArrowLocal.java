@@ -0,0 +1,289 @@
+/*
+ Copyright 1995-2019 Esri
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+
+ For additional information, contact:
+ Environmental Systems Research Institute, Inc.
+ Attn: Contracts Dept
+ 380 New York Street
+ Redlands, California, USA 92373
+
+ email: contracts@esri.com
+ */
+
+package com.esri.core.geometry;
+
+import java.util.Arrays;
+
+import com.esri.core.geometry.VertexDescription.Semantics;
+
+class OperatorExportToGeoArrowLocal extends OperatorExportToGeoArrow {
+
+	@Override
+	public GeoArrowColumn execute(GeoArrowColumn.Type type,
+			GeoArrowColumn.Dimensions dimensions, GeometryCursor geometries,
+			ProgressTracker progressTracker) {
+		if (type == null || dimensions == null || geometries == null)
+			throw new IllegalArgumentException();
+
+		ColumnWriter writer = new ColumnWriter(type, dimensions);
+		Geometry geometry;
+		while ((geometry = geometries.next()) != null)
+			writer.add(geometry);
+
+		return writer.toColumn();
+	}
+
+	@Override
+	public GeoArrowColumn execute(GeoArrowColumn.Type type,
+			GeoArrowColumn.Dimensions dimensions, Geometry[] geometries,
+			ProgressTracker progressTracker) {
+		return execute(type, dimensions, new SimpleGeometryCursor(geometries),
+				progressTracker);
+	}
+
+	/**
+	 * Appends the geometries to the growing coordinate and offset buffers.
+	 */
+	private static final class ColumnWriter {
+		final GeoArrowColumn.Type m_type;
+		final GeoArrowColumn.Dimensions m_dimensions;
+		final int m_size;
+		double[] m_coordinates;
+		int m_coordinateCount;
+		final int[][] m_offsets;
+		final int[] m_offsetCounts;
+		int m_length;
+
+		ColumnWriter(GeoArrowColumn.Type type,
+				GeoArrowColumn.Dimensions dimensions) {
+			m_type = type;
+			m_dimensions = dimensions;
+			m_size = dimensions.getSize();
+			m_coordinates = new double[16 * m_size];
+			int levels = type.getNestingLevels();
+			m_offsets = new int[levels][];
+			m_offsetCounts = new int[levels];
+			for (int level = 0; level < levels; level++) {
+				m_offsets[level] = new int[16];
+				m_offsetCounts[level] = 1;
+			}
+		}
+
+		GeoArrowColumn toColumn() {
+			int[][] offsets = new int[m_offsets.length][];
+			for (int level = 0; level < offsets.length; level++)
+				offsets[level] = Arrays.copyOf(m_offsets[level],
+						m_offsetCounts[level]);
+
+			return new GeoArrowColumn(m_type, m_dimensions, m_length,
+					Arrays.copyOf(m_coordinates, m_coordinateCount * m_size),
+					offsets);
+		}
+
+		// Closes the current entry of the level. The entry ends at the current
+		// end of the next level.
+		void closeEntry(int level) {
+			int end = level + 1 < m_offsets.length ? m_offsetCounts[level + 1] - 1
+					: m_coordinateCount;
+			if (m_offsetCounts[level] == m_offsets[level].length)
+				m_offsets[level] = Arrays.copyOf(m_offsets[level],
+						m_offsets[level].length * 2);
+
+			m_offsets[level][m_offsetCounts[level]++] = end;
+		}
+
+		void reserve(int coordinateCount) {
+			int size = (m_coordinateCount + coordinateCount) * m_size;
+			if (size > m_coordinates.length)
+				m_coordinates = Arrays.copyOf(m_coordinates,
+						Math.max(size, m_coordinates.length * 2));
+		}
+
+		void add(Geometry geometry) {
+			Geometry.Type gt = geometry.getType();
+			switch (m_type) {
+			case Point:
+				if (gt != Geometry.Type.Point)
+					throw new IllegalArgumentException("invalid shape type");
+
+				addPoint((Point) geometry, true);
+				break;
+			case MultiPoint:
+				if (gt == Geometry.Type.Point)
+					addPoint((Point) geometry, false);
+				else if (gt == Geometry.Type.MultiPoint)
+					addVertices((MultiVertexGeometryImpl) geometry._getImpl(),
+							0, geometry.isEmpty() ? 0 : ((MultiPoint) geometry)
+									.getPointCount(), false, false);
+				else
+					throw new IllegalArgumentException("invalid shape type");
+
+				closeEntry(0);
+				break;
+			case LineString:
+			case MultiLineString:
+				if (gt != Geometry.Type.Polyline)
+					throw new IllegalArgumentException("invalid shape type");
+
+				addPolyline((MultiPathImpl) geometry._getImpl());
+				break;
+			case Polygon:
+			case MultiPolygon:
+				if (gt != Geometry.Type.Polygon)
+					throw new IllegalArgumentException("invalid shape type");
+
+				addPolygon((MultiPathImpl) geometry._getImpl());
+				break;
+			default:
+				throw GeometryException.GeometryInternalError();
+			}
+
+			m_length++;
+		}
+
+		void addPoint(Point point, boolean bWriteEmpty) {
+			if (point.isEmpty()) {
+				if (!bWriteEmpty)
+					return;
+
+				reserve(1);
+				int index = m_coordinateCount * m_size;
+				for (int i = 0; i < m_size; i++)
+					m_coordinates[index + i] = NumberUtils.NaN();
+
+				m_coordinateCount++;
+				return;
+			}
+
+			reserve(1);
+			int index = m_coordinateCount * m_size;
+			m_coordinates[index++] = point.getX();
+			m_coordinates[index++] = point.getY();
+			if (m_dimensions.hasZ())
+				m_coordinates[index++] = point.getAttributeAsDbl(Semantics.Z, 0);
+			if (m_dimensions.hasM())
+				m_coordinates[index++] = point.getAttributeAsDbl(Semantics.M, 0);
+
+			m_coordinateCount++;
+		}
+
+		void addPolyline(MultiPathImpl polyline) {
+			int pathCount = polyline.getPathCount();
+			boolean bMulti = m_type == GeoArrowColumn.Type.MultiLineString;
+			if (!bMulti && pathCount > 1)
+				throw new IllegalArgumentException(
+						"LineString column requires single path geometries");
+
+			for (int ipath = 0; ipath < pathCount; ipath++) {
+				addVertices(polyline, polyline.getPathStart(ipath),
+						polyline.getPathEnd(ipath), false,
+						polyline.isClosedPath(ipath));
+				if (bMulti)
+					closeEntry(1);
+			}
+
+			closeEntry(0);
+		}
+
+		void addPolygon(MultiPathImpl polygon) {
+			int pathCount = polygon.getPathCount();
+			boolean bMulti = m_type == GeoArrowColumn.Type.MultiPolygon;
+			int ringLevel = bMulti ? 2 : 1;
+			if (pathCount > 0) {
+				// Updates the OGC flags, that mark the first ring of each
+				// polygon.
+				int polygonCount = polygon.getOGCPolygonCount();
+				if (!bMulti && polygonCount > 1)
+					throw new IllegalArgumentException(
+							"Polygon column requires single polygon geometries");
+
+				AttributeStreamOfInt8 pathFlags = polygon
+						.getPathFlagsStreamRef();
+				for (int ipath = 0; ipath < pathCount; ipath++) {
+					if (bMulti
+							&& ipath > 0
+							&& (pathFlags.read(ipath) & PathFlags.enumOGCStartPolygon) != 0)
+						closeEntry(1);
+
+					// The rings are written backwards, because the OGC
+					// orientation is opposite of the shapefile one.
+					addVertices(polygon, polygon.getPathStart(ipath),
+							polygon.getPathEnd(ipath), true, true);
+					closeEntry(ringLevel);
+				}
+
+				if (bMulti)
+					closeEntry(1);
+			}
+
+			closeEntry(0);
+		}
+
+		// Writes the vertices from start to end. The reversed order keeps the
+		// start vertex first. When closing, the start vertex is repeated at the
+		// end.
+		void addVertices(MultiVertexGeometryImpl impl, int start, int end,
+				boolean bReverse, boolean bClose) {
+			int count = end - start;
+			if (count == 0)
+				return;
+
+			reserve(count + (bClose ? 1 : 0));
+			AttributeStreamOfDbl position = (AttributeStreamOfDbl) impl
+					.getAttributeStreamRef(Semantics.POSITION);
+			AttributeStreamOfDbl zs = null;
+			AttributeStreamOfDbl ms = null;
+			if (m_dimensions.hasZ() && impl._attributeStreamIsAllocated(Semantics.Z))
+				zs = (AttributeStreamOfDbl) impl
+						.getAttributeStreamRef(Semantics.Z);
+			if (m_dimensions.hasM() && impl._attributeStreamIsAllocated(Semantics.M))
+				ms = (AttributeStreamOfDbl) impl
+						.getAttributeStreamRef(Semantics.M);
+
+			if (!bReverse && m_size == 2) {
+				position.readRange(2 * start, 2 * count, m_coordinates,
+						2 * m_coordinateCount, true);
+				m_coordinateCount += count;
+			} else {
+				writeVertex(position, zs, ms, start);
+				if (bReverse) {
+					for (int i = end - 1; i > start; i--)
+						writeVertex(position, zs, ms, i);
+				} else {
+					for (int i = start + 1; i < end; i++)
+						writeVertex(position, zs, ms, i);
+				}
+			}
+
+			if (bClose)
+				writeVertex(position, zs, ms, start);
+		}
+
+		void writeVertex(AttributeStreamOfDbl position,
+				AttributeStreamOfDbl zs, AttributeStreamOfDbl ms, int i) {
+			int index = m_coordinateCount * m_size;
+			m_coordinates[index++] = position.read(2 * i);
+			m_coordinates[index++] = position.read(2 * i + 1);
+			if (m_dimensions.hasZ())
+				m_coordinates[index++] = zs != null ? zs.read(i)
+						: VertexDescription.getDefaultValue(Semantics.Z);
+			if (m_dimensions.hasM())
+				m_coordinates[index++] = ms != null ? ms.read(i)
+						: VertexDescription.getDefaultValue(Semantics.M);
+
+			m_coordinateCount++;
+		}
+	}
+}
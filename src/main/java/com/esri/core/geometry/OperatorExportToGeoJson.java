@@ -22,7 +22,11 @@
 
 package com.esri.core.geometry;
 
+import java.io.OutputStream;
+import java.io.Writer;
+
 import com.esri.core.geometry.Operator.Type;
+import com.fasterxml.jackson.core.JsonGenerator;
 
 /**
  *Export to GeoJson format.
@@ -65,6 +69,30 @@ public abstract class OperatorExportToGeoJson extends Operator {
 	 */
 	public abstract String execute(Geometry geometry);
 
+	/**
+	 * Performs the ExportToGeoJson operation, writing the GeoJson to the
+	 * Writer as it is produced. The Writer is not flushed or closed.
+	 * @param exportFlags Use the {@link GeoJsonExportFlags} interface.
+	 * @param spatialReference The SpatialReference of the Geometry. Will be written as "crs":null if the spatialReference is null.
+	 * @param geometry The Geometry to write as GeoJson.
+	 * @param writer The Writer to write the GeoJson to.
+	 */
+	public abstract void execute(int exportFlags, SpatialReference spatialReference, Geometry geometry, Writer writer);
+
+	/**
+	 * Same as above, but writes the GeoJson to the stream in UTF-8. The
+	 * stream is flushed, but not closed.
+	 */
+	public abstract void execute(int exportFlags, SpatialReference spatialReference, Geometry geometry,
+			OutputStream outputStream);
+
+	/**
+	 * Same as above, but writes the GeoJson object as the next value of the
+	 * Jackson generator. The generator is not flushed or closed.
+	 */
+	public abstract void execute(int exportFlags, SpatialReference spatialReference, Geometry geometry,
+			JsonGenerator jsonGenerator);
+
 	/**
 	 * Performs the ExportToGeoJson operation on a spatial reference.
 	 *
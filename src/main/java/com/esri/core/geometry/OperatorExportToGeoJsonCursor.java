@@ -86,6 +86,14 @@ class OperatorExportToGeoJsonCursor extends JsonCursor {
 			throw new IllegalArgumentException("");
 
 		JsonWriter json_writer = new JsonStringWriter();
+		exportToGeoJson(export_flags, geometry, spatial_reference, json_writer);
+		return (String) json_writer.getJson();
+	}
+
+	static void exportToGeoJson(int export_flags, Geometry geometry, SpatialReference spatial_reference,
+			JsonWriter json_writer) {
+		if (geometry == null)
+			throw new IllegalArgumentException("");
 
 		json_writer.startObject();
 
@@ -97,8 +105,6 @@ class OperatorExportToGeoJsonCursor extends JsonCursor {
 		}
 
 		json_writer.endObject();
-
-		return (String) json_writer.getJson();
 	}
 
 	static String exportSpatialReference(int export_flags, SpatialReference spatial_reference) {
@@ -22,6 +22,14 @@
 
 package com.esri.core.geometry;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.Charset;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+
 class OperatorExportToGeoJsonLocal extends OperatorExportToGeoJson {
 	@Override
 	public JsonCursor execute(SpatialReference spatialReference, GeometryCursor geometryCursor) {
@@ -43,6 +51,35 @@ class OperatorExportToGeoJsonLocal extends OperatorExportToGeoJson {
 		return OperatorExportToGeoJsonCursor.exportToGeoJson(GeoJsonExportFlags.geoJsonExportSkipCRS, geometry, null);
 	}
 
+	@Override
+	public void execute(int exportFlags, SpatialReference spatialReference, Geometry geometry, Writer writer) {
+		JsonWriter json_writer = new JsonStringWriter(writer);
+		OperatorExportToGeoJsonCursor.exportToGeoJson(exportFlags, geometry, spatialReference, json_writer);
+		json_writer.getJson();
+	}
+
+	@Override
+	public void execute(int exportFlags, SpatialReference spatialReference, Geometry geometry,
+			OutputStream outputStream) {
+		if (outputStream == null)
+			throw new IllegalArgumentException();
+
+		Writer writer = new OutputStreamWriter(outputStream, Charset.forName("UTF-8"));
+		execute(exportFlags, spatialReference, geometry, writer);
+		try {
+			writer.flush();
+		} catch (IOException ex) {
+			throw new JsonGeometryException(ex);
+		}
+	}
+
+	@Override
+	public void execute(int exportFlags, SpatialReference spatialReference, Geometry geometry,
+			JsonGenerator jsonGenerator) {
+		OperatorExportToGeoJsonCursor.exportToGeoJson(exportFlags, geometry, spatialReference,
+				new JsonGeneratorWriter(jsonGenerator));
+	}
+
 	@Override
 	public String exportSpatialReference(int export_flags, SpatialReference spatial_reference) {
 		return OperatorExportToGeoJsonCursor.exportSpatialReference(export_flags, spatial_reference);
@@ -23,9 +23,12 @@
  */
 package com.esri.core.geometry;
 
+import java.io.OutputStream;
+import java.io.Writer;
 import java.util.Map;
 
 import com.esri.core.geometry.Operator.Type;
+import com.fasterxml.jackson.core.JsonGenerator;
 
 /**
  * Export to JSON format.
@@ -61,6 +64,32 @@ public abstract class OperatorExportToJson extends Operator {
     public abstract String execute(SpatialReference spatialReference,
             Geometry geometry, Map<String, Object> exportProperties);
 
+    /**
+     * Performs the ExportToJson operation, writing the json to the Writer as
+     * it is produced. The Writer is not flushed or closed.
+     *
+     * @param exportProperties The export properties, or null.
+     */
+    public abstract void execute(SpatialReference spatialReference,
+            Geometry geometry, Map<String, Object> exportProperties,
+            Writer writer);
+
+    /**
+     * Same as above, but writes the json to the stream in UTF-8. The stream
+     * is flushed, but not closed.
+     */
+    public abstract void execute(SpatialReference spatialReference,
+            Geometry geometry, Map<String, Object> exportProperties,
+            OutputStream outputStream);
+
+    /**
+     * Same as above, but writes the json object as the next value of the
+     * Jackson generator. The generator is not flushed or closed.
+     */
+    public abstract void execute(SpatialReference spatialReference,
+            Geometry geometry, Map<String, Object> exportProperties,
+            JsonGenerator jsonGenerator);
+
     public static OperatorExportToJson local() {
         return (OperatorExportToJson) OperatorFactoryLocal.getInstance()
                 .getOperator(Type.ExportToJson);
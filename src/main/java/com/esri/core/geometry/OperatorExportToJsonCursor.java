@@ -65,39 +65,54 @@ class OperatorExportToJsonCursor extends JsonCursor {
 		return (String) jsonWriter.getJson();
 	}
 
+	/**
+	 * Exports the geometry to the streaming JsonWriter. Unlike the string
+	 * export, the errors, including the I/O errors, are not suppressed.
+	 */
+	static void exportToWriter(Geometry geometry, SpatialReference spatialReference, Map<String, Object> exportProperties, JsonWriter jsonWriter) {
+		if (geometry == null)
+			throw new IllegalArgumentException();
+
+		exportGeometryToJson_(geometry, spatialReference, jsonWriter, exportProperties);
+		jsonWriter.getJson();
+	}
+
 	private static void exportToJson_(Geometry geometry, SpatialReference spatialReference, JsonWriter jsonWriter, Map<String, Object> exportProperties) {
 		try {
-			int type = geometry.getType().value();
-			switch (type) {
-			case Geometry.GeometryType.Point:
-				exportPointToJson((Point) geometry, spatialReference, jsonWriter, exportProperties);
-				break;
-
-			case Geometry.GeometryType.MultiPoint:
-				exportMultiPointToJson((MultiPoint) geometry, spatialReference, jsonWriter, exportProperties);
-				break;
-
-			case Geometry.GeometryType.Polyline:
-				exportPolylineToJson((Polyline) geometry, spatialReference, jsonWriter, exportProperties);
-				break;
-
-			case Geometry.GeometryType.Polygon:
-				exportPolygonToJson((Polygon) geometry, spatialReference, jsonWriter, exportProperties);
-				break;
-
-			case Geometry.GeometryType.Envelope:
-				exportEnvelopeToJson((Envelope) geometry, spatialReference, jsonWriter, exportProperties);
-				break;
-
-			default:
-				throw new RuntimeException("not implemented for this geometry type");
-			}
-
+			exportGeometryToJson_(geometry, spatialReference, jsonWriter, exportProperties);
 		} catch (Exception e) {
 		}
 
 	}
 
+	private static void exportGeometryToJson_(Geometry geometry, SpatialReference spatialReference, JsonWriter jsonWriter, Map<String, Object> exportProperties) {
+		int type = geometry.getType().value();
+		switch (type) {
+		case Geometry.GeometryType.Point:
+			exportPointToJson((Point) geometry, spatialReference, jsonWriter, exportProperties);
+			break;
+
+		case Geometry.GeometryType.MultiPoint:
+			exportMultiPointToJson((MultiPoint) geometry, spatialReference, jsonWriter, exportProperties);
+			break;
+
+		case Geometry.GeometryType.Polyline:
+			exportPolylineToJson((Polyline) geometry, spatialReference, jsonWriter, exportProperties);
+			break;
+
+		case Geometry.GeometryType.Polygon:
+			exportPolygonToJson((Polygon) geometry, spatialReference, jsonWriter, exportProperties);
+			break;
+
+		case Geometry.GeometryType.Envelope:
+			exportEnvelopeToJson((Envelope) geometry, spatialReference, jsonWriter, exportProperties);
+			break;
+
+		default:
+			throw new RuntimeException("not implemented for this geometry type");
+		}
+	}
+
 	private static void exportPolygonToJson(Polygon pp, SpatialReference spatialReference, JsonWriter jsonWriter, Map<String, Object> exportProperties) {
 		exportPolypathToJson(pp, "rings", spatialReference, jsonWriter, exportProperties);
 	}
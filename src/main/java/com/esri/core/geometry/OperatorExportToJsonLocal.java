@@ -23,8 +23,15 @@
  */
 package com.esri.core.geometry;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.Charset;
 import java.util.Map;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+
 class OperatorExportToJsonLocal extends OperatorExportToJson {
 
     @Override
@@ -45,4 +52,34 @@ class OperatorExportToJsonLocal extends OperatorExportToJson {
             Geometry geometry, Map<String, Object> exportProperties) {
         return OperatorExportToJsonCursor.exportToString(geometry, spatialReference, exportProperties);
     }
+
+    @Override
+    public void execute(SpatialReference spatialReference, Geometry geometry,
+            Map<String, Object> exportProperties, Writer writer) {
+        OperatorExportToJsonCursor.exportToWriter(geometry, spatialReference,
+                exportProperties, new JsonStringWriter(writer));
+    }
+
+    @Override
+    public void execute(SpatialReference spatialReference, Geometry geometry,
+            Map<String, Object> exportProperties, OutputStream outputStream) {
+        if (outputStream == null)
+            throw new IllegalArgumentException();
+
+        Writer writer = new OutputStreamWriter(outputStream,
+                Charset.forName("UTF-8"));
+        execute(spatialReference, geometry, exportProperties, writer);
+        try {
+            writer.flush();
+        } catch (IOException ex) {
+            throw new JsonGeometryException(ex);
+        }
+    }
+
+    @Override
+    public void execute(SpatialReference spatialReference, Geometry geometry,
+            Map<String, Object> exportProperties, JsonGenerator jsonGenerator) {
+        OperatorExportToJsonCursor.exportToWriter(geometry, spatialReference,
+                exportProperties, new JsonGeneratorWriter(jsonGenerator));
+    }
 }
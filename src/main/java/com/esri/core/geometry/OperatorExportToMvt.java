@@ -0,0 +1,98 @@
+/*
+ Copyright 1995-2019 Esri
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+
+ For additional information, contact:
+ Environmental Systems Research Institute, Inc.
+ Attn: Contracts Dept
+ 380 New York Street
+ Redlands, California, USA 92373
+
+ email: contracts@esri.com
+ */
+
+package com.esri.core.geometry;
+
+import com.esri.core.geometry.Operator.Type;
+
+/**
+ *Encodes geometries as Mapbox Vector Tile geometry commands.
+ *
+ *The geometry is clipped to the buffered tile, transformed to the tile space,
+ *snapped to the integer grid and encoded in one pass over its vertices. The
+ *polygon rings are wound as the MVT specification requires: the exterior
+ *rings have a positive area and the holes a negative area in the tile space.
+ *The rings and paths that collapse on the grid are dropped. The curves are
+ *encoded as straight segments between their end points.
+ */
+public abstract class OperatorExportToMvt extends Operator {
+	@Override
+	public Type getType() {
+		return Type.ExportToMvt;
+	}
+
+	/**
+	 * Encodes the geometry for the tile of the Web Mercator (EPSG:3857) tile
+	 * pyramid.
+	 * @param geometry The Geometry in the Web Mercator coordinates.
+	 * @param z The zoom level, from 0 to 30.
+	 * @param x The column of the tile, 0 is the west.
+	 * @param y The row of the tile, 0 is the north.
+	 * @param extent The size of the tile in the tile space, such as 4096.
+	 * @param buffer The size of the buffer around the tile in the tile space.
+	 * @return Returns the geometry commands. The array is empty when nothing
+	 *         of the geometry remains in the buffered tile.
+	 */
+	public abstract int[] execute(Geometry geometry, int z, int x, int y,
+			int extent, int buffer, ProgressTracker progressTracker);
+
+	/**
+	 * Encodes the geometry for the tile with the given envelope.
+	 * @param geometry The Geometry.
+	 * @param tileEnvelope The envelope of the tile in the coordinates of the
+	 *        geometry. Its upper left corner is the origin of the tile space.
+	 * @param extent The size of the tile in the tile space, such as 4096.
+	 * @param buffer The size of the buffer around the tile in the tile space.
+	 * @return Returns the geometry commands. The array is empty when nothing
+	 *         of the geometry remains in the buffered tile.
+	 */
+	public abstract int[] execute(Geometry geometry, Envelope2D tileEnvelope,
+			int extent, int buffer, ProgressTracker progressTracker);
+
+	/**
+	 * Returns the MVT GeomType of the encoded geometry: 1 for the points, 2
+	 * for the lines and 3 for the polygons.
+	 */
+	public static int getMvtGeometryType(Geometry.Type type) {
+		switch (type) {
+		case Point:
+		case MultiPoint:
+			return 1;
+		case Line:
+		case Polyline:
+			return 2;
+		case Envelope:
+		case Polygon:
+			return 3;
+		default:
+			return 0;
+		}
+	}
+
+	public static OperatorExportToMvt local() {
+		return (OperatorExportToMvt) OperatorFactoryLocal.getInstance()
+				.getOperator(Type.ExportToMvt);
+	}
+
+}
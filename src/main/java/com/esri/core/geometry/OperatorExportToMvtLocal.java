@@ -0,0 +1,489 @@
+/*
+ Copyright 1995-2019 Esri
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+
+ For additional information, contact:
+ Environmental Systems Research Institute, Inc.
+ Attn: Contracts Dept
+ 380 New York Street
+ Redlands, California, USA 92373
+
+ email: contracts@esri.com
+ */
+
+package com.esri.core.geometry;
+
+import java.util.Arrays;
+
+import com.esri.core.geometry.VertexDescription.Semantics;
+
+final class OperatorExportToMvtLocal extends OperatorExportToMvt {
+	static final double WEB_MERCATOR_HALF_WORLD = Math.PI
+			* ProjectionTransformation.WEB_MERCATOR_RADIUS;
+
+	static final int MOVE_TO = 1;
+	static final int LINE_TO = 2;
+	static final int CLOSE_PATH = 7;
+
+	@Override
+	public int[] execute(Geometry geometry, int z, int x, int y, int extent,
+			int buffer, ProgressTracker progressTracker) {
+		if (z < 0 || z > 30)
+			throw new IllegalArgumentException("invalid zoom level");
+
+		int tiles = 1 << z;
+		if (x < 0 || x >= tiles || y < 0 || y >= tiles)
+			throw new IllegalArgumentException("invalid tile");
+
+		double size = 2 * WEB_MERCATOR_HALF_WORLD / tiles;
+		Envelope2D tileEnvelope = new Envelope2D();
+		tileEnvelope.setCoords(-WEB_MERCATOR_HALF_WORLD + x * size,
+				WEB_MERCATOR_HALF_WORLD - (y + 1) * size,
+				-WEB_MERCATOR_HALF_WORLD + (x + 1) * size,
+				WEB_MERCATOR_HALF_WORLD - y * size);
+		return execute(geometry, tileEnvelope, extent, buffer,
+				progressTracker);
+	}
+
+	@Override
+	public int[] execute(Geometry geometry, Envelope2D tileEnvelope,
+			int extent, int buffer, ProgressTracker progressTracker) {
+		if (geometry == null || tileEnvelope == null)
+			throw new IllegalArgumentException();
+
+		if (extent <= 0 || buffer < 0 || tileEnvelope.isEmpty()
+				|| tileEnvelope.getWidth() == 0
+				|| tileEnvelope.getHeight() == 0)
+			throw new IllegalArgumentException();
+
+		TileEncoder encoder = new TileEncoder(tileEnvelope, extent, buffer);
+		if (geometry.isEmpty() || !encoder.intersects(geometry))
+			return new int[0];
+
+		switch (geometry.getType().value()) {
+		case Geometry.GeometryType.Point:
+			encoder.encodePoint((Point) geometry);
+			break;
+		case Geometry.GeometryType.MultiPoint:
+			encoder.encodeMultiPoint((MultiPointImpl) geometry._getImpl());
+			break;
+		case Geometry.GeometryType.Line: {
+			Polyline polyline = new Polyline(geometry.getDescription());
+			polyline.addSegment((Segment) geometry, true);
+			encoder.encodePolyline((MultiPathImpl) polyline._getImpl());
+			break;
+		}
+		case Geometry.GeometryType.Polyline:
+			encoder.encodePolyline((MultiPathImpl) geometry._getImpl());
+			break;
+		case Geometry.GeometryType.Envelope: {
+			Polygon polygon = new Polygon(geometry.getDescription());
+			polygon.addEnvelope((Envelope) geometry, false);
+			encoder.encodePolygon((MultiPathImpl) polygon._getImpl());
+			break;
+		}
+		case Geometry.GeometryType.Polygon:
+			encoder.encodePolygon((MultiPathImpl) geometry._getImpl());
+			break;
+		default:
+			throw new GeometryException("invalid shape type");
+		}
+
+		return encoder.commands();
+	}
+
+	/**
+	 * Transforms, clips, snaps and encodes the vertices of one geometry. The
+	 * clipping happens in the tile space, before snapping, so the points on
+	 * the clip boundary land exactly on the grid.
+	 */
+	static final class TileEncoder {
+		private final double m_originX;
+		private final double m_originY;
+		private final double m_scaleX;
+		private final double m_scaleY;
+		private final double m_min;
+		private final double m_max;
+		private final Envelope2D m_clipEnvelope;
+
+		private int[] m_commands = new int[64];
+		private int m_size;
+		private int m_cursorX;
+		private int m_cursorY;
+
+		// The snapped points of the current path or ring, x and y interleaved.
+		private int[] m_points = new int[64];
+		private int m_pointCount;
+
+		// The ring being clipped, x and y interleaved, and the clip output.
+		private double[] m_ring = new double[64];
+		private double[] m_clipped = new double[64];
+
+		TileEncoder(Envelope2D tileEnvelope, int extent, int buffer) {
+			m_originX = tileEnvelope.xmin;
+			m_originY = tileEnvelope.ymax;
+			m_scaleX = extent / tileEnvelope.getWidth();
+			m_scaleY = extent / tileEnvelope.getHeight();
+			m_min = -buffer;
+			m_max = (double) extent + buffer;
+			m_clipEnvelope = new Envelope2D();
+			m_clipEnvelope.setCoords(m_originX + m_min / m_scaleX,
+					m_originY - m_max / m_scaleY,
+					m_originX + m_max / m_scaleX,
+					m_originY - m_min / m_scaleY);
+		}
+
+		boolean intersects(Geometry geometry) {
+			Envelope2D env = new Envelope2D();
+			geometry.queryEnvelope2D(env);
+			return env.isIntersecting(m_clipEnvelope);
+		}
+
+		int[] commands() {
+			return Arrays.copyOf(m_commands, m_size);
+		}
+
+		private double tileX_(double x) {
+			return (x - m_originX) * m_scaleX;
+		}
+
+		private double tileY_(double y) {
+			return (m_originY - y) * m_scaleY;
+		}
+
+		private boolean isInside_(double tx, double ty) {
+			return tx >= m_min && tx <= m_max && ty >= m_min && ty <= m_max;
+		}
+
+		void encodePoint(Point point) {
+			double tx = tileX_(point.getX());
+			double ty = tileY_(point.getY());
+			if (!isInside_(tx, ty))
+				return;
+
+			command_(MOVE_TO, 1);
+			moveCursor_(snap_(tx), snap_(ty));
+		}
+
+		void encodeMultiPoint(MultiPointImpl multipoint) {
+			AttributeStreamOfDbl position = (AttributeStreamOfDbl) multipoint
+					.getAttributeStreamRef(Semantics.POSITION);
+			m_pointCount = 0;
+			for (int i = 0, n = multipoint.getPointCount(); i < n; i++) {
+				double tx = tileX_(position.read(2 * i));
+				double ty = tileY_(position.read(2 * i + 1));
+				if (isInside_(tx, ty))
+					appendPoint_(snap_(tx), snap_(ty), false);
+			}
+
+			if (m_pointCount == 0)
+				return;
+
+			command_(MOVE_TO, m_pointCount);
+			for (int i = 0; i < m_pointCount; i++)
+				moveCursor_(m_points[2 * i], m_points[2 * i + 1]);
+		}
+
+		void encodePolyline(MultiPathImpl polyline) {
+			AttributeStreamOfDbl position = (AttributeStreamOfDbl) polyline
+					.getAttributeStreamRef(Semantics.POSITION);
+			double[] t = new double[2];
+			for (int ipath = 0, npaths = polyline.getPathCount(); ipath < npaths; ipath++) {
+				int start = polyline.getPathStart(ipath);
+				int end = polyline.getPathEnd(ipath);
+				if (end - start < 2)
+					continue;
+
+				if (polyline.isClosedPath(ipath))
+					end++;
+
+				m_pointCount = 0;
+				double x0 = tileX_(position.read(2 * start));
+				double y0 = tileY_(position.read(2 * start + 1));
+				for (int i = start + 1; i < end; i++) {
+					int ivertex = i < polyline.getPathEnd(ipath) ? i : start;
+					double x1 = tileX_(position.read(2 * ivertex));
+					double y1 = tileY_(position.read(2 * ivertex + 1));
+					if (!clipSegment_(x0, y0, x1, y1, t)) {
+						flushLine_();
+					} else {
+						double dx = x1 - x0;
+						double dy = y1 - y0;
+						if (t[0] > 0 || m_pointCount == 0) {
+							flushLine_();
+							appendPoint_(snap_(x0 + t[0] * dx),
+									snap_(y0 + t[0] * dy), true);
+						}
+
+						if (t[1] < 1) {
+							appendPoint_(snap_(x0 + t[1] * dx),
+									snap_(y0 + t[1] * dy), true);
+							flushLine_();
+						} else {
+							appendPoint_(snap_(x1), snap_(y1), true);
+						}
+					}
+
+					x0 = x1;
+					y0 = y1;
+				}
+
+				flushLine_();
+			}
+		}
+
+		void encodePolygon(MultiPathImpl polygon) {
+			AttributeStreamOfDbl position = (AttributeStreamOfDbl) polygon
+					.getAttributeStreamRef(Semantics.POSITION);
+			boolean bExteriorEncoded = false;
+			for (int ipath = 0, npaths = polygon.getPathCount(); ipath < npaths; ipath++) {
+				int start = polygon.getPathStart(ipath);
+				int count = polygon.getPathEnd(ipath) - start;
+				if (count < 3)
+					continue;
+
+				// Transform the ring, and find its area and envelope in the
+				// tile space on the way.
+				m_ring = grow_(m_ring, 2 * count);
+				double area = 0;
+				double xmin = Double.MAX_VALUE, ymin = Double.MAX_VALUE;
+				double xmax = -Double.MAX_VALUE, ymax = -Double.MAX_VALUE;
+				double x0 = tileX_(position.read(2 * start));
+				double y0 = tileY_(position.read(2 * start + 1));
+				for (int i = 0; i < count; i++) {
+					double x = i == 0 ? x0 : tileX_(position.read(2 * (start + i)));
+					double y = i == 0 ? y0 : tileY_(position.read(2 * (start + i) + 1));
+					m_ring[2 * i] = x;
+					m_ring[2 * i + 1] = y;
+					xmin = Math.min(xmin, x);
+					xmax = Math.max(xmax, x);
+					ymin = Math.min(ymin, y);
+					ymax = Math.max(ymax, y);
+					if (i > 0) {
+						double px = m_ring[2 * i - 2] - x0;
+						double py = m_ring[2 * i - 1] - y0;
+						area += px * (y - y0) - (x - x0) * py;
+					}
+				}
+
+				if (area == 0)
+					continue;
+
+				// The exterior rings of the polygon are clockwise, which is
+				// a positive area in the tile space, where the y axis points
+				// down. A hole without an exterior is encoded as an exterior.
+				boolean bExterior = area > 0 || !bExteriorEncoded;
+
+				boolean bEncoded = false;
+				if (xmax >= m_min && xmin <= m_max && ymax >= m_min
+						&& ymin <= m_max) {
+					if (xmin < m_min || xmax > m_max || ymin < m_min
+							|| ymax > m_max)
+						count = clipRing_(count);
+
+					bEncoded = encodeRing_(count, bExterior);
+				}
+
+				if (bExterior)
+					bExteriorEncoded = bEncoded;
+			}
+		}
+
+		/**
+		 * Liang-Barsky clipping of the segment to the buffered tile. Returns
+		 * false when the segment is outside, otherwise sets the parameters of
+		 * the clipped end points.
+		 */
+		private boolean clipSegment_(double x0, double y0, double x1,
+				double y1, double[] t) {
+			t[0] = 0;
+			t[1] = 1;
+			double dx = x1 - x0;
+			double dy = y1 - y0;
+			return clipT_(-dx, x0 - m_min, t) && clipT_(dx, m_max - x0, t)
+					&& clipT_(-dy, y0 - m_min, t) && clipT_(dy, m_max - y0, t);
+		}
+
+		private static boolean clipT_(double p, double q, double[] t) {
+			if (p == 0)
+				return q >= 0;
+
+			double r = q / p;
+			if (p < 0) {
+				if (r > t[1])
+					return false;
+				if (r > t[0])
+					t[0] = r;
+			} else {
+				if (r < t[0])
+					return false;
+				if (r < t[1])
+					t[1] = r;
+			}
+			return true;
+		}
+
+		/**
+		 * Sutherland-Hodgman clipping of m_ring to the buffered tile. Returns
+		 * the vertex count of the clipped ring, which is left in m_ring.
+		 */
+		private int clipRing_(int count) {
+			count = clipRingSide_(count, 0, m_min, false);
+			count = clipRingSide_(count, 0, m_max, true);
+			count = clipRingSide_(count, 1, m_min, false);
+			count = clipRingSide_(count, 1, m_max, true);
+			return count;
+		}
+
+		private int clipRingSide_(int count, int axis, double bound,
+				boolean bMax) {
+			if (count == 0)
+				return 0;
+
+			m_clipped = grow_(m_clipped, 4 * count);
+			double[] src = m_ring;
+			double[] dst = m_clipped;
+			int n = 0;
+			int prev = count - 1;
+			boolean bPrevInside = bMax ? src[2 * prev + axis] <= bound
+					: src[2 * prev + axis] >= bound;
+			for (int i = 0; i < count; i++) {
+				double v = src[2 * i + axis];
+				boolean bInside = bMax ? v <= bound : v >= bound;
+				if (bInside != bPrevInside) {
+					double pv = src[2 * prev + axis];
+					double t = (bound - pv) / (v - pv);
+					int other = 1 - axis;
+					double po = src[2 * prev + other];
+					dst[2 * n + axis] = bound;
+					dst[2 * n + other] = po + t * (src[2 * i + other] - po);
+					n++;
+				}
+
+				if (bInside) {
+					dst[2 * n] = src[2 * i];
+					dst[2 * n + 1] = src[2 * i + 1];
+					n++;
+				}
+
+				prev = i;
+				bPrevInside = bInside;
+			}
+
+			m_clipped = src;
+			m_ring = dst;
+			return n;
+		}
+
+		/**
+		 * Snaps the ring in m_ring and encodes it with the winding of an
+		 * exterior ring or a hole. Returns false when the ring collapsed.
+		 */
+		private boolean encodeRing_(int count, boolean bExterior) {
+			m_pointCount = 0;
+			for (int i = 0; i < count; i++)
+				appendPoint_(snap_(m_ring[2 * i]), snap_(m_ring[2 * i + 1]),
+						true);
+
+			while (m_pointCount > 1
+					&& m_points[0] == m_points[2 * m_pointCount - 2]
+					&& m_points[1] == m_points[2 * m_pointCount - 1])
+				m_pointCount--;
+
+			if (m_pointCount < 3)
+				return false;
+
+			long area = 0;
+			int x0 = m_points[0];
+			int y0 = m_points[1];
+			for (int i = 2; i < m_pointCount; i++) {
+				long px = m_points[2 * i - 2] - x0;
+				long py = m_points[2 * i - 1] - y0;
+				area += px * (m_points[2 * i + 1] - y0)
+						- (m_points[2 * i] - x0) * py;
+			}
+
+			if (area == 0)
+				return false;
+
+			boolean bReverse = (area > 0) != bExterior;
+			command_(MOVE_TO, 1);
+			moveCursor_(x0, y0);
+			command_(LINE_TO, m_pointCount - 1);
+			for (int i = 1; i < m_pointCount; i++) {
+				int j = bReverse ? m_pointCount - i : i;
+				moveCursor_(m_points[2 * j], m_points[2 * j + 1]);
+			}
+			command_(CLOSE_PATH, 1);
+			return true;
+		}
+
+		private void flushLine_() {
+			if (m_pointCount >= 2) {
+				command_(MOVE_TO, 1);
+				moveCursor_(m_points[0], m_points[1]);
+				command_(LINE_TO, m_pointCount - 1);
+				for (int i = 1; i < m_pointCount; i++)
+					moveCursor_(m_points[2 * i], m_points[2 * i + 1]);
+			}
+
+			m_pointCount = 0;
+		}
+
+		private void appendPoint_(int x, int y, boolean bSkipRepeated) {
+			if (bSkipRepeated && m_pointCount > 0
+					&& m_points[2 * m_pointCount - 2] == x
+					&& m_points[2 * m_pointCount - 1] == y)
+				return;
+
+			if (2 * m_pointCount + 2 > m_points.length)
+				m_points = Arrays.copyOf(m_points, 2 * m_points.length);
+
+			m_points[2 * m_pointCount] = x;
+			m_points[2 * m_pointCount + 1] = y;
+			m_pointCount++;
+		}
+
+		private void command_(int id, int count) {
+			add_((id & 0x7) | (count << 3));
+		}
+
+		private void moveCursor_(int x, int y) {
+			add_(zigzag_(x - m_cursorX));
+			add_(zigzag_(y - m_cursorY));
+			m_cursorX = x;
+			m_cursorY = y;
+		}
+
+		private void add_(int value) {
+			if (m_size == m_commands.length)
+				m_commands = Arrays.copyOf(m_commands, 2 * m_size);
+
+			m_commands[m_size++] = value;
+		}
+
+		private static int zigzag_(int value) {
+			return (value << 1) ^ (value >> 31);
+		}
+
+		private static int snap_(double value) {
+			return (int) Math.round(value);
+		}
+
+		private static double[] grow_(double[] array, int size) {
+			return array.length >= size ? array : new double[Math
+					.max(size, 2 * array.length)];
+		}
+	}
+}
@@ -0,0 +1,75 @@
+/*
+ Copyright 1995-2019 Esri
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+
+ For additional information, contact:
+ Environmental Systems Research Institute, Inc.
+ Attn: Contracts Dept
+ 380 New York Street
+ Redlands, California, USA 92373
+
+ email: contracts@esri.com
+ */
+
+package com.esri.core.geometry;
+
+import java.nio.ByteBuffer;
+
+import com.esri.core.geometry.Operator.Type;
+
+/**
+ *Export to TWKB (Tiny Well Known Binary) format.
+ *
+ *The coordinates are rounded to the given number of decimal digits, and
+ *written as the zigzag varint deltas from the previous vertex.
+ */
+public abstract class OperatorExportToTwkb extends Operator {
+	@Override
+	public Type getType() {
+		return Type.ExportToTwkb;
+	}
+
+	/**
+	 * Performs the ExportToTwkb operation.
+	 * @param exportFlags Use the {@link TwkbExportFlags} interface.
+	 * @param geometry The Geometry being exported.
+	 * @param xyPrecision The number of decimal digits of the xy coordinates, from -8 to 7.
+	 * @param zPrecision The number of decimal digits of the z coordinates, from 0 to 7.
+	 * @param mPrecision The number of decimal digits of the m values, from 0 to 7.
+	 * @return Returns a ByteBuffer object containing the Geometry in TWKB format.
+	 */
+	public abstract ByteBuffer execute(int exportFlags, Geometry geometry,
+			int xyPrecision, int zPrecision, int mPrecision,
+			ProgressTracker progressTracker);
+
+	/**
+	 * Performs the ExportToTwkb operation.
+	 * @param exportFlags Use the {@link TwkbExportFlags} interface.
+	 * @param geometry The Geometry being exported.
+	 * @param xyPrecision The number of decimal digits of the xy coordinates, from -8 to 7.
+	 * @param zPrecision The number of decimal digits of the z coordinates, from 0 to 7.
+	 * @param mPrecision The number of decimal digits of the m values, from 0 to 7.
+	 * @param twkbBuffer The ByteBuffer to contain the exported Geometry in TWKB format. The geometry is written at the position of the buffer, and the position is advanced.
+	 * @return If the input buffer is null, then the size needed for the buffer is returned. Otherwise the number of bytes written to the buffer is returned.
+	 */
+	public abstract int execute(int exportFlags, Geometry geometry,
+			int xyPrecision, int zPrecision, int mPrecision,
+			ByteBuffer twkbBuffer, ProgressTracker progressTracker);
+
+	public static OperatorExportToTwkb local() {
+		return (OperatorExportToTwkb) OperatorFactoryLocal.getInstance()
+				.getOperator(Type.ExportToTwkb);
+	}
+
+}
@@ -0,0 +1,345 @@
+/*
+ Copyright 1995-2019 Esri
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+
+ For additional information, contact:
+ Environmental Systems Research Institute, Inc.
+ Attn: Contracts Dept
+ 380 New York Street
+ Redlands, California, USA 92373
+
+ email: contracts@esri.com
+ */
+
+package com.esri.core.geometry;
+
+import java.nio.ByteBuffer;
+
+import com.esri.core.geometry.VertexDescription.Semantics;
+
+class OperatorExportToTwkbLocal extends OperatorExportToTwkb {
+
+	@Override
+	public ByteBuffer execute(int exportFlags, Geometry geometry,
+			int xyPrecision, int zPrecision, int mPrecision,
+			ProgressTracker progressTracker) {
+		int size = exportToTwkb(exportFlags, geometry, xyPrecision,
+				zPrecision, mPrecision, null);
+		ByteBuffer twkbBuffer = ByteBuffer.allocate(size);
+		exportToTwkb(exportFlags, geometry, xyPrecision, zPrecision,
+				mPrecision, twkbBuffer);
+		twkbBuffer.flip();
+		return twkbBuffer;
+	}
+
+	@Override
+	public int execute(int exportFlags, Geometry geometry, int xyPrecision,
+			int zPrecision, int mPrecision, ByteBuffer twkbBuffer,
+			ProgressTracker progressTracker) {
+		return exportToTwkb(exportFlags, geometry, xyPrecision, zPrecision,
+				mPrecision, twkbBuffer);
+	}
+
+	/**
+	 * Writes the varints to the buffer, or only counts the bytes when the
+	 * buffer is null. The coordinates are written as the deltas from the
+	 * previous vertex.
+	 */
+	private static final class Encoder {
+		final ByteBuffer m_buffer;
+		final double m_xyScale;
+		final double m_zScale;
+		final double m_mScale;
+		final boolean m_bZs;
+		final boolean m_bMs;
+		long m_x, m_y, m_z, m_m;
+		int m_size;
+
+		Encoder(ByteBuffer buffer, int xyPrecision, int zPrecision,
+				int mPrecision, boolean bZs, boolean bMs) {
+			m_buffer = buffer;
+			m_xyScale = Math.pow(10, xyPrecision);
+			m_zScale = Math.pow(10, zPrecision);
+			m_mScale = Math.pow(10, mPrecision);
+			m_bZs = bZs;
+			m_bMs = bMs;
+			m_size = 0;
+		}
+
+		void putByte(int value) {
+			if (m_buffer != null)
+				m_buffer.put((byte) value);
+			m_size++;
+		}
+
+		void varint(long value) {
+			while ((value & ~0x7FL) != 0) {
+				putByte((int) ((value & 0x7F) | 0x80));
+				value >>>= 7;
+			}
+			putByte((int) value);
+		}
+
+		void signedVarint(long value) {
+			varint((value << 1) ^ (value >> 63));
+		}
+
+		void interval(double vmin, double vmax, double scale) {
+			long qmin = Math.round(vmin * scale);
+			signedVarint(qmin);
+			signedVarint(Math.round(vmax * scale) - qmin);
+		}
+
+		void vertex(double x, double y, double z, double m) {
+			long q = Math.round(x * m_xyScale);
+			signedVarint(q - m_x);
+			m_x = q;
+			q = Math.round(y * m_xyScale);
+			signedVarint(q - m_y);
+			m_y = q;
+			if (m_bZs) {
+				q = Math.round(z * m_zScale);
+				signedVarint(q - m_z);
+				m_z = q;
+			}
+			if (m_bMs) {
+				q = Math.round(m * m_mScale);
+				signedVarint(q - m_m);
+				m_m = q;
+			}
+		}
+
+		void vertex(AttributeStreamOfDbl position, AttributeStreamOfDbl zs,
+				AttributeStreamOfDbl ms, int index) {
+			vertex(position.read(2 * index),
+					position.read(2 * index + 1),
+					zs != null ? zs.read(index) : VertexDescription
+							.getDefaultValue(Semantics.Z),
+					ms != null ? ms.read(index) : VertexDescription
+							.getDefaultValue(Semantics.M));
+		}
+	}
+
+	static int exportToTwkb(int exportFlags, Geometry geometry,
+			int xyPrecision, int zPrecision, int mPrecision,
+			ByteBuffer twkbBuffer) {
+		if (xyPrecision < -8 || xyPrecision > 7 || zPrecision < 0
+				|| zPrecision > 7 || mPrecision < 0 || mPrecision > 7)
+			throw new IllegalArgumentException("invalid precision");
+
+		if (geometry == null)
+			throw new IllegalArgumentException();
+
+		switch (geometry.getType().value()) {
+		case Geometry.GeometryType.Envelope: {
+			Polygon polygon = new Polygon(geometry.getDescription());
+			polygon.addEnvelope((Envelope) geometry, false);
+			geometry = polygon;
+			break;
+		}
+		case Geometry.GeometryType.Line: {
+			Polyline polyline = new Polyline(geometry.getDescription());
+			polyline.addSegment((Segment) geometry, true);
+			geometry = polyline;
+			break;
+		}
+		default:
+			break;
+		}
+
+		boolean bZs = geometry.hasAttribute(Semantics.Z)
+				&& (exportFlags & TwkbExportFlags.twkbExportStripZs) == 0;
+		boolean bMs = geometry.hasAttribute(Semantics.M)
+				&& (exportFlags & TwkbExportFlags.twkbExportStripMs) == 0;
+		boolean bEmpty = geometry.isEmpty();
+		int type = twkbType_(exportFlags, geometry);
+		boolean bMulti = type >= TwkbGeometryType.twkbMultiPoint;
+		boolean bBBox = !bEmpty
+				&& (exportFlags & TwkbExportFlags.twkbExportBoundingBox) != 0;
+		boolean bSize = (exportFlags & TwkbExportFlags.twkbExportSize) != 0;
+		boolean bIds = bMulti && !bEmpty
+				&& (exportFlags & TwkbExportFlags.twkbExportIdList) != 0;
+
+		Encoder encoder = new Encoder(twkbBuffer, xyPrecision, zPrecision,
+				mPrecision, bZs, bMs);
+		encoder.putByte(type | (((xyPrecision << 1) ^ (xyPrecision >> 31)) << 4));
+		encoder.putByte((bBBox ? TwkbGeometryType.twkbHasBBox : 0)
+				| (bSize ? TwkbGeometryType.twkbHasSize : 0)
+				| (bIds ? TwkbGeometryType.twkbHasIdList : 0)
+				| (bZs || bMs ? TwkbGeometryType.twkbHasExtendedDims : 0)
+				| (bEmpty ? TwkbGeometryType.twkbIsEmpty : 0));
+		if (bZs || bMs)
+			encoder.putByte((bZs ? 1 : 0) | (bMs ? 2 : 0) | (zPrecision << 2)
+					| (mPrecision << 5));
+
+		if (bSize) {
+			Encoder counter = new Encoder(null, xyPrecision, zPrecision,
+					mPrecision, bZs, bMs);
+			writeBody_(counter, geometry, type, bBBox, bIds);
+			encoder.varint(counter.m_size);
+		}
+
+		writeBody_(encoder, geometry, type, bBBox, bIds);
+		return encoder.m_size;
+	}
+
+	private static int twkbType_(int exportFlags, Geometry geometry) {
+		boolean bMulti = (exportFlags & (TwkbExportFlags.twkbExportMultiGeometry | TwkbExportFlags.twkbExportIdList)) != 0;
+		switch (geometry.getType().value()) {
+		case Geometry.GeometryType.Point:
+			return TwkbGeometryType.twkbPoint;
+		case Geometry.GeometryType.MultiPoint:
+			return TwkbGeometryType.twkbMultiPoint;
+		case Geometry.GeometryType.Polyline:
+			return !bMulti && ((Polyline) geometry).getPathCount() <= 1 ? TwkbGeometryType.twkbLineString
+					: TwkbGeometryType.twkbMultiLineString;
+		case Geometry.GeometryType.Polygon:
+			return !bMulti
+					&& ((MultiPathImpl) geometry._getImpl())
+							.getOGCPolygonCount() <= 1 ? TwkbGeometryType.twkbPolygon
+					: TwkbGeometryType.twkbMultiPolygon;
+		default:
+			throw new GeometryException("invalid shape type");
+		}
+	}
+
+	private static void writeBody_(Encoder encoder, Geometry geometry,
+			int type, boolean bBBox, boolean bIds) {
+		if (geometry.isEmpty())
+			return;
+
+		encoder.m_x = 0;
+		encoder.m_y = 0;
+		encoder.m_z = 0;
+		encoder.m_m = 0;
+
+		if (bBBox) {
+			Envelope2D env = new Envelope2D();
+			geometry.queryEnvelope2D(env);
+			encoder.interval(env.xmin, env.xmax, encoder.m_xyScale);
+			encoder.interval(env.ymin, env.ymax, encoder.m_xyScale);
+			if (encoder.m_bZs) {
+				Envelope1D interval = geometry.queryInterval(Semantics.Z, 0);
+				encoder.interval(interval.vmin, interval.vmax,
+						encoder.m_zScale);
+			}
+			if (encoder.m_bMs) {
+				Envelope1D interval = geometry.queryInterval(Semantics.M, 0);
+				encoder.interval(interval.vmin, interval.vmax,
+						encoder.m_mScale);
+			}
+		}
+
+		if (type == TwkbGeometryType.twkbPoint) {
+			Point point = (Point) geometry;
+			encoder.vertex(point.getX(), point.getY(),
+					encoder.m_bZs ? point.getZ() : 0,
+					encoder.m_bMs ? point.getM() : 0);
+			return;
+		}
+
+		MultiVertexGeometryImpl impl = (MultiVertexGeometryImpl) geometry
+				._getImpl();
+		AttributeStreamOfDbl position = (AttributeStreamOfDbl) impl
+				.getAttributeStreamRef(Semantics.POSITION);
+		AttributeStreamOfDbl zs = encoder.m_bZs
+				&& impl._attributeStreamIsAllocated(Semantics.Z) ? (AttributeStreamOfDbl) impl
+				.getAttributeStreamRef(Semantics.Z) : null;
+		AttributeStreamOfDbl ms = encoder.m_bMs
+				&& impl._attributeStreamIsAllocated(Semantics.M) ? (AttributeStreamOfDbl) impl
+				.getAttributeStreamRef(Semantics.M) : null;
+
+		switch (type) {
+		case TwkbGeometryType.twkbMultiPoint: {
+			int pointCount = impl.getPointCount();
+			encoder.varint(pointCount);
+			if (bIds) {
+				for (int i = 0; i < pointCount; i++)
+					encoder.signedVarint(impl.getAttributeAsInt(Semantics.ID,
+							i, 0));
+			}
+			for (int i = 0; i < pointCount; i++)
+				encoder.vertex(position, zs, ms, i);
+			break;
+		}
+		case TwkbGeometryType.twkbLineString:
+		case TwkbGeometryType.twkbMultiLineString: {
+			MultiPathImpl polyline = (MultiPathImpl) impl;
+			int pathCount = polyline.getPathCount();
+			if (type == TwkbGeometryType.twkbMultiLineString) {
+				encoder.varint(pathCount);
+				if (bIds) {
+					for (int ipath = 0; ipath < pathCount; ipath++)
+						encoder.signedVarint(polyline.getAttributeAsInt(
+								Semantics.ID, polyline.getPathStart(ipath), 0));
+				}
+			}
+
+			for (int ipath = 0; ipath < pathCount; ipath++) {
+				int start = polyline.getPathStart(ipath);
+				int end = polyline.getPathEnd(ipath);
+				boolean bClosed = polyline.isClosedPath(ipath);
+				encoder.varint(end - start + (bClosed ? 1 : 0));
+				for (int i = start; i < end; i++)
+					encoder.vertex(position, zs, ms, i);
+				if (bClosed)
+					encoder.vertex(position, zs, ms, start);
+			}
+			break;
+		}
+		case TwkbGeometryType.twkbPolygon:
+		case TwkbGeometryType.twkbMultiPolygon: {
+			MultiPathImpl polygon = (MultiPathImpl) impl;
+			int polygonCount = polygon.getOGCPolygonCount();
+			int pathCount = polygon.getPathCount();
+			AttributeStreamOfInt8 pathFlags = polygon.getPathFlagsStreamRef();
+			if (type == TwkbGeometryType.twkbMultiPolygon) {
+				encoder.varint(polygonCount);
+				if (bIds) {
+					for (int ipath = 0; ipath < pathCount; ipath++) {
+						if ((pathFlags.read(ipath) & PathFlags.enumOGCStartPolygon) != 0)
+							encoder.signedVarint(polygon.getAttributeAsInt(
+									Semantics.ID,
+									polygon.getPathStart(ipath), 0));
+					}
+				}
+			}
+
+			int ipolygonend = 0;
+			for (int ipolygon = 0; ipolygon < polygonCount; ipolygon++) {
+				int ipolygonstart = ipolygonend;
+				ipolygonend++;
+				while (ipolygonend < pathCount
+						&& (pathFlags.read(ipolygonend) & PathFlags.enumOGCStartPolygon) == 0)
+					ipolygonend++;
+
+				encoder.varint(ipolygonend - ipolygonstart);
+				for (int ipath = ipolygonstart; ipath < ipolygonend; ipath++) {
+					// The rings are closed, and written backwards as in the
+					// OperatorExportToWkb.
+					int start = polygon.getPathStart(ipath);
+					int end = polygon.getPathEnd(ipath);
+					encoder.varint(end - start + 1);
+					encoder.vertex(position, zs, ms, start);
+					for (int i = end - 1; i >= start; i--)
+						encoder.vertex(position, zs, ms, i);
+				}
+			}
+			break;
+		}
+		default:
+			throw GeometryException.GeometryInternalError();
+		}
+	}
+}
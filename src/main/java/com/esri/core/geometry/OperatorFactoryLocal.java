@@ -111,6 +111,16 @@ public class OperatorFactoryLocal extends OperatorFactory {
 				new OperatorExportToWkbLocal());
 		st_supportedOperators.put(Type.ImportFromWkb,
 				new OperatorImportFromWkbLocal());
+		st_supportedOperators.put(Type.ExportToTwkb,
+				new OperatorExportToTwkbLocal());
+		st_supportedOperators.put(Type.ImportFromTwkb,
+				new OperatorImportFromTwkbLocal());
+		st_supportedOperators.put(Type.ExportToMvt,
+				new OperatorExportToMvtLocal());
+		st_supportedOperators.put(Type.ExportToGeoArrow,
+				new OperatorExportToGeoArrowLocal());
+		st_supportedOperators.put(Type.ImportFromGeoArrow,
+				new OperatorImportFromGeoArrowLocal());
 		st_supportedOperators.put(Type.ExportToWkt,
 				new OperatorExportToWktLocal());
 		st_supportedOperators.put(Type.ImportFromWkt,
@@ -126,6 +136,8 @@ public class OperatorFactoryLocal extends OperatorFactory {
 		st_supportedOperators.put(Type.ConvexHull,
 				new OperatorConvexHullLocal());
 		st_supportedOperators.put(Type.Boundary, new OperatorBoundaryLocal());
+		st_supportedOperators.put(Type.SpatialJoin,
+				new OperatorSpatialJoinLocal());
 
 		// LabelPoint, - not ported
 
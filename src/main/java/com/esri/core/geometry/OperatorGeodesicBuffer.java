@@ -23,7 +23,7 @@
  */
 package com.esri.core.geometry;
 
-abstract class OperatorGeodesicBuffer extends Operator {
+public abstract class OperatorGeodesicBuffer extends Operator {
 
 	@Override
 	public Operator.Type getType() {
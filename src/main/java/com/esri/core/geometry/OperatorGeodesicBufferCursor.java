@@ -0,0 +1,83 @@
+/*
+ Copyright 1995-2019 Esri
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+
+ For additional information, contact:
+ Environmental Systems Research Institute, Inc.
+ Attn: Contracts Dept
+ 380 New York Street
+ Redlands, California, USA 92373
+
+ email: contracts@esri.com
+ */
+
+package com.esri.core.geometry;
+
+class OperatorGeodesicBufferCursor extends GeometryCursor {
+	private GeometryCursor m_inputGeoms;
+	private GeodesicBufferer m_bufferer;
+	private ProjectionTransformation m_toGeographic;
+	private double[] m_distances;
+	private int m_index;
+	private int m_dindex;
+
+	OperatorGeodesicBufferCursor(GeometryCursor inputGeoms,
+			SpatialReference sr, int curveType, double[] distancesMeters,
+			double maxDeviationMeters, ProgressTracker progressTracker) {
+		if (inputGeoms == null || sr == null || distancesMeters == null
+				|| distancesMeters.length == 0)
+			throw new IllegalArgumentException();
+
+		SpatialReference gcs = sr;
+		if (ProjectionTransformation.isWebMercator_(sr.getLatestID())) {
+			// Buffer in degrees and project the result back.
+			gcs = SpatialReference
+					.create(ProjectionTransformation.WGS84_WKID);
+			m_toGeographic = new ProjectionTransformation(sr, gcs);
+		} else if (!Ellipsoid.isGeographic(sr))
+			throw new GeometryException("not implemented");
+
+		m_inputGeoms = inputGeoms;
+		m_bufferer = new GeodesicBufferer(gcs, curveType, maxDeviationMeters,
+				progressTracker);
+		m_distances = distancesMeters;
+		m_index = -1;
+		m_dindex = -1;
+	}
+
+	@Override
+	public Geometry next() {
+		Geometry geom = m_inputGeoms.next();
+		if (geom == null)
+			return null;
+
+		m_index = m_inputGeoms.getGeometryID();
+		if (m_dindex + 1 < m_distances.length)
+			m_dindex++;
+
+		if (m_toGeographic == null)
+			return m_bufferer.buffer(geom, m_distances[m_dindex]);
+
+		OperatorProject project = OperatorProject.local();
+		Geometry result = m_bufferer.buffer(
+				project.execute(geom, m_toGeographic, null),
+				m_distances[m_dindex]);
+		return project.execute(result, m_toGeographic.getReverse(), null);
+	}
+
+	@Override
+	public int getGeometryID() {
+		return m_index;
+	}
+}
@@ -24,7 +24,6 @@
 
 package com.esri.core.geometry;
 
-//This is a stub
 class OperatorGeodesicBufferLocal extends OperatorGeodesicBuffer {
 
 	@Override
@@ -32,13 +31,33 @@ class OperatorGeodesicBufferLocal extends OperatorGeodesicBuffer {
 			SpatialReference sr, int curveType, double[] distancesMeters,
 			double maxDeviationMeters, boolean bReserved, boolean bUnion,
 			ProgressTracker progressTracker) {
-		throw new GeometryException("not implemented");
+		if (bReserved)
+			throw new IllegalArgumentException();
+
+		if (curveType != GeodeticCurveType.Geodesic
+				&& curveType != GeodeticCurveType.ShapePreserving)
+			throw new GeometryException("not implemented");
+
+		GeometryCursor cursor = new OperatorGeodesicBufferCursor(
+				inputGeometries, sr, curveType, distancesMeters,
+				maxDeviationMeters, progressTracker);
+		if (bUnion)
+			return OperatorUnion.local().execute(cursor, sr, progressTracker);
+
+		return cursor;
 	}
 
 	@Override
 	public Geometry execute(Geometry inputGeometry, SpatialReference sr,
 			int curveType, double distanceMeters, double maxDeviationMeters,
 			boolean bReserved, ProgressTracker progressTracker) {
-		throw new GeometryException("not implemented");
+		SimpleGeometryCursor inputCursor = new SimpleGeometryCursor(
+				inputGeometry);
+		double[] distances = new double[1];
+		distances[0] = distanceMeters;
+		GeometryCursor outputCursor = execute(inputCursor, sr, curveType,
+				distances, maxDeviationMeters, bReserved, false,
+				progressTracker);
+		return outputCursor.next();
 	}
 }
@@ -27,9 +27,9 @@ package com.esri.core.geometry;
 import com.esri.core.geometry.Operator.Type;
 
 /**
- * A base class for the ExportToESRIShape Operator.
+ * Geodetic area calculation.
  */
-abstract class OperatorGeodeticArea extends Operator {
+public abstract class OperatorGeodeticArea extends Operator {
 
 	@Override
 	public Type getType() {
@@ -64,7 +64,9 @@ abstract class OperatorGeodeticArea extends Operator {
 	 *            Use the {@link GeodeticCurveType} interface to choose the
 	 *            interpretation of a line connecting two points.
 	 * @param progressTracker
-	 * @return Returns the geodetic area of the Geometry.
+	 * @return Returns the geodetic area of the Geometry in square meters.
+	 *         Only GeodeticCurveType.Geodesic is supported. The area of a
+	 *         ring is positive when the ring is clockwise.
 	 */
 	public abstract double execute(Geometry geom, SpatialReference sr,
 			int geodeticCurveType, ProgressTracker progressTracker);
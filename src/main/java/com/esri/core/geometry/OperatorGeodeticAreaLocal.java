@@ -24,17 +24,152 @@
 
 package com.esri.core.geometry;
 
-//This is a stub
 class OperatorGeodeticAreaLocal extends OperatorGeodeticArea {
 	@Override
 	public double[] execute(GeometryCursor geoms, SpatialReference sr,
 			int geodeticCurveType, ProgressTracker progressTracker) {
-		throw new GeometryException("not implemented");
+		if (geoms == null)
+			throw new IllegalArgumentException();
+
+		double[] areas = new double[16];
+		int count = 0;
+		Geometry geom;
+		while ((geom = geoms.next()) != null) {
+			ProgressTracker.checkAndThrow(progressTracker);
+			if (count == areas.length) {
+				double[] grown = new double[count * 2];
+				System.arraycopy(areas, 0, grown, 0, count);
+				areas = grown;
+			}
+
+			areas[count++] = execute(geom, sr, geodeticCurveType,
+					progressTracker);
+		}
+
+		double[] result = new double[count];
+		System.arraycopy(areas, 0, result, 0, count);
+		return result;
 	}
 
 	@Override
 	public double execute(Geometry geom, SpatialReference sr,
 			int geodeticCurveType, ProgressTracker progressTracker) {
-		throw new GeometryException("not implemented");
+		if (geom == null || sr == null)
+			throw new IllegalArgumentException();
+
+		if (geodeticCurveType != GeodeticCurveType.Geodesic)
+			throw new GeometryException("not implemented");
+
+		Ellipsoid ellipsoid = Ellipsoid.fromSpatialReference(sr);
+		if (geom.isEmpty() || geom.getDimension() < 2)
+			return 0;
+
+		Polygon polygon;
+		if (geom.getType() == Geometry.Type.Envelope) {
+			polygon = new Polygon(geom.getDescription());
+			polygon.addEnvelope((Envelope) geom, false);
+		} else
+			polygon = (Polygon) geom;
+
+		if (polygon.hasNonLinearSegments())
+			throw new GeometryException("not implemented");
+
+		boolean bWebMercator = ProjectionTransformation.isWebMercator_(sr
+				.getLatestID());
+		MultiPathImpl impl = (MultiPathImpl) polygon._getImpl();
+		AttributeStreamOfDbl xy = (AttributeStreamOfDbl) impl
+				.getAttributeStreamRef(VertexDescription.Semantics.POSITION);
+		PeDouble dist = new PeDouble();
+		PeDouble az12 = new PeDouble();
+		PeDouble az21 = new PeDouble();
+		double area = 0;
+		for (int ipath = 0, n = impl.getPathCount(); ipath < n; ipath++) {
+			area += ringArea_(xy, impl.getPathStart(ipath),
+					impl.getPathEnd(ipath), ellipsoid, bWebMercator, dist,
+					az12, az21);
+		}
+
+		return area;
+	}
+
+	/**
+	 * Returns the area of the ring with the vertices from start to end - 1.
+	 * The area is positive for a clockwise ring.
+	 * 
+	 * The ring area is the sum of the areas between the edges and the
+	 * equator. When the ring encircles a pole, the sum is off by half of the
+	 * ellipsoid area, which is detected by counting the crossings of the
+	 * prime meridian.
+	 */
+	private static double ringArea_(AttributeStreamOfDbl xy, int start,
+			int end, Ellipsoid ellipsoid, boolean bWebMercator, PeDouble dist,
+			PeDouble az12, PeDouble az21) {
+		if (end - start < 3)
+			return 0;
+
+		double a = ellipsoid.getSemiMajorAxis();
+		double e2 = ellipsoid.getEccentricitySquared();
+		double sum = 0;
+		int crossings = 0;
+		double lam0 = longitude_(xy.read(2 * (end - 1)), bWebMercator);
+		double phi0 = latitude_(xy.read(2 * (end - 1) + 1), bWebMercator);
+		for (int i = start; i < end; i++) {
+			double lam1 = longitude_(xy.read(2 * i), bWebMercator);
+			double phi1 = latitude_(xy.read(2 * i + 1), bWebMercator);
+			GeoDist.geodesic_distance_ngs(a, e2, lam0, phi0, lam1, phi1,
+					dist, az12, az21);
+			if (dist.val != 0) {
+				sum += ellipsoid.geodesicEdgeArea(phi0, phi1,
+						Math.IEEEremainder(lam1 - lam0, 2 * Math.PI),
+						az12.val, az21.val - Math.PI);
+				crossings += transit_(lam0, lam1);
+			}
+
+			lam0 = lam1;
+			phi0 = phi1;
+		}
+
+		double area0 = ellipsoid.getArea();
+		sum = Math.IEEEremainder(sum, area0);
+		if ((crossings & 1) != 0)
+			sum += (sum < 0 ? 1 : -1) * area0 / 2;
+
+		if (sum > area0 / 2)
+			sum -= area0;
+		else if (sum <= -area0 / 2)
+			sum += area0;
+
+		return sum;
+	}
+
+	/**
+	 * Returns 1 or -1 when the shorter way from lam1 to lam2 crosses the
+	 * prime meridian to the east or to the west.
+	 */
+	private static int transit_(double lam1, double lam2) {
+		lam1 = Math.IEEEremainder(lam1, 2 * Math.PI);
+		lam2 = Math.IEEEremainder(lam2, 2 * Math.PI);
+		double lam12 = Math.IEEEremainder(lam2 - lam1, 2 * Math.PI);
+		if (lam1 <= 0 && lam2 > 0 && lam12 > 0)
+			return 1;
+
+		if (lam2 <= 0 && lam1 > 0 && lam12 < 0)
+			return -1;
+
+		return 0;
+	}
+
+	static double longitude_(double x, boolean bWebMercator) {
+		if (bWebMercator)
+			x = ProjectionTransformation.webMercatorXToLongitude(x);
+
+		return Math.toRadians(x);
+	}
+
+	static double latitude_(double y, boolean bWebMercator) {
+		if (bWebMercator)
+			y = ProjectionTransformation.webMercatorYToLatitude(y);
+
+		return Math.toRadians(y);
 	}
 }
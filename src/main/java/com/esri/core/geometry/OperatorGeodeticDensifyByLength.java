@@ -28,7 +28,7 @@ package com.esri.core.geometry;
  * 
 * Use this operator to construct geodetic curves.
  */
-abstract class OperatorGeodeticDensifyByLength extends Operator {
+public abstract class OperatorGeodeticDensifyByLength extends Operator {
 
 	@Override
 	public Type getType() {
@@ -41,7 +41,7 @@ abstract class OperatorGeodeticDensifyByLength extends Operator {
 	 * @param geoms The geometries to be densified.
 	 * @param maxSegmentLengthMeters The maximum segment length (in meters) allowed. Must be a positive value.
 	 * @param sr The SpatialReference of the Geometry.
-	 * @param curveType The interpretation of a line connecting two points.
+	 * @param curveType The interpretation of a line connecting two points. GeodeticCurveType.Geodesic, Loxodrome and ShapePreserving are supported.
 	 * @return Returns the densified geometries (It does nothing to geometries with dim less than 1, but simply passes them along).
 	 *
 	 * Note the behavior is not determined for any geodetic curve segments that connect two poles, or for loxodrome segments that connect to any pole.
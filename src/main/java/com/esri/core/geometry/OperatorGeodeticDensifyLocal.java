@@ -24,7 +24,6 @@
 
 package com.esri.core.geometry;
 
-//This is a stub
 class OperatorGeodeticDensifyLocal extends
 		OperatorGeodeticDensifyByLength {
 
@@ -32,12 +31,22 @@ class OperatorGeodeticDensifyLocal extends
 	public GeometryCursor execute(GeometryCursor geoms,
 			double maxSegmentLengthMeters, SpatialReference sr, int curveType,
 			ProgressTracker progressTracker) {
-		throw new GeometryException("not implemented");
+		if (sr == null || !(maxSegmentLengthMeters > 0))
+			throw new IllegalArgumentException();
+
+		return new OperatorGeodeticDensifyCursor(geoms, new GeodeticDensifier(
+				sr, curveType, maxSegmentLengthMeters, NumberUtils.NaN(),
+				progressTracker));
 	}
 
 	@Override
 	public Geometry execute(Geometry geom, double maxSegmentLengthMeters,
 			SpatialReference sr, int curveType, ProgressTracker progressTracker) {
-		throw new GeometryException("not implemented");
+		if (geom == null)
+			throw new IllegalArgumentException();
+
+		GeometryCursor cursor = execute(new SimpleGeometryCursor(geom),
+				maxSegmentLengthMeters, sr, curveType, progressTracker);
+		return cursor.next();
 	}
 }
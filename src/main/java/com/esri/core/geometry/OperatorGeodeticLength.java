@@ -31,13 +31,30 @@ import com.esri.core.geometry.Operator.Type;
  * Geodetic length calculation.
  * 
  */
-abstract class OperatorGeodeticLength extends Operator {
+public abstract class OperatorGeodeticLength extends Operator {
 
 	@Override
 	public Type getType() {
 		return Operator.Type.GeodeticLength;
 	}
 
+	/**
+	 * Calculates the geodetic length of each geometry in the geometry cursor.
+	 * 
+	 * @param geoms
+	 *            The geometry cursor to be iterated over to perform the
+	 *            geodetic length calculation.
+	 * @param sr
+	 *            The SpatialReference of the geometries.
+	 * @param geodeticCurveType
+	 *            Use the {@link GeodeticCurveType} interface to choose the
+	 *            interpretation of a line connecting two points.
+	 * @param progressTracker
+	 * @return Returns an array of the geodetic lengths of the geometries.
+	 */
+	public abstract double[] execute(GeometryCursor geoms, SpatialReference sr,
+			int geodeticCurveType, ProgressTracker progressTracker);
+
 	/**
 	 * Calculates the geodetic length of the input Geometry.
 	 * 
@@ -49,7 +66,9 @@ abstract class OperatorGeodeticLength extends Operator {
 	 *            Use the {@link GeodeticCurveType} interface to choose the
 	 *            interpretation of a line connecting two points.
 	 * @param progressTracker
-	 * @return Returns the geoetic length of the Geometry.
+	 * @return Returns the geodetic length of the Geometry in meters. The
+	 *         length of a polygon is its perimeter. GeodeticCurveType.Geodesic
+	 *         and GeodeticCurveType.Loxodrome are supported.
 	 */
 	public abstract double execute(Geometry geom, SpatialReference sr,
 			int geodeticCurveType, ProgressTracker progressTracker);
@@ -24,11 +24,102 @@
 
 package com.esri.core.geometry;
 
-//This is a stub
 class OperatorGeodeticLengthLocal extends OperatorGeodeticLength {
+	@Override
+	public double[] execute(GeometryCursor geoms, SpatialReference sr,
+			int geodeticCurveType, ProgressTracker progressTracker) {
+		if (geoms == null)
+			throw new IllegalArgumentException();
+
+		double[] lengths = new double[16];
+		int count = 0;
+		Geometry geom;
+		while ((geom = geoms.next()) != null) {
+			ProgressTracker.checkAndThrow(progressTracker);
+			if (count == lengths.length) {
+				double[] grown = new double[count * 2];
+				System.arraycopy(lengths, 0, grown, 0, count);
+				lengths = grown;
+			}
+
+			lengths[count++] = execute(geom, sr, geodeticCurveType,
+					progressTracker);
+		}
+
+		double[] result = new double[count];
+		System.arraycopy(lengths, 0, result, 0, count);
+		return result;
+	}
+
 	@Override
 	public double execute(Geometry geom, SpatialReference sr,
 			int geodeticCurveType, ProgressTracker progressTracker) {
-		throw new GeometryException("not implemented");
+		if (geom == null || sr == null)
+			throw new IllegalArgumentException();
+
+		if (geodeticCurveType != GeodeticCurveType.Geodesic
+				&& geodeticCurveType != GeodeticCurveType.Loxodrome)
+			throw new GeometryException("not implemented");
+
+		Ellipsoid ellipsoid = Ellipsoid.fromSpatialReference(sr);
+		if (geom.isEmpty() || geom.getDimension() < 1)
+			return 0;
+
+		MultiPath multipath;
+		Geometry.Type type = geom.getType();
+		if (type == Geometry.Type.Envelope) {
+			multipath = new Polygon(geom.getDescription());
+			multipath.addEnvelope((Envelope) geom, false);
+		} else if (Geometry.isSegment(type.value())) {
+			multipath = new Polyline(geom.getDescription());
+			multipath.addSegment((Segment) geom, true);
+		} else
+			multipath = (MultiPath) geom;
+
+		if (multipath.hasNonLinearSegments())
+			throw new GeometryException("not implemented");
+
+		boolean bWebMercator = ProjectionTransformation.isWebMercator_(sr
+				.getLatestID());
+		boolean bGeodesic = geodeticCurveType == GeodeticCurveType.Geodesic;
+		MultiPathImpl impl = (MultiPathImpl) multipath._getImpl();
+		AttributeStreamOfDbl xy = (AttributeStreamOfDbl) impl
+				.getAttributeStreamRef(VertexDescription.Semantics.POSITION);
+		double a = ellipsoid.getSemiMajorAxis();
+		double e2 = ellipsoid.getEccentricitySquared();
+		PeDouble dist = new PeDouble();
+		double length = 0;
+		for (int ipath = 0, n = impl.getPathCount(); ipath < n; ipath++) {
+			int start = impl.getPathStart(ipath);
+			int end = impl.getPathEnd(ipath);
+			if (end - start < 2)
+				continue;
+
+			// The closing segment of a ring is read first.
+			int i = impl.isClosedPath(ipath) ? end - 1 : start;
+			double lam0 = OperatorGeodeticAreaLocal.longitude_(xy.read(2 * i),
+					bWebMercator);
+			double phi0 = OperatorGeodeticAreaLocal.latitude_(
+					xy.read(2 * i + 1), bWebMercator);
+			for (i = i == start ? start + 1 : start; i < end; i++) {
+				double lam1 = OperatorGeodeticAreaLocal.longitude_(
+						xy.read(2 * i), bWebMercator);
+				double phi1 = OperatorGeodeticAreaLocal.latitude_(
+						xy.read(2 * i + 1), bWebMercator);
+				if (bGeodesic) {
+					GeoDist.geodesic_distance_ngs(a, e2, lam0, phi0, lam1,
+							phi1, dist, null, null);
+					length += dist.val;
+				} else
+					length += ellipsoid.loxodromeLength(
+							Math.IEEEremainder(lam1 - lam0, 2 * Math.PI), phi0,
+							phi1);
+
+				lam0 = lam1;
+				phi0 = phi1;
+			}
+		}
+
+		return length;
 	}
 }
@@ -61,6 +61,18 @@ public abstract class OperatorImportFromESRIShape extends Operator {
 	public abstract Geometry execute(int importFlags, Geometry.Type type,
 			ByteBuffer shapeBuffer);
 
+	/**
+	 * Performs the ImportFromESRIShape operation lazily. Only the shape header
+	 * is read. The vertices are decoded on the first call to
+	 * LazyGeometry.getGeometry.
+	 * @param importFlags Use the {@link ShapeImportFlags} interface.
+	 * @param type The geometry type that you want to import. Use the {@link Geometry.Type} enum. It can be Geometry.Type.Unknown.
+	 * @param shapeBuffer The buffer holding the Geometry in ESRIShape format. It is referenced until the geometry is decoded.
+	 * @return Returns the lazy geometry.
+	 */
+	public abstract LazyGeometry executeLazy(int importFlags,
+			Geometry.Type type, ByteBuffer shapeBuffer);
+
 	public static OperatorImportFromESRIShape local() {
 		return (OperatorImportFromESRIShape) OperatorFactoryLocal.getInstance()
 				.getOperator(Type.ImportFromESRIShape);
@@ -49,4 +49,10 @@ class OperatorImportFromESRIShapeLocal extends OperatorImportFromESRIShape {
 		return geometryCursor.next();
 	}
 
+	@Override
+	public LazyGeometry executeLazy(int importFlags, Geometry.Type type,
+			ByteBuffer shapeBuffer) {
+		return LazyGeometry.fromESRIShape(importFlags, type, shapeBuffer);
+	}
+
 }
@@ -0,0 +1,63 @@
+/*
+ Copyright 1995-2019 Esri
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+
+ For additional information, contact:
+ Environmental Systems Research Institute, Inc.
+ Attn: Contracts Dept
+ 380 New York Street
+ Redlands, California, USA 92373
+
+ email: contracts@esri.com
+ */
+
+package com.esri.core.geometry;
+
+import com.esri.core.geometry.Operator.Type;
+
+/**
+ *Import of geometries from a GeoArrow column.
+ */
+public abstract class OperatorImportFromGeoArrow extends Operator {
+	@Override
+	public Type getType() {
+		return Type.ImportFromGeoArrow;
+	}
+
+	/**
+	 * Performs the ImportFromGeoArrow operation on all geometries of the column.
+	 * Points are imported as Points, MultiPoints as MultiPoints, LineStrings and
+	 * MultiLineStrings as Polylines, Polygons and MultiPolygons as Polygons.
+	 * @param column The column to import.
+	 * @return Returns the cursor over the geometries. The geometry IDs are the
+	 * indices in the column.
+	 */
+	public abstract GeometryCursor execute(GeoArrowColumn column,
+			ProgressTracker progressTracker);
+
+	/**
+	 * Performs the ImportFromGeoArrow operation on one geometry of the column.
+	 * @param column The column to import from.
+	 * @param index The index of the geometry in the column.
+	 * @return Returns the imported Geometry.
+	 */
+	public abstract Geometry execute(GeoArrowColumn column, int index,
+			ProgressTracker progressTracker);
+
+	public static OperatorImportFromGeoArrow local() {
+		return (OperatorImportFromGeoArrow) OperatorFactoryLocal.getInstance()
+				.getOperator(Type.ImportFromGeoArrow);
+	}
+
+}
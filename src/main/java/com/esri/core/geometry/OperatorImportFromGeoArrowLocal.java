@@ -0,0 +1,326 @@
+/*
+ Copyright 1995-2019 Esri
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+
+ For additional information, contact:
+ Environmental Systems Research Institute, Inc.
+ Attn: Contracts Dept
+ 380 New York Street
+ Redlands, California, USA 92373
+
+ email: contracts@esri.com
+ */
+
+package com.esri.core.geometry;
+
+import com.esri.core.geometry.VertexDescription.Semantics;
+
+class OperatorImportFromGeoArrowLocal extends OperatorImportFromGeoArrow {
+
+	@Override
+	public GeometryCursor execute(final GeoArrowColumn column,
+			final ProgressTracker progressTracker) {
+		if (column == null)
+			throw new IllegalArgumentException();
+
+		return new GeometryCursor() {
+			int m_index = -1;
+
+			@Override
+			public Geometry next() {
+				if (m_index + 1 >= column.getLength())
+					return null;
+
+				m_index++;
+				return importGeometry(column, m_index);
+			}
+
+			@Override
+			public int getGeometryID() {
+				return m_index;
+			}
+		};
+	}
+
+	@Override
+	public Geometry execute(GeoArrowColumn column, int index,
+			ProgressTracker progressTracker) {
+		if (column == null || index < 0 || index >= column.getLength())
+			throw new IllegalArgumentException();
+
+		return importGeometry(column, index);
+	}
+
+	static Geometry importGeometry(GeoArrowColumn column, int index) {
+		int[] geometryOffsets;
+		int[] partOffsets;
+		switch (column.getType()) {
+		case Point:
+			return importPoint(column, index);
+		case MultiPoint:
+			geometryOffsets = column.getOffsets(0);
+			return importMultiPoint(column, geometryOffsets[index],
+					geometryOffsets[index + 1]);
+		case LineString:
+			return importMultiPath(column, new Polyline(), index, index + 1,
+					null, 0, 0);
+		case MultiLineString:
+			geometryOffsets = column.getOffsets(0);
+			return importMultiPath(column, new Polyline(),
+					geometryOffsets[index], geometryOffsets[index + 1], null,
+					0, 0);
+		case Polygon:
+			geometryOffsets = column.getOffsets(0);
+			return importMultiPath(column, new Polygon(),
+					geometryOffsets[index], geometryOffsets[index + 1], null,
+					0, 0);
+		case MultiPolygon:
+			geometryOffsets = column.getOffsets(0);
+			partOffsets = column.getOffsets(1);
+			return importMultiPath(column, new Polygon(),
+					partOffsets[geometryOffsets[index]],
+					partOffsets[geometryOffsets[index + 1]], partOffsets,
+					geometryOffsets[index], geometryOffsets[index + 1]);
+		default:
+			throw GeometryException.GeometryInternalError();
+		}
+	}
+
+	private static Point importPoint(GeoArrowColumn column, int index) {
+		GeoArrowColumn.Dimensions dimensions = column.getDimensions();
+		double[] coordinates = column.getCoordinates();
+		int offset = index * dimensions.getSize();
+		Point point = new Point();
+		if (dimensions.hasZ())
+			point.addAttribute(Semantics.Z);
+		if (dimensions.hasM())
+			point.addAttribute(Semantics.M);
+
+		double x = coordinates[offset++];
+		double y = coordinates[offset++];
+		if (NumberUtils.isNaN(x) && NumberUtils.isNaN(y))
+			return point;
+
+		point.setXY(x, y);
+		if (dimensions.hasZ())
+			point.setZ(coordinates[offset++]);
+		if (dimensions.hasM())
+			point.setM(coordinates[offset++]);
+
+		return point;
+	}
+
+	private static MultiPoint importMultiPoint(GeoArrowColumn column,
+			int start, int end) {
+		MultiPoint multiPoint = new MultiPoint();
+		MultiPointImpl impl = (MultiPointImpl) multiPoint._getImpl();
+		int pointCount = end - start;
+		VertexStreams streams = new VertexStreams(column, pointCount);
+		if (pointCount == 0) {
+			streams.addAttributes(impl);
+			return multiPoint;
+		}
+
+		streams.copy(start, pointCount, 0);
+		impl.resize(pointCount);
+		streams.attach(impl);
+		return multiPoint;
+	}
+
+	// Imports the paths from firstPath to lastPath of the innermost offset
+	// level. For multipolygons, polygonOffsets groups the paths into polygons.
+	private static Geometry importMultiPath(GeoArrowColumn column,
+			MultiPath multiPath, int firstPath, int lastPath,
+			int[] polygonOffsets, int firstPolygon, int lastPolygon) {
+		MultiPathImpl impl = (MultiPathImpl) multiPath._getImpl();
+		int[] pathOffsets = column.getOffsets(column.getType()
+				.getNestingLevels() - 1);
+		boolean bPolygon = multiPath.getType() == Geometry.Type.Polygon;
+
+		// Count the vertices without the closing ones of the rings.
+		int pointCount = 0;
+		int pathCount = 0;
+		for (int ipath = firstPath; ipath < lastPath; ipath++) {
+			int count = getPathSize(column, pathOffsets[ipath],
+					pathOffsets[ipath + 1], bPolygon);
+			if (count > 0) {
+				pointCount += count;
+				pathCount++;
+			}
+		}
+
+		VertexStreams streams = new VertexStreams(column, pointCount);
+		if (pointCount == 0) {
+			streams.addAttributes(impl);
+			return multiPath;
+		}
+
+		AttributeStreamOfInt32 paths = (AttributeStreamOfInt32) AttributeStreamBase
+				.createIndexStream(pathCount + 1, 0);
+		AttributeStreamOfInt8 pathFlags = (AttributeStreamOfInt8) AttributeStreamBase
+				.createByteStream(pathCount + 1, (byte) (bPolygon ? PathFlags.enumClosed : 0));
+		int ipolygon = firstPolygon;
+		int point = 0;
+		int idst = 0;
+		for (int ipath = firstPath; ipath < lastPath; ipath++) {
+			int start = pathOffsets[ipath];
+			int count = getPathSize(column, start, pathOffsets[ipath + 1],
+					bPolygon);
+			if (bPolygon) {
+				boolean bStartPolygon = ipath == firstPath;
+				if (polygonOffsets != null) {
+					while (ipolygon < lastPolygon
+							&& polygonOffsets[ipolygon] <= ipath) {
+						bStartPolygon |= polygonOffsets[ipolygon] == ipath;
+						ipolygon++;
+					}
+				}
+
+				if (count == 0)
+					continue;
+
+				if (bStartPolygon || idst == 0)
+					pathFlags.setBits(idst,
+							(byte) PathFlags.enumOGCStartPolygon);
+
+				// We must read the ring backwards - ogc polygon format is
+				// opposite of shapefile format. The start vertex stays first.
+				streams.copyReversed(start, count, point);
+			} else {
+				if (count == 0)
+					continue;
+
+				streams.copy(start, count, point);
+			}
+
+			point += count;
+			paths.write(++idst, point);
+		}
+
+		impl.setPathStreamRef(paths);
+		impl.setPathFlagsStreamRef(pathFlags);
+		streams.attach(impl);
+		impl.notifyModified(MultiPathImpl.DirtyFlags.DirtyAll);
+		if (bPolygon) {
+			for (int i = 0; i < pathCount; i++) {
+				if ((pathFlags.read(i) & PathFlags.enumOGCStartPolygon) != 0) {
+					if (!InternalUtils.isClockwiseRing(impl, i))
+						impl.reversePath(i); // make clockwise
+				} else {
+					if (InternalUtils.isClockwiseRing(impl, i))
+						impl.reversePath(i); // make counter-clockwise
+				}
+			}
+
+			impl.setDirtyOGCFlags(false);
+		}
+
+		return multiPath;
+	}
+
+	// Returns the vertex count of the path. The closing vertex of a ring is
+	// not counted.
+	private static int getPathSize(GeoArrowColumn column, int start, int end,
+			boolean bRing) {
+		int count = end - start;
+		if (!bRing || count < 2)
+			return count;
+
+		int size = column.getDimensions().getSize();
+		double[] coordinates = column.getCoordinates();
+		int first = start * size;
+		int last = (end - 1) * size;
+		for (int i = 0; i < size; i++) {
+			double a = coordinates[first + i];
+			double b = coordinates[last + i];
+			if (a != b && !(NumberUtils.isNaN(a) && NumberUtils.isNaN(b)))
+				return count;
+		}
+
+		return count - 1;
+	}
+
+	/**
+	 * The attribute streams of one geometry, filled from the column.
+	 */
+	private static final class VertexStreams {
+		final GeoArrowColumn.Dimensions m_dimensions;
+		final int m_size;
+		final double[] m_coordinates;
+		final AttributeStreamOfDbl m_position;
+		final AttributeStreamOfDbl m_zs;
+		final AttributeStreamOfDbl m_ms;
+
+		VertexStreams(GeoArrowColumn column, int pointCount) {
+			m_dimensions = column.getDimensions();
+			m_size = m_dimensions.getSize();
+			m_coordinates = column.getCoordinates();
+			if (pointCount == 0) {
+				m_position = null;
+				m_zs = null;
+				m_ms = null;
+				return;
+			}
+
+			m_position = (AttributeStreamOfDbl) AttributeStreamBase
+					.createDoubleStream(2 * pointCount);
+			m_zs = m_dimensions.hasZ() ? (AttributeStreamOfDbl) AttributeStreamBase
+					.createDoubleStream(pointCount) : null;
+			m_ms = m_dimensions.hasM() ? (AttributeStreamOfDbl) AttributeStreamBase
+					.createDoubleStream(pointCount) : null;
+		}
+
+		void addAttributes(MultiVertexGeometryImpl impl) {
+			if (m_dimensions.hasZ())
+				impl.addAttribute(Semantics.Z);
+			if (m_dimensions.hasM())
+				impl.addAttribute(Semantics.M);
+		}
+
+		void attach(MultiVertexGeometryImpl impl) {
+			impl.setAttributeStreamRef(Semantics.POSITION, m_position);
+			if (m_zs != null)
+				impl.setAttributeStreamRef(Semantics.Z, m_zs);
+			if (m_ms != null)
+				impl.setAttributeStreamRef(Semantics.M, m_ms);
+		}
+
+		void copy(int start, int count, int dst) {
+			if (m_size == 2) {
+				m_position.writeRange(2 * dst, 2 * count, m_coordinates,
+						2 * start, true);
+				return;
+			}
+
+			for (int i = 0; i < count; i++)
+				copyVertex(start + i, dst + i);
+		}
+
+		void copyReversed(int start, int count, int dst) {
+			copyVertex(start, dst);
+			for (int i = 1; i < count; i++)
+				copyVertex(start + count - i, dst + i);
+		}
+
+		void copyVertex(int src, int dst) {
+			int index = src * m_size;
+			m_position.write(2 * dst, m_coordinates[index++]);
+			m_position.write(2 * dst + 1, m_coordinates[index++]);
+			if (m_zs != null)
+				m_zs.write(dst, m_coordinates[index++]);
+			if (m_ms != null)
+				m_ms.write(dst, m_coordinates[index++]);
+		}
+	}
+}
@@ -23,6 +23,10 @@
  */
 package com.esri.core.geometry;
 
+import java.io.InputStream;
+
+import com.fasterxml.jackson.core.JsonParser;
+
 public abstract class OperatorImportFromGeoJson extends Operator {
 
 	@Override
@@ -53,6 +57,30 @@ public abstract class OperatorImportFromGeoJson extends Operator {
 	 */
 	public abstract MapGeometry execute(int import_flags, Geometry.Type type, String geoJsonString, ProgressTracker progress_tracker);
 
+	/**
+	 * Imports the features of a GeoJSON FeatureCollection from the stream.
+	 * The features are parsed lazily as the cursor advances, so the memory use
+	 * does not depend on the size of the collection. The cursor does not close
+	 * the stream.
+	 *
+	 * @param importFlags Use the {@link GeoJsonImportFlags} interface.
+	 * @param type Use the {@link Geometry.Type} enum.
+	 * @param geoJsonStream The stream holding the FeatureCollection.
+	 * @return Returns the cursor over the features.
+	 */
+	public abstract GeoJsonFeatureCursor executeFeatures(int importFlags,
+			Geometry.Type type, InputStream geoJsonStream,
+			ProgressTracker progressTracker);
+
+	/**
+	 * Same as above, but reads the FeatureCollection with the given Jackson
+	 * parser. The parser is positioned before or at the start of the
+	 * collection object.
+	 */
+	public abstract GeoJsonFeatureCursor executeFeatures(int importFlags,
+			Geometry.Type type, JsonParser jsonParser,
+			ProgressTracker progressTracker);
+
 	/**
 	 * 
 	 * Performs the ImportFromGeoJson operation.
@@ -0,0 +1,226 @@
+/*
+ Copyright 1995-2019 Esri
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+
+ For additional information, contact:
+ Environmental Systems Research Institute, Inc.
+ Attn: Contracts Dept
+ 380 New York Street
+ Redlands, California, USA 92373
+
+ email: contracts@esri.com
+ */
+
+package com.esri.core.geometry;
+
+import java.io.IOException;
+
+import com.esri.core.geometry.OperatorImportFromGeoJsonLocal.OperatorImportFromGeoJsonHelper;
+import com.fasterxml.jackson.core.JsonLocation;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+
+/**
+ * Walks a FeatureCollection with the streaming parser. Only the current
+ * feature is held in memory: the geometry is imported directly from the
+ * parser, and the properties object is skipped, recording its location.
+ */
+final class OperatorImportFromGeoJsonCursor extends GeoJsonFeatureCursor {
+	private final JsonParser m_parser;
+	private final JsonReader m_reader;
+	private final int m_importFlags;
+	private final Geometry.Type m_type;
+	private final ProgressTracker m_progressTracker;
+	private SpatialReference m_spatialReference;
+	private boolean m_bEnd;
+	private int m_index;
+	private boolean m_bHasGeometry;
+	private String m_featureId;
+	private long m_propertiesStart;
+	private long m_propertiesEnd;
+
+	OperatorImportFromGeoJsonCursor(int importFlags, Geometry.Type type,
+			JsonParser parser, ProgressTracker progressTracker) {
+		if (parser == null)
+			throw new IllegalArgumentException();
+
+		m_parser = parser;
+		m_reader = new JsonParserReader(parser);
+		m_importFlags = importFlags;
+		m_type = type;
+		m_progressTracker = progressTracker;
+		m_index = -1;
+		m_propertiesStart = -1;
+		m_propertiesEnd = -1;
+		readHeader_();
+	}
+
+	@Override
+	public Geometry next() {
+		if (m_bEnd)
+			return null;
+
+		ProgressTracker.checkAndThrow(m_progressTracker);
+		try {
+			JsonToken token = m_parser.nextToken();
+			if (token == JsonToken.END_ARRAY) {
+				m_bEnd = true;
+				return null;
+			}
+
+			if (token != JsonToken.START_OBJECT)
+				throw new JsonGeometryException("parsing error");
+
+			Geometry geometry = null;
+			m_featureId = null;
+			m_propertiesStart = -1;
+			m_propertiesEnd = -1;
+			while ((token = m_parser.nextToken()) == JsonToken.FIELD_NAME) {
+				String name = m_parser.getCurrentName();
+				token = m_parser.nextToken();
+				if (name.equals("geometry")) {
+					if (token == JsonToken.START_OBJECT) {
+						// The features do not have their own crs.
+						geometry = OperatorImportFromGeoJsonHelper
+								.importFromGeoJson(
+										m_importFlags
+												| GeoJsonImportFlags.geoJsonImportSkipCRS,
+										m_type, m_reader, m_progressTracker,
+										false)
+								.getGeometry();
+					} else if (token != JsonToken.VALUE_NULL) {
+						throw new JsonGeometryException("parsing error");
+					}
+				} else if (name.equals("id")) {
+					if (token == JsonToken.VALUE_STRING
+							|| token == JsonToken.VALUE_NUMBER_INT
+							|| token == JsonToken.VALUE_NUMBER_FLOAT)
+						m_featureId = m_parser.getText();
+					else if (token != JsonToken.VALUE_NULL)
+						throw new JsonGeometryException("parsing error");
+				} else if (name.equals("properties")
+						&& token == JsonToken.START_OBJECT) {
+					m_propertiesStart = offset_(m_parser.getTokenLocation());
+					m_parser.skipChildren();
+					m_propertiesEnd = offset_(m_parser.getTokenLocation()) + 1;
+				} else {
+					m_parser.skipChildren();
+				}
+			}
+
+			if (token != JsonToken.END_OBJECT)
+				throw new JsonGeometryException("parsing error");
+
+			m_bHasGeometry = geometry != null;
+			if (geometry == null)
+				geometry = InternalUtils.createGeometry(
+						m_type == Geometry.Type.Unknown ? Geometry.GeometryType.Point
+								: m_type.value(), null);
+
+			m_index++;
+			return geometry;
+		} catch (IOException ex) {
+			throw new JsonGeometryException(ex);
+		}
+	}
+
+	@Override
+	public int getGeometryID() {
+		return m_index;
+	}
+
+	@Override
+	public boolean hasGeometry() {
+		return m_bHasGeometry;
+	}
+
+	@Override
+	public String getFeatureId() {
+		return m_featureId;
+	}
+
+	@Override
+	public long getPropertiesStart() {
+		return m_propertiesStart;
+	}
+
+	@Override
+	public long getPropertiesEnd() {
+		return m_propertiesEnd;
+	}
+
+	@Override
+	public SpatialReference getSpatialReference() {
+		return m_spatialReference;
+	}
+
+	/**
+	 * Reads the members of the collection up to the start of the features
+	 * array.
+	 */
+	private void readHeader_() {
+		try {
+			JsonToken token = m_parser.getCurrentToken();
+			if (token == null)
+				token = m_parser.nextToken();
+
+			if (token != JsonToken.START_OBJECT)
+				throw new JsonGeometryException("parsing error");
+
+			boolean bCrsFound = false;
+			boolean bFeaturesFound = false;
+			while (!bFeaturesFound
+					&& (token = m_parser.nextToken()) == JsonToken.FIELD_NAME) {
+				String name = m_parser.getCurrentName();
+				token = m_parser.nextToken();
+				if (name.equals("type")) {
+					if (token != JsonToken.VALUE_STRING
+							|| !m_parser.getText().equals("FeatureCollection"))
+						throw new JsonGeometryException("parsing error");
+				} else if (name.equals("crs")) {
+					bCrsFound = true;
+					if ((m_importFlags & GeoJsonImportFlags.geoJsonImportSkipCRS) == 0)
+						m_spatialReference = OperatorImportFromGeoJsonHelper
+								.importSpatialReferenceFromCrs(m_reader, null);
+					else
+						m_parser.skipChildren();
+				} else if (name.equals("features")) {
+					if (token == JsonToken.VALUE_NULL)
+						m_bEnd = true;
+					else if (token != JsonToken.START_ARRAY)
+						throw new JsonGeometryException("parsing error");
+
+					bFeaturesFound = true;
+				} else {
+					m_parser.skipChildren();
+				}
+			}
+
+			if (!bFeaturesFound)
+				m_bEnd = true;
+
+			if (!bCrsFound
+					&& (m_importFlags & GeoJsonImportFlags.geoJsonImportSkipCRS) == 0
+					&& (m_importFlags & GeoJsonImportFlags.geoJsonImportNoWGS84Default) == 0)
+				m_spatialReference = SpatialReference.create(4326);
+		} catch (IOException ex) {
+			throw new JsonGeometryException(ex);
+		}
+	}
+
+	private static long offset_(JsonLocation location) {
+		long offset = location.getByteOffset();
+		return offset >= 0 ? offset : location.getCharOffset();
+	}
+}
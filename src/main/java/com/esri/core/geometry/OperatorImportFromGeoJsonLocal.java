@@ -24,6 +24,11 @@
 package com.esri.core.geometry;
 
 import com.esri.core.geometry.VertexDescription.Semantics;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+
+import java.io.IOException;
+import java.io.InputStream;
 import java.util.ArrayList;
 
 class OperatorImportFromGeoJsonLocal extends OperatorImportFromGeoJson {
@@ -68,6 +73,31 @@ class OperatorImportFromGeoJsonLocal extends OperatorImportFromGeoJson {
 				type, jsonReader, progressTracker, false);
 	}
 
+	@Override
+	public GeoJsonFeatureCursor executeFeatures(int importFlags,
+			Geometry.Type type, InputStream geoJsonStream,
+			ProgressTracker progressTracker) {
+		if (geoJsonStream == null)
+			throw new IllegalArgumentException();
+
+		try {
+			JsonFactory factory = new JsonFactory();
+			factory.disable(JsonParser.Feature.AUTO_CLOSE_SOURCE);
+			return new OperatorImportFromGeoJsonCursor(importFlags, type,
+					factory.createParser(geoJsonStream), progressTracker);
+		} catch (IOException ex) {
+			throw new JsonGeometryException(ex);
+		}
+	}
+
+	@Override
+	public GeoJsonFeatureCursor executeFeatures(int importFlags,
+			Geometry.Type type, JsonParser jsonParser,
+			ProgressTracker progressTracker) {
+		return new OperatorImportFromGeoJsonCursor(importFlags, type,
+				jsonParser, progressTracker);
+	}
+
 	static final class OperatorImportFromGeoJsonHelper {
 
 		private AttributeStreamOfDbl m_position;
@@ -0,0 +1,57 @@
+/*
+ Copyright 1995-2019 Esri
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+
+ For additional information, contact:
+ Environmental Systems Research Institute, Inc.
+ Attn: Contracts Dept
+ 380 New York Street
+ Redlands, California, USA 92373
+
+ email: contracts@esri.com
+ */
+
+package com.esri.core.geometry;
+
+import java.nio.ByteBuffer;
+
+import com.esri.core.geometry.Operator.Type;
+
+/**
+ *Import from TWKB (Tiny Well Known Binary) format.
+ */
+public abstract class OperatorImportFromTwkb extends Operator {
+
+	@Override
+	public Type getType() {
+		return Type.ImportFromTwkb;
+	}
+
+	/**
+	 * Performs the ImportFromTwkb operation. The id list of a multi geometry
+	 * is imported as the ID attribute of the vertices of each part.
+	 * @param importFlags Use the {@link TwkbImportFlags} interface.
+	 * @param type Use the {@link Geometry.Type} enum. 
+	 * @param twkbBuffer The buffer holding the Geometry in TWKB format. The geometry is read at the position of the buffer, and the position is advanced past it.
+	 * @return Returns the imported Geometry.
+	 */
+	public abstract Geometry execute(int importFlags, Geometry.Type type,
+			ByteBuffer twkbBuffer, ProgressTracker progressTracker);
+
+	public static OperatorImportFromTwkb local() {
+		return (OperatorImportFromTwkb) OperatorFactoryLocal.getInstance()
+				.getOperator(Type.ImportFromTwkb);
+	}
+
+}
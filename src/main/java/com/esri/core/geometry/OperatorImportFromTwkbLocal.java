@@ -0,0 +1,355 @@
+/*
+ Copyright 1995-2019 Esri
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+
+ For additional information, contact:
+ Environmental Systems Research Institute, Inc.
+ Attn: Contracts Dept
+ 380 New York Street
+ Redlands, California, USA 92373
+
+ email: contracts@esri.com
+ */
+
+package com.esri.core.geometry;
+
+import java.nio.ByteBuffer;
+
+import com.esri.core.geometry.VertexDescription.Semantics;
+
+class OperatorImportFromTwkbLocal extends OperatorImportFromTwkb {
+
+	@Override
+	public Geometry execute(int importFlags, Geometry.Type type,
+			ByteBuffer twkbBuffer, ProgressTracker progressTracker) {
+		return importFromTwkb(importFlags, type, twkbBuffer);
+	}
+
+	/**
+	 * Reads the varints at the buffer position. The coordinates are the sums
+	 * of the deltas.
+	 */
+	private static final class Decoder {
+		final ByteBuffer m_buffer;
+		double m_xyScale;
+		double m_zScale;
+		double m_mScale;
+		boolean m_bZs;
+		boolean m_bMs;
+		long m_x, m_y, m_z, m_m;
+
+		Decoder(ByteBuffer buffer) {
+			m_buffer = buffer;
+		}
+
+		int readByte() {
+			return m_buffer.get() & 0xFF;
+		}
+
+		long varint() {
+			long value = 0;
+			for (int shift = 0; shift < 64; shift += 7) {
+				int b = m_buffer.get();
+				value |= (long) (b & 0x7F) << shift;
+				if ((b & 0x80) == 0)
+					return value;
+			}
+
+			throw new GeometryException("invalid twkb");
+		}
+
+		long signedVarint() {
+			long value = varint();
+			return (value >>> 1) ^ -(value & 1);
+		}
+
+		int count() {
+			long count = varint();
+			if (count > m_buffer.remaining())
+				throw new GeometryException("invalid twkb");
+
+			return (int) count;
+		}
+
+		void readVertex(AttributeStreamOfDbl position,
+				AttributeStreamOfDbl zs, AttributeStreamOfDbl ms) {
+			m_x += signedVarint();
+			m_y += signedVarint();
+			position.add(m_x / m_xyScale);
+			position.add(m_y / m_xyScale);
+			if (m_bZs) {
+				m_z += signedVarint();
+				zs.add(m_z / m_zScale);
+			}
+			if (m_bMs) {
+				m_m += signedVarint();
+				ms.add(m_m / m_mScale);
+			}
+		}
+	}
+
+	static Geometry importFromTwkb(int importFlags, Geometry.Type type,
+			ByteBuffer twkbBuffer) {
+		Decoder decoder = new Decoder(twkbBuffer);
+		int header = decoder.readByte();
+		int twkbType = header & 0x0F;
+		int xyPrecision = ((header >> 4) >>> 1) ^ -((header >> 4) & 1);
+		int metadata = decoder.readByte();
+		int zPrecision = 0;
+		int mPrecision = 0;
+		if ((metadata & TwkbGeometryType.twkbHasExtendedDims) != 0) {
+			int dims = decoder.readByte();
+			decoder.m_bZs = (dims & 1) != 0;
+			decoder.m_bMs = (dims & 2) != 0;
+			zPrecision = (dims >> 2) & 7;
+			mPrecision = (dims >> 5) & 7;
+		}
+
+		decoder.m_xyScale = Math.pow(10, xyPrecision);
+		decoder.m_zScale = Math.pow(10, zPrecision);
+		decoder.m_mScale = Math.pow(10, mPrecision);
+
+		if ((metadata & TwkbGeometryType.twkbHasSize) != 0) {
+			if (decoder.varint() > twkbBuffer.remaining())
+				throw new GeometryException("invalid twkb");
+		}
+
+		Geometry geometry;
+		switch (twkbType) {
+		case TwkbGeometryType.twkbPoint:
+			geometry = new Point();
+			break;
+		case TwkbGeometryType.twkbMultiPoint:
+			geometry = new MultiPoint();
+			break;
+		case TwkbGeometryType.twkbLineString:
+		case TwkbGeometryType.twkbMultiLineString:
+			geometry = new Polyline();
+			break;
+		case TwkbGeometryType.twkbPolygon:
+		case TwkbGeometryType.twkbMultiPolygon:
+			geometry = new Polygon();
+			break;
+		default:
+			throw new GeometryException("invalid shape type");
+		}
+
+		if (type != Geometry.Type.Unknown && type != geometry.getType())
+			throw new GeometryException("invalid shape type");
+
+		if (decoder.m_bZs)
+			geometry.addAttribute(Semantics.Z);
+		if (decoder.m_bMs)
+			geometry.addAttribute(Semantics.M);
+
+		if ((metadata & TwkbGeometryType.twkbIsEmpty) != 0)
+			return geometry;
+
+		if ((metadata & TwkbGeometryType.twkbHasBBox) != 0) {
+			int dimCount = 2 + (decoder.m_bZs ? 1 : 0)
+					+ (decoder.m_bMs ? 1 : 0);
+			for (int i = 0; i < 2 * dimCount; i++)
+				decoder.varint();
+		}
+
+		boolean bIds = (metadata & TwkbGeometryType.twkbHasIdList) != 0;
+		switch (twkbType) {
+		case TwkbGeometryType.twkbPoint: {
+			Point point = (Point) geometry;
+			decoder.m_x = decoder.signedVarint();
+			decoder.m_y = decoder.signedVarint();
+			point.setXY(decoder.m_x / decoder.m_xyScale, decoder.m_y
+					/ decoder.m_xyScale);
+			if (decoder.m_bZs)
+				point.setZ(decoder.signedVarint() / decoder.m_zScale);
+			if (decoder.m_bMs)
+				point.setM(decoder.signedVarint() / decoder.m_mScale);
+			break;
+		}
+		case TwkbGeometryType.twkbMultiPoint:
+			importMultiPoint_(decoder, (MultiPoint) geometry, bIds);
+			break;
+		default:
+			importMultiPath_(importFlags, decoder, (MultiPath) geometry,
+					twkbType, bIds);
+			break;
+		}
+
+		return geometry;
+	}
+
+	private static void importMultiPoint_(Decoder decoder,
+			MultiPoint multipoint, boolean bIds) {
+		int pointCount = decoder.count();
+		AttributeStreamOfInt32 ids = null;
+		if (bIds) {
+			ids = new AttributeStreamOfInt32(pointCount);
+			for (int i = 0; i < pointCount; i++)
+				ids.write(i, id_(decoder.signedVarint()));
+		}
+
+		if (pointCount == 0)
+			return;
+
+		AttributeStreamOfDbl position = new AttributeStreamOfDbl(0);
+		position.reserve(2 * pointCount);
+		AttributeStreamOfDbl zs = decoder.m_bZs ? new AttributeStreamOfDbl(0)
+				: null;
+		AttributeStreamOfDbl ms = decoder.m_bMs ? new AttributeStreamOfDbl(0)
+				: null;
+		for (int i = 0; i < pointCount; i++)
+			decoder.readVertex(position, zs, ms);
+
+		MultiPointImpl impl = (MultiPointImpl) multipoint._getImpl();
+		if (bIds)
+			impl.addAttribute(Semantics.ID);
+
+		impl.resize(pointCount);
+		impl.setAttributeStreamRef(Semantics.POSITION, position);
+		if (zs != null)
+			impl.setAttributeStreamRef(Semantics.Z, zs);
+		if (ms != null)
+			impl.setAttributeStreamRef(Semantics.M, ms);
+		if (ids != null)
+			impl.setAttributeStreamRef(Semantics.ID, ids);
+
+		impl.notifyModified(MultiVertexGeometryImpl.DirtyFlags.DirtyAll);
+	}
+
+	private static void importMultiPath_(int importFlags, Decoder decoder,
+			MultiPath multipath, int twkbType, boolean bIds) {
+		boolean bPolygon = twkbType == TwkbGeometryType.twkbPolygon
+				|| twkbType == TwkbGeometryType.twkbMultiPolygon;
+		boolean bMulti = twkbType >= TwkbGeometryType.twkbMultiPoint;
+
+		int partCount = bMulti ? decoder.count() : 1;
+		AttributeStreamOfInt32 partIds = null;
+		if (bIds) {
+			partIds = new AttributeStreamOfInt32(partCount);
+			for (int i = 0; i < partCount; i++)
+				partIds.write(i, id_(decoder.signedVarint()));
+		}
+
+		AttributeStreamOfDbl position = new AttributeStreamOfDbl(0);
+		AttributeStreamOfDbl zs = decoder.m_bZs ? new AttributeStreamOfDbl(0)
+				: null;
+		AttributeStreamOfDbl ms = decoder.m_bMs ? new AttributeStreamOfDbl(0)
+				: null;
+		AttributeStreamOfInt32 ids = bIds ? new AttributeStreamOfInt32(0)
+				: null;
+		AttributeStreamOfInt32 paths = new AttributeStreamOfInt32(0);
+		AttributeStreamOfInt8 pathFlags = new AttributeStreamOfInt8(0);
+		paths.add(0);
+		int pointCount = 0;
+
+		for (int ipart = 0; ipart < partCount; ipart++) {
+			int ringCount = bPolygon ? decoder.count() : 1;
+			boolean bFirstRing = true;
+			for (int iring = 0; iring < ringCount; iring++) {
+				int count = decoder.count();
+				for (int i = 0; i < count; i++)
+					decoder.readVertex(position, zs, ms);
+
+				if (bPolygon && count > 1
+						&& equalVertices_(position, zs, ms, pointCount,
+								pointCount + count - 1)) {
+					// drop the closing vertex
+					count--;
+					position.resizePreserveCapacity(2 * (pointCount + count));
+					if (zs != null)
+						zs.resizePreserveCapacity(pointCount + count);
+					if (ms != null)
+						ms.resizePreserveCapacity(pointCount + count);
+				}
+
+				if (count == 0)
+					continue;
+
+				if (ids != null) {
+					for (int i = 0; i < count; i++)
+						ids.add(partIds.read(ipart));
+				}
+
+				pointCount += count;
+				paths.add(pointCount);
+				int flags = 0;
+				if (bPolygon) {
+					flags = PathFlags.enumClosed;
+					if (bFirstRing)
+						flags |= PathFlags.enumOGCStartPolygon;
+				}
+				pathFlags.add((byte) flags);
+				bFirstRing = false;
+			}
+		}
+
+		if (pointCount == 0)
+			return;
+
+		pathFlags.add((byte) 0);
+		MultiPathImpl impl = (MultiPathImpl) multipath._getImpl();
+		if (bIds)
+			impl.addAttribute(Semantics.ID);
+
+		impl.setPathStreamRef(paths);
+		impl.setPathFlagsStreamRef(pathFlags);
+		impl.setAttributeStreamRef(Semantics.POSITION, position);
+		if (zs != null)
+			impl.setAttributeStreamRef(Semantics.Z, zs);
+		if (ms != null)
+			impl.setAttributeStreamRef(Semantics.M, ms);
+		if (ids != null)
+			impl.setAttributeStreamRef(Semantics.ID, ids);
+
+		impl.notifyModified(MultiVertexGeometryImpl.DirtyFlags.DirtyAll);
+
+		if (!bPolygon)
+			return;
+
+		// The OGC orientation is not assumed, as in the OperatorImportFromWkb.
+		AttributeStreamOfInt8 pathFlagsClone = new AttributeStreamOfInt8(
+				pathFlags);
+		for (int i = 0; i < pathFlagsClone.size() - 1; i++) {
+			if ((pathFlagsClone.read(i) & PathFlags.enumOGCStartPolygon) != 0) {
+				if (!InternalUtils.isClockwiseRing(impl, i))
+					impl.reversePath(i); // make clockwise
+			} else {
+				if (InternalUtils.isClockwiseRing(impl, i))
+					impl.reversePath(i); // make counter-clockwise
+			}
+		}
+		impl.setPathFlagsStreamRef(pathFlagsClone);
+
+		if ((importFlags & TwkbImportFlags.twkbImportNonTrusted) == 0)
+			impl.setIsSimple(MultiVertexGeometryImpl.GeometryXSimple.Weak,
+					0.0, false);
+
+		impl.setDirtyOGCFlags(false);
+	}
+
+	private static boolean equalVertices_(AttributeStreamOfDbl position,
+			AttributeStreamOfDbl zs, AttributeStreamOfDbl ms, int i, int j) {
+		return position.read(2 * i) == position.read(2 * j)
+				&& position.read(2 * i + 1) == position.read(2 * j + 1)
+				&& (zs == null || zs.read(i) == zs.read(j))
+				&& (ms == null || ms.read(i) == ms.read(j));
+	}
+
+	private static int id_(long id) {
+		if (id < Integer.MIN_VALUE || id > Integer.MAX_VALUE)
+			throw new GeometryException("invalid twkb id");
+
+		return (int) id;
+	}
+}
@@ -24,7 +24,10 @@
 
 package com.esri.core.geometry;
 
+import java.io.InputStream;
 import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
 
 import com.esri.core.geometry.Operator.Type;
 
@@ -48,6 +51,55 @@ public abstract class OperatorImportFromWkb extends Operator {
 	public abstract Geometry execute(int importFlags, Geometry.Type type,
 			ByteBuffer wkbBuffer, ProgressTracker progress_tracker);
 
+	/**
+	 * Imports a stream of concatenated WKB geometries. With the
+	 * wkbImportLengthPrefixed flag, each geometry is preceded by its length.
+	 * The geometries are read lazily through one internal buffer, which only
+	 * grows to the size of the largest geometry. The cursor does not close the
+	 * stream. The geometry IDs are the record numbers, starting at 0.
+	 * @param importFlags Use the {@link WkbImportFlags} interface.
+	 * @param type Use the {@link Geometry.Type} enum. 
+	 * @param wkbStream The stream of the WKB geometries.
+	 * @return Returns the cursor over the imported geometries.
+	 */
+	public abstract GeometryCursor execute(int importFlags,
+			Geometry.Type type, InputStream wkbStream,
+			ProgressTracker progress_tracker);
+
+	/**
+	 * Same as above, but reads from a channel.
+	 */
+	public abstract GeometryCursor execute(int importFlags,
+			Geometry.Type type, ReadableByteChannel wkbChannel,
+			ProgressTracker progress_tracker);
+
+	/**
+	 * Imports the concatenated WKB geometries in the region of the file. The
+	 * region is memory mapped in windows, so it can be larger than 2GB.
+	 * @param importFlags Use the {@link WkbImportFlags} interface.
+	 * @param type Use the {@link Geometry.Type} enum. 
+	 * @param fileChannel The file channel.
+	 * @param position The start of the region in the file.
+	 * @param size The size of the region.
+	 * @return Returns the cursor over the imported geometries.
+	 */
+	public abstract GeometryCursor execute(int importFlags,
+			Geometry.Type type, FileChannel fileChannel, long position,
+			long size, ProgressTracker progress_tracker);
+
+	/**
+	 * Performs the ImportFromWkb operation lazily. The type and the envelope
+	 * are found by a quick scan of the buffer. The vertices are decoded on the
+	 * first call to LazyGeometry.getGeometry.
+	 * @param importFlags Use the {@link WkbImportFlags} interface.
+	 * @param type Use the {@link Geometry.Type} enum. 
+	 * @param wkbBuffer The buffer holding the Geometry in wkb format. It is referenced until the geometry is decoded.
+	 * @return Returns the lazy geometry.
+	 */
+	public abstract LazyGeometry executeLazy(int importFlags,
+			Geometry.Type type, ByteBuffer wkbBuffer,
+			ProgressTracker progress_tracker);
+
 	/**
 	 * Performs the ImportFromWkb operation.
 	 * @param importFlags Use the {@link WkbImportFlags} interface.
@@ -0,0 +1,309 @@
+/*
+ Copyright 1995-2019 Esri
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+
+ For additional information, contact:
+ Environmental Systems Research Institute, Inc.
+ Attn: Contracts Dept
+ 380 New York Street
+ Redlands, California, USA 92373
+
+ email: contracts@esri.com
+ */
+
+package com.esri.core.geometry;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+
+/**
+ * Reads WKB geometries one at a time from a channel or from a memory mapped
+ * file region. The records are either concatenated or preceded by their
+ * length (WkbImportFlags.wkbImportLengthPrefixed).
+ */
+final class OperatorImportFromWkbCursor extends GeometryCursor {
+	private static final int DEFAULT_BUFFER_SIZE = 64 * 1024;
+	private static final int DEFAULT_WINDOW_SIZE = 64 * 1024 * 1024;
+
+	private final int m_importFlags;
+	private final Geometry.Type m_type;
+	private final ProgressTracker m_progressTracker;
+	private final ByteOrder m_prefixOrder;
+	private final boolean m_bLengthPrefixed;
+
+	// Channel source. The buffer holds the bytes [m_pos, m_end).
+	private ReadableByteChannel m_channel;
+	private boolean m_bEof;
+
+	// Mapped source. The buffer is the window starting at m_windowStart.
+	private FileChannel m_fileChannel;
+	private long m_windowStart;
+	private long m_regionEnd;
+
+	private ByteBuffer m_buffer;
+	private int m_pos;
+	private int m_end;
+	private int m_index;
+
+	OperatorImportFromWkbCursor(int importFlags, Geometry.Type type,
+			ReadableByteChannel channel, ProgressTracker progressTracker) {
+		this(importFlags, type, progressTracker);
+		m_channel = channel;
+		m_buffer = ByteBuffer.allocate(DEFAULT_BUFFER_SIZE);
+		m_pos = 0;
+		m_end = 0;
+		m_bEof = false;
+	}
+
+	OperatorImportFromWkbCursor(int importFlags, Geometry.Type type,
+			FileChannel fileChannel, long position, long size,
+			ProgressTracker progressTracker) {
+		this(importFlags, type, progressTracker);
+		m_fileChannel = fileChannel;
+		m_windowStart = position;
+		m_regionEnd = position + size;
+		m_buffer = null;
+		m_pos = 0;
+		m_end = 0;
+	}
+
+	private OperatorImportFromWkbCursor(int importFlags, Geometry.Type type,
+			ProgressTracker progressTracker) {
+		m_importFlags = importFlags;
+		m_type = type;
+		m_progressTracker = progressTracker;
+		m_bLengthPrefixed = (importFlags & WkbImportFlags.wkbImportLengthPrefixed) != 0;
+		m_prefixOrder = (importFlags & WkbImportFlags.wkbImportLengthPrefixBigEndian) != 0 ? ByteOrder.BIG_ENDIAN
+				: ByteOrder.LITTLE_ENDIAN;
+		m_index = -1;
+	}
+
+	@Override
+	public Geometry next() {
+		ProgressTracker.checkAndThrow(m_progressTracker);
+
+		if (!fill_(1))
+			return null;
+
+		int size;
+		if (m_bLengthPrefixed) {
+			if (!fill_(4))
+				throw new GeometryException("truncated wkb");
+
+			m_buffer.order(m_prefixOrder);
+			size = m_buffer.getInt(m_pos);
+			if (size < 5)
+				throw new GeometryException("invalid wkb length");
+
+			m_pos += 4;
+			if (!fill_(size))
+				throw new GeometryException("truncated wkb");
+		} else {
+			while (true) {
+				size = wkbSize(m_buffer, m_pos, m_end - m_pos);
+				if (size >= 0)
+					break;
+
+				// more bytes are needed to find the size of the record
+				if (!fill_(m_end - m_pos + 1))
+					throw new GeometryException("truncated wkb");
+			}
+
+			if (!fill_(size))
+				throw new GeometryException("truncated wkb");
+		}
+
+		Geometry geometry = OperatorImportFromWkbLocal.importFromWkb(
+				m_importFlags, m_type, m_buffer, m_pos);
+		m_pos += size;
+		m_index++;
+		return geometry;
+	}
+
+	@Override
+	public int getGeometryID() {
+		return m_index;
+	}
+
+	/**
+	 * Makes at least count bytes available at m_pos. Returns false when there
+	 * are no bytes left at all, and throws when the data ends in the middle
+	 * of the requested range.
+	 */
+	private boolean fill_(int count) {
+		if (m_end - m_pos >= count)
+			return true;
+
+		if (m_fileChannel != null)
+			return map_(count);
+
+		if (m_pos > 0) {
+			m_buffer.limit(m_end);
+			m_buffer.position(m_pos);
+			m_buffer.compact();
+			m_end -= m_pos;
+			m_pos = 0;
+		}
+
+		if (m_buffer.capacity() < count) {
+			ByteBuffer buffer = ByteBuffer.allocate(Math.max(count,
+					m_buffer.capacity() * 2));
+			m_buffer.limit(m_end);
+			m_buffer.position(0);
+			buffer.put(m_buffer);
+			m_buffer = buffer;
+		}
+
+		try {
+			while (!m_bEof && m_end < count) {
+				m_buffer.limit(m_buffer.capacity());
+				m_buffer.position(m_end);
+				int read = m_channel.read(m_buffer);
+				if (read < 0)
+					m_bEof = true;
+				else
+					m_end += read;
+			}
+		} catch (IOException e) {
+			throw new GeometryException(e.getMessage());
+		}
+
+		if (m_end >= count)
+			return true;
+
+		if (m_end == 0)
+			return false;
+
+		throw new GeometryException("truncated wkb");
+	}
+
+	private boolean map_(int count) {
+		long start = m_windowStart + m_pos;
+		long available = m_regionEnd - start;
+		if (available <= 0)
+			return false;
+
+		if (available < count)
+			throw new GeometryException("truncated wkb");
+
+		long windowSize = Math.min(available, Math.max(DEFAULT_WINDOW_SIZE, count));
+		try {
+			m_buffer = m_fileChannel.map(FileChannel.MapMode.READ_ONLY, start,
+					windowSize);
+		} catch (IOException e) {
+			throw new GeometryException(e.getMessage());
+		}
+
+		m_windowStart = start;
+		m_pos = 0;
+		m_end = (int) windowSize;
+		return true;
+	}
+
+	/**
+	 * Returns the size of the WKB geometry starting at the offset, or -1 when
+	 * the available bytes do not hold all of its headers.
+	 */
+	static int wkbSize(ByteBuffer buffer, int offset, int available) {
+		return wkbSize_(buffer, offset, available, 0);
+	}
+
+	private static int wkbSize_(ByteBuffer buffer, int offset,
+			int available, int depth) {
+		if (depth > 32)
+			throw new GeometryException("invalid shape type");
+
+		if (available < 5)
+			return -1;
+
+		buffer.order(buffer.get(offset) == WkbByteOrder.wkbNDR ? ByteOrder.LITTLE_ENDIAN
+				: ByteOrder.BIG_ENDIAN);
+		int wkbType = buffer.getInt(offset + 1);
+		int baseType = wkbType % 1000;
+		int dims;
+		switch (wkbType / 1000) {
+		case 0:
+			dims = 2;
+			break;
+		case 1:
+		case 2:
+			dims = 3;
+			break;
+		case 3:
+			dims = 4;
+			break;
+		default:
+			throw new GeometryException("invalid shape type");
+		}
+
+		if (baseType == WkbGeometryType.wkbPoint)
+			return 5 + 8 * dims;
+
+		if (available < 9)
+			return -1;
+
+		int count = buffer.getInt(offset + 5);
+		if (count < 0)
+			throw new GeometryException("invalid wkb");
+
+		switch (baseType) {
+		case WkbGeometryType.wkbLineString:
+			return (int) size_(9L + 8L * dims * count);
+		case WkbGeometryType.wkbPolygon: {
+			long size = 9;
+			for (int i = 0; i < count; i++) {
+				if (available < size + 4)
+					return -1;
+
+				int pointCount = buffer.getInt(offset + (int) size);
+				if (pointCount < 0)
+					throw new GeometryException("invalid wkb");
+
+				size = size_(size + 4 + 8L * dims * pointCount);
+			}
+			return (int) size;
+		}
+		case WkbGeometryType.wkbMultiPoint:
+		case WkbGeometryType.wkbMultiLineString:
+		case WkbGeometryType.wkbMultiPolygon:
+		case WkbGeometryType.wkbGeometryCollection: {
+			long size = 9;
+			for (int i = 0; i < count; i++) {
+				if (available <= size)
+					return -1;
+
+				int childSize = wkbSize_(buffer, offset + (int) size,
+						available - (int) size, depth + 1);
+				if (childSize < 0)
+					return -1;
+
+				size = size_(size + childSize);
+			}
+			return (int) size;
+		}
+		default:
+			throw new GeometryException("invalid shape type");
+		}
+	}
+
+	private static long size_(long size) {
+		if (size > Integer.MAX_VALUE)
+			throw new GeometryException("invalid wkb");
+
+		return size;
+	}
+}
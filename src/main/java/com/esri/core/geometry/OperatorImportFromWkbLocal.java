@@ -24,8 +24,12 @@
 
 package com.esri.core.geometry;
 
+import java.io.InputStream;
 import java.nio.ByteBuffer;
 import java.nio.ByteOrder;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
 import java.util.ArrayList;
 
 /**
@@ -54,11 +58,56 @@ class OperatorImportFromWkbLocal extends OperatorImportFromWkb {
 	@Override
 	public Geometry execute(int importFlags, Geometry.Type type,
 			ByteBuffer wkbBuffer, ProgressTracker progress_tracker) {
+		return importFromWkb(importFlags, type, wkbBuffer, 0);
+	}
+
+	@Override
+	public LazyGeometry executeLazy(int importFlags, Geometry.Type type,
+			ByteBuffer wkbBuffer, ProgressTracker progress_tracker) {
+		return LazyGeometry.fromWkb(importFlags, type, wkbBuffer);
+	}
 
+	@Override
+	public GeometryCursor execute(int importFlags, Geometry.Type type,
+			InputStream wkbStream, ProgressTracker progress_tracker) {
+		if (wkbStream == null)
+			throw new IllegalArgumentException();
+
+		return new OperatorImportFromWkbCursor(importFlags, type,
+				Channels.newChannel(wkbStream), progress_tracker);
+	}
+
+	@Override
+	public GeometryCursor execute(int importFlags, Geometry.Type type,
+			ReadableByteChannel wkbChannel, ProgressTracker progress_tracker) {
+		if (wkbChannel == null)
+			throw new IllegalArgumentException();
+
+		return new OperatorImportFromWkbCursor(importFlags, type, wkbChannel,
+				progress_tracker);
+	}
+
+	@Override
+	public GeometryCursor execute(int importFlags, Geometry.Type type,
+			FileChannel fileChannel, long position, long size,
+			ProgressTracker progress_tracker) {
+		if (fileChannel == null || position < 0 || size < 0)
+			throw new IllegalArgumentException();
+
+		return new OperatorImportFromWkbCursor(importFlags, type, fileChannel,
+				position, size, progress_tracker);
+	}
+
+	/**
+	 * Imports the geometry that starts at the offset of the buffer. The
+	 * buffer byte order is restored before the method returns.
+	 */
+	static Geometry importFromWkb(int importFlags, Geometry.Type type,
+			ByteBuffer wkbBuffer, int offset) {
 		ByteOrder initialOrder = wkbBuffer.order();
 
 		// read byte ordering
-		int byteOrder = wkbBuffer.get(0);
+		int byteOrder = wkbBuffer.get(offset);
 
 		if (byteOrder == WkbByteOrder.wkbNDR)
 			wkbBuffer.order(ByteOrder.LITTLE_ENDIAN);
@@ -66,6 +115,7 @@ class OperatorImportFromWkbLocal extends OperatorImportFromWkb {
 			wkbBuffer.order(ByteOrder.BIG_ENDIAN);
 
 		WkbHelper wkbHelper = new WkbHelper(wkbBuffer);
+		wkbHelper.adjustment = offset;
 
 		try {
 			return importFromWkb(importFlags, type, wkbHelper);
@@ -41,6 +41,29 @@ public abstract class OperatorImportFromWkt extends Operator {
 	public abstract Geometry execute(int import_flags, Geometry.Type type,
 			String wkt_string, ProgressTracker progress_tracker);
 
+	/**
+	 * Performs the ImportFromWkt operation on a region of the character
+	 * sequence. The region is parsed in place, so the callers reading many
+	 * records from one buffer do not need to cut a String for each.
+	 * @param import_flags Use the {@link WktImportFlags} interface.
+	 * @param type Use the {@link Geometry.Type} enum. 
+	 * @param wkt The characters holding the Geometry in wkt format.
+	 * @param start The index of the first character of the wkt.
+	 * @param end The index after the last character of the wkt.
+	 * @return Returns the imported Geometry.
+	 */
+	public abstract Geometry execute(int import_flags, Geometry.Type type,
+			CharSequence wkt, int start, int end,
+			ProgressTracker progress_tracker);
+
+	/**
+	 * Same as above, but parses length characters of the array from the
+	 * offset.
+	 */
+	public abstract Geometry execute(int import_flags, Geometry.Type type,
+			char[] wkt, int offset, int length,
+			ProgressTracker progress_tracker);
+
 	/**
 	 * Performs the ImportFromWkt operation.
 	 * @param import_flags Use the {@link WktImportFlags} interface.
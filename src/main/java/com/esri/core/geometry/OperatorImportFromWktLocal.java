@@ -34,6 +34,25 @@ class OperatorImportFromWktLocal extends OperatorImportFromWkt {
 		return importFromWkt(import_flags, type, wkt_parser);
 	}
 
+	@Override
+	public Geometry execute(int import_flags, Geometry.Type type,
+			CharSequence wkt, int start, int end,
+			ProgressTracker progress_tracker) {
+		WktParser wkt_parser = new WktParser();
+		wkt_parser.resetParser(wkt, start, end);
+		wkt_parser.nextToken();
+		return importFromWkt(import_flags, type, wkt_parser);
+	}
+
+	@Override
+	public Geometry execute(int import_flags, Geometry.Type type, char[] wkt,
+			int offset, int length, ProgressTracker progress_tracker) {
+		WktParser wkt_parser = new WktParser();
+		wkt_parser.resetParser(wkt, offset, length);
+		wkt_parser.nextToken();
+		return importFromWkt(import_flags, type, wkt_parser);
+	}
+
 	@Override
 	public OGCStructure executeOGC(int import_flags, String wkt_string,
 			ProgressTracker progress_tracker) {
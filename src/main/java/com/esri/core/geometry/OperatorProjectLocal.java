@@ -24,40 +24,426 @@
 
 package com.esri.core.geometry;
 
-//This is a stub
+import java.util.ArrayList;
+
 class OperatorProjectLocal extends OperatorProject {
+	private static final double WGS84_A = 6378137.0;
+	private static final double WGS84_E2 = 0.0066943799901413165;
+	private static final double DEG_TO_RAD = Math.PI / 180.0;
+	private static final double RAD_TO_DEG = 180.0 / Math.PI;
 
 	@Override
 	public GeometryCursor execute(GeometryCursor inputGeoms,
 			ProjectionTransformation transform, ProgressTracker progressTracker) {
-		throw new GeometryException("not implemented");
+		return new OperatorProjectCursor(inputGeoms, transform,
+				progressTracker);
 	}
 
+	@Override
 	public Geometry execute(Geometry inputGeom,
 			ProjectionTransformation transform, ProgressTracker progressTracker) {
-		throw new GeometryException("not implemented");
+		if (inputGeom == null || transform == null)
+			throw new IllegalArgumentException();
+
+		if (transform.isIdentity() || inputGeom.isEmpty())
+			return inputGeom;
+
+		Geometry.Type type = inputGeom.getType();
+		if (type == Geometry.Type.Point) {
+			Point point = (Point) inputGeom;
+			Point2D pt = point.getXY();
+			transform.transform(pt);
+			Point result = (Point) point.copy();
+			result.setXY(pt);
+			return result;
+		}
+
+		if (type == Geometry.Type.Envelope) {
+			// Both transformations map longitude to x and latitude to y
+			// monotonically, so the corners of an envelope stay its corners.
+			Envelope envelope = (Envelope) inputGeom.copy();
+			Envelope2D env = new Envelope2D();
+			envelope.queryEnvelope2D(env);
+			Point2D lower = env.getLowerLeft();
+			Point2D upper = env.getUpperRight();
+			transform.transform(lower);
+			transform.transform(upper);
+			envelope.setCoords(lower.x, lower.y, upper.x, upper.y);
+			return envelope;
+		}
+
+		if (Geometry.isSegment(type.value())) {
+			Segment segment = (Segment) inputGeom.copy();
+			if (type != Geometry.Type.Line)
+				throw new GeometryException("not implemented");
+
+			Point2D pt = segment.getStartXY();
+			transform.transform(pt);
+			segment.setStartXY(pt);
+			pt = segment.getEndXY();
+			transform.transform(pt);
+			segment.setEndXY(pt);
+			return segment;
+		}
+
+		if (Geometry.isMultiPath(type.value())
+				&& ((MultiPath) inputGeom).hasNonLinearSegments())
+			throw new GeometryException("not implemented");
+
+		// MultiPoint, Polyline, Polygon: transform the xy stream of a copy in
+		// place.
+		Geometry result = inputGeom.copy();
+		MultiVertexGeometryImpl impl = (MultiVertexGeometryImpl) result
+				._getImpl();
+		AttributeStreamOfDbl xy = (AttributeStreamOfDbl) impl
+				.getAttributeStreamRef(VertexDescription.Semantics.POSITION);
+		transform.transform(xy, impl.getPointCount());
+		impl.notifyModified(MultiVertexGeometryImpl.DirtyFlags.DirtyCoordinates);
+		return result;
 	}
 
 	@Override
 	public int transform(ProjectionTransformation transform, Point[] pointsIn,
 			int count, Point[] pointsOut) {
-		throw new GeometryException("not implemented");
+		if (transform == null || pointsIn == null || pointsOut == null)
+			throw new IllegalArgumentException();
+
+		Point2D pt = new Point2D();
+		for (int i = 0; i < count; i++) {
+			Point in = pointsIn[i];
+			if (pointsOut[i] == null)
+				pointsOut[i] = new Point();
+
+			if (in.isEmpty()) {
+				pointsOut[i].setEmpty();
+				continue;
+			}
+
+			in.getXY(pt);
+			transform.transform(pt);
+			if (pointsOut[i] != in)
+				in.copyTo(pointsOut[i]);
+
+			pointsOut[i].setXY(pt);
+		}
+
+		return count;
 	}
 
+	/**
+	 * Transforms the coordinates in place and returns the coordsSrc.
+	 */
+	@Override
 	public double[] transform(ProjectionTransformation transform,
 			double[] coordsSrc, int pointCount) {
-		throw new GeometryException("not implemented");
+		if (transform == null || coordsSrc == null)
+			throw new IllegalArgumentException();
+
+		if (coordsSrc.length < 2 * pointCount)
+			throw new IllegalArgumentException();
+
+		transform.transform(coordsSrc, 0, pointCount);
+		return coordsSrc;
 	}
 
 	@Override
 	public Geometry foldInto360RangeGeodetic(/* const */Geometry _geom, /* const */
 	SpatialReference pannableSR, /* GeodeticCurveType */int curveType) {
-		throw new GeometryException("not implemented");
+		switch (curveType) {
+		case GeodeticCurveType.Geodesic:
+		case GeodeticCurveType.Loxodrome:
+			break;
+		case GeodeticCurveType.ShapePreserving:
+			return foldInto360Range(_geom, pannableSR);
+		default:
+			throw new GeometryException("not implemented");
+		}
+
+		int wkid = pannableSR != null ? pannableSR.getLatestID() : 0;
+		if (wkid != ProjectionTransformation.WGS84_WKID
+				&& !ProjectionTransformation.isWebMercator_(wkid))
+			throw new GeometryException("not implemented");
+
+		return fold_(_geom, pannableSR, curveType);
 	}
 
 	@Override
 	public Geometry foldInto360Range(/* const */Geometry geom, /* const */
 	SpatialReference pannableSR) {
-		throw new GeometryException("not implemented");
+		return fold_(geom, pannableSR, GeodeticCurveType.ShapePreserving);
+	}
+
+	private static Geometry fold_(Geometry geom, SpatialReference sr,
+			int curveType) {
+		if (geom == null || sr == null)
+			throw new IllegalArgumentException();
+
+		double xmin, period;
+		boolean bWebMercator = ProjectionTransformation.isWebMercator_(sr
+				.getLatestID());
+		if (bWebMercator) {
+			xmin = -ProjectionTransformation.WEB_MERCATOR_HALF_WIDTH;
+			period = 2 * ProjectionTransformation.WEB_MERCATOR_HALF_WIDTH;
+		} else if (Ellipsoid.isGeographic(sr)) {
+			xmin = -180;
+			period = 360;
+		} else
+			throw new IllegalArgumentException("not a pannable spatial reference");
+
+		double xmax = xmin + period;
+		Geometry.Type type = geom.getType();
+		if (type == Geometry.Type.Envelope) {
+			if (geom.isEmpty())
+				return geom;
+
+			Polygon polygon = new Polygon(geom.getDescription());
+			polygon.addEnvelope((Envelope) geom, false);
+			geom = polygon;
+			type = Geometry.Type.Polygon;
+		} else if (Geometry.isSegment(type.value())) {
+			Polyline polyline = new Polyline(geom.getDescription());
+			polyline.addSegment((Segment) geom, true);
+			geom = polyline;
+			type = Geometry.Type.Polyline;
+		}
+
+		if (geom.isEmpty())
+			return geom;
+
+		Envelope2D env = new Envelope2D();
+		geom.queryEnvelope2D(env);
+		if (env.xmin >= xmin && env.xmax <= xmax)
+			return geom;
+
+		if (type == Geometry.Type.Point) {
+			Point point = (Point) geom.copy();
+			point.setX(wrap_(point.getX(), xmin, period));
+			return point;
+		}
+
+		if (type == Geometry.Type.MultiPoint) {
+			MultiPoint multipoint = (MultiPoint) geom.copy();
+			MultiVertexGeometryImpl impl = (MultiVertexGeometryImpl) multipoint
+					._getImpl();
+			AttributeStreamOfDbl xy = (AttributeStreamOfDbl) impl
+					.getAttributeStreamRef(VertexDescription.Semantics.POSITION);
+			for (int i = 0, n = impl.getPointCount(); i < n; i++)
+				xy.write(2 * i, wrap_(xy.read(2 * i), xmin, period));
+			impl.notifyModified(MultiVertexGeometryImpl.DirtyFlags.DirtyCoordinates);
+			return multipoint;
+		}
+
+		MultiPath multipath = (MultiPath) geom;
+		if (curveType != GeodeticCurveType.ShapePreserving)
+			multipath = insertFoldVertices_(multipath, xmin, period, curveType,
+					bWebMercator);
+
+		// Clip into strips one period wide, and shift each strip into the
+		// range. The pieces of a polygon are unioned, the paths of a polyline
+		// are kept as they are.
+		int kmin = (int) Math.floor((env.xmin - xmin) / period);
+		int kmax = Math.max(kmin, (int) Math.ceil((env.xmax - xmin) / period) - 1);
+		double margin = 1 + env.getHeight();
+		ArrayList<Geometry> pieces = new ArrayList<Geometry>();
+		Transformation2D shift = new Transformation2D();
+		for (int k = kmin; k <= kmax; k++) {
+			Envelope2D strip = Envelope2D.construct(xmin + k * period,
+					env.ymin - margin, xmin + (k + 1) * period, env.ymax
+							+ margin);
+			Geometry piece = OperatorClip.local().execute(multipath, strip,
+					sr, null);
+			if (piece.isEmpty())
+				continue;
+
+			shift.setShift(-k * period, 0);
+			piece.applyTransformation(shift);
+			pieces.add(piece);
+		}
+
+		if (type == Geometry.Type.Polygon) {
+			if (pieces.size() == 1)
+				return pieces.get(0);
+
+			return OperatorUnion.local()
+					.execute(new SimpleGeometryCursor(pieces), sr, null)
+					.next();
+		}
+
+		Polyline result = new Polyline(geom.getDescription());
+		for (int i = 0, n = pieces.size(); i < n; i++)
+			result.add((MultiPath) pieces.get(i), false);
+
+		return result;
+	}
+
+	private static double wrap_(double x, double xmin, double period) {
+		if (x >= xmin && x <= xmin + period)
+			return x;
+
+		return x - Math.floor((x - xmin) / period) * period;
+	}
+
+	/**
+	 * Adds a vertex where a segment crosses a fold meridian. The vertex is on
+	 * the geodetic curve between the segment end points, so that clipping at
+	 * the meridian does not change the geodetic shape.
+	 */
+	private static MultiPath insertFoldVertices_(MultiPath src, double xmin,
+			double period, int curveType, boolean bWebMercator) {
+		MultiPath dst = (MultiPath) src.createInstance();
+		VertexDescription vd = src.getDescription();
+		Point start = new Point(vd);
+		Point end = new Point(vd);
+		Point crossing = new Point(vd);
+		boolean bPolygon = src.getType() == Geometry.Type.Polygon;
+		for (int ipath = 0, npaths = src.getPathCount(); ipath < npaths; ipath++) {
+			int first = src.getPathStart(ipath);
+			int last = src.getPathEnd(ipath);
+			src.getPointByVal(first, start);
+			dst.startPath(start);
+			int segmentCount = bPolygon || src.isClosedPath(ipath) ? last - first
+					: last - first - 1;
+			for (int i = 0; i < segmentCount; i++) {
+				int iend = first + i + 1 < last ? first + i + 1 : first;
+				src.getPointByVal(first + i, start);
+				src.getPointByVal(iend, end);
+				double x1 = start.getX(), x2 = end.getX();
+				// Fold meridians strictly between the end points.
+				double lo = Math.min(x1, x2), hi = Math.max(x1, x2);
+				int k1 = (int) Math.floor((lo - xmin) / period) + 1;
+				int k2 = (int) Math.ceil((hi - xmin) / period) - 1;
+				for (int kk = 0; kk <= k2 - k1; kk++) {
+					int k = x1 < x2 ? k1 + kk : k2 - kk;
+					double meridian = xmin + k * period;
+					if (meridian <= lo || meridian >= hi)
+						continue;
+
+					double t = (meridian - x1) / (x2 - x1);
+					double y = crossingY_(start.getX(), start.getY(),
+							end.getX(), end.getY(), meridian, curveType,
+							bWebMercator);
+					interpolate_(start, end, t, crossing);
+					crossing.setXY(meridian, y);
+					dst.lineTo(crossing);
+				}
+
+				if (iend != first || !bPolygon)
+					dst.lineTo(end);
+			}
+		}
+
+		return dst;
+	}
+
+	private static void interpolate_(Point start, Point end, double t,
+			Point out) {
+		start.copyTo(out);
+		VertexDescription vd = start.getDescription();
+		for (int i = 1, n = vd.getAttributeCount(); i < n; i++) {
+			int semantics = vd.getSemantics(i);
+			for (int ord = 0, nord = VertexDescription
+					.getComponentCount(semantics); ord < nord; ord++) {
+				double v1 = start.getAttributeAsDbl(semantics, ord);
+				double v2 = end.getAttributeAsDbl(semantics, ord);
+				out.setAttribute(semantics, ord, v1 + (v2 - v1) * t);
+			}
+		}
+	}
+
+	/**
+	 * Returns the y where the geodetic curve between the two points crosses
+	 * the meridian at the given x. All x values are unwrapped, so the
+	 * meridian is between x1 and x2.
+	 */
+	private static double crossingY_(double x1, double y1, double x2,
+			double y2, double meridian, int curveType, boolean bWebMercator) {
+		double lon1, lat1, lon2, lat2, lonm;
+		if (bWebMercator) {
+			lon1 = ProjectionTransformation.webMercatorXToLongitude(x1);
+			lat1 = ProjectionTransformation.webMercatorYToLatitude(y1);
+			lon2 = ProjectionTransformation.webMercatorXToLongitude(x2);
+			lat2 = ProjectionTransformation.webMercatorYToLatitude(y2);
+			lonm = ProjectionTransformation.webMercatorXToLongitude(meridian);
+		} else {
+			lon1 = x1;
+			lat1 = y1;
+			lon2 = x2;
+			lat2 = y2;
+			lonm = meridian;
+		}
+
+		double lat;
+		if (Math.abs(lon2 - lon1) >= 180) {
+			// The geodetic curve goes the other way around. Keep the shape of
+			// the segment instead.
+			lat = lat1 + (lat2 - lat1) * (lonm - lon1) / (lon2 - lon1);
+		} else if (curveType == GeodeticCurveType.Loxodrome)
+			lat = loxodromeCrossing_(lon1, lat1, lon2, lat2, lonm);
+		else
+			lat = geodesicCrossing_(lon1, lat1, lon2, lat2, lonm);
+
+		return bWebMercator ? ProjectionTransformation
+				.latitudeToWebMercatorY(lat) : lat;
+	}
+
+	private static double geodesicCrossing_(double lon1, double lat1,
+			double lon2, double lat2, double lonm) {
+		PeDouble dist = new PeDouble();
+		PeDouble az12 = new PeDouble();
+		GeoDist.geodesic_distance_ngs(WGS84_A, WGS84_E2, lon1 * DEG_TO_RAD,
+				lat1 * DEG_TO_RAD, lon2 * DEG_TO_RAD, lat2 * DEG_TO_RAD, dist,
+				az12, null);
+
+		// The longitude changes monotonically along the geodesic. Bisect on
+		// the distance from the start point.
+		PeDouble lam = new PeDouble();
+		PeDouble phi = new PeDouble();
+		double target = lonm - lon1;
+		double lo = 0, hi = dist.val;
+		double lat = lat1 + (lat2 - lat1) * (lonm - lon1) / (lon2 - lon1);
+		for (int i = 0; i < 64 && hi - lo > 1e-9; i++) {
+			double s = 0.5 * (lo + hi);
+			GeoDist.geodesic_forward(WGS84_A, WGS84_E2, lon1 * DEG_TO_RAD,
+					lat1 * DEG_TO_RAD, s, az12.val, lam, phi, null);
+			double dlon = lam.val * RAD_TO_DEG - lon1;
+			dlon -= 360 * Math.floor((dlon + 180) / 360);
+			lat = phi.val * RAD_TO_DEG;
+			if ((dlon < target) == (target > 0))
+				lo = s;
+			else
+				hi = s;
+		}
+
+		return lat;
+	}
+
+	private static double loxodromeCrossing_(double lon1, double lat1,
+			double lon2, double lat2, double lonm) {
+		// The isometric latitude changes linearly with the longitude along a
+		// loxodrome.
+		double psi1 = isometricLatitude_(lat1 * DEG_TO_RAD);
+		double psi2 = isometricLatitude_(lat2 * DEG_TO_RAD);
+		double psi = psi1 + (psi2 - psi1) * (lonm - lon1) / (lon2 - lon1);
+		double e = Math.sqrt(WGS84_E2);
+		double phi = 2 * Math.atan(Math.exp(psi)) - Math.PI / 2;
+		for (int i = 0; i < 20; i++) {
+			double es = e * Math.sin(phi);
+			double next = 2 * Math.atan(Math.exp(psi)
+					* Math.pow((1 + es) / (1 - es), e / 2)) - Math.PI / 2;
+			if (Math.abs(next - phi) < 1e-15) {
+				phi = next;
+				break;
+			}
+			phi = next;
+		}
+
+		return phi * RAD_TO_DEG;
+	}
+
+	private static double isometricLatitude_(double phi) {
+		double e = Math.sqrt(WGS84_E2);
+		double es = e * Math.sin(phi);
+		return Math.log(Math.tan(Math.PI / 4 + phi / 2)
+				* Math.pow((1 - es) / (1 + es), e / 2));
 	}
 }
@@ -27,7 +27,7 @@ package com.esri.core.geometry;
  * Densifies geometries preserving the shape of the segments in a given spatial reference by length and/or deviation. The elliptic arc lengths of the resulting line segments are no longer than the
  * given max length, and the line segments will be closer than the given max deviation to both the original segment curve and the joining elliptic arcs.
  */
-abstract class OperatorShapePreservingDensify extends Operator {
+public abstract class OperatorShapePreservingDensify extends Operator {
 
 	@Override
 	public Type getType() {
@@ -24,7 +24,6 @@
 
 package com.esri.core.geometry;
 
-//This is a stub
 class OperatorShapePreservingDensifyLocal extends
 		OperatorShapePreservingDensify {
 
@@ -32,13 +31,26 @@ class OperatorShapePreservingDensifyLocal extends
 	public GeometryCursor execute(GeometryCursor geoms, SpatialReference sr,
 			double maxLengthMeters, double maxDeviationMeters, double reserved,
 			ProgressTracker progressTracker) {
-		throw new GeometryException("not implemented");
+		if (sr == null)
+			throw new IllegalArgumentException();
+
+		if (!NumberUtils.isNaN(reserved) && reserved != 0)
+			throw new IllegalArgumentException();
+
+		return new OperatorGeodeticDensifyCursor(geoms, new GeodeticDensifier(
+				sr, GeodeticCurveType.ShapePreserving, maxLengthMeters,
+				maxDeviationMeters, progressTracker));
 	}
 
 	@Override
 	public Geometry execute(Geometry geom, SpatialReference sr,
 			double maxLengthMeters, double maxDeviationMeters, double reserved,
 			ProgressTracker progressTracker) {
-		throw new GeometryException("not implemented");
+		if (geom == null)
+			throw new IllegalArgumentException();
+
+		GeometryCursor cursor = execute(new SimpleGeometryCursor(geom), sr,
+				maxLengthMeters, maxDeviationMeters, reserved, progressTracker);
+		return cursor.next();
 	}
 }
@@ -0,0 +1,105 @@
+/*
+ Copyright 1995-2019 Esri
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+
+ For additional information, contact:
+ Environmental Systems Research Institute, Inc.
+ Attn: Contracts Dept
+ 380 New York Street
+ Redlands, California, USA 92373
+
+ email: contracts@esri.com
+ */
+
+package com.esri.core.geometry;
+
+import com.esri.core.geometry.Operator.Type;
+
+/**
+ * Finds the pairs of geometries from two inputs that satisfy a spatial
+ * predicate.
+ * 
+ * The envelopes of the two inputs are matched with a plane sweep first, and
+ * the predicate is evaluated only for the pairs with intersecting envelopes.
+ * Both inputs are read completely when the first pair is requested. The pairs
+ * are not returned in any particular order.
+ */
+public abstract class OperatorSpatialJoin extends Operator {
+	@Override
+	public Type getType() {
+		return Type.SpatialJoin;
+	}
+
+	/**
+	 * Performs the spatial join with a simple relation as the predicate.
+	 * 
+	 * @param inputGeomsA
+	 *            The first input. It is the first geometry of the relation.
+	 * @param inputGeomsB
+	 *            The second input. It is the second geometry of the relation.
+	 * @param sr
+	 *            The spatial reference of the geometries.
+	 * @param relation
+	 *            One of Intersects, Contains, Within, Equals, Touches,
+	 *            Crosses or Overlaps. Disjoint is not supported, because it
+	 *            cannot use the envelope filter.
+	 * @return Returns the cursor over the IDs of the matching pairs.
+	 */
+	public abstract SpatialJoinCursor execute(GeometryCursor inputGeomsA,
+			GeometryCursor inputGeomsB, SpatialReference sr,
+			Operator.Type relation, ProgressTracker progressTracker);
+
+	/**
+	 * Performs the spatial join with a DE-9IM relation as the predicate. When
+	 * the matrix does not require the geometries to intersect, every pair of
+	 * geometries has to be tested.
+	 * 
+	 * @param inputGeomsA
+	 *            The first input. It is the first geometry of the relation.
+	 * @param inputGeomsB
+	 *            The second input. It is the second geometry of the relation.
+	 * @param sr
+	 *            The spatial reference of the geometries.
+	 * @param de_9im_string
+	 *            The DE-9IM matrix relation encoded as a string.
+	 * @return Returns the cursor over the IDs of the matching pairs.
+	 */
+	public abstract SpatialJoinCursor executeRelate(GeometryCursor inputGeomsA,
+			GeometryCursor inputGeomsB, SpatialReference sr,
+			String de_9im_string, ProgressTracker progressTracker);
+
+	/**
+	 * Performs the spatial join that matches the geometries within the given
+	 * distance of each other.
+	 * 
+	 * @param inputGeomsA
+	 *            The first input.
+	 * @param inputGeomsB
+	 *            The second input.
+	 * @param sr
+	 *            The spatial reference of the geometries.
+	 * @param distance
+	 *            The maximum distance between the geometries of a pair.
+	 * @return Returns the cursor over the IDs of the matching pairs.
+	 */
+	public abstract SpatialJoinCursor executeDistanceWithin(
+			GeometryCursor inputGeomsA, GeometryCursor inputGeomsB,
+			SpatialReference sr, double distance,
+			ProgressTracker progressTracker);
+
+	public static OperatorSpatialJoin local() {
+		return (OperatorSpatialJoin) OperatorFactoryLocal.getInstance()
+				.getOperator(Type.SpatialJoin);
+	}
+}
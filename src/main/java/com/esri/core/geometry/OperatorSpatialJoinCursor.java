@@ -0,0 +1,255 @@
+/*
+ Copyright 1995-2019 Esri
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+
+ For additional information, contact:
+ Environmental Systems Research Institute, Inc.
+ Attn: Contracts Dept
+ 380 New York Street
+ Redlands, California, USA 92373
+
+ email: contracts@esri.com
+ */
+
+package com.esri.core.geometry;
+
+import java.util.ArrayList;
+
+class OperatorSpatialJoinCursor extends SpatialJoinCursor {
+	// A geometry is accelerated once it takes part in this many candidate
+	// pairs, so that the cost of the accelerator is shared.
+	private static final int ACCELERATE_PAIR_COUNT = 4;
+
+	private GeometryCursor m_inputGeomsA;
+	private GeometryCursor m_inputGeomsB;
+	private SpatialReference m_spatialReference;
+	private Operator.Type m_relation;
+	private OperatorSimpleRelation m_simpleRelation;
+	private String m_de9im;
+	private double m_distance;
+	private ProgressTracker m_progressTracker;
+
+	private ArrayList<Geometry> m_geomsA;
+	private ArrayList<Geometry> m_geomsB;
+	private AttributeStreamOfInt32 m_idsA;
+	private AttributeStreamOfInt32 m_idsB;
+	private int[] m_pairCountsA;
+	private int[] m_pairCountsB;
+	private Envelope2DIntersectorImpl m_intersector;
+	private boolean m_bInitialized;
+	private boolean m_bBruteForce;
+	private boolean m_bDone;
+	private int m_indexA;
+	private int m_indexB;
+	private int m_idA;
+	private int m_idB;
+
+	OperatorSpatialJoinCursor(GeometryCursor inputGeomsA,
+			GeometryCursor inputGeomsB, SpatialReference sr,
+			Operator.Type relation, String de9im, double distance,
+			ProgressTracker progressTracker) {
+		m_inputGeomsA = inputGeomsA;
+		m_inputGeomsB = inputGeomsB;
+		m_spatialReference = sr;
+		m_relation = relation;
+		m_de9im = de9im;
+		m_distance = distance;
+		m_progressTracker = progressTracker;
+		m_idA = -1;
+		m_idB = -1;
+		if (relation != Operator.Type.Relate
+				&& relation != Operator.Type.Distance)
+			m_simpleRelation = (OperatorSimpleRelation) OperatorFactoryLocal
+					.getInstance().getOperator(relation);
+	}
+
+	@Override
+	public boolean next() {
+		if (!m_bInitialized) {
+			m_bInitialized = true;
+			initialize_();
+		}
+
+		while (!m_bDone) {
+			int a, b;
+			if (m_bBruteForce) {
+				if (++m_indexB == m_geomsB.size()) {
+					m_indexB = 0;
+					m_indexA++;
+				}
+
+				if (m_indexA >= m_geomsA.size()) {
+					m_bDone = true;
+					break;
+				}
+
+				a = m_indexA;
+				b = m_indexB;
+			} else {
+				if (!m_intersector.next()) {
+					m_bDone = true;
+					break;
+				}
+
+				a = m_intersector.getRedElement(m_intersector.getHandleA());
+				b = m_intersector.getBlueElement(m_intersector.getHandleB());
+			}
+
+			ProgressTracker.checkAndThrow(m_progressTracker);
+			if (test_(a, b)) {
+				m_idA = m_idsA.get(a);
+				m_idB = m_idsB.get(b);
+				return true;
+			}
+		}
+
+		m_idA = -1;
+		m_idB = -1;
+		return false;
+	}
+
+	@Override
+	public int getGeometryIDA() {
+		return m_idA;
+	}
+
+	@Override
+	public int getGeometryIDB() {
+		return m_idB;
+	}
+
+	private void initialize_() {
+		// Only the relation patterns that don't require the geometries to
+		// intersect need every pair. The empty geometries can match only in
+		// that case.
+		m_bBruteForce = m_relation == Operator.Type.Relate
+				&& !patternRequiresIntersection_(m_de9im);
+
+		m_geomsA = new ArrayList<Geometry>();
+		m_geomsB = new ArrayList<Geometry>();
+		m_idsA = new AttributeStreamOfInt32(0);
+		m_idsB = new AttributeStreamOfInt32(0);
+		Envelope2D extent = new Envelope2D();
+		extent.setEmpty();
+		readInput_(m_inputGeomsA, m_geomsA, m_idsA, extent);
+		readInput_(m_inputGeomsB, m_geomsB, m_idsB, extent);
+		m_inputGeomsA = null;
+		m_inputGeomsB = null;
+		m_pairCountsA = new int[m_geomsA.size()];
+		m_pairCountsB = new int[m_geomsB.size()];
+
+		if (m_geomsA.isEmpty() || m_geomsB.isEmpty()) {
+			m_bDone = true;
+			return;
+		}
+
+		if (m_bBruteForce) {
+			m_indexA = 0;
+			m_indexB = -1;
+			return;
+		}
+
+		double tolerance = InternalUtils.calculateToleranceFromGeometry(
+				m_spatialReference, extent, true);
+		if (m_relation == Operator.Type.Distance)
+			tolerance += m_distance;
+
+		m_intersector = new Envelope2DIntersectorImpl();
+		m_intersector.setTolerance(tolerance);
+		Envelope2D env = new Envelope2D();
+		m_intersector.startRedConstruction();
+		for (int i = 0, n = m_geomsA.size(); i < n; i++) {
+			m_geomsA.get(i).queryEnvelope2D(env);
+			m_intersector.addRedEnvelope(i, env);
+		}
+		m_intersector.endRedConstruction();
+
+		m_intersector.startBlueConstruction();
+		for (int i = 0, n = m_geomsB.size(); i < n; i++) {
+			m_geomsB.get(i).queryEnvelope2D(env);
+			m_intersector.addBlueEnvelope(i, env);
+		}
+		m_intersector.endBlueConstruction();
+	}
+
+	private void readInput_(GeometryCursor input, ArrayList<Geometry> geoms,
+			AttributeStreamOfInt32 ids, Envelope2D extent) {
+		Envelope2D env = new Envelope2D();
+		Geometry geom;
+		while ((geom = input.next()) != null) {
+			if (geom.isEmpty() && !m_bBruteForce)
+				continue;
+
+			geoms.add(geom);
+			ids.add(input.getGeometryID());
+			geom.queryEnvelope2D(env);
+			extent.merge(env);
+		}
+	}
+
+	private boolean test_(int a, int b) {
+		Geometry geomA = m_geomsA.get(a);
+		Geometry geomB = m_geomsB.get(b);
+		if (m_relation == Operator.Type.Distance) {
+			double distance = OperatorDistance.local().execute(geomA, geomB,
+					m_progressTracker);
+			return distance <= m_distance;
+		}
+
+		if (!m_bBruteForce) {
+			geomA = accelerate_(m_geomsA, m_pairCountsA, a);
+			geomB = accelerate_(m_geomsB, m_pairCountsB, b);
+		}
+
+		if (m_simpleRelation != null)
+			return m_simpleRelation.execute(geomA, geomB, m_spatialReference,
+					m_progressTracker);
+
+		return OperatorRelate.local().execute(geomA, geomB,
+				m_spatialReference, m_de9im, m_progressTracker);
+	}
+
+	// Accelerates a private copy of the geometry and keeps it in place of
+	// the input, so that the accelerators are not left on the geometries of
+	// the caller, which may also be shared with other threads.
+	private Geometry accelerate_(ArrayList<Geometry> geoms, int[] pairCounts,
+			int index) {
+		Geometry geom = geoms.get(index);
+		if (++pairCounts[index] != ACCELERATE_PAIR_COUNT
+				|| !RelationalOperations.Accelerate_helper
+						.can_accelerate_geometry(geom))
+			return geom;
+
+		geom = geom.copy();
+		RelationalOperations.Accelerate_helper.accelerate_geometry(geom,
+				m_spatialReference,
+				Geometry.GeometryAccelerationDegree.enumMedium);
+		geoms.set(index, geom);
+		return geom;
+	}
+
+	// Returns true if the DE-9IM pattern can only match geometries that
+	// intersect, that is when it requires one of the interior and boundary
+	// intersections to be non empty.
+	private static boolean patternRequiresIntersection_(String de9im) {
+		int[] positions = { 0, 1, 3, 4 };
+		for (int i : positions) {
+			char c = de9im.charAt(i);
+			if (c == 'T' || c == '0' || c == '1' || c == '2')
+				return true;
+		}
+
+		return false;
+	}
+}
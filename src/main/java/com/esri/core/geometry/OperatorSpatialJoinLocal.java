@@ -0,0 +1,85 @@
+/*
+ Copyright 1995-2019 Esri
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+
+ For additional information, contact:
+ Environmental Systems Research Institute, Inc.
+ Attn: Contracts Dept
+ 380 New York Street
+ Redlands, California, USA 92373
+
+ email: contracts@esri.com
+ */
+
+package com.esri.core.geometry;
+
+class OperatorSpatialJoinLocal extends OperatorSpatialJoin {
+	@Override
+	public SpatialJoinCursor execute(GeometryCursor inputGeomsA,
+			GeometryCursor inputGeomsB, SpatialReference sr,
+			Operator.Type relation, ProgressTracker progressTracker) {
+		if (inputGeomsA == null || inputGeomsB == null || relation == null)
+			throw new IllegalArgumentException();
+
+		switch (relation) {
+		case Intersects:
+		case Contains:
+		case Within:
+		case Equals:
+		case Touches:
+		case Crosses:
+		case Overlaps:
+			break;
+		default:
+			throw new IllegalArgumentException("unsupported relation");
+		}
+
+		return new OperatorSpatialJoinCursor(inputGeomsA, inputGeomsB, sr,
+				relation, null, 0, progressTracker);
+	}
+
+	@Override
+	public SpatialJoinCursor executeRelate(GeometryCursor inputGeomsA,
+			GeometryCursor inputGeomsB, SpatialReference sr,
+			String de_9im_string, ProgressTracker progressTracker) {
+		if (inputGeomsA == null || inputGeomsB == null || de_9im_string == null)
+			throw new IllegalArgumentException();
+
+		if (de_9im_string.length() != 9)
+			throw new GeometryException("relation string length has to be 9 characters");
+
+		for (int i = 0; i < 9; i++) {
+			char c = de_9im_string.charAt(i);
+			if (c != '*' && c != 'T' && c != 'F' && c != '0' && c != '1' && c != '2')
+				throw new GeometryException("relation string");
+		}
+
+		return new OperatorSpatialJoinCursor(inputGeomsA, inputGeomsB, sr,
+				Operator.Type.Relate, de_9im_string, 0, progressTracker);
+	}
+
+	@Override
+	public SpatialJoinCursor executeDistanceWithin(GeometryCursor inputGeomsA,
+			GeometryCursor inputGeomsB, SpatialReference sr, double distance,
+			ProgressTracker progressTracker) {
+		if (inputGeomsA == null || inputGeomsB == null)
+			throw new IllegalArgumentException();
+
+		if (!(distance >= 0))
+			throw new IllegalArgumentException("invalid distance");
+
+		return new OperatorSpatialJoinCursor(inputGeomsA, inputGeomsB, sr,
+				Operator.Type.Distance, null, distance, progressTracker);
+	}
+}
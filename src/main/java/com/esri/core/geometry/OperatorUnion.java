@@ -26,6 +26,8 @@ package com.esri.core.geometry;
 
 import com.esri.core.geometry.Operator.Type;
 
+import java.util.concurrent.ForkJoinPool;
+
 /**
  * 
  * Union of geometries.
@@ -45,6 +47,20 @@ public abstract class OperatorUnion extends Operator implements CombineOperator{
 	public abstract GeometryCursor execute(GeometryCursor inputGeometries,
 			SpatialReference sr, ProgressTracker progressTracker);
 
+	/**
+	 *Performs the Topological Union operation on the geometry set, merging
+	 *independent groups of geometries in parallel on the given pool. The
+	 *result is the same as the one of the serial execution.
+	 *@param inputGeometries is the set of Geometry instances to be unioned.
+	 *@param pool is the pool that runs the merges. The input cursor is read
+	 *and the result is produced on the calling thread.
+	 *@param progressTracker is called from the pool threads too, so it has to
+	 *be thread safe.
+	 */
+	public abstract GeometryCursor execute(GeometryCursor inputGeometries,
+			SpatialReference sr, ForkJoinPool pool,
+			ProgressTracker progressTracker);
+
 	/**
 	 *Performs the Topological Union operation on two geometries.
 	 *@param geom1 and geom2 are the geometry instances to be unioned.
@@ -25,15 +25,21 @@
 package com.esri.core.geometry;
 
 import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.TreeMap;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
 
 final class OperatorUnionCursor extends GeometryCursor {
 
 	private GeometryCursor m_inputGeoms;
 	private ProgressTracker m_progress_tracker;
 	private SpatialReferenceImpl m_spatial_reference;
+	private ForkJoinPool m_pool;// null for the serial execution
 	private int m_index = -1;
 	private boolean m_b_done = false;
 	private boolean [] m_had_geometry = new boolean[4];
@@ -74,8 +80,14 @@ final class OperatorUnionCursor extends GeometryCursor {
 
 	OperatorUnionCursor(GeometryCursor inputGeoms1, SpatialReference sr,
 			ProgressTracker progress_tracker) {
+		this(inputGeoms1, sr, null, progress_tracker);
+	}
+
+	OperatorUnionCursor(GeometryCursor inputGeoms1, SpatialReference sr,
+			ForkJoinPool pool, ProgressTracker progress_tracker) {
 		m_inputGeoms = inputGeoms1;
 		m_spatial_reference = (SpatialReferenceImpl) (sr);
+		m_pool = pool;
 		m_progress_tracker = progress_tracker;
 	}
 	
@@ -186,7 +198,7 @@ final class OperatorUnionCursor extends GeometryCursor {
 			for (int dim = 0; dim <= m_max_dimension; dim++) {
 				while (m_dim_geom_counts[dim] > 1) {
 					ArrayList<Geometry> batch_to_union = collect_geometries_to_union(dim);
-					boolean serial_execution = true;
+					boolean serial_execution = m_pool == null;
 					if (serial_execution) {
 						if (batch_to_union.size() != 0) {
 							Geometry geomRes = TopologicalOperations
@@ -197,6 +209,14 @@ final class OperatorUnionCursor extends GeometryCursor {
 						} else {
 							break;
 						}
+					} else {
+						if (batch_to_union.size() != 0) {
+							ArrayList<Geometry> results = dissolve_parallel_(batch_to_union);
+							for (int i = 0, n = results.size(); i < n; i++)
+								add_geom(dim, true, results.get(i));
+						} else {
+							break;
+						}
 					}
 				}
 			}
@@ -235,6 +255,76 @@ final class OperatorUnionCursor extends GeometryCursor {
 		return batch_to_union;
 	}
 	
+	// Splits the batch into chunks of similar vertex count, one for each
+	// thread of the pool, and dissolves the chunks in parallel. The results
+	// go back into the bins, so the next rounds merge them the same way as
+	// the serial execution does. Each chunk has at least two geometries, so
+	// the number of geometries decreases with every call.
+	private ArrayList<Geometry> dissolve_parallel_(ArrayList<Geometry> batch) {
+		ArrayList<Geometry> results = new ArrayList<Geometry>();
+		int chunk_count = Math.min(m_pool.getParallelism(), batch.size() / 2);
+		if (chunk_count <= 1) {
+			results.add(TopologicalOperations.dissolveDirty(batch,
+					m_spatial_reference, m_progress_tracker));
+			return results;
+		}
+
+		long total_vertex_count = 0;
+		for (int i = 0, n = batch.size(); i < n; i++)
+			total_vertex_count += get_vertex_count_(batch.get(i));
+
+		long chunk_vertex_count = total_vertex_count / chunk_count;
+		ArrayList<Callable<Geometry>> tasks = new ArrayList<Callable<Geometry>>(chunk_count);
+		ArrayList<Geometry> chunk = new ArrayList<Geometry>();
+		long vertex_count = 0;
+		for (int i = 0, n = batch.size(); i < n; i++) {
+			Geometry geom = batch.get(i);
+			chunk.add(geom);
+			vertex_count += get_vertex_count_(geom);
+			if (chunk.size() >= 2 && vertex_count >= chunk_vertex_count
+					&& n - i - 1 >= 2 && tasks.size() < chunk_count - 1) {
+				tasks.add(new DissolveTask(chunk));
+				chunk = new ArrayList<Geometry>();
+				vertex_count = 0;
+			}
+		}
+
+		tasks.add(new DissolveTask(chunk));
+
+		ProgressTracker.checkAndThrow(m_progress_tracker);
+		try {
+			List<Future<Geometry>> futures = m_pool.invokeAll(tasks);
+			for (int i = 0, n = futures.size(); i < n; i++)
+				results.add(futures.get(i).get());
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new UserCancelException();
+		} catch (ExecutionException e) {
+			Throwable cause = e.getCause();
+			if (cause instanceof RuntimeException)
+				throw (RuntimeException) cause;
+			if (cause instanceof Error)
+				throw (Error) cause;
+			throw new GeometryException(cause.toString());
+		}
+
+		return results;
+	}
+
+	private final class DissolveTask implements Callable<Geometry> {
+		private final ArrayList<Geometry> m_geometries;
+
+		DissolveTask(ArrayList<Geometry> geometries) {
+			m_geometries = geometries;
+		}
+
+		@Override
+		public Geometry call() {
+			return TopologicalOperations.dissolveDirty(m_geometries,
+					m_spatial_reference, m_progress_tracker);
+		}
+	}
+
 	private void remove_all_bins_with_lower_dimension(int dim) {
 		// this geometry has higher dimension than the previously processed one
 		for (int i = 0; i < dim; i++) {
@@ -24,6 +24,8 @@
 
 package com.esri.core.geometry;
 
+import java.util.concurrent.ForkJoinPool;
+
 class OperatorUnionLocal extends OperatorUnion {
 
 	@Override
@@ -32,6 +34,17 @@ class OperatorUnionLocal extends OperatorUnion {
 		return new OperatorUnionCursor(inputGeometries, sr, progressTracker);
 	}
 
+	@Override
+	public GeometryCursor execute(GeometryCursor inputGeometries,
+			SpatialReference sr, ForkJoinPool pool,
+			ProgressTracker progressTracker) {
+		if (pool == null)
+			throw new IllegalArgumentException();
+
+		return new OperatorUnionCursor(inputGeometries, sr, pool,
+				progressTracker);
+	}
+
 	@Override
 	public Geometry execute(Geometry geom1, Geometry geom2,
 			SpatialReference sr, ProgressTracker progressTracker) {
@@ -0,0 +1,170 @@
+/*
+ Copyright 1995-2019 Esri
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+
+ For additional information, contact:
+ Environmental Systems Research Institute, Inc.
+ Attn: Contracts Dept
+ 380 New York Street
+ Redlands, California, USA 92373
+
+ email: contracts@esri.com
+ */
+
+package com.esri.core.geometry;
+
+import java.util.ArrayDeque;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.FutureTask;
+
+/**
+ * A GeometryCursor that applies a function to each geometry of the input
+ * cursor on an Executor.
+ * 
+ * The input cursor is read on the thread that calls next, and at most
+ * maxInFlight geometries are processed ahead of the consumer. The results are
+ * returned in the order of the input, each with the ID of its input geometry.
+ * Use it for the operations that handle each geometry independently, such as
+ * buffer, simplify, generalize, densify, offset, clip or convex hull without
+ * merging.
+ */
+public class ParallelGeometryCursor extends GeometryCursor {
+	/**
+	 * The operation applied to each geometry. It is called from the executor
+	 * threads concurrently, so it must be thread safe.
+	 */
+	public interface GeometryFunction {
+		/**
+		 * Returns the result for the given input geometry. Must not return
+		 * null, which would end the cursor. Return an empty geometry
+		 * instead.
+		 */
+		Geometry execute(Geometry geometry);
+	}
+
+	private static final class Pending {
+		final FutureTask<Geometry> task;
+		final int id;
+
+		Pending(FutureTask<Geometry> task, int id) {
+			this.task = task;
+			this.id = id;
+		}
+	}
+
+	private GeometryCursor m_inputGeoms;
+	private final GeometryFunction m_function;
+	private final Executor m_executor;
+	private final int m_maxInFlight;
+	private final ArrayDeque<Pending> m_pending;
+	private int m_index;
+
+	/**
+	 * Creates the cursor.
+	 * @param inputGeoms The input cursor.
+	 * @param function The operation applied to each geometry.
+	 * @param executor The executor that runs the operation. The cursor does
+	 * not shut it down.
+	 * @param maxInFlight The maximum number of geometries submitted to the
+	 * executor and not yet returned by next. Use a small multiple of the
+	 * number of threads.
+	 */
+	public ParallelGeometryCursor(GeometryCursor inputGeoms,
+			GeometryFunction function, Executor executor, int maxInFlight) {
+		if (inputGeoms == null || function == null || executor == null)
+			throw new IllegalArgumentException();
+
+		if (maxInFlight < 1)
+			throw new IllegalArgumentException("invalid max in flight");
+
+		m_inputGeoms = inputGeoms;
+		m_function = function;
+		m_executor = executor;
+		m_maxInFlight = maxInFlight;
+		m_pending = new ArrayDeque<Pending>(maxInFlight);
+		m_index = -1;
+	}
+
+	@Override
+	public Geometry next() {
+		submit_();
+
+		Pending pending = m_pending.poll();
+		if (pending == null)
+			return null;
+
+		Geometry result;
+		try {
+			result = pending.task.get();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			cancel_();
+			throw new UserCancelException();
+		} catch (ExecutionException e) {
+			cancel_();
+			Throwable cause = e.getCause();
+			if (cause instanceof RuntimeException)
+				throw (RuntimeException) cause;
+			if (cause instanceof Error)
+				throw (Error) cause;
+			throw new GeometryException(cause.toString());
+		}
+
+		if (result == null) {
+			cancel_();
+			throw new GeometryException("null result");
+		}
+
+		m_index = pending.id;
+		// Keep the window full while the caller processes the result.
+		submit_();
+		return result;
+	}
+
+	@Override
+	public int getGeometryID() {
+		return m_index;
+	}
+
+	private void submit_() {
+		while (m_inputGeoms != null && m_pending.size() < m_maxInFlight) {
+			final Geometry geom = m_inputGeoms.next();
+			if (geom == null) {
+				m_inputGeoms = null;
+				break;
+			}
+
+			FutureTask<Geometry> task = new FutureTask<Geometry>(
+					new Callable<Geometry>() {
+						@Override
+						public Geometry call() {
+							return m_function.execute(geom);
+						}
+					});
+			int id = m_inputGeoms.getGeometryID();
+			// A rejected task is not queued, so it is never waited for.
+			m_executor.execute(task);
+			m_pending.add(new Pending(task, id));
+		}
+	}
+
+	private void cancel_() {
+		m_inputGeoms = null;
+		Pending pending;
+		while ((pending = m_pending.poll()) != null)
+			pending.task.cancel(false);
+	}
+}
@@ -0,0 +1,277 @@
+/*
+ Copyright 1995-2019 Esri
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+
+ For additional information, contact:
+ Environmental Systems Research Institute, Inc.
+ Attn: Contracts Dept
+ 380 New York Street
+ Redlands, California, USA 92373
+
+ email: contracts@esri.com
+ */
+
+package com.esri.core.geometry;
+
+import com.esri.core.geometry.Geometry.GeometryAccelerationDegree;
+
+/**
+ * An immutable geometry prepared for repeated relational tests.
+ * 
+ * The PreparedGeometry keeps a private copy of the input geometry. The copy has
+ * its accelerators (rasterized geometry and quad trees) built and all of its
+ * lazily calculated state (envelope, ring areas, OGC flags) updated before the
+ * constructor returns. Nobody else holds a reference to the copy, so it is
+ * never modified and never loses its accelerators through Geometry._touch.
+ * 
+ * A PreparedGeometry is safe to share between threads. Any number of threads
+ * can call the relational methods concurrently as long as each thread passes
+ * its own instance of the other geometry.
+ */
+public final class PreparedGeometry {
+	private final Geometry m_geometry;
+	private final SpatialReference m_spatialReference;
+	private final Envelope2D m_envelope;
+	private final double m_tolerance;
+
+	/**
+	 * Creates a PreparedGeometry with the medium acceleration degree.
+	 * 
+	 * @param geometry
+	 *            The geometry to prepare. The geometry is copied, later changes
+	 *            to it do not affect the PreparedGeometry.
+	 * @param spatialReference
+	 *            The spatial reference of the geometry. Can be null.
+	 * @return Returns the prepared geometry.
+	 */
+	public static PreparedGeometry create(Geometry geometry,
+			SpatialReference spatialReference) {
+		return create(geometry, spatialReference,
+				GeometryAccelerationDegree.enumMedium);
+	}
+
+	/**
+	 * Creates a PreparedGeometry.
+	 * 
+	 * @param geometry
+	 *            The geometry to prepare. The geometry is copied, later changes
+	 *            to it do not affect the PreparedGeometry.
+	 * @param spatialReference
+	 *            The spatial reference of the geometry. Can be null.
+	 * @param accelDegree
+	 *            The acceleration degree for the geometry.
+	 * @return Returns the prepared geometry.
+	 */
+	public static PreparedGeometry create(Geometry geometry,
+			SpatialReference spatialReference,
+			GeometryAccelerationDegree accelDegree) {
+		if (geometry == null || accelDegree == null)
+			throw new IllegalArgumentException();
+
+		return new PreparedGeometry(geometry, spatialReference, accelDegree);
+	}
+
+	private PreparedGeometry(Geometry geometry,
+			SpatialReference spatialReference,
+			GeometryAccelerationDegree accelDegree) {
+		Geometry copy = geometry.copy();
+		freeze_(copy);
+		RelationalOperations.Accelerate_helper.accelerate_geometry(copy,
+				spatialReference, accelDegree);
+
+		m_geometry = copy;
+		m_spatialReference = spatialReference;
+		m_envelope = new Envelope2D();
+		copy.queryEnvelope2D(m_envelope);
+		m_tolerance = InternalUtils.calculateToleranceFromGeometry(
+				spatialReference, m_envelope, false);
+	}
+
+	/**
+	 * Returns a copy of the prepared geometry. The copy is not accelerated.
+	 */
+	public Geometry getGeometry() {
+		return m_geometry.copy();
+	}
+
+	/**
+	 * Returns the spatial reference the geometry was prepared with.
+	 */
+	public SpatialReference getSpatialReference() {
+		return m_spatialReference;
+	}
+
+	/**
+	 * Returns the geometry type of the prepared geometry.
+	 */
+	public Geometry.Type getType() {
+		return m_geometry.getType();
+	}
+
+	/**
+	 * Returns true if the prepared geometry has accelerators built. Small
+	 * geometries, points and envelopes are not accelerated, but can still be
+	 * used as prepared geometries.
+	 */
+	public boolean isAccelerated() {
+		if (!Geometry.isMultiVertex(m_geometry.getType().value()))
+			return false;
+
+		GeometryAccelerators accel = ((MultiVertexGeometryImpl) m_geometry
+				._getImpl())._getAccelerators();
+		return accel != null
+				&& (accel.getRasterizedGeometry() != null || accel
+						.getQuadTree() != null);
+	}
+
+	/**
+	 * Copies the envelope of the prepared geometry into the given envelope.
+	 */
+	public void queryEnvelope2D(Envelope2D env) {
+		env.setCoords(m_envelope);
+	}
+
+	/**
+	 * Returns true if the prepared geometry contains the other geometry.
+	 */
+	public boolean contains(Geometry other) {
+		return RelationalOperations.relate(m_geometry, other,
+				m_spatialReference, RelationalOperations.Relation.contains,
+				null);
+	}
+
+	/**
+	 * Returns true if the prepared geometry contains the point with the given
+	 * coordinates. For polygons this tests the accelerators directly without
+	 * creating a Point.
+	 */
+	public boolean contains(double x, double y) {
+		if (m_geometry.getType() != Geometry.Type.Polygon)
+			return contains(new Point(x, y));
+
+		if (!m_envelope.contains(x, y))
+			return false;
+
+		return PolygonUtils.isPointInPolygon2D((Polygon) m_geometry,
+				new Point2D(x, y), m_tolerance) == PolygonUtils.PiPResult.PiPInside;
+	}
+
+	/**
+	 * Returns true if the prepared geometry is within the other geometry.
+	 */
+	public boolean within(Geometry other) {
+		return RelationalOperations.relate(m_geometry, other,
+				m_spatialReference, RelationalOperations.Relation.within, null);
+	}
+
+	/**
+	 * Returns true if the prepared geometry intersects the other geometry.
+	 */
+	public boolean intersects(Geometry other) {
+		return !disjoint(other);
+	}
+
+	/**
+	 * Returns true if the prepared geometry intersects the point with the
+	 * given coordinates. For polygons this tests the accelerators directly
+	 * without creating a Point.
+	 */
+	public boolean intersects(double x, double y) {
+		if (m_geometry.getType() != Geometry.Type.Polygon)
+			return intersects(new Point(x, y));
+
+		Envelope2D env = new Envelope2D();
+		env.setCoords(m_envelope);
+		env.inflate(m_tolerance, m_tolerance);
+		if (!env.contains(x, y))
+			return false;
+
+		return PolygonUtils.isPointInPolygon2D((Polygon) m_geometry,
+				new Point2D(x, y), m_tolerance) != PolygonUtils.PiPResult.PiPOutside;
+	}
+
+	/**
+	 * Returns true if the prepared geometry is disjoint from the other
+	 * geometry.
+	 */
+	public boolean disjoint(Geometry other) {
+		return RelationalOperations.relate(m_geometry, other,
+				m_spatialReference, RelationalOperations.Relation.disjoint,
+				null);
+	}
+
+	/**
+	 * Returns true if the prepared geometry touches the other geometry.
+	 */
+	public boolean touches(Geometry other) {
+		return RelationalOperations.relate(m_geometry, other,
+				m_spatialReference, RelationalOperations.Relation.touches,
+				null);
+	}
+
+	/**
+	 * Returns true if the prepared geometry crosses the other geometry.
+	 */
+	public boolean crosses(Geometry other) {
+		return RelationalOperations.relate(m_geometry, other,
+				m_spatialReference, RelationalOperations.Relation.crosses,
+				null);
+	}
+
+	/**
+	 * Returns true if the prepared geometry overlaps the other geometry.
+	 */
+	public boolean overlaps(Geometry other) {
+		return RelationalOperations.relate(m_geometry, other,
+				m_spatialReference, RelationalOperations.Relation.overlaps,
+				null);
+	}
+
+	/**
+	 * Performs the Relation operation between the prepared geometry and the
+	 * other geometry using the DE-9IM matrix encoded as a string.
+	 * 
+	 * @param other
+	 *            The second geometry in the relation.
+	 * @param de_9im_string
+	 *            The DE-9IM matrix relation encoded as a string.
+	 * @return Returns True if the relation holds, False otherwise.
+	 */
+	public boolean relate(Geometry other, String de_9im_string) {
+		return RelationalOperationsMatrix.relate(m_geometry, other,
+				m_spatialReference, de_9im_string, null);
+	}
+
+	/**
+	 * Updates all of the lazily calculated state of the geometry, so that the
+	 * relational operations only read from it afterwards.
+	 */
+	private static void freeze_(Geometry geometry) {
+		if (!Geometry.isMultiVertex(geometry.getType().value()))
+			return;
+
+		Envelope2D env = new Envelope2D();
+		geometry.queryEnvelope2D(env);
+		geometry.queryLooseEnvelope2D(env);
+
+		if (Geometry.isMultiPath(geometry.getType().value())) {
+			MultiPathImpl impl = (MultiPathImpl) geometry._getImpl();
+			impl.calculateLength2D();
+			if (geometry.getType() == Geometry.Type.Polygon) {
+				impl.calculateArea2D();
+				impl._updateOGCFlags();
+			}
+		}
+	}
+}
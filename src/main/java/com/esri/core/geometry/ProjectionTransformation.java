@@ -1,5 +1,5 @@
 /*
- Copyright 1995-2015 Esri
+ Copyright 1995-2019 Esri
 
    Licensed under the Apache License, Version 2.0 (the "License");
    you may not use this file except in compliance with the License.
@@ -24,6 +24,173 @@
 
 package com.esri.core.geometry;
 
-//This is a stub
-class ProjectionTransformation {
+/**
+ * Describes the transformation between two spatial references.
+ * 
+ * Supports the transformation between WGS 1984 (4326) and WGS 1984 Web
+ * Mercator (Auxiliary Sphere) (3857, 102100, 3785 or 102113), and the identity
+ * transformation between equal spatial references. Creating any other
+ * transformation throws a GeometryException.
+ */
+public final class ProjectionTransformation {
+	static final int WGS84_WKID = 4326;
+	static final int WEB_MERCATOR_WKID = 3857;
+	static final int WEB_MERCATOR_SPHERE_WKID = 3785;
+
+	static final double WEB_MERCATOR_RADIUS = 6378137.0;
+	static final double WEB_MERCATOR_HALF_WIDTH = Math.PI * WEB_MERCATOR_RADIUS;
+
+	/**
+	 * The latitude that maps to the y of WEB_MERCATOR_HALF_WIDTH. The Web
+	 * Mercator extent is square. The latitudes closer to the poles are
+	 * clamped to it.
+	 */
+	static final double WEB_MERCATOR_MAX_LATITUDE = 85.0511287798066;
+
+	private static final double DEG_TO_RAD = Math.PI / 180.0;
+	private static final double RAD_TO_DEG = 180.0 / Math.PI;
+
+	private static final int IDENTITY = 0;
+	private static final int GCS_TO_WEB_MERCATOR = 1;
+	private static final int WEB_MERCATOR_TO_GCS = 2;
+
+	private final SpatialReference m_source;
+	private final SpatialReference m_target;
+	private final int m_kind;
+
+	/**
+	 * Creates the transformation from the source to the target spatial
+	 * reference.
+	 */
+	public ProjectionTransformation(SpatialReference source,
+			SpatialReference target) {
+		if (source == null || target == null)
+			throw new IllegalArgumentException();
+
+		m_source = source;
+		m_target = target;
+		int src = source.getLatestID();
+		int dst = target.getLatestID();
+		if (source.equals(target))
+			m_kind = IDENTITY;
+		else if (src == WGS84_WKID && isWebMercator_(dst))
+			m_kind = GCS_TO_WEB_MERCATOR;
+		else if (isWebMercator_(src) && dst == WGS84_WKID)
+			m_kind = WEB_MERCATOR_TO_GCS;
+		else if (isWebMercator_(src) && isWebMercator_(dst))
+			m_kind = IDENTITY;
+		else
+			throw new GeometryException("not implemented");
+	}
+
+	public SpatialReference getSource() {
+		return m_source;
+	}
+
+	public SpatialReference getTarget() {
+		return m_target;
+	}
+
+	/**
+	 * Returns the transformation in the opposite direction.
+	 */
+	public ProjectionTransformation getReverse() {
+		return new ProjectionTransformation(m_target, m_source);
+	}
+
+	/**
+	 * Returns true if the transformation does not change the coordinates.
+	 */
+	public boolean isIdentity() {
+		return m_kind == IDENTITY;
+	}
+
+	/**
+	 * Transforms the interleaved xy coordinates in place.
+	 */
+	void transform(double[] xy, int offset, int pointCount) {
+		int end = offset + 2 * pointCount;
+		switch (m_kind) {
+		case GCS_TO_WEB_MERCATOR:
+			for (int i = offset; i < end; i += 2) {
+				xy[i + 1] = latitudeToWebMercatorY(xy[i + 1]);
+				xy[i] = longitudeToWebMercatorX(xy[i]);
+			}
+			break;
+		case WEB_MERCATOR_TO_GCS:
+			for (int i = offset; i < end; i += 2) {
+				xy[i + 1] = webMercatorYToLatitude(xy[i + 1]);
+				xy[i] = webMercatorXToLongitude(xy[i]);
+			}
+			break;
+		default:
+			break;
+		}
+	}
+
+	/**
+	 * Transforms the first pointCount points of the interleaved xy stream in
+	 * place.
+	 */
+	void transform(AttributeStreamOfDbl xy, int pointCount) {
+		int end = 2 * pointCount;
+		switch (m_kind) {
+		case GCS_TO_WEB_MERCATOR:
+			for (int i = 0; i < end; i += 2) {
+				xy.write(i, longitudeToWebMercatorX(xy.read(i)));
+				xy.write(i + 1, latitudeToWebMercatorY(xy.read(i + 1)));
+			}
+			break;
+		case WEB_MERCATOR_TO_GCS:
+			for (int i = 0; i < end; i += 2) {
+				xy.write(i, webMercatorXToLongitude(xy.read(i)));
+				xy.write(i + 1, webMercatorYToLatitude(xy.read(i + 1)));
+			}
+			break;
+		default:
+			break;
+		}
+	}
+
+	void transform(Point2D pt) {
+		switch (m_kind) {
+		case GCS_TO_WEB_MERCATOR:
+			pt.setCoords(longitudeToWebMercatorX(pt.x),
+					latitudeToWebMercatorY(pt.y));
+			break;
+		case WEB_MERCATOR_TO_GCS:
+			pt.setCoords(webMercatorXToLongitude(pt.x),
+					webMercatorYToLatitude(pt.y));
+			break;
+		default:
+			break;
+		}
+	}
+
+	static double longitudeToWebMercatorX(double lon) {
+		return WEB_MERCATOR_RADIUS * lon * DEG_TO_RAD;
+	}
+
+	static double latitudeToWebMercatorY(double lat) {
+		if (lat > WEB_MERCATOR_MAX_LATITUDE)
+			lat = WEB_MERCATOR_MAX_LATITUDE;
+		else if (lat < -WEB_MERCATOR_MAX_LATITUDE)
+			lat = -WEB_MERCATOR_MAX_LATITUDE;
+
+		return WEB_MERCATOR_RADIUS
+				* Math.log(Math.tan(Math.PI / 4 + lat * DEG_TO_RAD / 2));
+	}
+
+	static double webMercatorXToLongitude(double x) {
+		return x / WEB_MERCATOR_RADIUS * RAD_TO_DEG;
+	}
+
+	static double webMercatorYToLatitude(double y) {
+		return Math.atan(Math.sinh(y / WEB_MERCATOR_RADIUS)) * RAD_TO_DEG;
+	}
+
+	static boolean isWebMercator_(int latestWkid) {
+		return latestWkid == WEB_MERCATOR_WKID
+				|| latestWkid == WEB_MERCATOR_SPHERE_WKID;
+	}
 }
@@ -89,6 +89,67 @@ public class QuadTree implements Serializable {
 		private boolean m_b_sorted;
 	}
 
+	/**
+	 * Computes the exact distance from the query of a nearest neighbor search
+	 * to an element, for example with OperatorDistance. The returned value
+	 * must not be less than the distance to the element bounding box.
+	 */
+	public interface DistanceFunction {
+		/**
+		 * Returns the distance from the query to the element at the given
+		 * Element_handle.
+		 * \param elementHandle The handle of the element.
+		 */
+		double distance(int elementHandle);
+	}
+
+	public static final class QuadTreeNearestIterator {
+		/**
+		 * Resets the iterator to a starting state on the QuadTree using the
+		 * input point as the query.
+		 * \param query The query point.
+		 * \param maxDistance Elements farther than maxDistance are not returned.
+		 */
+		public void resetIterator(Point2D query, double maxDistance) {
+			m_impl.resetIterator(query, maxDistance);
+		}
+
+		/**
+		 * Resets the iterator to a starting state on the QuadTree. The distance
+		 * to an element bounding box is measured from the Envelope2D bounding
+		 * the query Geometry.
+		 * \param query The Geometry used for the query.
+		 * \param maxDistance Elements farther than maxDistance are not returned.
+		 */
+		public void resetIterator(Geometry query, double maxDistance) {
+			m_impl.resetIterator(query, maxDistance);
+		}
+
+		/**
+		 * Moves the iterator to the next Element_handle in the order of
+		 * increasing distance and returns the Element_handle. Returns -1 when
+		 * there are no more elements within the max distance.
+		 */
+		public int next() {
+			return m_impl.next();
+		}
+
+		/**
+		 * Returns the distance of the element returned by the last call to
+		 * next. It is the value of the DistanceFunction when the iterator has
+		 * one, and the distance to the element bounding box otherwise.
+		 */
+		public double getDistance() {
+			return m_impl.getDistance();
+		}
+
+		private QuadTreeNearestIterator(QuadTreeImpl.QuadTreeNearestIteratorImpl impl) {
+			m_impl = impl;
+		}
+
+		private QuadTreeImpl.QuadTreeNearestIteratorImpl m_impl;
+	}
+
 	/**
 	 * Creates a QuadTree with the root having the extent of the input
 	 * Envelope2D, and height of the input height, where the root starts at height 0.
@@ -333,6 +394,45 @@ public class QuadTree implements Serializable {
 		}
 	}
 
+	/**
+	 * Gets an iterator that returns the elements in the order of increasing
+	 * distance of their bounding boxes from the query point. This is a best
+	 * first search, so only the quads nearer than the returned elements are
+	 * visited.
+	 * \param query The query point.
+	 * \param maxDistance Elements farther than maxDistance are not returned.
+	 * Use Double.POSITIVE_INFINITY for no limit.
+	 */
+	public QuadTreeNearestIterator getNearestIterator(Point2D query, double maxDistance) {
+		return new QuadTreeNearestIterator(m_impl.getNearestIterator(query, maxDistance, null));
+	}
+
+	/**
+	 * Gets an iterator that returns the elements in the order of increasing
+	 * distance from the query Geometry. The distance to an element is the
+	 * distance between its bounding box and the Envelope2D bounding the query.
+	 * \param query The Geometry used for the query.
+	 * \param maxDistance Elements farther than maxDistance are not returned.
+	 * Use Double.POSITIVE_INFINITY for no limit.
+	 */
+	public QuadTreeNearestIterator getNearestIterator(Geometry query, double maxDistance) {
+		return new QuadTreeNearestIterator(m_impl.getNearestIterator(query, maxDistance, null));
+	}
+
+	/**
+	 * Gets an iterator that returns the elements in the order of increasing
+	 * exact distance from the query Geometry. The bounding box distances are
+	 * used to visit the candidates, and the distanceFunction is called only
+	 * for the elements that can still be the next nearest.
+	 * \param query The Geometry used for the query.
+	 * \param maxDistance Elements farther than maxDistance are not returned.
+	 * Use Double.POSITIVE_INFINITY for no limit.
+	 * \param distanceFunction Computes the exact distance to an element.
+	 */
+	public QuadTreeNearestIterator getNearestIterator(Geometry query, double maxDistance, DistanceFunction distanceFunction) {
+		return new QuadTreeNearestIterator(m_impl.getNearestIterator(query, maxDistance, distanceFunction));
+	}
+
 	/**
 	 * Returns a void* to the impl class.
 	 */
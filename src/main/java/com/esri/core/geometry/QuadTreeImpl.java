@@ -28,6 +28,8 @@ import java.io.InvalidObjectException;
 import java.io.ObjectStreamException;
 import java.io.Serializable;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
 
 import static com.esri.core.geometry.SizeOf.SIZE_OF_DATA;
 import static com.esri.core.geometry.SizeOf.SIZE_OF_QUAD_TREE_IMPL;
@@ -321,6 +323,235 @@ class QuadTreeImpl implements Serializable {
 		int m_index;
 	}
 
+	static final class QuadTreeNearestIteratorImpl {
+		/**
+		 * Resets the iterator to a starting state on the Quad_tree_impl using
+		 * the input point as the query. \param query The query point. \param
+		 * max_distance Elements farther than max_distance are not returned.
+		 */
+		void resetIterator(Point2D query, double max_distance) {
+			m_query_box.setCoords(query.x, query.y, query.x, query.y);
+			reset_(max_distance);
+		}
+
+		/**
+		 * Resets the iterator to a starting state on the Quad_tree_impl. The
+		 * distance to a bounding box is measured from the Envelope_2D bounding
+		 * the query Geometry. \param query The Geometry used for the query.
+		 * \param max_distance Elements farther than max_distance are not
+		 * returned.
+		 */
+		void resetIterator(Geometry query, double max_distance) {
+			query.queryEnvelope2D(m_query_box);
+			reset_(max_distance);
+		}
+
+		/**
+		 * Moves the iterator to the next Element_handle in the order of
+		 * increasing distance and returns the Element_handle. Returns -1 when
+		 * there are no more elements within the max distance.
+		 */
+		int next() {
+			QuadTreeImpl quad_tree = m_quad_tree;
+			while (m_heap_size > 0) {
+				double key = m_heap_keys[0];
+				int value = m_heap_values[0];
+				int kind = m_heap_kinds[0];
+				pop_();
+
+				if (kind == ELEMENT_EXACT) {
+					m_distance = key;
+					return value;
+				}
+
+				if (kind == ELEMENT_BOX) {
+					if (m_distance_function == null) {
+						m_distance = key;
+						return value;
+					}
+
+					// Queue the element again with the exact distance. It can
+					// only be returned once no queued box or quad is nearer.
+					double distance = m_distance_function.distance(value);
+					if (distance <= m_max_distance)
+						push_(Math.max(distance, key), value, ELEMENT_EXACT);
+
+					continue;
+				}
+
+				// Open the quad: queue its elements and its non empty
+				// children.
+				int quad = m_quad_handles.get(value);
+				for (int element_handle = quad_tree.get_first_element_(quad); element_handle != -1; element_handle = quad_tree.get_next_element_(element_handle)) {
+					int data_handle = quad_tree.get_data_(element_handle);
+					if (m_visited_data != null && !m_visited_data.add(data_handle))
+						continue; // a duplicate of an element already queued
+
+					Envelope2D box = quad_tree.get_bounding_box_value_(data_handle);
+					double distance = Math.sqrt(m_query_box.sqrDistance(box));
+					if (distance <= m_max_distance)
+						push_(distance, element_handle, ELEMENT_BOX);
+				}
+
+				m_quad_extent.setCoords(m_quad_extents.read(4 * value), m_quad_extents.read(4 * value + 1), m_quad_extents.read(4 * value + 2), m_quad_extents.read(4 * value + 3));
+				set_child_extents_(m_quad_extent, m_child_extents);
+				for (int quadrant = 0; quadrant < 4; quadrant++) {
+					int child_handle = quad_tree.get_child_(quad, quadrant);
+					if (child_handle != -1 && quad_tree.getSubTreeElementCount(child_handle) > 0) {
+						double distance = Math.sqrt(m_query_box.sqrDistance(m_child_extents[quadrant]));
+						if (distance <= m_max_distance)
+							push_(distance, addQuad_(child_handle, m_child_extents[quadrant]), QUAD);
+					}
+				}
+			}
+
+			return -1;
+		}
+
+		/**
+		 * Returns the distance of the element returned by the last call to
+		 * next. It is the exact distance when the iterator has a distance
+		 * function, and the distance to the element bounding box otherwise.
+		 */
+		double getDistance() {
+			return m_distance;
+		}
+
+		QuadTreeNearestIteratorImpl(QuadTreeImpl quad_tree_impl, QuadTree.DistanceFunction distance_function) {
+			m_quad_tree = quad_tree_impl;
+			m_distance_function = distance_function;
+			m_query_box = new Envelope2D();
+			m_quad_extent = new Envelope2D();
+			m_child_extents = new Envelope2D[4];
+			for (int i = 0; i < 4; i++)
+				m_child_extents[i] = new Envelope2D();
+
+			m_quad_handles = new AttributeStreamOfInt32(0);
+			m_quad_extents = new AttributeStreamOfDbl(0);
+			m_heap_keys = new double[16];
+			m_heap_values = new int[16];
+			m_heap_kinds = new int[16];
+			m_heap_size = 0;
+			m_distance = NumberUtils.NaN();
+		}
+
+		private void reset_(double max_distance) {
+			if (NumberUtils.isNaN(max_distance) || max_distance < 0)
+				throw new IllegalArgumentException("invalid max distance");
+
+			m_max_distance = max_distance;
+			m_heap_size = 0;
+			m_quad_handles.resize(0);
+			m_quad_extents.resize(0);
+			m_distance = NumberUtils.NaN();
+			m_visited_data = m_quad_tree.m_b_store_duplicates ? new HashSet<Integer>() : null;
+
+			if (m_quad_tree.m_root == -1 || m_query_box.isEmpty())
+				return;
+
+			double distance = Math.sqrt(m_query_box.sqrDistance(m_quad_tree.m_extent));
+			if (distance <= m_max_distance)
+				push_(distance, addQuad_(m_quad_tree.m_root, m_quad_tree.m_extent), QUAD);
+		}
+
+		private int addQuad_(int quad_handle, Envelope2D extent) {
+			int index = m_quad_handles.size();
+			m_quad_handles.add(quad_handle);
+			m_quad_extents.add(extent.xmin);
+			m_quad_extents.add(extent.ymin);
+			m_quad_extents.add(extent.xmax);
+			m_quad_extents.add(extent.ymax);
+			return index;
+		}
+
+		// Binary min heap on the distance. Elements go before quads at equal
+		// distance, so that the elements are not delayed by opening quads.
+		private boolean less_(int i, int j) {
+			if (m_heap_keys[i] != m_heap_keys[j])
+				return m_heap_keys[i] < m_heap_keys[j];
+
+			return m_heap_kinds[i] > m_heap_kinds[j];
+		}
+
+		private void push_(double key, int value, int kind) {
+			if (m_heap_size == m_heap_keys.length) {
+				int capacity = m_heap_size * 2;
+				m_heap_keys = Arrays.copyOf(m_heap_keys, capacity);
+				m_heap_values = Arrays.copyOf(m_heap_values, capacity);
+				m_heap_kinds = Arrays.copyOf(m_heap_kinds, capacity);
+			}
+
+			int i = m_heap_size++;
+			m_heap_keys[i] = key;
+			m_heap_values[i] = value;
+			m_heap_kinds[i] = kind;
+			while (i > 0) {
+				int parent = (i - 1) >> 1;
+				if (!less_(i, parent))
+					break;
+
+				swap_(i, parent);
+				i = parent;
+			}
+		}
+
+		private void pop_() {
+			m_heap_size--;
+			if (m_heap_size == 0)
+				return;
+
+			m_heap_keys[0] = m_heap_keys[m_heap_size];
+			m_heap_values[0] = m_heap_values[m_heap_size];
+			m_heap_kinds[0] = m_heap_kinds[m_heap_size];
+			int i = 0;
+			while (true) {
+				int smallest = i;
+				int left = 2 * i + 1;
+				int right = left + 1;
+				if (left < m_heap_size && less_(left, smallest))
+					smallest = left;
+				if (right < m_heap_size && less_(right, smallest))
+					smallest = right;
+				if (smallest == i)
+					break;
+
+				swap_(i, smallest);
+				i = smallest;
+			}
+		}
+
+		private void swap_(int i, int j) {
+			double key = m_heap_keys[i];
+			m_heap_keys[i] = m_heap_keys[j];
+			m_heap_keys[j] = key;
+			int value = m_heap_values[i];
+			m_heap_values[i] = m_heap_values[j];
+			m_heap_values[j] = value;
+			int kind = m_heap_kinds[i];
+			m_heap_kinds[i] = m_heap_kinds[j];
+			m_heap_kinds[j] = kind;
+		}
+
+		private static final int QUAD = 0;
+		private static final int ELEMENT_BOX = 1;
+		private static final int ELEMENT_EXACT = 2;
+
+		private QuadTreeImpl m_quad_tree;
+		private QuadTree.DistanceFunction m_distance_function;
+		private Envelope2D m_query_box;
+		private Envelope2D m_quad_extent;
+		private Envelope2D[] m_child_extents;
+		private double m_max_distance;
+		private double m_distance;
+		private AttributeStreamOfInt32 m_quad_handles;
+		private AttributeStreamOfDbl m_quad_extents; // extents of the queued quads, 4 values per quad
+		private HashSet<Integer> m_visited_data; // data handles of the queued elements, only when storing duplicates
+		private double[] m_heap_keys;
+		private int[] m_heap_values; // element handle, or index into m_quad_handles
+		private int[] m_heap_kinds;
+		private int m_heap_size;
+	}
+
 	/**
 	 * Creates a Quad_tree_impl with the root having the extent of the input Envelope_2D, and height of the input height, where the root starts at height 0.
 	 * \param extent The extent of the Quad_tree_impl.
@@ -781,6 +1012,34 @@ class QuadTreeImpl implements Serializable {
 		return new QuadTreeSortedIteratorImpl(getIterator());
 	}
 
+	/**
+	 * Gets an iterator that returns the Element_handles in the order of
+	 * increasing distance from the query. The distance to an element is the
+	 * distance between its bounding box and the Envelope_2D bounding the
+	 * query, unless a distance function is given. \param query The Geometry
+	 * used for the query. \param max_distance Elements farther than
+	 * max_distance are not returned. \param distance_function Computes the
+	 * exact distance to an element. Can be null.
+	 */
+	QuadTreeNearestIteratorImpl getNearestIterator(Geometry query, double max_distance, QuadTree.DistanceFunction distance_function) {
+		QuadTreeNearestIteratorImpl iterator = new QuadTreeNearestIteratorImpl(this, distance_function);
+		iterator.resetIterator(query, max_distance);
+		return iterator;
+	}
+
+	/**
+	 * Gets an iterator that returns the Element_handles in the order of
+	 * increasing distance from the query point. \param query The query point.
+	 * \param max_distance Elements farther than max_distance are not
+	 * returned. \param distance_function Computes the exact distance to an
+	 * element. Can be null.
+	 */
+	QuadTreeNearestIteratorImpl getNearestIterator(Point2D query, double max_distance, QuadTree.DistanceFunction distance_function) {
+		QuadTreeNearestIteratorImpl iterator = new QuadTreeNearestIteratorImpl(this, distance_function);
+		iterator.resetIterator(query, max_distance);
+		return iterator;
+	}
+
 	public long estimateMemorySize()
 	{
 		long size = SIZE_OF_QUAD_TREE_IMPL +
@@ -0,0 +1,218 @@
+/*
+ Copyright 1995-2019 Esri
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+
+ For additional information, contact:
+ Environmental Systems Research Institute, Inc.
+ Attn: Contracts Dept
+ 380 New York Street
+ Redlands, California, USA 92373
+
+ email: contracts@esri.com
+ */
+
+package com.esri.core.geometry;
+
+import java.io.Serializable;
+
+/**
+ * A static R-tree bulk loaded with the Sort-Tile-Recursive (STR) algorithm.
+ * 
+ * Use it instead of the QuadTree when all elements are known up front. The
+ * elements are added with insert and the tree is packed once by build. The
+ * packed tree has full nodes and no empty quads, and needs no extent or height
+ * to be guessed in advance. The tree cannot be modified after the build, and
+ * it is safe to query it from several threads, each with its own iterator.
+ */
+public class STRTree implements Serializable {
+	private static final long serialVersionUID = 1L;
+
+	public static final class STRTreeIterator {
+		/**
+		 * Resets the iterator to a starting state on the STRTree. If the input
+		 * Geometry is a Line segment, then the query will be the segment.
+		 * Otherwise the query will be the Envelope2D bounding the Geometry.
+		 * \param query The Geometry used for the query.
+		 * \param tolerance The tolerance used for the intersection tests.
+		 */
+		public void resetIterator(Geometry query, double tolerance) {
+			m_impl.resetIterator(query, tolerance);
+		}
+
+		/**
+		 * Resets the iterator to a starting state on the STRTree using the
+		 * input Envelope2D as the query.
+		 * \param query The Envelope2D used for the query.
+		 * \param tolerance The tolerance used for the intersection tests.
+		 */
+		public void resetIterator(Envelope2D query, double tolerance) {
+			m_impl.resetIterator(query, tolerance);
+		}
+
+		/**
+		 * Moves the iterator to the next Element_handle and returns the
+		 * Element_handle. Returns -1 when there are no more elements.
+		 */
+		public int next() {
+			return m_impl.next();
+		}
+
+		private STRTreeIterator(STRTreeImpl.STRTreeIteratorImpl impl) {
+			m_impl = impl;
+		}
+
+		private STRTreeImpl.STRTreeIteratorImpl m_impl;
+	}
+
+	/**
+	 * Creates an empty STRTree with the default node capacity of 16.
+	 */
+	public STRTree() {
+		m_impl = new STRTreeImpl(STRTreeImpl.DEFAULT_NODE_CAPACITY);
+	}
+
+	/**
+	 * Creates an empty STRTree.
+	 * \param nodeCapacity The maximum number of children of a node. Must be at
+	 * least 2.
+	 */
+	public STRTree(int nodeCapacity) {
+		m_impl = new STRTreeImpl(nodeCapacity);
+	}
+
+	/**
+	 * Adds the element and its bounding box to the STRTree. The elements can
+	 * be queried after the build call. Elements with an empty bounding box
+	 * are ignored. Throws GeometryException when called after build.
+	 * \param element The element of the Geometry to be inserted.
+	 * \param boundingBox The bounding box of the Geometry to be inserted.
+	 */
+	public void insert(int element, Envelope2D boundingBox) {
+		m_impl.insert(element, boundingBox);
+	}
+
+	/**
+	 * Packs the inserted elements into the tree. Must be called once, before
+	 * the tree is queried.
+	 */
+	public void build() {
+		m_impl.build();
+	}
+
+	/**
+	 * Returns true if build has been called.
+	 */
+	public boolean isBuilt() {
+		return m_impl.isBuilt();
+	}
+
+	/**
+	 * Returns the element at the given element_handle.
+	 * \param elementHandle The handle corresponding to the element to be retrieved.
+	 */
+	public int getElement(int elementHandle) {
+		return m_impl.getElement(elementHandle);
+	}
+
+	/**
+	 * Returns the element extent at the given element_handle.
+	 * \param elementHandle The handle corresponding to the element extent to be retrieved.
+	 */
+	public Envelope2D getElementExtent(int elementHandle) {
+		return m_impl.getElementExtent(elementHandle);
+	}
+
+	/**
+	 * Returns the extent of all elements in the tree.
+	 */
+	public Envelope2D getDataExtent() {
+		return m_impl.getDataExtent();
+	}
+
+	/**
+	 * Returns the number of elements in the tree.
+	 */
+	public int getElementCount() {
+		return m_impl.getElementCount();
+	}
+
+	/**
+	 * Returns the number of levels of the built tree, including the leaf
+	 * level.
+	 */
+	public int getHeight() {
+		return m_impl.getHeight();
+	}
+
+	/**
+	 * Gets the number of elements that intersect the query.
+	 * \param query The Envelope2D used for the query.
+	 * \param tolerance The tolerance used for the intersection tests.
+	 * \param maxCount If the intersection count becomes greater than or equal
+	 * to the maxCount, then maxCount is returned.
+	 */
+	public int getIntersectionCount(Envelope2D query, double tolerance, int maxCount) {
+		return m_impl.getIntersectionCount(query, tolerance, maxCount);
+	}
+
+	/**
+	 * Returns true if the query intersects any element in the tree.
+	 * \param query The Envelope2D used for the query.
+	 * \param tolerance The tolerance used for the intersection tests.
+	 */
+	public boolean hasData(Envelope2D query, double tolerance) {
+		return m_impl.hasData(query, tolerance);
+	}
+
+	/**
+	 * Gets an iterator on the STRTree. The query will be the Envelope2D that
+	 * bounds the input Geometry. To reuse the existing iterator on the same
+	 * STRTree but with a new query, use the resetIterator function on the
+	 * STRTreeIterator.
+	 * \param query The Geometry used for the query. If the Geometry is a Line
+	 * segment, then the query will be the segment. Otherwise the query will be
+	 * the Envelope2D bounding the Geometry.
+	 * \param tolerance The tolerance used for the intersection tests.
+	 */
+	public STRTreeIterator getIterator(Geometry query, double tolerance) {
+		return new STRTreeIterator(m_impl.getIterator(query, tolerance));
+	}
+
+	/**
+	 * Gets an iterator on the STRTree using the input Envelope2D as the
+	 * query. To reuse the existing iterator on the same STRTree but with a new
+	 * query, use the resetIterator function on the STRTreeIterator.
+	 * \param query The Envelope2D used for the query.
+	 * \param tolerance The tolerance used for the intersection tests.
+	 */
+	public STRTreeIterator getIterator(Envelope2D query, double tolerance) {
+		return new STRTreeIterator(m_impl.getIterator(query, tolerance));
+	}
+
+	/**
+	 * Gets an iterator on the STRTree. Call resetIterator to set the query.
+	 */
+	public STRTreeIterator getIterator() {
+		return new STRTreeIterator(m_impl.getIterator());
+	}
+
+	/**
+	 * Returns a void* to the impl class.
+	 */
+	Object getImpl_() {
+		return m_impl;
+	}
+
+	private STRTreeImpl m_impl;
+}
@@ -0,0 +1,511 @@
+/*
+ Copyright 1995-2019 Esri
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+
+ For additional information, contact:
+ Environmental Systems Research Institute, Inc.
+ Attn: Contracts Dept
+ 380 New York Street
+ Redlands, California, USA 92373
+
+ email: contracts@esri.com
+ */
+
+package com.esri.core.geometry;
+
+import java.io.Serializable;
+import java.util.Arrays;
+
+/**
+ * A static R-tree bulk loaded with the Sort-Tile-Recursive (STR) algorithm.
+ * 
+ * The elements are collected with insert and packed by build. After the build
+ * the tree is immutable. All nodes live in flat primitive arrays: the leaf
+ * level holds the element bounding boxes in the packed order, and the node
+ * levels follow bottom up with the root stored last. Children of a node are
+ * stored contiguously, so a node only keeps the range of its children.
+ */
+final class STRTreeImpl implements Serializable {
+	private static final long serialVersionUID = 1L;
+
+	static final int DEFAULT_NODE_CAPACITY = 16;
+
+	static final class STRTreeIteratorImpl {
+		/**
+		 * Resets the iterator to a starting state on the STRTreeImpl. If the
+		 * input Geometry is a Line segment, then the query will be the segment.
+		 * Otherwise the query will be the Envelope2D bounding the Geometry.
+		 * \param query The Geometry used for the query. \param tolerance The
+		 * tolerance used for the intersection tests.
+		 */
+		void resetIterator(Geometry query, double tolerance) {
+			query.queryLooseEnvelope2D(m_query_box);
+			m_query_box.inflate(tolerance, tolerance);
+			m_b_linear = Geometry.isSegment(query.getType().value());
+			if (m_b_linear) {
+				Segment segment = (Segment) query;
+				m_query_start = segment.getStartXY();
+				m_query_end = segment.getEndXY();
+				m_tolerance = tolerance;
+				if (m_start == null) {
+					m_start = new Point2D();
+					m_end = new Point2D();
+					m_extent_inf = new Envelope2D();
+				}
+			} else {
+				m_tolerance = NumberUtils.NaN(); // we don't need it
+			}
+
+			reset_();
+		}
+
+		/**
+		 * Resets the iterator to a starting state on the STRTreeImpl using the
+		 * input Envelope2D as the query. \param query The Envelope2D used for
+		 * the query. \param tolerance The tolerance used for the intersection
+		 * tests.
+		 */
+		void resetIterator(Envelope2D query, double tolerance) {
+			m_query_box.setCoords(query);
+			m_query_box.inflate(tolerance, tolerance);
+			m_tolerance = NumberUtils.NaN(); // we don't need it
+			m_b_linear = false;
+			reset_();
+		}
+
+		/**
+		 * Moves the iterator to the next element handle and returns the
+		 * element handle, or -1 when the query is exhausted.
+		 */
+		int next() {
+			STRTreeImpl tree = m_tree;
+			while (true) {
+				while (m_leaf_cursor < m_leaf_end) {
+					int leaf = m_leaf_cursor++;
+					if (intersects_(tree.m_leaf_boxes, leaf))
+						return leaf;
+				}
+
+				if (m_stack_size == 0)
+					return -1;
+
+				int node = m_stack[--m_stack_size];
+				int start = tree.m_node_child_start[node];
+				int end = tree.m_node_child_end[node];
+				if (node < tree.m_leaf_parent_count) {
+					m_leaf_cursor = start;
+					m_leaf_end = end;
+				} else {
+					for (int child = start; child < end; child++) {
+						if (intersects_(tree.m_node_boxes, child))
+							push_(child);
+					}
+				}
+			}
+		}
+
+		STRTreeIteratorImpl(STRTreeImpl tree) {
+			m_tree = tree;
+			m_query_box = new Envelope2D();
+			m_stack = new int[64];
+			m_stack_size = 0;
+			m_leaf_cursor = 0;
+			m_leaf_end = 0;
+		}
+
+		private void reset_() {
+			m_stack_size = 0;
+			m_leaf_cursor = 0;
+			m_leaf_end = 0;
+			int root = m_tree.getRoot_();
+			if (root != -1 && intersects_(m_tree.m_node_boxes, root))
+				push_(root);
+		}
+
+		private boolean intersects_(double[] boxes, int index) {
+			int i = 4 * index;
+			double xmin = boxes[i];
+			double ymin = boxes[i + 1];
+			double xmax = boxes[i + 2];
+			double ymax = boxes[i + 3];
+			if (!m_query_box.isIntersecting(xmin, ymin, xmax, ymax))
+				return false;
+
+			if (!m_b_linear)
+				return true;
+
+			m_start.setCoords(m_query_start);
+			m_end.setCoords(m_query_end);
+			m_extent_inf.setCoords(xmin, ymin, xmax, ymax);
+			m_extent_inf.inflate(m_tolerance, m_tolerance);
+			return m_extent_inf.clipLine(m_start, m_end) > 0;
+		}
+
+		private void push_(int node) {
+			if (m_stack_size == m_stack.length)
+				m_stack = Arrays.copyOf(m_stack, m_stack.length * 2);
+
+			m_stack[m_stack_size++] = node;
+		}
+
+		private final STRTreeImpl m_tree;
+		private final Envelope2D m_query_box;
+		private boolean m_b_linear;
+		private Point2D m_query_start;
+		private Point2D m_query_end;
+		private double m_tolerance;
+		private Point2D m_start;
+		private Point2D m_end;
+		private Envelope2D m_extent_inf;
+		private int[] m_stack;
+		private int m_stack_size;
+		private int m_leaf_cursor;
+		private int m_leaf_end;
+	}
+
+	/**
+	 * Creates an empty STRTreeImpl.
+	 * \param node_capacity The maximum number of children of a node.
+	 */
+	STRTreeImpl(int node_capacity) {
+		if (node_capacity < 2)
+			throw new IllegalArgumentException("invalid node capacity");
+
+		m_node_capacity = node_capacity;
+		m_input_elements = new AttributeStreamOfInt32(0);
+		m_input_boxes = new AttributeStreamOfDbl(0);
+		m_data_extent = new Envelope2D();
+		m_data_extent.setEmpty();
+		m_b_built = false;
+	}
+
+	/**
+	 * Adds the element and its bounding box to the tree. The element becomes
+	 * searchable after the build call. Empty bounding boxes are ignored.
+	 */
+	void insert(int element, Envelope2D bounding_box) {
+		insert(element, bounding_box.xmin, bounding_box.ymin,
+				bounding_box.xmax, bounding_box.ymax);
+	}
+
+	void insert(int element, double xmin, double ymin, double xmax,
+			double ymax) {
+		if (m_b_built)
+			throw new GeometryException("invalid call");
+
+		if (!(xmin <= xmax && ymin <= ymax))
+			return; // empty or NaN box
+
+		m_input_elements.add(element);
+		m_input_boxes.add(xmin);
+		m_input_boxes.add(ymin);
+		m_input_boxes.add(xmax);
+		m_input_boxes.add(ymax);
+		m_data_extent.merge(xmin, ymin);
+		m_data_extent.merge(xmax, ymax);
+	}
+
+	/**
+	 * Packs the inserted elements. O(n log n) where n is the number of
+	 * elements.
+	 */
+	void build() {
+		if (m_b_built)
+			throw new GeometryException("invalid call");
+
+		m_b_built = true;
+		int count = m_input_elements.size();
+		m_element_count = count;
+		m_leaf_boxes = new double[4 * count];
+		m_elements = new int[count];
+
+		// The leaf level.
+		double[] input_boxes = new double[4 * count];
+		for (int i = 0, n = 4 * count; i < n; i++)
+			input_boxes[i] = m_input_boxes.read(i);
+		m_input_boxes = null;
+
+		int[] order = strOrder_(input_boxes, count, m_node_capacity);
+		for (int i = 0; i < count; i++) {
+			int src = order[i];
+			m_elements[i] = m_input_elements.get(src);
+			System.arraycopy(input_boxes, 4 * src, m_leaf_boxes, 4 * i, 4);
+		}
+		m_input_elements = null;
+		input_boxes = null;
+
+		if (count == 0) {
+			m_node_boxes = new double[0];
+			m_node_child_start = new int[0];
+			m_node_child_end = new int[0];
+			m_leaf_parent_count = 0;
+			return;
+		}
+
+		int total_nodes = 0;
+		for (int level_count = count; level_count > 1 || total_nodes == 0;) {
+			level_count = (level_count + m_node_capacity - 1) / m_node_capacity;
+			total_nodes += level_count;
+		}
+
+		m_node_boxes = new double[4 * total_nodes];
+		m_node_child_start = new int[total_nodes];
+		m_node_child_end = new int[total_nodes];
+
+		// The levels are packed bottom up. Parents are formed over consecutive
+		// runs of the level below, so the children of a node are always a
+		// contiguous range. Each node level is then STR ordered as a whole,
+		// which moves the nodes together with their child ranges.
+		double[] child_boxes = m_leaf_boxes;
+		int child_count = count;
+		int child_base = 0;
+		int level_base = 0;
+		while (true) {
+			int level_count = (child_count + m_node_capacity - 1)
+					/ m_node_capacity;
+			double[] level_boxes = new double[4 * level_count];
+			int[] level_start = new int[level_count];
+			int[] level_end = new int[level_count];
+			groupChildren_(child_boxes, child_count, child_base, level_boxes,
+					level_start, level_end);
+
+			if (level_count > 1)
+				order = strOrder_(level_boxes, level_count, m_node_capacity);
+			else
+				order = new int[] { 0 };
+
+			for (int i = 0; i < level_count; i++) {
+				int src = order[i];
+				int dst = level_base + i;
+				System.arraycopy(level_boxes, 4 * src, m_node_boxes, 4 * dst,
+						4);
+				m_node_child_start[dst] = level_start[src];
+				m_node_child_end[dst] = level_end[src];
+			}
+
+			if (level_base == 0)
+				m_leaf_parent_count = level_count;
+
+			if (level_count == 1)
+				break;
+
+			child_boxes = Arrays.copyOfRange(m_node_boxes, 4 * level_base,
+					4 * (level_base + level_count));
+			child_count = level_count;
+			child_base = level_base;
+			level_base += level_count;
+		}
+	}
+
+	boolean isBuilt() {
+		return m_b_built;
+	}
+
+	int getNodeCapacity() {
+		return m_node_capacity;
+	}
+
+	/**
+	 * Returns the element at the given element handle.
+	 */
+	int getElement(int element_handle) {
+		return m_elements[element_handle];
+	}
+
+	/**
+	 * Returns the extent of the element at the given element handle.
+	 */
+	Envelope2D getElementExtent(int element_handle) {
+		int i = 4 * element_handle;
+		return new Envelope2D(m_leaf_boxes[i], m_leaf_boxes[i + 1],
+				m_leaf_boxes[i + 2], m_leaf_boxes[i + 3]);
+	}
+
+	/**
+	 * Returns the extent of all elements in the tree.
+	 */
+	Envelope2D getDataExtent() {
+		return m_data_extent;
+	}
+
+	/**
+	 * Returns the number of elements in the tree.
+	 */
+	int getElementCount() {
+		return m_b_built ? m_element_count : m_input_elements.size();
+	}
+
+	/**
+	 * Returns the number of tree levels including the leaf level.
+	 */
+	int getHeight() {
+		if (!m_b_built || m_element_count == 0)
+			return 0;
+
+		int height = 1;
+		for (int count = m_element_count; count > 1;) {
+			count = (count + m_node_capacity - 1) / m_node_capacity;
+			height++;
+		}
+
+		return Math.max(height, 2);
+	}
+
+	/**
+	 * Returns the number of elements that intersect the given query.
+	 * \param max_count If the intersection count becomes greater than or equal
+	 * to the max_count, then max_count is returned.
+	 */
+	int getIntersectionCount(Envelope2D query, double tolerance, int max_count) {
+		STRTreeIteratorImpl iterator = getIterator(query, tolerance);
+		int count = 0;
+		while (iterator.next() != -1) {
+			count++;
+			if (max_count > 0 && count >= max_count)
+				return max_count;
+		}
+
+		return count;
+	}
+
+	boolean hasData(Envelope2D query, double tolerance) {
+		return getIntersectionCount(query, tolerance, 1) >= 1;
+	}
+
+	STRTreeIteratorImpl getIterator(Geometry query, double tolerance) {
+		checkBuilt_();
+		STRTreeIteratorImpl iterator = new STRTreeIteratorImpl(this);
+		iterator.resetIterator(query, tolerance);
+		return iterator;
+	}
+
+	STRTreeIteratorImpl getIterator(Envelope2D query, double tolerance) {
+		checkBuilt_();
+		STRTreeIteratorImpl iterator = new STRTreeIteratorImpl(this);
+		iterator.resetIterator(query, tolerance);
+		return iterator;
+	}
+
+	STRTreeIteratorImpl getIterator() {
+		checkBuilt_();
+		return new STRTreeIteratorImpl(this);
+	}
+
+	public long estimateMemorySize() {
+		long size = 64;
+		if (m_leaf_boxes != null)
+			size += 8L * m_leaf_boxes.length + 4L * m_elements.length;
+		if (m_node_boxes != null)
+			size += 8L * m_node_boxes.length + 8L * m_node_child_start.length;
+		if (m_input_boxes != null)
+			size += m_input_boxes.estimateMemorySize()
+					+ m_input_elements.estimateMemorySize();
+		return size;
+	}
+
+	private int getRoot_() {
+		return m_node_boxes.length == 0 ? -1 : m_node_boxes.length / 4 - 1;
+	}
+
+	private void checkBuilt_() {
+		if (!m_b_built)
+			throw new GeometryException("invalid call");
+	}
+
+	/**
+	 * Forms parents over consecutive groups of node_capacity children.
+	 */
+	private void groupChildren_(double[] child_boxes, int child_count,
+			int child_base, double[] parent_boxes, int[] parent_child_start,
+			int[] parent_child_end) {
+		int parent = 0;
+		for (int first = 0; first < child_count; first += m_node_capacity, parent++) {
+			int last = Math.min(first + m_node_capacity, child_count);
+			double xmin = NumberUtils.positiveInf(), ymin = xmin;
+			double xmax = NumberUtils.negativeInf(), ymax = xmax;
+			for (int c = first; c < last; c++) {
+				int i = 4 * c;
+				xmin = Math.min(xmin, child_boxes[i]);
+				ymin = Math.min(ymin, child_boxes[i + 1]);
+				xmax = Math.max(xmax, child_boxes[i + 2]);
+				ymax = Math.max(ymax, child_boxes[i + 3]);
+			}
+
+			int i = 4 * parent;
+			parent_boxes[i] = xmin;
+			parent_boxes[i + 1] = ymin;
+			parent_boxes[i + 2] = xmax;
+			parent_boxes[i + 3] = ymax;
+			parent_child_start[parent] = child_base + first;
+			parent_child_end[parent] = child_base + last;
+		}
+	}
+
+	/**
+	 * Returns the Sort-Tile-Recursive order of the boxes: sorted by the center
+	 * x into vertical slices of ceil(sqrt(pages)) pages, then each slice
+	 * sorted by the center y.
+	 */
+	private static int[] strOrder_(double[] boxes, int count, int capacity) {
+		int[] order = new int[count];
+		if (count == 0)
+			return order;
+
+		long[] keys = new long[count];
+		for (int i = 0; i < count; i++)
+			keys[i] = sortKey_(boxes[4 * i] + boxes[4 * i + 2], i);
+		Arrays.sort(keys);
+
+		int pages = (count + capacity - 1) / capacity;
+		int slices = (int) Math.ceil(Math.sqrt(pages));
+		int slice_size = slices * capacity;
+		for (int first = 0; first < count; first += slice_size) {
+			int last = Math.min(first + slice_size, count);
+			for (int k = first; k < last; k++) {
+				int i = (int) keys[k];
+				keys[k] = sortKey_(boxes[4 * i + 1] + boxes[4 * i + 3], i);
+			}
+			Arrays.sort(keys, first, last);
+		}
+
+		for (int k = 0; k < count; k++)
+			order[k] = (int) keys[k];
+
+		return order;
+	}
+
+	/**
+	 * Packs the value and the index into a long that sorts by the value
+	 * first. The value is rounded to float, which only affects the packing
+	 * quality, never the correctness of the tree.
+	 */
+	private static long sortKey_(double value, int index) {
+		int bits = Float.floatToIntBits((float) value);
+		bits ^= (bits >> 31) & 0x7fffffff;
+		return ((long) bits << 32) | (index & 0xffffffffL);
+	}
+
+	private final int m_node_capacity;
+	private boolean m_b_built;
+	private int m_element_count;
+	private Envelope2D m_data_extent;
+	private AttributeStreamOfInt32 m_input_elements;
+	private AttributeStreamOfDbl m_input_boxes;
+	private int[] m_elements;
+	private double[] m_leaf_boxes;
+	private double[] m_node_boxes;
+	private int[] m_node_child_start;
+	private int[] m_node_child_end;
+	private int m_leaf_parent_count;
+}
@@ -0,0 +1,408 @@
+/*
+ Copyright 1995-2019 Esri
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+
+ For additional information, contact:
+ Environmental Systems Research Institute, Inc.
+ Attn: Contracts Dept
+ 380 New York Street
+ Redlands, California, USA 92373
+
+ email: contracts@esri.com
+ */
+
+package com.esri.core.geometry;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * Reads the geometries of an Esri shapefile.
+ * 
+ * The .shp file is memory mapped and the records are handed to the
+ * OperatorImportFromESRIShape without copying. The files over 2GB are mapped
+ * in windows, up to the 4GB that the 16 bit word offsets of the format
+ * allow. The offsets in the .shx file
+ * give random access to the records, and the cursors over record ranges can
+ * be consumed on different threads. The geometry IDs of the cursors are the
+ * record numbers, which start at 1.
+ * 
+ * Null shapes are returned as empty geometries of the shapefile type.
+ */
+public final class ShapefileReader implements Closeable {
+	static final int FILE_CODE = 9994;
+	static final int VERSION = 1000;
+	static final int HEADER_SIZE = 100;
+	static final int RECORD_HEADER_SIZE = 8;
+	static final int INDEX_RECORD_SIZE = 8;
+	private static final int WINDOW_SIZE = 64 * 1024 * 1024;
+
+	private final RandomAccessFile m_shpFile;
+	private final RandomAccessFile m_shxFile;
+	private final MappedByteBuffer m_shp;// the first 2GB of the file
+	private final long m_shpSize;
+	private final MappedByteBuffer m_shx;
+	private final int m_shapeType;
+	private final int m_recordCount;
+	private final int m_importFlags;
+	private final Envelope2D m_extent;
+
+	/**
+	 * Opens the shapefile. The .shx file must be next to the .shp file.
+	 * @param shpFile The .shp file.
+	 * @param importFlags Use the {@link ShapeImportFlags} interface.
+	 */
+	public ShapefileReader(File shpFile, int importFlags) throws IOException {
+		File shxFile = indexFile_(shpFile);
+		m_importFlags = importFlags;
+		m_shpFile = new RandomAccessFile(shpFile, "r");
+		RandomAccessFile shx = null;
+		try {
+			shx = new RandomAccessFile(shxFile, "r");
+			m_shpSize = m_shpFile.getChannel().size();
+			m_shp = map_(m_shpFile, 0, Math.min(m_shpSize, Integer.MAX_VALUE));
+			m_shx = map_(shx, 0, Math.min(shx.getChannel().size(),
+					Integer.MAX_VALUE));
+		} catch (IOException e) {
+			m_shpFile.close();
+			if (shx != null)
+				shx.close();
+			throw e;
+		}
+		m_shxFile = shx;
+
+		m_shp.order(ByteOrder.BIG_ENDIAN);
+		if (m_shp.capacity() < HEADER_SIZE
+				|| m_shp.getInt(0) != FILE_CODE
+				|| m_shx.capacity() < HEADER_SIZE
+				|| m_shx.capacity() == Integer.MAX_VALUE // over 268M records
+				|| m_shx.getInt(0) != FILE_CODE) {
+			close();
+			throw new GeometryException("invalid shapefile");
+		}
+
+		ByteBuffer header = m_shp.duplicate().order(ByteOrder.LITTLE_ENDIAN);
+		if (header.getInt(28) != VERSION) {
+			close();
+			throw new GeometryException("invalid shapefile");
+		}
+
+		m_shapeType = header.getInt(32);
+		m_extent = new Envelope2D(header.getDouble(36), header.getDouble(44),
+				header.getDouble(52), header.getDouble(60));
+		m_recordCount = (m_shx.capacity() - HEADER_SIZE) / INDEX_RECORD_SIZE;
+	}
+
+	/**
+	 * Opens the shapefile with the default import flags.
+	 */
+	public ShapefileReader(File shpFile) throws IOException {
+		this(shpFile, ShapeImportFlags.ShapeImportDefaults);
+	}
+
+	/**
+	 * Returns the number of records.
+	 */
+	public int getRecordCount() {
+		return m_recordCount;
+	}
+
+	/**
+	 * Returns the geometry type of the shapefile. Returns Unknown for the
+	 * null shape type.
+	 */
+	public Geometry.Type getGeometryType() {
+		return geometryType_(m_shapeType);
+	}
+
+	/**
+	 * Returns true when the shapefile has z coordinates.
+	 */
+	public boolean hasZ() {
+		switch (m_shapeType) {
+		case ShapeType.ShapePointZM:
+		case ShapeType.ShapeMultiPointZM:
+		case ShapeType.ShapePolylineZM:
+		case ShapeType.ShapePolygonZM:
+			return true;
+		default:
+			return false;
+		}
+	}
+
+	/**
+	 * Returns true when the shapefile has m values.
+	 */
+	public boolean hasM() {
+		switch (m_shapeType) {
+		case ShapeType.ShapePointZM:
+		case ShapeType.ShapeMultiPointZM:
+		case ShapeType.ShapePolylineZM:
+		case ShapeType.ShapePolygonZM:
+		case ShapeType.ShapePointM:
+		case ShapeType.ShapeMultiPointM:
+		case ShapeType.ShapePolylineM:
+		case ShapeType.ShapePolygonM:
+			return true;
+		default:
+			return false;
+		}
+	}
+
+	/**
+	 * Returns the extent stored in the header of the shapefile.
+	 */
+	public Envelope2D getExtent() {
+		return new Envelope2D(m_extent.xmin, m_extent.ymin, m_extent.xmax,
+				m_extent.ymax);
+	}
+
+	/**
+	 * Returns the geometry of the record.
+	 * @param recordNumber The record number, starting at 1.
+	 */
+	public Geometry getGeometry(int recordNumber) {
+		if (recordNumber < 1 || recordNumber > m_recordCount)
+			throw new IllegalArgumentException();
+
+		return importRecord_(recordBuffer_(recordNumber, null));
+	}
+
+	/**
+	 * Returns the cursor over all of the records.
+	 */
+	public GeometryCursor getGeometries() {
+		return getGeometries(1, m_recordCount);
+	}
+
+	/**
+	 * Returns the cursor over a range of records.
+	 * @param firstRecordNumber The first record number, starting at 1.
+	 * @param count The number of records.
+	 */
+	public GeometryCursor getGeometries(int firstRecordNumber, int count) {
+		if (firstRecordNumber < 1 || count < 0
+				|| firstRecordNumber - 1 > m_recordCount - count)
+			throw new IllegalArgumentException();
+
+		return new ShapefileCursor(firstRecordNumber, firstRecordNumber
+				+ count);
+	}
+
+	/**
+	 * Splits the records into contiguous ranges of nearly equal size, and
+	 * returns a cursor for each range. The cursors can be used on different
+	 * threads.
+	 * @param splitCount The maximum number of cursors.
+	 */
+	public GeometryCursor[] split(int splitCount) {
+		if (splitCount < 1)
+			throw new IllegalArgumentException();
+
+		splitCount = Math.max(1, Math.min(splitCount, m_recordCount));
+		GeometryCursor[] cursors = new GeometryCursor[splitCount];
+		for (int i = 0; i < splitCount; i++) {
+			int first = (int) ((long) m_recordCount * i / splitCount);
+			int last = (int) ((long) m_recordCount * (i + 1) / splitCount);
+			cursors[i] = new ShapefileCursor(first + 1, last + 1);
+		}
+
+		return cursors;
+	}
+
+	@Override
+	public void close() throws IOException {
+		try {
+			m_shpFile.close();
+		} finally {
+			if (m_shxFile != null)
+				m_shxFile.close();
+		}
+	}
+
+	private final class ShapefileCursor extends GeometryCursor {
+		private int m_next;
+		private final int m_end;
+		private int m_index;
+
+		// The window for the records past the first 2GB of the file.
+		private MappedByteBuffer m_window;
+		private long m_windowStart;
+		private long m_windowEnd;
+
+		ShapefileCursor(int first, int end) {
+			m_next = first;
+			m_end = end;
+			m_index = -1;
+			m_windowStart = 0;
+			m_windowEnd = 0;
+		}
+
+		@Override
+		public Geometry next() {
+			if (m_next >= m_end)
+				return null;
+
+			ByteBuffer record = recordBuffer_(m_next, this);
+			m_index = m_next;
+			m_next++;
+			return importRecord_(record);
+		}
+
+		@Override
+		public int getGeometryID() {
+			return m_index;
+		}
+
+		private ByteBuffer slice_(long start, int length) {
+			if (start < m_windowStart || start + length > m_windowEnd) {
+				long windowSize = Math.max(length, Math.min(WINDOW_SIZE,
+						m_shpSize - start));
+				m_window = mapRecords_(start, windowSize);
+				m_windowStart = start;
+				m_windowEnd = start + windowSize;
+			}
+
+			return ShapefileReader.slice_(m_window, (int) (start - m_windowStart),
+					length);
+		}
+	}
+
+	/**
+	 * Returns the content of the record as a slice of the mapped .shp file.
+	 * The records past the first 2GB are sliced from the window of the
+	 * cursor, or mapped on their own without a cursor.
+	 */
+	private ByteBuffer recordBuffer_(int recordNumber, ShapefileCursor cursor) {
+		// The .shx offsets and lengths are big endian, in 16 bit words. The
+		// absolute reads leave the shared buffers untouched.
+		int indexOffset = HEADER_SIZE + (recordNumber - 1) * INDEX_RECORD_SIZE;
+		long offset = 2L * m_shx.getInt(indexOffset);
+		long length = 2L * m_shx.getInt(indexOffset + 4);
+		if (offset < HEADER_SIZE || length < 4 || length > Integer.MAX_VALUE
+				|| offset + RECORD_HEADER_SIZE + length > m_shpSize)
+			throw new GeometryException("invalid shapefile");
+
+		long start = offset + RECORD_HEADER_SIZE;
+		if (start + length <= m_shp.capacity())
+			return slice_(m_shp, (int) start, (int) length);
+
+		if (cursor != null)
+			return cursor.slice_(start, (int) length);
+
+		return slice_(mapRecords_(start, length), 0, (int) length);
+	}
+
+	private static ByteBuffer slice_(MappedByteBuffer buffer, int start,
+			int length) {
+		ByteBuffer record = buffer.duplicate();
+		record.limit(start + length);
+		record.position(start);
+		return record.slice();
+	}
+
+	private Geometry importRecord_(ByteBuffer record) {
+		record.order(ByteOrder.LITTLE_ENDIAN);
+		if (record.getInt(0) == ShapeType.ShapeNull)
+			return emptyGeometry_();
+
+		return OperatorImportFromESRIShape.local().execute(m_importFlags,
+				Geometry.Type.Unknown, record);
+	}
+
+	private Geometry emptyGeometry_() {
+		Geometry geometry;
+		switch (getGeometryType().value()) {
+		case Geometry.GeometryType.Point:
+			geometry = new Point();
+			break;
+		case Geometry.GeometryType.MultiPoint:
+			geometry = new MultiPoint();
+			break;
+		case Geometry.GeometryType.Polyline:
+			geometry = new Polyline();
+			break;
+		case Geometry.GeometryType.Polygon:
+			geometry = new Polygon();
+			break;
+		default:
+			throw new GeometryException("invalid shape type");
+		}
+
+		if (hasZ())
+			geometry.addAttribute(VertexDescription.Semantics.Z);
+		if (hasM())
+			geometry.addAttribute(VertexDescription.Semantics.M);
+
+		return geometry;
+	}
+
+	static Geometry.Type geometryType_(int shapeType) {
+		switch (shapeType) {
+		case ShapeType.ShapeNull:
+			return Geometry.Type.Unknown;
+		case ShapeType.ShapePoint:
+		case ShapeType.ShapePointM:
+		case ShapeType.ShapePointZM:
+		case ShapeType.ShapePointZ:
+			return Geometry.Type.Point;
+		case ShapeType.ShapeMultiPoint:
+		case ShapeType.ShapeMultiPointM:
+		case ShapeType.ShapeMultiPointZM:
+		case ShapeType.ShapeMultiPointZ:
+			return Geometry.Type.MultiPoint;
+		case ShapeType.ShapePolyline:
+		case ShapeType.ShapePolylineM:
+		case ShapeType.ShapePolylineZM:
+		case ShapeType.ShapePolylineZ:
+			return Geometry.Type.Polyline;
+		case ShapeType.ShapePolygon:
+		case ShapeType.ShapePolygonM:
+		case ShapeType.ShapePolygonZM:
+		case ShapeType.ShapePolygonZ:
+			return Geometry.Type.Polygon;
+		default:
+			throw new GeometryException("invalid shape type");
+		}
+	}
+
+	static File indexFile_(File shpFile) {
+		String name = shpFile.getName();
+		int dot = name.lastIndexOf('.');
+		String base = dot >= 0 ? name.substring(0, dot) : name;
+		boolean bUpper = dot >= 0 && name.substring(dot).equals(".SHP");
+		return new File(shpFile.getParentFile(), base
+				+ (bUpper ? ".SHX" : ".shx"));
+	}
+
+	private MappedByteBuffer mapRecords_(long position, long size) {
+		try {
+			return map_(m_shpFile, position, size);
+		} catch (IOException e) {
+			throw new GeometryException(e.getMessage());
+		}
+	}
+
+	private static MappedByteBuffer map_(RandomAccessFile file,
+			long position, long size) throws IOException {
+		return file.getChannel().map(FileChannel.MapMode.READ_ONLY, position,
+				size);
+	}
+}
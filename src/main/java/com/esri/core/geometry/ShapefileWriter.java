@@ -0,0 +1,384 @@
+/*
+ Copyright 1995-2019 Esri
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+
+ For additional information, contact:
+ Environmental Systems Research Institute, Inc.
+ Attn: Contracts Dept
+ 380 New York Street
+ Redlands, California, USA 92373
+
+ email: contracts@esri.com
+ */
+
+package com.esri.core.geometry;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+
+import com.esri.core.geometry.VertexDescription.Semantics;
+
+/**
+ * Writes geometries to an Esri shapefile.
+ * 
+ * The records are exported with the OperatorExportToESRIShape into a reused
+ * direct buffer and written to the .shp and .shx files through their
+ * channels. The file lengths and the extent are written to the headers at
+ * close, so nothing is kept in memory per record.
+ * 
+ * A Z shapefile stores m values too, as the format requires. Null and empty
+ * geometries are written as null shapes.
+ */
+public final class ShapefileWriter implements Closeable {
+	private static final int BUFFER_SIZE = 1024 * 1024;
+	private static final int INDEX_BUFFER_SIZE = 64 * 1024;
+
+	private final RandomAccessFile m_shpFile;
+	private final RandomAccessFile m_shxFile;
+	private final FileChannel m_shp;
+	private final FileChannel m_shx;
+	private final Geometry.Type m_type;
+	private final int m_shapeType;
+	private final boolean m_bHasZs;
+	private final boolean m_bHasMs;
+	private final int m_exportFlags;
+
+	private ByteBuffer m_buffer;
+	private final ByteBuffer m_indexBuffer;
+	private long m_offset;// the file offset of the buffer start
+	private int m_recordCount;
+	private final Envelope2D m_extent;
+	private final Envelope1D m_zs;
+	private final Envelope1D m_ms;
+	private final Envelope2D m_env;
+	private boolean m_bClosed;
+
+	/**
+	 * Creates the shapefile. The .shx file is created next to the .shp file.
+	 * Existing files are overwritten.
+	 * @param shpFile The .shp file.
+	 * @param type The geometry type. Point, MultiPoint, Polyline or Polygon.
+	 * @param bHasZs Write z coordinates.
+	 * @param bHasMs Write m values.
+	 */
+	public ShapefileWriter(File shpFile, Geometry.Type type, boolean bHasZs,
+			boolean bHasMs) throws IOException {
+		m_shapeType = shapeType_(type, bHasZs, bHasMs);
+		m_type = type;
+		m_bHasZs = bHasZs;
+		m_bHasMs = bHasMs || bHasZs;
+		m_exportFlags = ShapeExportFlags.ShapeExportStripIDs
+				| (m_bHasZs ? 0 : ShapeExportFlags.ShapeExportStripZs)
+				| (m_bHasMs ? 0 : ShapeExportFlags.ShapeExportStripMs);
+
+		m_shpFile = new RandomAccessFile(shpFile, "rw");
+		RandomAccessFile shx = null;
+		try {
+			shx = new RandomAccessFile(ShapefileReader.indexFile_(shpFile),
+					"rw");
+			m_shpFile.setLength(0);
+			shx.setLength(0);
+		} catch (IOException e) {
+			m_shpFile.close();
+			if (shx != null)
+				shx.close();
+			throw e;
+		}
+		m_shxFile = shx;
+		m_shp = m_shpFile.getChannel();
+		m_shx = m_shxFile.getChannel();
+
+		m_buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+		m_indexBuffer = ByteBuffer.allocateDirect(INDEX_BUFFER_SIZE).order(
+				ByteOrder.BIG_ENDIAN);
+
+		// The headers are written at close.
+		m_offset = ShapefileReader.HEADER_SIZE;
+		m_shp.position(m_offset);
+		m_shx.position(ShapefileReader.HEADER_SIZE);
+
+		m_extent = new Envelope2D();
+		m_extent.setEmpty();
+		m_zs = new Envelope1D();
+		m_zs.setEmpty();
+		m_ms = new Envelope1D();
+		m_ms.setEmpty();
+		m_env = new Envelope2D();
+		m_recordCount = 0;
+		m_bClosed = false;
+	}
+
+	/**
+	 * Returns the number of records written.
+	 */
+	public int getRecordCount() {
+		return m_recordCount;
+	}
+
+	/**
+	 * Writes the geometries of the cursor. Returns the number of geometries
+	 * written.
+	 */
+	public int write(GeometryCursor geometries) throws IOException {
+		int count = 0;
+		Geometry geometry;
+		while ((geometry = geometries.next()) != null) {
+			write(geometry);
+			count++;
+		}
+
+		return count;
+	}
+
+	/**
+	 * Writes the geometry as the next record. Null and empty geometries are
+	 * written as null shapes.
+	 */
+	public void write(Geometry geometry) throws IOException {
+		if (m_bClosed)
+			throw new GeometryException("shapefile is closed");
+
+		if (geometry != null && geometry.isEmpty())
+			geometry = null;
+
+		boolean bFillZs = false;
+		boolean bFillMs = false;
+		if (geometry != null) {
+			Geometry.Type type = geometry.getType();
+			if (type != m_type
+					&& !(type == Geometry.Type.Envelope && m_type == Geometry.Type.Polygon))
+				throw new GeometryException("invalid shape type");
+
+			// The z values are required by the Z shape types, and the m
+			// values by the Z and M shape types.
+			bFillZs = m_bHasZs && !geometry.hasAttribute(Semantics.Z);
+			bFillMs = m_bHasMs && !geometry.hasAttribute(Semantics.M);
+		}
+
+		int size = OperatorExportToESRIShapeCursor.exportToESRIShape(
+				m_exportFlags, geometry, null);
+		int sectionSize = 0;
+		if (bFillZs || bFillMs)
+			sectionSize = m_type == Geometry.Type.Point ? 8
+					: 16 + 8 * shapePointCount_(geometry);
+
+		int fullSize = size + (bFillZs ? sectionSize : 0)
+				+ (bFillMs ? sectionSize : 0);
+		int recordSize = ShapefileReader.RECORD_HEADER_SIZE + fullSize;
+		if (m_buffer.remaining() < recordSize) {
+			flush_();
+			if (m_buffer.capacity() < recordSize)
+				m_buffer = ByteBuffer.allocateDirect(Math.max(recordSize,
+						2 * m_buffer.capacity()));
+		}
+
+		int position = m_buffer.position();
+		m_buffer.position(position + ShapefileReader.RECORD_HEADER_SIZE);
+		m_buffer.limit(position + recordSize);
+		ByteBuffer shapeBuffer = m_buffer.slice().order(
+				ByteOrder.LITTLE_ENDIAN);
+		m_buffer.limit(m_buffer.capacity());
+		OperatorExportToESRIShapeCursor.exportToESRIShape(m_exportFlags,
+				geometry, shapeBuffer);
+		if (bFillZs || bFillMs)
+			fillSections_(shapeBuffer, size, sectionSize, bFillZs, bFillMs);
+
+		size = fullSize;
+		long recordOffset = m_offset + position;
+		if ((recordOffset + recordSize) / 2 > Integer.MAX_VALUE)
+			throw new GeometryException("shapefile is too large");
+
+		m_buffer.order(ByteOrder.BIG_ENDIAN);
+		m_buffer.putInt(position, m_recordCount + 1);
+		m_buffer.putInt(position + 4, size / 2);
+		m_buffer.position(position + recordSize);
+
+		if (m_indexBuffer.remaining() < ShapefileReader.INDEX_RECORD_SIZE)
+			flushIndex_();
+
+		m_indexBuffer.putInt((int) (recordOffset / 2));
+		m_indexBuffer.putInt(size / 2);
+
+		if (geometry != null) {
+			geometry.queryEnvelope2D(m_env);
+			m_extent.merge(m_env);
+			if (m_bHasZs)
+				m_zs.merge(geometry.queryInterval(Semantics.Z, 0));
+			if (m_bHasMs)
+				m_ms.merge(geometry.queryInterval(Semantics.M, 0));
+		}
+
+		m_recordCount++;
+	}
+
+	/**
+	 * Adds the missing z and m sections with the default values to the
+	 * exported shape, and changes its type to the type of the file. This
+	 * avoids copying the geometry to add the attributes. A section holds the
+	 * range and a value per point, or the single value of a point.
+	 */
+	private void fillSections_(ByteBuffer shapeBuffer, int size,
+			int sectionSize, boolean bFillZs, boolean bFillMs) {
+		shapeBuffer.putInt(0, m_shapeType);
+		int offset = size;
+		if (bFillZs) {
+			if (!bFillMs) {
+				// The m section of the shape follows the z section.
+				offset = size - sectionSize;
+				for (int i = sectionSize - 8; i >= 0; i -= 8)
+					shapeBuffer.putDouble(offset + sectionSize + i,
+							shapeBuffer.getDouble(offset + i));
+			}
+
+			fillSection_(shapeBuffer, offset, sectionSize, Semantics.Z);
+			offset = size + sectionSize;
+		}
+
+		if (bFillMs)
+			fillSection_(shapeBuffer, offset, sectionSize, Semantics.M);
+	}
+
+	private static void fillSection_(ByteBuffer shapeBuffer, int offset,
+			int sectionSize, int semantics) {
+		double value = Interop.translateToAVNaN(VertexDescription
+				.getDefaultValue(semantics));
+		for (int end = offset + sectionSize; offset < end; offset += 8)
+			shapeBuffer.putDouble(offset, value);
+	}
+
+	/**
+	 * Returns the number of points of the exported shape. The closed paths
+	 * are exported with the closing point, and the envelopes as polygons.
+	 */
+	private static int shapePointCount_(Geometry geometry) {
+		switch (geometry.getType().value()) {
+		case Geometry.GeometryType.Envelope:
+			return 5;
+		case Geometry.GeometryType.MultiPoint:
+			return ((MultiPoint) geometry).getPointCount();
+		case Geometry.GeometryType.Polygon: {
+			Polygon polygon = (Polygon) geometry;
+			return polygon.getPointCount() + polygon.getPathCount();
+		}
+		case Geometry.GeometryType.Polyline: {
+			Polyline polyline = (Polyline) geometry;
+			int count = polyline.getPointCount();
+			for (int i = 0, n = polyline.getPathCount(); i < n; i++)
+				if (polyline.isClosedPath(i))
+					count++;
+
+			return count;
+		}
+		default:
+			throw GeometryException.GeometryInternalError();
+		}
+	}
+
+	/**
+	 * Writes the buffered records and the headers, and closes the files.
+	 */
+	@Override
+	public void close() throws IOException {
+		if (m_bClosed)
+			return;
+
+		m_bClosed = true;
+		try {
+			flush_();
+			flushIndex_();
+			long shxLength = ShapefileReader.HEADER_SIZE + (long) m_recordCount
+					* ShapefileReader.INDEX_RECORD_SIZE;
+			writeHeader_(m_shp, m_offset);
+			writeHeader_(m_shx, shxLength);
+		} finally {
+			try {
+				m_shpFile.close();
+			} finally {
+				m_shxFile.close();
+			}
+		}
+	}
+
+	private void flush_() throws IOException {
+		m_buffer.flip();
+		while (m_buffer.hasRemaining())
+			m_offset += m_shp.write(m_buffer);
+
+		m_buffer.clear();
+	}
+
+	private void flushIndex_() throws IOException {
+		m_indexBuffer.flip();
+		while (m_indexBuffer.hasRemaining())
+			m_shx.write(m_indexBuffer);
+
+		m_indexBuffer.clear();
+	}
+
+	private void writeHeader_(FileChannel channel, long length)
+			throws IOException {
+		ByteBuffer header = ByteBuffer.allocate(ShapefileReader.HEADER_SIZE);
+		header.order(ByteOrder.BIG_ENDIAN);
+		header.putInt(0, ShapefileReader.FILE_CODE);
+		header.putInt(24, (int) (length / 2));
+		header.order(ByteOrder.LITTLE_ENDIAN);
+		header.putInt(28, ShapefileReader.VERSION);
+		header.putInt(32, m_shapeType);
+		if (!m_extent.isEmpty()) {
+			header.putDouble(36, m_extent.xmin);
+			header.putDouble(44, m_extent.ymin);
+			header.putDouble(52, m_extent.xmax);
+			header.putDouble(60, m_extent.ymax);
+		}
+		if (!m_zs.isEmpty()) {
+			header.putDouble(68, m_zs.vmin);
+			header.putDouble(76, m_zs.vmax);
+		}
+		if (!m_ms.isEmpty()) {
+			header.putDouble(84, m_ms.vmin);
+			header.putDouble(92, m_ms.vmax);
+		}
+
+		while (header.hasRemaining())
+			channel.write(header, header.position());
+	}
+
+	private static int shapeType_(Geometry.Type type, boolean bHasZs,
+			boolean bHasMs) {
+		switch (type.value()) {
+		case Geometry.GeometryType.Point:
+			return bHasZs ? ShapeType.ShapePointZM
+					: bHasMs ? ShapeType.ShapePointM : ShapeType.ShapePoint;
+		case Geometry.GeometryType.MultiPoint:
+			return bHasZs ? ShapeType.ShapeMultiPointZM
+					: bHasMs ? ShapeType.ShapeMultiPointM
+							: ShapeType.ShapeMultiPoint;
+		case Geometry.GeometryType.Polyline:
+			return bHasZs ? ShapeType.ShapePolylineZM
+					: bHasMs ? ShapeType.ShapePolylineM
+							: ShapeType.ShapePolyline;
+		case Geometry.GeometryType.Polygon:
+			return bHasZs ? ShapeType.ShapePolygonZM
+					: bHasMs ? ShapeType.ShapePolygonM
+							: ShapeType.ShapePolygon;
+		default:
+			throw new IllegalArgumentException("invalid geometry type");
+		}
+	}
+}
@@ -0,0 +1,47 @@
+/*
+ Copyright 1995-2019 Esri
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+
+ For additional information, contact:
+ Environmental Systems Research Institute, Inc.
+ Attn: Contracts Dept
+ 380 New York Street
+ Redlands, California, USA 92373
+
+ email: contracts@esri.com
+ */
+
+package com.esri.core.geometry;
+
+/**
+ * An abstract cursor over pairs of geometries, such as the result of a spatial
+ * join. Each pair is identified by the IDs of its two geometries.
+ */
+public abstract class SpatialJoinCursor {
+	/**
+	 * Moves the cursor to the next pair. Returns false when reached the end.
+	 * The behavior of the cursor is undefined after the method returns false.
+	 */
+	public abstract boolean next();
+
+	/**
+	 * Returns the ID of the geometry from the first input in the current pair.
+	 */
+	public abstract int getGeometryIDA();
+
+	/**
+	 * Returns the ID of the geometry from the second input in the current pair.
+	 */
+	public abstract int getGeometryIDB();
+}
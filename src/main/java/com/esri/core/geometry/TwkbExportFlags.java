@@ -0,0 +1,38 @@
+/*
+ Copyright 1995-2019 Esri
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+
+ For additional information, contact:
+ Environmental Systems Research Institute, Inc.
+ Attn: Contracts Dept
+ 380 New York Street
+ Redlands, California, USA 92373
+
+ email: contracts@esri.com
+ */
+
+package com.esri.core.geometry;
+
+/**
+*Flags used by the OperatorExportToTwkb.
+*/
+public interface TwkbExportFlags {
+	public static final int twkbExportDefaults = 0;//!<Default flags
+	public static final int twkbExportBoundingBox = 1;//!<Writes the bounding box after the header.
+	public static final int twkbExportSize = 2;//!<Writes the size of the remaining bytes after the header.
+	public static final int twkbExportIdList = 4;//!<Writes the id list of the multi geometries. The ids are the ID attribute of the first vertex of each part.
+	public static final int twkbExportMultiGeometry = 8;//!<Writes the multi geometry types for the single part polylines and polygons.
+	public static final int twkbExportStripZs = 64;
+	public static final int twkbExportStripMs = 128;
+}
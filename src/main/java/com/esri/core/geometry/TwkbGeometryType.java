@@ -0,0 +1,42 @@
+/*
+ Copyright 1995-2019 Esri
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+
+ For additional information, contact:
+ Environmental Systems Research Institute, Inc.
+ Attn: Contracts Dept
+ 380 New York Street
+ Redlands, California, USA 92373
+
+ email: contracts@esri.com
+ */
+
+package com.esri.core.geometry;
+
+interface TwkbGeometryType {
+	public static final int twkbPoint = 1;
+	public static final int twkbLineString = 2;
+	public static final int twkbPolygon = 3;
+	public static final int twkbMultiPoint = 4;
+	public static final int twkbMultiLineString = 5;
+	public static final int twkbMultiPolygon = 6;
+	public static final int twkbGeometryCollection = 7;
+
+	// the bits of the metadata header byte
+	public static final int twkbHasBBox = 1;
+	public static final int twkbHasSize = 2;
+	public static final int twkbHasIdList = 4;
+	public static final int twkbHasExtendedDims = 8;
+	public static final int twkbIsEmpty = 16;
+}
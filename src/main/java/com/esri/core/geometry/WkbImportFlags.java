@@ -30,4 +30,6 @@ package com.esri.core.geometry;
 public interface WkbImportFlags {
 	public static final int wkbImportDefaults = 0;//!<Default import flags
 	public static final int wkbImportNonTrusted = 2;//!<Pass this flag to the import to indicate the shape can contain non-simple geometry.
+	public static final int wkbImportLengthPrefixed = 4;//!<For the streaming import. Each geometry is preceded by its length as a little endian 4 byte integer.
+	public static final int wkbImportLengthPrefixBigEndian = 8;//!<For the streaming import. The length prefixes are big endian.
 }
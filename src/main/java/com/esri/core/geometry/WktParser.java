@@ -53,11 +53,39 @@ final class WktParser {
 	}
 
 	void resetParser(String string) {
+		resetParser(string, 0, string.length());
+	}
+
+	/**
+	 * Resets the parser to the region [start, end) of the sequence. The
+	 * parser reads the region in place.
+	 */
+	void resetParser(CharSequence string, int start, int end) {
+		if (start < 0 || end > string.length() || start > end)
+			throw new IllegalArgumentException();
+
 		if (m_function_stack == null)
 			m_function_stack = new AttributeStreamOfInt32(0);
+		else
+			m_function_stack.resizePreserveCapacity(0);
 
-		reset_();
 		m_wkt_string = string;
+		m_wkt_start = start;
+		m_wkt_end = end;
+		reset_();
+	}
+
+	/**
+	 * Resets the parser to the region of the array. The parser reads the
+	 * array in place, so it must not change while parsing.
+	 */
+	void resetParser(char[] chars, int offset, int length) {
+		if (m_char_array == null)
+			m_char_array = new CharArraySequence();
+
+		m_char_array.m_chars = chars;
+		m_char_array.m_length = chars.length;
+		resetParser(m_char_array, offset, offset + length);
 	}
 
 	int nextToken() {
@@ -140,9 +168,7 @@ final class WktParser {
 		if (m_b_nan)
 			return NumberUtils.TheNaN;
 
-		double value = Double.parseDouble(m_wkt_string.substring(m_start_token,
-				m_end_token));
-		return value;
+		return DecimalToDouble.parse(m_wkt_string, m_start_token, m_end_token);
 	}
 
 	int currentToken() {
@@ -157,7 +183,10 @@ final class WktParser {
 		return m_b_has_ms;
 	}
 
-	private String m_wkt_string;
+	private CharSequence m_wkt_string;
+	private int m_wkt_start;
+	private int m_wkt_end;
+	private CharArraySequence m_char_array;
 	private int m_start_token;
 	private int m_end_token;
 	private int m_current_token_type;
@@ -203,7 +232,7 @@ final class WktParser {
 		m_function_stack.add(State.accept);
 		m_function_stack.add(State.geometry);
 		m_start_token = -1;
-		m_end_token = 0;
+		m_end_token = m_wkt_start;
 		m_current_token_type = WktToken.not_available;
 		m_b_has_zs = false;
 		m_b_has_ms = false;
@@ -221,45 +250,38 @@ final class WktParser {
 		m_start_token = m_end_token;
 		m_function_stack.removeLast();
 
-		if (m_start_token + 5 <= m_wkt_string.length()
-				&& m_wkt_string.regionMatches(true, m_start_token, "point", 0,
-						5)) {
+		if (m_start_token + 5 <= m_wkt_end
+				&& regionMatches_(m_start_token, "point")) {
 			m_end_token = m_start_token + 5;
 			m_current_token_type = WktToken.point;
 			m_function_stack.add(State.pointStart);
-		} else if (m_start_token + 10 <= m_wkt_string.length()
-				&& m_wkt_string.regionMatches(true, m_start_token,
-						"linestring", 0, 10)) {
+		} else if (m_start_token + 10 <= m_wkt_end
+				&& regionMatches_(m_start_token, "linestring")) {
 			m_end_token = m_start_token + 10;
 			m_current_token_type = WktToken.linestring;
 			m_function_stack.add(State.lineStringStart);
-		} else if (m_start_token + 10 <= m_wkt_string.length()
-				&& m_wkt_string.regionMatches(true, m_start_token,
-						"multipoint", 0, 10)) {
+		} else if (m_start_token + 10 <= m_wkt_end
+				&& regionMatches_(m_start_token, "multipoint")) {
 			m_end_token = m_start_token + 10;
 			m_current_token_type = WktToken.multipoint;
 			m_function_stack.add(State.multiPointStart);
-		} else if (m_start_token + 7 <= m_wkt_string.length()
-				&& m_wkt_string.regionMatches(true, m_start_token, "polygon",
-						0, 7)) {
+		} else if (m_start_token + 7 <= m_wkt_end
+				&& regionMatches_(m_start_token, "polygon")) {
 			m_end_token = m_start_token + 7;
 			m_current_token_type = WktToken.polygon;
 			m_function_stack.add(State.polygonStart);
-		} else if (m_start_token + 15 <= m_wkt_string.length()
-				&& m_wkt_string.regionMatches(true, m_start_token,
-						"multilinestring", 0, 15)) {
+		} else if (m_start_token + 15 <= m_wkt_end
+				&& regionMatches_(m_start_token, "multilinestring")) {
 			m_end_token = m_start_token + 15;
 			m_current_token_type = WktToken.multilinestring;
 			m_function_stack.add(State.multiLineStringStart);
-		} else if (m_start_token + 12 <= m_wkt_string.length()
-				&& m_wkt_string.regionMatches(true, m_start_token,
-						"multipolygon", 0, 12)) {
+		} else if (m_start_token + 12 <= m_wkt_end
+				&& regionMatches_(m_start_token, "multipolygon")) {
 			m_end_token = m_start_token + 12;
 			m_current_token_type = WktToken.multipolygon;
 			m_function_stack.add(State.multiPolygonStart);
-		} else if (m_start_token + 18 <= m_wkt_string.length()
-				&& m_wkt_string.regionMatches(true, m_start_token,
-						"geometrycollection", 0, 18)) {
+		} else if (m_start_token + 18 <= m_wkt_end
+				&& regionMatches_(m_start_token, "geometrycollection")) {
 			m_end_token = m_start_token + 18;
 			m_current_token_type = WktToken.geometrycollection;
 			m_function_stack.add(State.geometryCollectionStart);
@@ -269,7 +291,8 @@ final class WktParser {
 			//throw new IllegalArgumentException(
 			//		"Could not parse Well-Known Text: " + snippet);
 			throw new IllegalArgumentException(
-					"Could not parse Well-Known Text around position: " + m_end_token);
+					"Could not parse Well-Known Text around position: "
+							+ (m_end_token - m_wkt_start));
 		}
 
 		m_function_stack.add(State.attributes);
@@ -287,7 +310,7 @@ final class WktParser {
 				|| m_wkt_string.charAt(m_end_token) == 'Z') {
 			b_has_zs = true;
 
-			if (++m_end_token >= m_wkt_string.length())
+			if (++m_end_token >= m_wkt_end)
 				throw new IllegalArgumentException();
 		}
 
@@ -295,7 +318,7 @@ final class WktParser {
 				|| m_wkt_string.charAt(m_end_token) == 'M') {
 			b_has_ms = true;
 
-			if (++m_end_token >= m_wkt_string.length())
+			if (++m_end_token >= m_wkt_end)
 				throw new IllegalArgumentException();
 		}
 
@@ -573,7 +596,7 @@ final class WktParser {
 	}
 
 	private boolean nan_() {
-		if (m_wkt_string.regionMatches(true, m_start_token, "nan", 0, 3)) {
+		if (regionMatches_(m_start_token, "nan")) {
 			m_end_token += 3;
 			m_b_nan = true;
 			return true;
@@ -587,7 +610,7 @@ final class WktParser {
 		// Optional - or + sign
 		if (m_wkt_string.charAt(m_end_token) == '-'
 				|| m_wkt_string.charAt(m_end_token) == '+') {
-			if (++m_end_token >= m_wkt_string.length())
+			if (++m_end_token >= m_wkt_end)
 				throw new IllegalArgumentException();
 		}
 	}
@@ -614,7 +637,7 @@ final class WktParser {
 
 			// Optional
 			if (m_wkt_string.charAt(m_end_token) == '.') {
-				if (++m_end_token >= m_wkt_string.length())
+				if (++m_end_token >= m_wkt_end)
 					throw new IllegalArgumentException();
 
 				// Optional
@@ -622,7 +645,7 @@ final class WktParser {
 					digits_();
 			}
 		} else if (m_wkt_string.charAt(m_end_token) == '.') {
-			if (++m_end_token >= m_wkt_string.length())
+			if (++m_end_token >= m_wkt_end)
 				throw new IllegalArgumentException();
 
 			if (!Character.isDigit(m_wkt_string.charAt(m_end_token)))
@@ -636,7 +659,7 @@ final class WktParser {
 
 	private void digits_() {
 		do {
-			if (++m_end_token >= m_wkt_string.length())
+			if (++m_end_token >= m_wkt_end)
 				throw new IllegalArgumentException();
 
 		} while (Character.isDigit(m_wkt_string.charAt(m_end_token)));
@@ -646,7 +669,7 @@ final class WktParser {
 		// This is an optional state
 		if (m_wkt_string.charAt(m_end_token) == 'e'
 				|| m_wkt_string.charAt(m_end_token) == 'E') {
-			if (++m_end_token >= m_wkt_string.length())
+			if (++m_end_token >= m_wkt_end)
 				throw new IllegalArgumentException();
 
 			sign_(); // optional
@@ -658,18 +681,32 @@ final class WktParser {
 		}
 	}
 
+	private boolean regionMatches_(int start, String literal) {
+		int length = literal.length();
+		if (start + length > m_wkt_end)
+			return false;
+
+		for (int i = 0; i < length; i++) {
+			char c = m_wkt_string.charAt(start + i);
+			if (Character.toLowerCase(c) != literal.charAt(i))
+				return false;
+		}
+
+		return true;
+	}
+
 	private void skipWhiteSpace_() {
-		if (m_end_token >= m_wkt_string.length())
+		if (m_end_token >= m_wkt_end)
 			throw new IllegalArgumentException();
 
 		while (Character.isWhitespace(m_wkt_string.charAt(m_end_token))) {
-			if (++m_end_token >= m_wkt_string.length())
+			if (++m_end_token >= m_wkt_end)
 				throw new IllegalArgumentException();
 		}
 	}
 
 	private boolean empty_() {
-		if (m_wkt_string.regionMatches(true, m_start_token, "empty", 0, 5)) {
+		if (regionMatches_(m_start_token, "empty")) {
 			m_end_token += 5;
 			m_current_token_type = WktToken.empty;
 			return true;
@@ -707,4 +744,31 @@ final class WktParser {
 		return false;
 	}
 
+	/**
+	 * A reusable view of a char array, so the arrays are parsed in place.
+	 */
+	private static final class CharArraySequence implements CharSequence {
+		char[] m_chars;
+		int m_length;
+
+		@Override
+		public int length() {
+			return m_length;
+		}
+
+		@Override
+		public char charAt(int index) {
+			return m_chars[index];
+		}
+
+		@Override
+		public CharSequence subSequence(int start, int end) {
+			return new String(m_chars, start, end - start);
+		}
+
+		@Override
+		public String toString() {
+			return new String(m_chars, 0, m_length);
+		}
+	}
 }
@@ -0,0 +1,104 @@
+/*
+ Copyright 1995-2019 Esri
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+
+ For additional information, contact:
+ Environmental Systems Research Institute, Inc.
+ Attn: Contracts Dept
+ 380 New York Street
+ Redlands, California, USA 92373
+
+ email: contracts@esri.com
+ */
+
+package com.esri.core.geometry;
+
+import java.util.Random;
+
+import junit.framework.TestCase;
+
+import org.junit.Test;
+
+public class TestDoubleToDecimal extends TestCase {
+	@Override
+	protected void setUp() throws Exception {
+		super.setUp();
+	}
+
+	@Override
+	protected void tearDown() throws Exception {
+		super.tearDown();
+	}
+
+	private static String g(double v, int precision) {
+		StringBuilder sb = new StringBuilder();
+		DoubleToDecimal.appendDouble(v, precision, sb);
+		return sb.toString();
+	}
+
+	private static String f(double v, int decimals) {
+		StringBuilder sb = new StringBuilder();
+		DoubleToDecimal.appendDoubleF(v, decimals, sb);
+		return sb.toString();
+	}
+
+	@Test
+	public static void testShortest() {
+		assertEquals("0", g(0.0, 17));
+		assertEquals("-0", g(-0.0, 17));
+		assertEquals("0.1", g(0.1, 17));
+		assertEquals("0.30000000000000004", g(0.1 + 0.2, 17));
+		assertEquals("100", g(100, 17));
+		assertEquals("-123.456", g(-123.456, 17));
+		assertEquals("0.0001", g(1e-4, 17));
+		assertEquals("1e-05", g(1e-5, 17));
+		assertEquals("1e+20", g(1e20, 17));
+		assertEquals("12345678901234568", g(12345678901234567.0, 17));
+		assertEquals("4.9e-324", g(Double.MIN_VALUE, 17));
+		assertEquals("1.7976931348623157e+308", g(Double.MAX_VALUE, 17));
+		assertEquals("2.2250738585072014e-308", g(Double.MIN_NORMAL, 17));
+		assertEquals("NaN", g(Double.NaN, 17));
+		assertEquals("-Infinity", g(Double.NEGATIVE_INFINITY, 17));
+
+		Random random = new Random(7);
+		for (int i = 0; i < 100000; i++) {
+			double v = Double.longBitsToDouble(random.nextLong());
+			if (Double.isNaN(v) || Double.isInfinite(v))
+				continue;
+
+			String s = g(v, 17);
+			assertEquals(v, Double.parseDouble(s));
+		}
+	}
+
+	@Test
+	public static void testPrecision() {
+		assertEquals("123.5", g(123.456, 4));
+		assertEquals("1.23e+06", g(1234567, 3));
+		assertEquals("1e+03", g(999.9, 2));
+		assertEquals("0.33333", g(1.0 / 3, 5));
+		assertEquals("2.68", f(2.675, 2));
+		assertEquals("-0", f(-0.0004, 3));
+		assertEquals("0.001", f(0.0005, 3));
+		assertEquals("1000", f(999.9999, 3));
+		assertEquals("100000000000000000000", f(1e20, 2));
+		assertEquals("12.5", f(12.5, 17));
+
+		String json = OperatorExportToJson.local().execute(null,
+				new Point(0.1, -2.5e-7));
+		assertEquals("{\"x\":0.1,\"y\":-2.5e-07}", json);
+		assertEquals("POINT (0.1 1e+20)", OperatorExportToWkt.local().execute(
+				0, new Point(0.1, 1e20), null));
+	}
+}
@@ -0,0 +1,332 @@
+/*
+ Copyright 1995-2019 Esri
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+
+ For additional information, contact:
+ Environmental Systems Research Institute, Inc.
+ Attn: Contracts Dept
+ 380 New York Street
+ Redlands, California, USA 92373
+
+ email: contracts@esri.com
+ */
+
+package com.esri.core.geometry;
+
+import java.io.File;
+import java.io.RandomAccessFile;
+import java.util.ArrayList;
+import java.util.HashMap;
+
+import junit.framework.TestCase;
+
+import org.junit.Test;
+
+public class TestFlatGeobuf extends TestCase {
+	@Override
+	protected void setUp() throws Exception {
+		super.setUp();
+	}
+
+	@Override
+	protected void tearDown() throws Exception {
+		super.tearDown();
+	}
+
+	private static String key(Geometry geometry) {
+		Envelope2D env = new Envelope2D();
+		geometry.queryEnvelope2D(env);
+		return env.xmin + "," + env.ymin;
+	}
+
+	private static ArrayList<Geometry> createPolygons() {
+		ArrayList<Geometry> polygons = new ArrayList<Geometry>();
+		for (int i = 0; i < 60; i++) {
+			for (int j = 0; j < 40; j++) {
+				Polygon polygon = new Polygon();
+				polygon.startPath(i, j);
+				polygon.lineTo(i, j + 0.5);
+				polygon.lineTo(i + 0.5, j + 0.5);
+				polygon.lineTo(i + 0.5, j);
+				if ((i + j) % 5 == 0) {
+					// a hole
+					polygon.startPath(i + 0.1, j + 0.1);
+					polygon.lineTo(i + 0.2, j + 0.1);
+					polygon.lineTo(i + 0.2, j + 0.2);
+					polygon.lineTo(i + 0.1, j + 0.2);
+				}
+				if ((i + j) % 7 == 0) {
+					// a second exterior ring
+					polygon.startPath(i + 0.6, j + 0.6);
+					polygon.lineTo(i + 0.6, j + 0.9);
+					polygon.lineTo(i + 0.9, j + 0.9);
+					polygon.lineTo(i + 0.9, j + 0.6);
+				}
+				polygons.add(polygon);
+			}
+		}
+		return polygons;
+	}
+
+	private static HashMap<String, Geometry> byKey(ArrayList<Geometry> geometries) {
+		HashMap<String, Geometry> map = new HashMap<String, Geometry>();
+		for (Geometry geometry : geometries)
+			map.put(key(geometry), geometry);
+		return map;
+	}
+
+	@Test
+	public static void testPolygons() throws Exception {
+		ArrayList<Geometry> polygons = createPolygons();
+		HashMap<String, Geometry> expected = byKey(polygons);
+		File file = File.createTempFile("flatgeobuf", ".fgb");
+		try {
+			FlatGeobufWriter writer = new FlatGeobufWriter(file,
+					Geometry.Type.Polygon, false, false,
+					SpatialReference.create(4326));
+			try {
+				assertEquals(polygons.size(),
+						writer.write(new SimpleGeometryCursor(polygons)));
+			} finally {
+				writer.close();
+			}
+
+			FlatGeobufReader reader = new FlatGeobufReader(file);
+			try {
+				assertEquals(polygons.size(), reader.getFeatureCount());
+				assertEquals(Geometry.Type.Polygon, reader.getGeometryType());
+				assertTrue(reader.hasIndex());
+				assertFalse(reader.hasZ());
+				assertEquals(4326, reader.getSpatialReference().getID());
+				Envelope2D extent = reader.getExtent();
+				assertEquals(0.0, extent.xmin);
+				assertEquals(0.0, extent.ymin);
+				assertEquals(59.9, extent.xmax, 1e-12);
+				assertEquals(39.9, extent.ymax, 1e-12);
+
+				GeometryCursor cursor = reader.getGeometries();
+				Geometry geometry;
+				int count = 0;
+				while ((geometry = cursor.next()) != null) {
+					assertEquals(count, cursor.getGeometryID());
+					assertTrue(expected.get(key(geometry)).equals(geometry));
+					count++;
+				}
+				assertEquals(polygons.size(), count);
+
+				// The search returns the features intersecting the extent.
+				Envelope2D query = new Envelope2D(10.7, 5.7, 20.2, 12.3);
+				int expectedCount = 0;
+				Envelope2D env = new Envelope2D();
+				for (Geometry polygon : polygons) {
+					polygon.queryEnvelope2D(env);
+					if (env.isIntersecting(query))
+						expectedCount++;
+				}
+
+				cursor = reader.getGeometries(query);
+				count = 0;
+				int previousID = -1;
+				while ((geometry = cursor.next()) != null) {
+					geometry.queryEnvelope2D(env);
+					assertTrue(env.isIntersecting(query));
+					assertTrue(expected.get(key(geometry)).equals(geometry));
+					assertTrue(cursor.getGeometryID() > previousID);
+					previousID = cursor.getGeometryID();
+					count++;
+				}
+				assertEquals(expectedCount, count);
+
+				cursor = reader.getGeometries(new Envelope2D(100, 100, 101,
+						101));
+				assertNull(cursor.next());
+			} finally {
+				reader.close();
+			}
+		} finally {
+			file.delete();
+		}
+	}
+
+	@Test
+	public static void testSpatialReference() throws Exception {
+		// The Esri WKID of Web Mercator is written as its EPSG code, the
+		// Esri only codes are labeled as Esri.
+		int[][] cases = { { 102100, 3857 }, { 3857, 3857 }, { 54030, 54030 } };
+		String[] orgs = { "EPSG", "EPSG", "ESRI" };
+		for (int i = 0; i < cases.length; i++) {
+			File file = File.createTempFile("flatgeobuf", ".fgb");
+			try {
+				FlatGeobufWriter writer = new FlatGeobufWriter(file,
+						Geometry.Type.Point, false, false,
+						SpatialReference.create(cases[i][0]));
+				try {
+					writer.write(new Point(1, 2));
+				} finally {
+					writer.close();
+				}
+
+				byte[] bytes = new byte[(int) file.length()];
+				RandomAccessFile raf = new RandomAccessFile(file, "r");
+				try {
+					raf.readFully(bytes);
+				} finally {
+					raf.close();
+				}
+				assertTrue(new String(bytes, "ISO-8859-1").contains(orgs[i]));
+
+				FlatGeobufReader reader = new FlatGeobufReader(file);
+				try {
+					assertEquals(cases[i][1], reader.getSpatialReference()
+							.getID());
+				} finally {
+					reader.close();
+				}
+			} finally {
+				file.delete();
+			}
+		}
+	}
+
+	@Test
+	public static void testWithoutIndex() throws Exception {
+		ArrayList<Geometry> polylines = new ArrayList<Geometry>();
+		for (int i = 0; i < 100; i++) {
+			Polyline polyline = new Polyline();
+			polyline.startPath(i, 0);
+			polyline.lineTo(i + 1, 1);
+			if (i % 2 == 0) {
+				polyline.startPath(i, 5);
+				polyline.lineTo(i + 1, 6);
+				polyline.lineTo(i + 2, 5);
+			}
+			polylines.add(polyline);
+		}
+
+		File file = File.createTempFile("flatgeobuf", ".fgb");
+		try {
+			FlatGeobufWriter writer = new FlatGeobufWriter(file,
+					Geometry.Type.Polyline, false, false, null, 0);
+			try {
+				writer.write(new SimpleGeometryCursor(polylines));
+			} finally {
+				writer.close();
+			}
+
+			FlatGeobufReader reader = new FlatGeobufReader(file);
+			try {
+				assertFalse(reader.hasIndex());
+				assertNull(reader.getSpatialReference());
+				HashMap<String, Geometry> expected = byKey(polylines);
+				Envelope2D query = new Envelope2D(10.5, 0, 20.5, 1);
+				GeometryCursor cursor = reader.getGeometries(query);
+				int count = 0;
+				Geometry geometry;
+				while ((geometry = cursor.next()) != null) {
+					assertTrue(expected.get(key(geometry)).equals(geometry));
+					count++;
+				}
+				// the odd ones from 11 to 19, the even ones from 10 to 20
+				assertEquals(11, count);
+			} finally {
+				reader.close();
+			}
+		} finally {
+			file.delete();
+		}
+	}
+
+	@Test
+	public static void testPointsZM() throws Exception {
+		ArrayList<Geometry> points = new ArrayList<Geometry>();
+		for (int i = 0; i < 1000; i++) {
+			Point point = new Point(i % 37, i / 37, i);
+			point.setM(-i);
+			points.add(point);
+		}
+
+		File file = File.createTempFile("flatgeobuf", ".fgb");
+		try {
+			FlatGeobufWriter writer = new FlatGeobufWriter(file,
+					Geometry.Type.Point, true, true, null);
+			try {
+				writer.write(new SimpleGeometryCursor(points));
+			} finally {
+				writer.close();
+			}
+
+			FlatGeobufReader reader = new FlatGeobufReader(file);
+			try {
+				assertTrue(reader.hasZ());
+				assertTrue(reader.hasM());
+				GeometryCursor cursor = reader.getGeometries(new Envelope2D(
+						5, 5, 5, 5));
+				Point point = (Point) cursor.next();
+				assertEquals(5.0, point.getX());
+				assertEquals(5.0, point.getY());
+				assertEquals(5.0 * 37 + 5, point.getZ());
+				assertEquals(-(5.0 * 37 + 5), point.getM());
+				assertNull(cursor.next());
+			} finally {
+				reader.close();
+			}
+		} finally {
+			file.delete();
+		}
+	}
+
+	@Test
+	public static void testEmptyFile() throws Exception {
+		File file = File.createTempFile("flatgeobuf", ".fgb");
+		try {
+			new FlatGeobufWriter(file, Geometry.Type.MultiPoint, false, false,
+					null).close();
+			FlatGeobufReader reader = new FlatGeobufReader(file);
+			try {
+				assertEquals(0, reader.getFeatureCount());
+				assertTrue(reader.getExtent().isEmpty());
+				assertNull(reader.getGeometries().next());
+				assertNull(reader.getGeometries(new Envelope2D(0, 0, 1, 1))
+						.next());
+			} finally {
+				reader.close();
+			}
+		} finally {
+			file.delete();
+		}
+	}
+
+	@Test
+	public static void testLevelBounds() {
+		// 1 leaf and the root
+		long[] bounds = FlatGeobuf.levelBounds(1, 16);
+		assertEquals(4, bounds.length);
+		assertEquals(1, bounds[0]);
+		assertEquals(2, bounds[1]);
+		assertEquals(0, bounds[2]);
+		assertEquals(1, bounds[3]);
+
+		// 300 leaves, 19 nodes, 2 nodes and the root
+		bounds = FlatGeobuf.levelBounds(300, 16);
+		assertEquals(8, bounds.length);
+		assertEquals(22, bounds[0]);
+		assertEquals(322, bounds[1]);
+		assertEquals(3, bounds[2]);
+		assertEquals(22, bounds[3]);
+		assertEquals(0, bounds[6]);
+		assertEquals(1, bounds[7]);
+
+		assertEquals(0, FlatGeobuf.hilbert(0, 0));
+	}
+}
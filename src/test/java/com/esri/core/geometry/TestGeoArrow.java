@@ -0,0 +1,198 @@
+/*
+ Copyright 1995-2019 Esri
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+
+ For additional information, contact:
+ Environmental Systems Research Institute, Inc.
+ Attn: Contracts Dept
+ 380 New York Street
+ Redlands, California, USA 92373
+
+ email: contracts@esri.com
+ */
+
+package com.esri.core.geometry;
+
+import java.util.Arrays;
+
+import junit.framework.TestCase;
+
+import org.junit.Test;
+
+public class TestGeoArrow extends TestCase {
+	@Override
+	protected void setUp() throws Exception {
+		super.setUp();
+	}
+
+	@Override
+	protected void tearDown() throws Exception {
+		super.tearDown();
+	}
+
+	private static Geometry fromWkt(String wkt) {
+		return OperatorImportFromWkt.local().execute(0, Geometry.Type.Unknown,
+				wkt, null);
+	}
+
+	private static void checkRoundTrip(GeoArrowColumn.Type type,
+			GeoArrowColumn.Dimensions dimensions, Geometry[] geometries) {
+		GeoArrowColumn column = OperatorExportToGeoArrow.local().execute(type,
+				dimensions, geometries, null);
+		assertEquals(geometries.length, column.getLength());
+		GeometryCursor cursor = OperatorImportFromGeoArrow.local().execute(
+				column, null);
+		for (int i = 0; i < geometries.length; i++) {
+			Geometry geometry = cursor.next();
+			assertEquals(i, cursor.getGeometryID());
+			assertTrue(geometry.equals(geometries[i]));
+			assertTrue(OperatorImportFromGeoArrow.local()
+					.execute(column, i, null).equals(geometries[i]));
+		}
+
+		assertNull(cursor.next());
+	}
+
+	@Test
+	public static void testMultiPolygonLayout() {
+		Geometry[] geometries = {
+				fromWkt("MULTIPOLYGON (((0 0, 10 0, 10 10, 0 10, 0 0), (2 2, 2 4, 4 4, 4 2, 2 2)), ((20 0, 25 0, 25 5, 20 0)))"),
+				new Polygon(),
+				fromWkt("POLYGON ((0 0, 1 0, 1 1, 0 0))") };
+		GeoArrowColumn column = OperatorExportToGeoArrow.local().execute(
+				GeoArrowColumn.Type.MultiPolygon,
+				GeoArrowColumn.Dimensions.XY, geometries, null);
+		assertTrue(Arrays.equals(new int[] { 0, 2, 2, 3 }, column.getOffsets(0)));
+		assertTrue(Arrays.equals(new int[] { 0, 2, 3, 4 }, column.getOffsets(1)));
+		assertTrue(Arrays.equals(new int[] { 0, 5, 10, 14, 18 },
+				column.getOffsets(2)));
+		assertEquals(18, column.getCoordinateCount());
+		assertEquals(36, column.getCoordinates().length);
+
+		// The rings are closed and the exterior rings are counter-clockwise.
+		double[] coordinates = column.getCoordinates();
+		assertEquals(0.0, coordinates[0]);
+		assertEquals(0.0, coordinates[1]);
+		assertEquals(10.0, coordinates[2]);
+		assertEquals(0.0, coordinates[3]);
+		assertEquals(0.0, coordinates[8]);
+		assertEquals(0.0, coordinates[9]);
+
+		checkRoundTrip(GeoArrowColumn.Type.MultiPolygon,
+				GeoArrowColumn.Dimensions.XY, geometries);
+		assertEquals(2, ((Polygon) OperatorImportFromGeoArrow.local().execute(
+				column, 0, null)).getExteriorRingCount());
+
+		try {
+			OperatorExportToGeoArrow.local().execute(
+					GeoArrowColumn.Type.Polygon, GeoArrowColumn.Dimensions.XY,
+					geometries, null);
+			fail();
+		} catch (IllegalArgumentException e) {
+		}
+	}
+
+	@Test
+	public static void testImportFromBuffers() {
+		// Two polygons given in the OGC orientation, the second with a hole.
+		double[] coordinates = { 0, 0, 4, 0, 4, 4, 0, 0, 10, 10, 20, 10, 20,
+				20, 10, 20, 10, 10, 12, 12, 12, 14, 14, 14, 12, 12 };
+		GeoArrowColumn column = new GeoArrowColumn(GeoArrowColumn.Type.Polygon,
+				GeoArrowColumn.Dimensions.XY, 2, coordinates, new int[] { 0,
+						1, 3 }, new int[] { 0, 4, 9, 13 });
+		Geometry expected0 = fromWkt("POLYGON ((0 0, 4 0, 4 4, 0 0))");
+		Geometry expected1 = fromWkt("POLYGON ((10 10, 20 10, 20 20, 10 20, 10 10), (12 12, 12 14, 14 14, 12 12))");
+		Polygon polygon0 = (Polygon) OperatorImportFromGeoArrow.local()
+				.execute(column, 0, null);
+		Polygon polygon1 = (Polygon) OperatorImportFromGeoArrow.local()
+				.execute(column, 1, null);
+		assertEquals(expected0.calculateArea2D(), polygon0.calculateArea2D());
+		assertTrue(GeometryEngine.equals(expected0, polygon0, null));
+		assertTrue(GeometryEngine.equals(expected1, polygon1, null));
+		assertEquals(100.0 - 2.0, polygon1.calculateArea2D());
+		assertEquals(1, polygon1.getExteriorRingCount());
+
+		try {
+			new GeoArrowColumn(GeoArrowColumn.Type.Polygon,
+					GeoArrowColumn.Dimensions.XY, 2, coordinates, new int[] {
+							0, 1, 3 });
+			fail();
+		} catch (IllegalArgumentException e) {
+		}
+
+		try {
+			OperatorImportFromGeoArrow.local().execute(column, 2, null);
+			fail();
+		} catch (IllegalArgumentException e) {
+		}
+	}
+
+	@Test
+	public static void testOtherTypes() {
+		Point pointZ = new Point(1, 2, 3);
+		Point pointZM = new Point(1, 2, 3);
+		pointZM.setM(4);
+		Point emptyZM = new Point();
+		emptyZM.addAttribute(VertexDescription.Semantics.Z);
+		emptyZM.addAttribute(VertexDescription.Semantics.M);
+		checkRoundTrip(GeoArrowColumn.Type.Point,
+				GeoArrowColumn.Dimensions.XYZM, new Geometry[] { pointZM,
+						emptyZM });
+		checkRoundTrip(GeoArrowColumn.Type.Point,
+				GeoArrowColumn.Dimensions.XY, new Geometry[] { new Point(5, 6) });
+
+		checkRoundTrip(GeoArrowColumn.Type.MultiPoint,
+				GeoArrowColumn.Dimensions.XY, new Geometry[] {
+						fromWkt("MULTIPOINT ((1 2), (3 4))"), new MultiPoint(),
+						fromWkt("MULTIPOINT ((5 6))") });
+
+		checkRoundTrip(GeoArrowColumn.Type.MultiLineString,
+				GeoArrowColumn.Dimensions.XYZ, new Geometry[] {
+						fromWkt("MULTILINESTRING Z ((0 0 1, 1 1 2), (2 2 3, 3 3 4, 4 4 5))"),
+						fromWkt("LINESTRING Z (5 5 6, 6 6 7)") });
+		Polyline emptyM = new Polyline();
+		emptyM.addAttribute(VertexDescription.Semantics.M);
+		checkRoundTrip(GeoArrowColumn.Type.LineString,
+				GeoArrowColumn.Dimensions.XYM, new Geometry[] {
+						fromWkt("LINESTRING M (5 5 6, 6 6 7)"), emptyM });
+		checkRoundTrip(GeoArrowColumn.Type.Polygon,
+				GeoArrowColumn.Dimensions.XYZ, new Geometry[] {
+						fromWkt("POLYGON Z ((0 0 1, 10 0 2, 10 10 3, 0 10 4, 0 0 1))") });
+
+		// A point converted to a multipoint column, and a missing Z.
+		GeoArrowColumn column = OperatorExportToGeoArrow.local().execute(
+				GeoArrowColumn.Type.MultiPoint,
+				GeoArrowColumn.Dimensions.XYZ,
+				new Geometry[] { new Point(7, 8) }, null);
+		assertTrue(Arrays.equals(new double[] { 7, 8, 0 },
+				column.getCoordinates()));
+		MultiPoint multiPoint = (MultiPoint) OperatorImportFromGeoArrow
+				.local().execute(column, 0, null);
+		assertEquals(1, multiPoint.getPointCount());
+
+		try {
+			OperatorExportToGeoArrow.local().execute(
+					GeoArrowColumn.Type.Point, GeoArrowColumn.Dimensions.XY,
+					new Geometry[] { new Polyline() }, null);
+			fail();
+		} catch (IllegalArgumentException e) {
+		}
+
+		assertTrue(pointZ.equals(OperatorImportFromGeoArrow.local().execute(
+				OperatorExportToGeoArrow.local().execute(
+						GeoArrowColumn.Type.Point,
+						GeoArrowColumn.Dimensions.XYZ,
+						new Geometry[] { pointZ }, null), 0, null)));
+	}
+}
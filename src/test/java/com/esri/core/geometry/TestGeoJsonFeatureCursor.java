@@ -0,0 +1,200 @@
+/*
+ Copyright 1995-2019 Esri
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+
+ For additional information, contact:
+ Environmental Systems Research Institute, Inc.
+ Attn: Contracts Dept
+ 380 New York Street
+ Redlands, California, USA 92373
+
+ email: contracts@esri.com
+ */
+
+package com.esri.core.geometry;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.Charset;
+
+import junit.framework.TestCase;
+
+import org.junit.Test;
+
+import com.fasterxml.jackson.core.JsonFactory;
+
+public class TestGeoJsonFeatureCursor extends TestCase {
+	private static final Charset UTF8 = Charset.forName("UTF-8");
+
+	private static final String COLLECTION = "{\"type\":\"FeatureCollection\","
+			+ "\"crs\":{\"type\":\"name\",\"properties\":{\"name\":\"EPSG:3857\"}},"
+			+ "\"features\":["
+			+ "{\"type\":\"Feature\",\"id\":\"a\",\"properties\":{\"name\":\"été\",\"n\":[1,{\"x\":2}]},"
+			+ "\"geometry\":{\"type\":\"Point\",\"coordinates\":[1,2]}},"
+			+ "{\"type\":\"Feature\",\"geometry\":null,\"id\":17,\"properties\":null},"
+			+ "{\"geometry\":{\"type\":\"Polygon\",\"coordinates\":[[[0,0],[0,10],[10,10],[10,0],[0,0]]]},"
+			+ "\"type\":\"Feature\",\"bbox\":[0,0,10,10],\"properties\":{}}"
+			+ "],\"bbox\":[0,0,10,10]}";
+
+	@Override
+	protected void setUp() throws Exception {
+		super.setUp();
+	}
+
+	@Override
+	protected void tearDown() throws Exception {
+		super.tearDown();
+	}
+
+	@Test
+	public static void testStream() {
+		byte[] bytes = COLLECTION.getBytes(UTF8);
+		GeoJsonFeatureCursor cursor = OperatorImportFromGeoJson.local()
+				.executeFeatures(0, Geometry.Type.Unknown,
+						new ByteArrayInputStream(bytes), null);
+		assertEquals(3857, cursor.getSpatialReference().getID());
+
+		Geometry geometry = cursor.next();
+		assertEquals(0, cursor.getGeometryID());
+		assertTrue(cursor.hasGeometry());
+		assertTrue(geometry.equals(new Point(1, 2)));
+		assertEquals("a", cursor.getFeatureId());
+		String properties = new String(bytes,
+				(int) cursor.getPropertiesStart(),
+				(int) (cursor.getPropertiesEnd() - cursor.getPropertiesStart()),
+				UTF8);
+		assertEquals("{\"name\":\"été\",\"n\":[1,{\"x\":2}]}",
+				properties);
+
+		geometry = cursor.next();
+		assertEquals(1, cursor.getGeometryID());
+		assertFalse(cursor.hasGeometry());
+		assertTrue(geometry.isEmpty());
+		assertEquals("17", cursor.getFeatureId());
+		assertEquals(-1, cursor.getPropertiesStart());
+		assertEquals(-1, cursor.getPropertiesEnd());
+
+		geometry = cursor.next();
+		assertEquals(Geometry.Type.Polygon, geometry.getType());
+		assertEquals(100.0, ((Polygon) geometry).calculateArea2D());
+		assertNull(cursor.getFeatureId());
+		assertEquals("{}", new String(bytes,
+				(int) cursor.getPropertiesStart(),
+				(int) (cursor.getPropertiesEnd() - cursor.getPropertiesStart()),
+				UTF8));
+
+		assertNull(cursor.next());
+	}
+
+	@Test
+	public static void testParser() throws Exception {
+		GeoJsonFeatureCursor cursor = OperatorImportFromGeoJson.local()
+				.executeFeatures(0, Geometry.Type.Unknown,
+						new JsonFactory().createParser(COLLECTION), null);
+		cursor.next();
+		assertEquals("{\"name\":\"été\",\"n\":[1,{\"x\":2}]}",
+				COLLECTION.substring((int) cursor.getPropertiesStart(),
+						(int) cursor.getPropertiesEnd()));
+		Geometry geometry = cursor.next();
+		assertEquals(Geometry.Type.Point, geometry.getType());
+		assertTrue(geometry.isEmpty());
+
+		cursor = OperatorImportFromGeoJson.local().executeFeatures(0,
+				Geometry.Type.Unknown,
+				new JsonFactory().createParser("{\"type\":\"FeatureCollection\",\"features\":[]}"),
+				null);
+		assertEquals(4326, cursor.getSpatialReference().getID());
+		assertNull(cursor.next());
+
+		try {
+			OperatorImportFromGeoJson.local().executeFeatures(0,
+					Geometry.Type.Unknown,
+					new JsonFactory().createParser("{\"type\":\"Feature\"}"),
+					null);
+			fail();
+		} catch (JsonGeometryException e) {
+		}
+	}
+
+	/**
+	 * Streams a generated collection, which is never held in memory as a
+	 * whole.
+	 */
+	@Test
+	public static void testLargeCollection() {
+		final int count = 100000;
+		InputStream stream = new InputStream() {
+			private byte[] m_chunk = "{\"type\":\"FeatureCollection\",\"features\":["
+					.getBytes(UTF8);
+			private int m_position;
+			private int m_feature;
+
+			@Override
+			public int read() {
+				if (m_position == m_chunk.length) {
+					if (m_feature > count)
+						return -1;
+
+					String s = m_feature == count ? "]}"
+							: (m_feature > 0 ? "," : "")
+									+ "{\"type\":\"Feature\",\"id\":"
+									+ m_feature
+									+ ",\"geometry\":{\"type\":\"LineString\",\"coordinates\":[[0,0],["
+									+ m_feature + ",1]]},\"properties\":{}}";
+					m_chunk = s.getBytes(UTF8);
+					m_position = 0;
+					m_feature++;
+				}
+				return m_chunk[m_position++];
+			}
+		};
+
+		GeoJsonFeatureCursor cursor = OperatorImportFromGeoJson.local()
+				.executeFeatures(GeoJsonImportFlags.geoJsonImportSkipCRS,
+						Geometry.Type.Polyline, stream, null);
+		assertNull(cursor.getSpatialReference());
+		int n = 0;
+		Geometry geometry;
+		while ((geometry = cursor.next()) != null) {
+			assertEquals(n, cursor.getGeometryID());
+			assertEquals(Integer.toString(n), cursor.getFeatureId());
+			assertEquals((double) n, ((Polyline) geometry).getPoint(1).getX());
+			n++;
+		}
+		assertEquals(count, n);
+	}
+
+	@Test
+	public static void testCancel() {
+		final boolean[] cancel = { false };
+		ProgressTracker tracker = new ProgressTracker() {
+			@Override
+			public boolean progress(int step, int totalExpectedSteps) {
+				return !cancel[0];
+			}
+		};
+
+		GeoJsonFeatureCursor cursor = OperatorImportFromGeoJson.local()
+				.executeFeatures(0, Geometry.Type.Unknown,
+						new ByteArrayInputStream(COLLECTION.getBytes(UTF8)),
+						tracker);
+		assertNotNull(cursor.next());
+		cancel[0] = true;
+		try {
+			cursor.next();
+			fail();
+		} catch (UserCancelException e) {
+		}
+	}
+}
@@ -0,0 +1,187 @@
+/*
+ Copyright 1995-2019 Esri
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+
+ For additional information, contact:
+ Environmental Systems Research Institute, Inc.
+ Attn: Contracts Dept
+ 380 New York Street
+ Redlands, California, USA 92373
+
+ email: contracts@esri.com
+ */
+
+package com.esri.core.geometry;
+
+import junit.framework.TestCase;
+
+import org.junit.Test;
+
+public class TestGeodesicBuffer extends TestCase {
+	@Override
+	protected void setUp() throws Exception {
+		super.setUp();
+	}
+
+	@Override
+	protected void tearDown() throws Exception {
+		super.tearDown();
+	}
+
+	private static double geodesicArea_(Geometry geom, SpatialReference sr) {
+		return OperatorGeodeticArea.local().execute(geom, sr,
+				GeodeticCurveType.Geodesic, null);
+	}
+
+	private static void checkCircle_(Polygon circle, Point center,
+			double distance, double deviation) {
+		for (int i = 0, n = circle.getPointCount(); i < n; i++) {
+			double d = GeometryEngine.geodesicDistanceOnWGS84(center,
+					circle.getPoint(i));
+			assertEquals(distance, d, deviation);
+		}
+	}
+
+	@Test
+	public static void testPoint() {
+		SpatialReference sr = SpatialReference.create(4326);
+		Point center = new Point(10, 45);
+		Polygon circle = (Polygon) OperatorGeodesicBuffer.local().execute(
+				center, sr, GeodeticCurveType.Geodesic, 1000, Double.NaN,
+				false, null);
+		assertEquals(96, circle.getPointCount());
+		checkCircle_(circle, center, 1000, 1e-3);
+		assertEquals(Math.PI * 1000 * 1000, geodesicArea_(circle, sr),
+				Math.PI * 1000 * 1000 * 1e-3);
+
+		circle = (Polygon) OperatorGeodesicBuffer.local().execute(center, sr,
+				GeodeticCurveType.Geodesic, 1000, 0.01, false, null);
+		assertTrue(circle.getPointCount() > 96);
+
+		assertTrue(OperatorGeodesicBuffer.local()
+				.execute(center, sr, GeodeticCurveType.Geodesic, -1, Double.NaN,
+						false, null).isEmpty());
+	}
+
+	@Test
+	public static void testPointTemplates() {
+		SpatialReference sr = SpatialReference.create(4326);
+		Point[] points = new Point[200];
+		for (int i = 0; i < points.length; i++)
+			points[i] = new Point(-179 + 1.79 * i, -75 + 0.75 * i);
+
+		double deviation = 0.5;
+		GeometryCursor cursor = OperatorGeodesicBuffer.local().execute(
+				new SimpleGeometryCursor(points), sr,
+				GeodeticCurveType.Geodesic, new double[] { 5000 }, deviation,
+				false, false, null);
+		Geometry geom;
+		int count = 0;
+		while ((geom = cursor.next()) != null) {
+			assertEquals(count, cursor.getGeometryID());
+			checkCircle_((Polygon) geom, points[count], 5000, deviation);
+			count++;
+		}
+
+		assertEquals(points.length, count);
+	}
+
+	@Test
+	public static void testPole() {
+		SpatialReference sr = SpatialReference.create(4326);
+		Polygon circle = (Polygon) OperatorGeodesicBuffer.local().execute(
+				new Point(30, 89.9), sr, GeodeticCurveType.Geodesic, 50000,
+				Double.NaN, false, null);
+		Envelope2D env = new Envelope2D();
+		circle.queryEnvelope2D(env);
+		assertEquals(360, env.getWidth(), 1e-9);
+		assertEquals(90, env.ymax, 1e-12);
+		double area = Math.PI * 50000.0 * 50000.0;
+		assertEquals(area, geodesicArea_(circle, sr), area * 1e-3);
+	}
+
+	@Test
+	public static void testPolyline() {
+		SpatialReference sr = SpatialReference.create(4326);
+		Polyline polyline = new Polyline();
+		polyline.startPath(0, 0);
+		polyline.lineTo(1, 0);
+		polyline.lineTo(1, 1);
+		Polygon buffer = (Polygon) OperatorGeodesicBuffer.local().execute(
+				polyline, sr, GeodeticCurveType.Geodesic, 10000, Double.NaN,
+				false, null);
+		assertEquals(1, buffer.getPathCount());
+		OperatorContains contains = OperatorContains.local();
+		// About 111 m per 0.001 degree.
+		assertTrue(contains.execute(buffer, new Point(0.5, 0.085), sr, null));
+		assertFalse(contains.execute(buffer, new Point(0.5, 0.095), sr, null));
+		assertTrue(contains.execute(buffer, new Point(-0.085, 0), sr, null));
+		assertFalse(contains.execute(buffer, new Point(-0.095, 0), sr, null));
+		assertTrue(contains.execute(buffer, new Point(1.085, 0.5), sr, null));
+		assertFalse(contains.execute(buffer, new Point(1.095, 0.5), sr, null));
+
+		// Across the antimeridian.
+		Polyline crossing = new Polyline();
+		crossing.startPath(179.5, 10);
+		crossing.lineTo(-179.5, 10);
+		buffer = (Polygon) OperatorGeodesicBuffer.local().execute(crossing,
+				sr, GeodeticCurveType.Geodesic, 10000, Double.NaN, false, null);
+		Envelope2D env = new Envelope2D();
+		buffer.queryEnvelope2D(env);
+		assertTrue(env.getWidth() < 2);
+	}
+
+	@Test
+	public static void testPolygon() {
+		SpatialReference sr = SpatialReference.create(4326);
+		Polygon square = new Polygon();
+		square.addEnvelope(new Envelope(0, 0, 1, 1), false);
+		double area = geodesicArea_(square, sr);
+		Geometry grown = OperatorGeodesicBuffer.local().execute(square, sr,
+				GeodeticCurveType.Geodesic, 10000, Double.NaN, false, null);
+		Geometry shrunk = OperatorGeodesicBuffer.local().execute(square, sr,
+				GeodeticCurveType.Geodesic, -10000, Double.NaN, false, null);
+		// The sides are about 111 and 110.6 km long.
+		double perimeter = OperatorGeodeticLength.local().execute(square, sr,
+				GeodeticCurveType.Geodesic, null);
+		double ring = perimeter * 10000;
+		assertEquals(area + ring + Math.PI * 1e8, geodesicArea_(grown, sr),
+				1e-3 * area);
+		assertEquals(area - ring + 4 * 1e8, geodesicArea_(shrunk, sr),
+				1e-3 * area);
+		assertTrue(OperatorGeodesicBuffer.local()
+				.execute(square, sr, GeodeticCurveType.Geodesic, -100000,
+						Double.NaN, false, null).isEmpty());
+	}
+
+	@Test
+	public static void testUnionAndWebMercator() {
+		SpatialReference sr = SpatialReference.create(4326);
+		Point[] points = new Point[] { new Point(10, 45), new Point(10.01, 45) };
+		GeometryCursor cursor = OperatorGeodesicBuffer.local().execute(
+				new SimpleGeometryCursor(points), sr,
+				GeodeticCurveType.Geodesic, new double[] { 1000 }, Double.NaN,
+				false, true, null);
+		Polygon union = (Polygon) cursor.next();
+		assertNull(cursor.next());
+		assertEquals(1, union.getPathCount());
+
+		SpatialReference wm = SpatialReference.create(3857);
+		Geometry projected = OperatorProject.local().execute(points[0],
+				new ProjectionTransformation(sr, wm), null);
+		Geometry circle = OperatorGeodesicBuffer.local().execute(projected,
+				wm, GeodeticCurveType.Geodesic, 1000, Double.NaN, false, null);
+		assertEquals(Math.PI * 1e6, geodesicArea_(circle, wm), Math.PI * 1e3);
+	}
+}
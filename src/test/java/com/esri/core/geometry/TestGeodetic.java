@@ -126,4 +126,152 @@ public class TestGeodetic extends TestCase {
 		 */
 	}
 	
+	@Test
+	public void testGeodesicArea() {
+		SpatialReference sr = SpatialReference.create(4326);
+		Polygon square = new Polygon();
+		square.startPath(0, 0);
+		square.lineTo(0, 1);
+		square.lineTo(1, 1);
+		square.lineTo(1, 0);
+		double area = OperatorGeodeticArea.local().execute(square, sr,
+				GeodeticCurveType.Geodesic, null);
+		assertEquals(12308778361.469, area, 1e-2);
+
+		// Counterclockwise rings have negative area.
+		Polygon reversed = new Polygon();
+		reversed.add(square, true);
+		assertEquals(-area, OperatorGeodeticArea.local().execute(reversed, sr,
+				GeodeticCurveType.Geodesic, null), 1e-3);
+
+		// The same square across the antimeridian.
+		Polygon shifted = new Polygon();
+		shifted.startPath(179.5, 0);
+		shifted.lineTo(179.5, 1);
+		shifted.lineTo(-179.5, 1);
+		shifted.lineTo(-179.5, 0);
+		assertEquals(area, OperatorGeodeticArea.local().execute(shifted, sr,
+				GeodeticCurveType.Geodesic, null), 1e-2);
+
+		// Web Mercator coordinates are on WGS84.
+		Geometry projected = OperatorProject.local().execute(square,
+				new ProjectionTransformation(sr, SpatialReference.create(3857)),
+				null);
+		assertEquals(area, OperatorGeodeticArea.local().execute(projected,
+				SpatialReference.create(3857), GeodeticCurveType.Geodesic,
+				null), 1e-2);
+
+		// A field of about 80 by 110 meters.
+		Polygon field = new Polygon();
+		field.startPath(10, 45);
+		field.lineTo(10, 45.001);
+		field.lineTo(10.001, 45.001);
+		field.lineTo(10.001, 45);
+		assertEquals(8762.3135, OperatorGeodeticArea.local().execute(field,
+				sr, GeodeticCurveType.Geodesic, null), 1e-3);
+
+		// A ring around the north pole, and a ring that is the rest of the
+		// ellipsoid.
+		Polygon cap = new Polygon();
+		cap.startPath(0, 80);
+		cap.lineTo(-90, 80);
+		cap.lineTo(180, 80);
+		cap.lineTo(90, 80);
+		double capArea = OperatorGeodeticArea.local().execute(cap, sr,
+				GeodeticCurveType.Geodesic, null);
+		assertTrue(capArea > 2e12 && capArea < 3e12);
+
+		double[] areas = OperatorGeodeticArea.local().execute(
+				new SimpleGeometryCursor(new Geometry[] { square,
+						new Envelope(0, 0, 1, 1), new Polyline() }), sr,
+				GeodeticCurveType.Geodesic, null);
+		assertEquals(3, areas.length);
+		assertEquals(area, areas[0], 1e-2);
+		assertEquals(area, areas[1], 1e-2);
+		assertEquals(0.0, areas[2]);
+	}
+
+	@Test
+	public void testAngularUnit() {
+		Polyline polyline = new Polyline();
+		polyline.startPath(0, 0);
+		polyline.lineTo(1, 1);
+		SpatialReference degrees = SpatialReference
+				.create("GEOGCS[\"GCS_WGS_1984\",DATUM[\"D_WGS_1984\",SPHEROID[\"WGS_1984\",6378137.0,298.257223563]],PRIMEM[\"Greenwich\",0.0],UNIT[\"Degree\",0.0174532925199433]]");
+		assertEquals(OperatorGeodeticLength.local().execute(polyline,
+				SpatialReference.create(4326), GeodeticCurveType.Geodesic,
+				null), OperatorGeodeticLength.local().execute(polyline,
+				degrees, GeodeticCurveType.Geodesic, null), 1e-9);
+
+		// The gradians and the Paris prime meridian are not supported.
+		SpatialReference[] srs = {
+				SpatialReference
+						.create("GEOGCS[\"GCS_NTF_Paris\",DATUM[\"D_NTF\",SPHEROID[\"Clarke_1880_IGN\",6378249.2,293.4660212936269]],PRIMEM[\"Paris\",2.337229166666667],UNIT[\"Grad\",0.01570796326794897]]"),
+				SpatialReference.create(4807) };
+		for (SpatialReference sr : srs) {
+			assertFalse(Ellipsoid.isGeographic(sr));
+			try {
+				OperatorGeodeticLength.local().execute(polyline, sr,
+						GeodeticCurveType.Geodesic, null);
+				fail();
+			} catch (GeometryException e) {
+			}
+		}
+		assertTrue(Ellipsoid.isGeographic(SpatialReference.create(4326)));
+		assertTrue(Ellipsoid.isGeographic(SpatialReference.create(4818)));
+	}
+
+	@Test
+	public void testGeodesicLength() {
+		SpatialReference sr = SpatialReference.create(4326);
+		Polygon triangle = new Polygon();
+		triangle.startPath(10, 10);
+		triangle.lineTo(20, 20);
+		triangle.lineTo(20, 10);
+		double length = OperatorGeodeticLength.local().execute(triangle, sr,
+				GeodeticCurveType.Geodesic, null);
+		assertEquals(3744719.4094597572, length, 1e-6);
+
+		Polyline polyline = new Polyline();
+		polyline.startPath(10, 10);
+		polyline.lineTo(20, 20);
+		polyline.lineTo(20, 10);
+		assertEquals(
+				length - GeometryEngine.geodesicDistanceOnWGS84(new Point(20, 10),
+						new Point(10, 10)),
+				OperatorGeodeticLength.local().execute(polyline, sr,
+						GeodeticCurveType.Geodesic, null), 1e-6);
+
+		// Along the equator the loxodrome and the geodesic are the same, and
+		// along a meridian too.
+		Polyline equator = new Polyline();
+		equator.startPath(0, 0);
+		equator.lineTo(90, 0);
+		assertEquals(Math.PI * 6378137.0 / 2, OperatorGeodeticLength.local()
+				.execute(equator, sr, GeodeticCurveType.Loxodrome, null), 1e-6);
+		Polyline meridian = new Polyline();
+		meridian.startPath(0, 0);
+		meridian.lineTo(0, 90);
+		assertEquals(10001965.729, OperatorGeodeticLength.local().execute(
+				meridian, sr, GeodeticCurveType.Loxodrome, null), 1e-3);
+		assertEquals(10001965.729, OperatorGeodeticLength.local().execute(
+				meridian, sr, GeodeticCurveType.Geodesic, null), 1e-3);
+
+		// A loxodrome is longer than the geodesic.
+		Polyline diagonal = new Polyline();
+		diagonal.startPath(-70, 40);
+		diagonal.lineTo(10, 50);
+		assertTrue(OperatorGeodeticLength.local().execute(diagonal, sr,
+				GeodeticCurveType.Loxodrome, null) > OperatorGeodeticLength
+				.local().execute(diagonal, sr, GeodeticCurveType.Geodesic, null));
+
+		double[] lengths = OperatorGeodeticLength.local().execute(
+				new SimpleGeometryCursor(new Geometry[] { triangle,
+						new Point(1, 2) }), sr, GeodeticCurveType.Geodesic,
+				null);
+		assertEquals(2, lengths.length);
+		assertEquals(length, lengths[0], 1e-6);
+		assertEquals(0.0, lengths[1]);
+	}
+
 }
@@ -0,0 +1,189 @@
+/*
+ Copyright 1995-2019 Esri
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+
+ For additional information, contact:
+ Environmental Systems Research Institute, Inc.
+ Attn: Contracts Dept
+ 380 New York Street
+ Redlands, California, USA 92373
+
+ email: contracts@esri.com
+ */
+
+package com.esri.core.geometry;
+
+import junit.framework.TestCase;
+
+import org.junit.Test;
+
+public class TestGeodeticDensify extends TestCase {
+	@Override
+	protected void setUp() throws Exception {
+		super.setUp();
+	}
+
+	@Override
+	protected void tearDown() throws Exception {
+		super.tearDown();
+	}
+
+	@Test
+	public static void testGeodesic() {
+		SpatialReference sr = SpatialReference.create(4326);
+		Polyline polyline = new Polyline();
+		polyline.startPath(-70, 40);
+		polyline.lineTo(10, 50);
+		Point start = polyline.getPoint(0);
+		Point end = polyline.getPoint(1);
+		double length = GeometryEngine.geodesicDistanceOnWGS84(start, end);
+		Polyline densified = (Polyline) OperatorGeodeticDensifyByLength
+				.local().execute(polyline, 100000, sr,
+						GeodeticCurveType.Geodesic, null);
+		int n = (int) Math.ceil(length / 100000);
+		assertEquals(n + 1, densified.getPointCount());
+		for (int i = 0; i < densified.getPointCount(); i++) {
+			Point pt = densified.getPoint(i);
+			// The vertices are on the geodesic, evenly spaced.
+			assertEquals(length * i / n,
+					GeometryEngine.geodesicDistanceOnWGS84(start, pt), 1e-6);
+			assertEquals(length,
+					GeometryEngine.geodesicDistanceOnWGS84(start, pt)
+							+ GeometryEngine.geodesicDistanceOnWGS84(pt, end),
+					1e-6);
+		}
+
+		// The reversed segment gets the same vertices.
+		Polyline reversed = new Polyline();
+		reversed.startPath(10, 50);
+		reversed.lineTo(-70, 40);
+		Polyline densifiedReversed = (Polyline) OperatorGeodeticDensifyByLength
+				.local().execute(reversed, 100000, sr,
+						GeodeticCurveType.Geodesic, null);
+		for (int i = 0; i < densified.getPointCount(); i++) {
+			assertTrue(densified.getXY(i).equals(
+					densifiedReversed.getXY(densified.getPointCount() - 1 - i)));
+		}
+
+		// Across the antimeridian the longitudes stay continuous.
+		Polyline crossing = new Polyline();
+		crossing.startPath(170, 0);
+		crossing.lineTo(-170, 10);
+		densified = (Polyline) OperatorGeodeticDensifyByLength.local()
+				.execute(crossing, 50000, sr, GeodeticCurveType.Geodesic, null);
+		for (int i = 1; i < densified.getPointCount() - 1; i++) {
+			double x = densified.getXY(i).x;
+			assertTrue(x > 170 && x < 190);
+		}
+	}
+
+	@Test
+	public static void testAttributesAndRings() {
+		SpatialReference sr = SpatialReference.create(4326);
+		Polygon polygon = new Polygon();
+		polygon.startPath(new Point(0, 0, 0));
+		polygon.lineTo(new Point(0, 1, 10));
+		polygon.lineTo(new Point(1, 1, 20));
+		polygon.lineTo(new Point(1, 0, 30));
+		Polygon densified = (Polygon) OperatorGeodeticDensifyByLength.local()
+				.execute(polygon, 10000, sr, GeodeticCurveType.Geodesic, null);
+		assertEquals(1, densified.getPathCount());
+		assertTrue(densified.isClosedPath(0));
+		assertEquals(4 * 12, densified.getPointCount());
+		// The closing segment goes from z = 30 back to 0.
+		Point pt = densified.getPoint(densified.getPointCount() - 6);
+		assertEquals(15.0, pt.getZ(), 1e-12);
+		assertEquals(polygon.calculateArea2D(),
+				densified.calculateArea2D(), 1e-3);
+		assertTrue(densified.getPoint(0).equals(polygon.getPoint(0)));
+	}
+
+	@Test
+	public static void testLoxodrome() {
+		SpatialReference sr = SpatialReference.create(4326);
+		Polyline polyline = new Polyline();
+		polyline.startPath(-70, 40);
+		polyline.lineTo(10, 50);
+		double length = OperatorGeodeticLength.local().execute(polyline, sr,
+				GeodeticCurveType.Loxodrome, null);
+		Polyline densified = (Polyline) OperatorGeodeticDensifyByLength
+				.local().execute(polyline, 100000, sr,
+						GeodeticCurveType.Loxodrome, null);
+		assertEquals((int) Math.ceil(length / 100000) + 1,
+				densified.getPointCount());
+		assertEquals(length, OperatorGeodeticLength.local().execute(
+				densified, sr, GeodeticCurveType.Loxodrome, null), 1e-3);
+		Point2D end = densified.getXY(densified.getPointCount() - 1);
+		assertTrue(end.equals(new Point2D(10, 50)));
+	}
+
+	@Test
+	public static void testShapePreserving() {
+		SpatialReference sr = SpatialReference.create(4326);
+		Polyline polyline = new Polyline();
+		polyline.startPath(-70, 40);
+		polyline.lineTo(10, 50);
+		Polyline coarse = (Polyline) OperatorShapePreservingDensify.local()
+				.execute(polyline, sr, Double.NaN, 10000, 0, null);
+		Polyline fine = (Polyline) OperatorShapePreservingDensify.local()
+				.execute(polyline, sr, Double.NaN, 100, 0, null);
+		assertTrue(coarse.getPointCount() > 2);
+		assertTrue(fine.getPointCount() > coarse.getPointCount());
+		// The vertices stay on the line in degrees.
+		for (int i = 0; i < fine.getPointCount(); i++) {
+			Point2D pt = fine.getXY(i);
+			assertEquals(40 + (pt.x + 70) / 8, pt.y, 1e-9);
+		}
+
+		Polyline byLength = (Polyline) OperatorShapePreservingDensify.local()
+				.execute(polyline, sr, 100000, Double.NaN, Double.NaN, null);
+		double length = OperatorGeodeticLength.local().execute(polyline, sr,
+				GeodeticCurveType.Geodesic, null);
+		assertEquals((int) Math.ceil(length / 100000) + 1,
+				byLength.getPointCount());
+
+		Point point = new Point(1, 2);
+		assertTrue(OperatorShapePreservingDensify.local().execute(point, sr,
+				100, 100, 0, null) == point);
+
+		try {
+			OperatorShapePreservingDensify.local().execute(polyline, sr, 100,
+					100, 1, null);
+			fail();
+		} catch (IllegalArgumentException e) {
+		}
+	}
+
+	@Test
+	public static void testCursor() {
+		SpatialReference sr = SpatialReference.create(3857);
+		Polyline polyline = new Polyline();
+		polyline.startPath(0, 0);
+		polyline.lineTo(1000000, 1000000);
+		GeometryCursor cursor = OperatorGeodeticDensifyByLength.local()
+				.execute(
+						new SimpleGeometryCursor(new Geometry[] { polyline,
+								new Point(1, 1) }), 50000, sr,
+						GeodeticCurveType.Geodesic, null);
+		Polyline densified = (Polyline) cursor.next();
+		assertEquals(0, cursor.getGeometryID());
+		assertTrue(densified.getPointCount() > 20);
+		Envelope2D env = new Envelope2D();
+		densified.queryEnvelope2D(env);
+		assertEquals(1000000, env.xmax, 1e-6);
+		assertEquals(1000000, env.ymax, 1e-6);
+		assertEquals(Geometry.Type.Point, cursor.next().getType());
+		assertNull(cursor.next());
+	}
+}
@@ -0,0 +1,207 @@
+/*
+ Copyright 1995-2019 Esri
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+
+ For additional information, contact:
+ Environmental Systems Research Institute, Inc.
+ Attn: Contracts Dept
+ 380 New York Street
+ Redlands, California, USA 92373
+
+ email: contracts@esri.com
+ */
+
+package com.esri.core.geometry;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+
+import junit.framework.TestCase;
+
+import org.junit.Test;
+
+public class TestGeometryExternalizer extends TestCase {
+	@Override
+	protected void setUp() throws Exception {
+		super.setUp();
+	}
+
+	@Override
+	protected void tearDown() throws Exception {
+		super.tearDown();
+	}
+
+	private static byte[] serialize(Object object) throws IOException {
+		ByteArrayOutputStream streamOut = new ByteArrayOutputStream();
+		ObjectOutputStream oo = new ObjectOutputStream(streamOut);
+		oo.writeObject(object);
+		oo.close();
+		return streamOut.toByteArray();
+	}
+
+	private static Object deserialize(byte[] bytes) throws Exception {
+		ObjectInputStream ii = new ObjectInputStream(new ByteArrayInputStream(
+				bytes));
+		return ii.readObject();
+	}
+
+	private static Geometry roundTrip(Geometry geometry, boolean compress)
+			throws IOException {
+		ByteArrayOutputStream streamOut = new ByteArrayOutputStream();
+		DataOutputStream out = new DataOutputStream(streamOut);
+		GeometryExternalizer.writeGeometry(geometry, out, compress);
+		out.close();
+		DataInputStream in = new DataInputStream(new ByteArrayInputStream(
+				streamOut.toByteArray()));
+		Geometry result = GeometryExternalizer.readGeometry(in);
+		assertEquals(-1, in.read());
+		return result;
+	}
+
+	private static Polygon createPolygon() {
+		Polygon polygon = new Polygon();
+		polygon.startPath(0, 0);
+		polygon.lineTo(0, 10.25);
+		polygon.lineTo(10.5, 10.25);
+		polygon.lineTo(10.5, 0);
+		polygon.startPath(2, 2);
+		polygon.lineTo(4, 2);
+		polygon.lineTo(4, 4);
+		polygon.startPath(20, 0);
+		polygon.lineTo(20, 5);
+		polygon.lineTo(25, 5);
+		return polygon;
+	}
+
+	@Test
+	public void testJavaSerialization() throws Exception {
+		Polygon polygon = (Polygon) GeometryEngine.simplify(createPolygon(),
+				null);
+		byte[] bytes = serialize(polygon);
+		Polygon result = (Polygon) deserialize(bytes);
+		assertTrue(result.equals(polygon));
+		assertEquals(((MultiPathImpl) polygon._getImpl()).getIsSimple(0),
+				((MultiPathImpl) result._getImpl()).getIsSimple(0));
+
+		// The compact form is smaller than the ESRI shape based one.
+		GenericGeometrySerializer old = new GenericGeometrySerializer();
+		old.setGeometryByValue(polygon);
+		assertTrue(bytes.length < serialize(old).length);
+
+		// The old format can still be read.
+		assertTrue(deserialize(serialize(old)).equals(polygon));
+
+		Polyline polyline = new Polyline();
+		polyline.startPath(1, 2);
+		polyline.lineTo(3, 4);
+		assertTrue(deserialize(serialize(polyline)).equals(polyline));
+		assertTrue(deserialize(serialize(new Polygon())).equals(new Polygon()));
+
+		MultiPoint multiPoint = new MultiPoint();
+		multiPoint.add(1, 2);
+		multiPoint.add(-3, 4.5);
+		assertTrue(deserialize(serialize(multiPoint)).equals(multiPoint));
+	}
+
+	@Test
+	public void testAttributesAndFlags() throws Exception {
+		Polygon polygon = createPolygon();
+		polygon.addAttribute(VertexDescription.Semantics.Z);
+		polygon.addAttribute(VertexDescription.Semantics.M);
+		polygon.addAttribute(VertexDescription.Semantics.ID);
+		for (int i = 0, n = polygon.getPointCount(); i < n; i++) {
+			polygon.setAttribute(VertexDescription.Semantics.Z, i, 0, i * 0.5);
+			polygon.setAttribute(VertexDescription.Semantics.M, i, 0, -i);
+			polygon.setAttribute(VertexDescription.Semantics.ID, i, 0, 1000 - i * 7);
+		}
+
+		((MultiPathImpl) polygon._getImpl()).getPathFlagsStreamRef().setBits(
+				2, (byte) PathFlags.enumOGCStartPolygon);
+
+		for (int k = 0; k < 2; k++) {
+			boolean compress = k == 1;
+			Polygon result = (Polygon) roundTrip(polygon, compress);
+			assertTrue(result.equals(polygon));
+			assertEquals(polygon.getPathCount(), result.getPathCount());
+			for (int i = 0, n = polygon.getPointCount(); i < n; i++) {
+				assertEquals(1000 - i * 7, result.getAttributeAsInt(
+						VertexDescription.Semantics.ID, i, 0));
+			}
+
+			AttributeStreamOfInt8 flags = ((MultiPathImpl) result._getImpl())
+					.getPathFlagsStreamRef();
+			assertTrue((flags.read(2) & PathFlags.enumOGCStartPolygon) != 0);
+			assertTrue((flags.read(0) & PathFlags.enumOGCStartPolygon) == 0);
+
+			Polygon viaJava = (Polygon) deserialize(serialize(new GeometryExternalizer(
+					polygon, compress)));
+			assertTrue(viaJava.equals(polygon));
+		}
+	}
+
+	@Test
+	public void testCompression() throws Exception {
+		Polyline polyline = new Polyline();
+		polyline.startPath(-117.0, 34.0);
+		for (int i = 1; i < 1000; i++)
+			polyline.lineTo(-117.0 + i * 0.001, 34.0 + (i % 7) * 0.0005);
+
+		polyline.lineTo(Double.NaN, 1);
+		polyline.lineTo(-0.0, Double.MIN_VALUE);
+		polyline.lineTo(Double.MAX_VALUE, -Double.MAX_VALUE);
+
+		byte[] plain = serialize(new GeometryExternalizer(polyline, false));
+		byte[] compressed = serialize(new GeometryExternalizer(polyline, true));
+		assertTrue(compressed.length < plain.length);
+
+		Polyline result = (Polyline) roundTrip(polyline, true);
+		for (int i = 0, n = polyline.getPointCount(); i < n; i++) {
+			Point2D expected = polyline.getXY(i);
+			Point2D actual = result.getXY(i);
+			assertEquals(Double.doubleToRawLongBits(expected.x),
+					Double.doubleToRawLongBits(actual.x));
+			assertEquals(Double.doubleToRawLongBits(expected.y),
+					Double.doubleToRawLongBits(actual.y));
+		}
+	}
+
+	@Test
+	public void testOtherTypes() throws Exception {
+		Point point = new Point(1, 2, 3);
+		point.setM(4);
+		assertTrue(roundTrip(point, true).equals(point));
+		assertTrue(roundTrip(new Point(), false).isEmpty());
+
+		Envelope env = new Envelope(1, 2, 3, 4);
+		env.addAttribute(VertexDescription.Semantics.Z);
+		env.setInterval(VertexDescription.Semantics.Z, 0, -1, 5);
+		assertTrue(roundTrip(env, false).equals(env));
+		assertTrue(roundTrip(new Envelope(), false).isEmpty());
+
+		Line line = new Line(1, 2, 3, 4);
+		assertTrue(roundTrip(line, false).equals(line));
+
+		try {
+			GeometryExternalizer.readGeometry(new DataInputStream(
+					new ByteArrayInputStream(new byte[] { 9, 0 })));
+			fail();
+		} catch (IOException e) {
+		}
+	}
+}
@@ -0,0 +1,150 @@
+/*
+ Copyright 1995-2019 Esri
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+
+ For additional information, contact:
+ Environmental Systems Research Institute, Inc.
+ Attn: Contracts Dept
+ 380 New York Street
+ Redlands, California, USA 92373
+
+ email: contracts@esri.com
+ */
+
+package com.esri.core.geometry;
+
+import java.io.ByteArrayOutputStream;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.util.HashMap;
+import java.util.Map;
+
+import junit.framework.TestCase;
+
+import org.junit.Test;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+
+public class TestJsonStreamExport extends TestCase {
+	@Override
+	protected void setUp() throws Exception {
+		super.setUp();
+	}
+
+	@Override
+	protected void tearDown() throws Exception {
+		super.tearDown();
+	}
+
+	/**
+	 * Records the largest single write to check the buffer stays bounded.
+	 */
+	private static final class RecordingWriter extends Writer {
+		final StringBuilder m_text = new StringBuilder();
+		int m_maxWrite;
+
+		@Override
+		public void write(char[] cbuf, int off, int len) {
+			m_maxWrite = Math.max(m_maxWrite, len);
+			m_text.append(cbuf, off, len);
+		}
+
+		@Override
+		public void flush() {
+		}
+
+		@Override
+		public void close() {
+		}
+	}
+
+	private static Polygon largePolygon() {
+		Polygon polygon = new Polygon();
+		for (int ring = 0; ring < 3; ring++) {
+			polygon.startPath(ring * 1000.0 / 3, 0.1);
+			for (int i = 1; i < 3000; i++) {
+				double a = -2 * Math.PI * i / 3000;
+				polygon.lineTo(ring * 1000 + 100 * Math.cos(a) / 7, 100
+						* Math.sin(a) / 3);
+			}
+		}
+		return polygon;
+	}
+
+	@Test
+	public static void testGeoJson() throws Exception {
+		Polygon polygon = largePolygon();
+		SpatialReference sr = SpatialReference.create(4326);
+		OperatorExportToGeoJson op = OperatorExportToGeoJson.local();
+		String expected = op.execute(0, sr, polygon);
+
+		RecordingWriter writer = new RecordingWriter();
+		op.execute(0, sr, polygon, writer);
+		assertEquals(expected, writer.m_text.toString());
+		assertTrue(writer.m_maxWrite < 9000);
+		assertTrue(expected.length() > 100000);
+
+		ByteArrayOutputStream stream = new ByteArrayOutputStream();
+		op.execute(GeoJsonExportFlags.geoJsonExportSkipCRS, null, polygon,
+				stream);
+		assertEquals(op.execute(polygon), new String(stream.toByteArray(),
+				"UTF-8"));
+
+		StringWriter text = new StringWriter();
+		JsonGenerator generator = new JsonFactory().createGenerator(text);
+		generator.writeStartArray();
+		op.execute(0, sr, polygon, generator);
+		op.execute(0, sr, new Point(1.5, -2), generator);
+		generator.writeEndArray();
+		generator.flush();
+		assertEquals("[" + expected + "," + op.execute(0, sr, new Point(1.5, -2))
+				+ "]", text.toString());
+
+		MapGeometry imported = OperatorImportFromGeoJson.local().execute(0,
+				Geometry.Type.Unknown, writer.m_text.toString(), null);
+		assertTrue(imported.getGeometry().equals(polygon));
+	}
+
+	@Test
+	public static void testJson() throws Exception {
+		Polygon polygon = largePolygon();
+		SpatialReference sr = SpatialReference.create(102100);
+		OperatorExportToJson op = OperatorExportToJson.local();
+		String expected = op.execute(sr, polygon);
+
+		RecordingWriter writer = new RecordingWriter();
+		op.execute(sr, polygon, null, writer);
+		assertEquals(expected, writer.m_text.toString());
+		assertTrue(writer.m_maxWrite < 9000);
+
+		Map<String, Object> properties = new HashMap<String, Object>();
+		properties.put("numberOfDecimalsXY", 3);
+		ByteArrayOutputStream stream = new ByteArrayOutputStream();
+		op.execute(sr, polygon, properties, stream);
+		assertEquals(op.execute(sr, polygon, properties), new String(
+				stream.toByteArray(), "UTF-8"));
+
+		StringWriter text = new StringWriter();
+		JsonGenerator generator = new JsonFactory().createGenerator(text);
+		op.execute(sr, polygon, null, generator);
+		generator.flush();
+		assertEquals(expected, text.toString());
+
+		Envelope envelope = new Envelope(1, 2, 3, 4);
+		writer = new RecordingWriter();
+		op.execute(null, envelope, null, writer);
+		assertEquals(op.execute(null, envelope), writer.m_text.toString());
+	}
+}
@@ -0,0 +1,119 @@
+/*
+ Copyright 1995-2019 Esri
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+
+ For additional information, contact:
+ Environmental Systems Research Institute, Inc.
+ Attn: Contracts Dept
+ 380 New York Street
+ Redlands, California, USA 92373
+
+ email: contracts@esri.com
+ */
+
+package com.esri.core.geometry;
+
+import java.nio.ByteBuffer;
+
+import junit.framework.TestCase;
+
+import org.junit.Test;
+
+public class TestLazyGeometry extends TestCase {
+	@Override
+	protected void setUp() throws Exception {
+		super.setUp();
+	}
+
+	@Override
+	protected void tearDown() throws Exception {
+		super.tearDown();
+	}
+
+	private static final String[] WKTS = {
+			"POINT (1 2)",
+			"POINT EMPTY",
+			"MULTIPOINT Z ((1 2 3), (-4 5 6), (7 -8 9))",
+			"LINESTRING M (0 0 1, 10 5 2, 3 -7 3)",
+			"MULTILINESTRING ((0 0, 1 1), (5 5, 6 -6))",
+			"POLYGON ((0 0, 10 0, 10 10, 0 10, 0 0), (2 2, 2 4, 4 4, 4 2, 2 2))",
+			"MULTIPOLYGON ZM (((0 0 1 2, 10 0 1 2, 10 10 1 2, 0 0 1 2)), ((20 -5 1 2, 25 -5 1 2, 25 5 1 2, 20 -5 1 2)))",
+			"POLYGON EMPTY" };
+
+	private static void checkLazy(Geometry expected, LazyGeometry lazy) {
+		assertFalse(lazy.isDecoded());
+		assertEquals(expected.getType(), lazy.getType());
+		assertEquals(expected.isEmpty(), lazy.isEmpty());
+		Envelope2D expectedEnv = new Envelope2D();
+		expected.queryEnvelope2D(expectedEnv);
+		Envelope2D env = new Envelope2D();
+		lazy.queryEnvelope2D(env);
+		if (expected.isEmpty())
+			assertTrue(env.isEmpty());
+		else
+			assertTrue(env.equals(expectedEnv));
+
+		assertFalse(lazy.isDecoded());
+		Geometry geometry = lazy.getGeometry();
+		assertTrue(lazy.isDecoded());
+		assertTrue(geometry.equals(expected));
+		assertSame(geometry, lazy.getGeometry());
+	}
+
+	@Test
+	public static void testWkb() {
+		for (String wkt : WKTS) {
+			Geometry geometry = OperatorImportFromWkt.local().execute(0,
+					Geometry.Type.Unknown, wkt, null);
+			ByteBuffer wkb = OperatorExportToWkb.local().execute(0, geometry,
+					null);
+			Geometry expected = OperatorImportFromWkb.local().execute(0,
+					Geometry.Type.Unknown, wkb, null);
+			checkLazy(expected, OperatorImportFromWkb.local().executeLazy(0,
+					Geometry.Type.Unknown, wkb, null));
+		}
+
+		ByteBuffer wkb = OperatorExportToWkb.local().execute(0,
+				new Point(1, 2), null);
+		LazyGeometry lazy = OperatorImportFromWkb.local().executeLazy(0,
+				Geometry.Type.Polygon, wkb, null);
+		assertEquals(Geometry.Type.Polygon, lazy.getType());
+		try {
+			lazy.getGeometry();
+			fail();
+		} catch (GeometryException e) {
+		}
+	}
+
+	@Test
+	public static void testESRIShape() {
+		for (String wkt : WKTS) {
+			Geometry geometry = OperatorImportFromWkt.local().execute(0,
+					Geometry.Type.Unknown, wkt, null);
+			ByteBuffer shape = ByteBuffer.wrap(GeometryEngine
+					.geometryToEsriShape(geometry));
+			Geometry expected = OperatorImportFromESRIShape.local().execute(0,
+					Geometry.Type.Unknown, shape);
+			checkLazy(expected, OperatorImportFromESRIShape.local()
+					.executeLazy(0, Geometry.Type.Unknown, shape));
+		}
+
+		ByteBuffer nullShape = ByteBuffer.allocate(4);
+		LazyGeometry lazy = OperatorImportFromESRIShape.local().executeLazy(0,
+				Geometry.Type.Unknown, nullShape);
+		assertEquals(Geometry.Type.Unknown, lazy.getType());
+		assertTrue(lazy.isEmpty());
+		assertNull(lazy.getGeometry());
+	}
+}
@@ -0,0 +1,207 @@
+/*
+ Copyright 1995-2019 Esri
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+
+ For additional information, contact:
+ Environmental Systems Research Institute, Inc.
+ Attn: Contracts Dept
+ 380 New York Street
+ Redlands, California, USA 92373
+
+ email: contracts@esri.com
+ */
+
+package com.esri.core.geometry;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import junit.framework.TestCase;
+
+import org.junit.Test;
+
+public class TestMvt extends TestCase {
+	@Override
+	protected void setUp() throws Exception {
+		super.setUp();
+	}
+
+	@Override
+	protected void tearDown() throws Exception {
+		super.tearDown();
+	}
+
+	private static Envelope2D tile(double xmin, double ymin, double xmax,
+			double ymax) {
+		Envelope2D env = new Envelope2D();
+		env.setCoords(xmin, ymin, xmax, ymax);
+		return env;
+	}
+
+	/**
+	 * Decodes the commands to the list of paths, each an array of the
+	 * interleaved tile coordinates.
+	 */
+	private static List<int[]> decode(int[] commands) {
+		List<int[]> paths = new ArrayList<int[]>();
+		int x = 0, y = 0;
+		int[] path = null;
+		for (int i = 0; i < commands.length;) {
+			int id = commands[i] & 0x7;
+			int count = commands[i] >>> 3;
+			i++;
+			if (id == 7) {
+				assertEquals(1, count);
+				continue;
+			}
+
+			for (int j = 0; j < count; j++) {
+				x += (commands[i] >>> 1) ^ -(commands[i] & 1);
+				y += (commands[i + 1] >>> 1) ^ -(commands[i + 1] & 1);
+				i += 2;
+				if (id == 1) {
+					path = new int[] { x, y };
+					paths.add(path);
+				} else {
+					assertEquals(2, id);
+					int[] longer = new int[path.length + 2];
+					System.arraycopy(path, 0, longer, 0, path.length);
+					longer[path.length] = x;
+					longer[path.length + 1] = y;
+					path = longer;
+					paths.set(paths.size() - 1, path);
+				}
+			}
+		}
+		return paths;
+	}
+
+	private static long area2(int[] ring) {
+		long area = 0;
+		int n = ring.length / 2;
+		for (int i = 0; i < n; i++) {
+			int j = (i + 1) % n;
+			area += (long) ring[2 * i] * ring[2 * j + 1] - (long) ring[2 * j]
+					* ring[2 * i + 1];
+		}
+		return area;
+	}
+
+	@Test
+	public static void testPoints() {
+		OperatorExportToMvt op = OperatorExportToMvt.local();
+		int[] commands = op.execute(new Point(25, 17), tile(0, 0, 4096, 4096),
+				4096, 0, null);
+		assertEquals(3, commands.length);
+		assertEquals(9, commands[0]);
+		assertEquals(50, commands[1]);
+		assertEquals(8158, commands[2]);
+
+		MultiPoint multipoint = new MultiPoint();
+		multipoint.add(5, 7);
+		multipoint.add(3, 2);
+		multipoint.add(-10, 2);
+		commands = op.execute(multipoint, tile(0, 0, 10, 10), 10, 1, null);
+		assertEquals(5, commands.length);
+		assertEquals(17, commands[0]);
+		assertEquals(10, commands[1]);
+		assertEquals(6, commands[2]);
+		assertEquals(3, commands[3]);
+		assertEquals(10, commands[4]);
+
+		// The center of the north west tile of the zoom level 1
+		double half = OperatorExportToMvtLocal.WEB_MERCATOR_HALF_WORLD;
+		List<int[]> paths = decode(op.execute(new Point(-half / 2, half / 2),
+				1, 0, 0, 4096, 0, null));
+		assertEquals(1, paths.size());
+		assertEquals(2048, paths.get(0)[0]);
+		assertEquals(2048, paths.get(0)[1]);
+		assertEquals(0, op.execute(new Point(-half / 2, half / 2), 1, 1, 0,
+				4096, 0, null).length);
+		assertEquals(3, OperatorExportToMvt.getMvtGeometryType(Geometry.Type.Envelope));
+	}
+
+	@Test
+	public static void testPolyline() {
+		Polyline polyline = new Polyline();
+		polyline.startPath(-50, 50);
+		polyline.lineTo(50, 50);
+		polyline.lineTo(50, 150);
+		polyline.lineTo(70, 150);
+		polyline.lineTo(70, 80);
+		polyline.lineTo(90, 80);
+		polyline.startPath(200, 200);
+		polyline.lineTo(300, 300);
+
+		List<int[]> paths = decode(OperatorExportToMvt.local().execute(
+				polyline, tile(0, 0, 100, 100), 100, 0, null));
+		assertEquals(2, paths.size());
+		int[] first = paths.get(0);
+		int[] expected = { 0, 50, 50, 50, 50, 0 };
+		assertEquals(expected.length, first.length);
+		for (int i = 0; i < expected.length; i++)
+			assertEquals(expected[i], first[i]);
+
+		int[] second = paths.get(1);
+		expected = new int[] { 70, 0, 70, 20, 90, 20 };
+		assertEquals(expected.length, second.length);
+		for (int i = 0; i < expected.length; i++)
+			assertEquals(expected[i], second[i]);
+	}
+
+	@Test
+	public static void testPolygon() {
+		Polygon polygon = new Polygon();
+		polygon.startPath(10, 10);
+		polygon.lineTo(10, 90);
+		polygon.lineTo(150, 90);
+		polygon.lineTo(150, 10);
+		polygon.startPath(20, 20);
+		polygon.lineTo(40, 20);
+		polygon.lineTo(40, 40);
+		polygon.lineTo(20, 40);
+		polygon.startPath(50.1, 50.1);
+		polygon.lineTo(50.1, 50.2);
+		polygon.lineTo(50.2, 50.2);
+
+		OperatorExportToMvt op = OperatorExportToMvt.local();
+		List<int[]> rings = decode(op.execute(polygon, tile(0, 0, 100, 100),
+				100, 5, null));
+		assertEquals(2, rings.size());
+		assertEquals(2 * 95 * 80, area2(rings.get(0)));
+		assertEquals(-2 * 20 * 20, area2(rings.get(1)));
+		for (int[] ring : rings)
+			for (int i = 0; i < ring.length; i++)
+				assertTrue(ring[i] >= -5 && ring[i] <= 105);
+
+		// A counterclockwise ring is encoded as an exterior.
+		Polygon reversed = new Polygon();
+		reversed.startPath(10, 10);
+		reversed.lineTo(90, 10);
+		reversed.lineTo(90, 90);
+		rings = decode(op.execute(reversed, tile(0, 0, 100, 100), 100, 0,
+				null));
+		assertEquals(1, rings.size());
+		assertTrue(area2(rings.get(0)) > 0);
+
+		Envelope envelope = new Envelope(-1000, -1000, 1000, 1000);
+		rings = decode(op.execute(envelope, tile(0, 0, 100, 100), 4096, 64,
+				null));
+		assertEquals(1, rings.size());
+		assertEquals(2L * 4224 * 4224, area2(rings.get(0)));
+
+		assertEquals(0, op.execute(new Polygon(), tile(0, 0, 100, 100),
+				4096, 64, null).length);
+	}
+}
@@ -0,0 +1,224 @@
+/*
+ Copyright 1995-2019 Esri
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+
+ For additional information, contact:
+ Environmental Systems Research Institute, Inc.
+ Attn: Contracts Dept
+ 380 New York Street
+ Redlands, California, USA 92373
+
+ email: contracts@esri.com
+ */
+
+package com.esri.core.geometry;
+
+import java.io.File;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+
+import junit.framework.TestCase;
+
+import org.junit.Test;
+
+public class TestOffHeapStorage extends TestCase {
+	@Override
+	protected void setUp() throws Exception {
+		super.setUp();
+	}
+
+	@Override
+	protected void tearDown() throws Exception {
+		super.tearDown();
+	}
+
+	@Test
+	public static void testMoveToDirectBuffers() {
+		Polygon polygon = (Polygon) OperatorImportFromWkt.local().execute(0,
+				Geometry.Type.Polygon,
+				"POLYGON Z ((0 0 1, 10 0 2, 10 10 3, 0 10 4, 0 0 1), (2 2 5, 2 4 5, 4 4 5, 4 2 5, 2 2 5))",
+				null);
+		Polygon copy = (Polygon) polygon.copy();
+		OffHeapStorage.moveToDirectBuffers(polygon);
+		assertTrue(OffHeapStorage.isOffHeap(polygon));
+		assertFalse(OffHeapStorage.isOffHeap(copy));
+		assertTrue(polygon.equals(copy));
+		assertEquals(copy.calculateArea2D(), polygon.calculateArea2D());
+		assertEquals(copy.getXY(3), polygon.getXY(3));
+
+		// Editing and copying keep the storage off the heap.
+		polygon.startPath(20, 20);
+		polygon.lineTo(30, 20);
+		polygon.lineTo(30, 30);
+		copy.startPath(20, 20);
+		copy.lineTo(30, 20);
+		copy.lineTo(30, 30);
+		assertTrue(polygon.equals(copy));
+		Polygon polygonCopy = (Polygon) polygon.copy();
+		assertTrue(OffHeapStorage.isOffHeap(polygonCopy));
+		assertTrue(polygonCopy.equals(copy));
+		polygon.reverseAllPaths();
+		copy.reverseAllPaths();
+		assertTrue(polygon.equals(copy));
+		polygon.removePath(0);
+		copy.removePath(0);
+		assertTrue(polygon.equals(copy));
+
+		Geometry simple = OperatorSimplify.local().execute(polygon, null,
+				true, null);
+		assertTrue(simple.equals(OperatorSimplify.local().execute(copy, null,
+				true, null)));
+
+		// A heap stream accepts a direct source.
+		Polyline polyline = new Polyline();
+		polyline.addPath(polygon, 0, true);
+		assertFalse(OffHeapStorage.isOffHeap(polyline));
+		Polyline expected = new Polyline();
+		expected.addPath(copy, 0, true);
+		assertTrue(polyline.equals(expected));
+
+		// An empty geometry has nothing to move.
+		Polyline empty = new Polyline();
+		OffHeapStorage.moveToDirectBuffers(empty);
+		assertTrue(empty.isEmpty());
+		assertFalse(OffHeapStorage.isOffHeap(empty));
+	}
+
+	@Test
+	public static void testDirectStream() {
+		AttributeStreamOfDblDirect stream = new AttributeStreamOfDblDirect(3,
+				1.0);
+		for (int i = 0; i < 100; i++)
+			stream.add(i);
+
+		assertEquals(103, stream.size());
+		assertTrue(stream.capacity() >= 103);
+		assertEquals(1.0, stream.read(2));
+		assertEquals(99.0, stream.read(102));
+
+		stream.resize(105);
+		stream.insertRange(1, -1.0, 2, 103);
+		assertEquals(-1.0, stream.read(2));
+		assertEquals(1.0, stream.read(3));
+		assertEquals(99.0, stream.read(104));
+		stream.eraseRange(1, 2, stream.size());
+		assertEquals(103, stream.size());
+		assertEquals(0.0, stream.read(3));
+		stream.reverseRange(3, 100, 1);
+		assertEquals(99.0, stream.read(3));
+		stream.sort(3, 103);
+		assertEquals(0.0, stream.read(3));
+
+		AttributeStreamOfDbl heap = new AttributeStreamOfDbl(0);
+		heap.addRange(stream, 3, 100, false, 2);
+		assertEquals(98.0, heap.read(0));
+		assertEquals(99.0, heap.read(1));
+		heap.addRange(stream, 5, 2, true, 1);
+		assertEquals(2.0, heap.read(100));
+		assertEquals(3.0, heap.read(101));
+		heap.writeRange(0, 4, stream, 3, false, 2);
+		assertEquals(2.0, heap.read(0));
+		assertEquals(3.0, heap.read(1));
+		assertEquals(0.0, heap.read(2));
+		heap.resize(104);
+		heap.insertRange(1, stream, 100, 2, true, 1, 102);
+		assertEquals(97.0, heap.read(1));
+		assertEquals(98.0, heap.read(2));
+		assertEquals(3.0, heap.read(3));
+		AttributeStreamOfDbl heapCopy = new AttributeStreamOfDbl(stream);
+		assertTrue(heapCopy.equals(stream, 0, 103));
+		AttributeStreamBase clone = stream.restrictedClone(10);
+		assertTrue(clone instanceof AttributeStreamOfDblDirect);
+		assertTrue(stream.equals(clone, 0, 10));
+	}
+
+	@Test
+	public static void testMapFile() throws Exception {
+		File file = File.createTempFile("offheap", ".bin");
+		try {
+			RandomAccessFile raf = new RandomAccessFile(file, "rw");
+			try {
+				FileChannel channel = raf.getChannel();
+				ByteBuffer buffer = ByteBuffer.allocate(8 + 10 * 16).order(
+						ByteOrder.LITTLE_ENDIAN);
+				buffer.putDouble(-1);
+				double[] coords = { 0, 0, 0, 10, 10, 10, 10, 0, 20, 20, 30,
+						30, 40, 20, 50, 50, 60, 50, 70, 70 };
+				for (double coord : coords)
+					buffer.putDouble(coord);
+
+				buffer.flip();
+				channel.write(buffer, 0);
+
+				MultiPoint multiPoint = OffHeapStorage.mapMultiPoint(channel,
+						FileChannel.MapMode.READ_ONLY, 8, 10,
+						ByteOrder.LITTLE_ENDIAN);
+				assertTrue(OffHeapStorage.isOffHeap(multiPoint));
+				assertEquals(10, multiPoint.getPointCount());
+				assertEquals(new Point2D(70, 70), multiPoint.getXY(9));
+				Envelope2D env = new Envelope2D();
+				multiPoint.queryEnvelope2D(env);
+				assertEquals(new Envelope2D(0, 0, 70, 70), env);
+				try {
+					multiPoint.setXY(0, new Point2D(1, 1));
+					fail();
+				} catch (RuntimeException e) {
+				}
+
+				Polygon polygon = (Polygon) OffHeapStorage.mapMultiPath(true,
+						new int[] { 0, 4 }, channel,
+						FileChannel.MapMode.READ_ONLY, 8,
+						ByteOrder.LITTLE_ENDIAN);
+				assertEquals(1, polygon.getPathCount());
+				assertEquals(100.0, polygon.calculateArea2D());
+				assertTrue(polygon.isClosedPath(0));
+
+				Polyline polyline = (Polyline) OffHeapStorage.mapMultiPath(
+						false, new int[] { 0, 4, 7, 10 }, channel,
+						FileChannel.MapMode.READ_WRITE, 8,
+						ByteOrder.LITTLE_ENDIAN);
+				assertEquals(3, polyline.getPathCount());
+				assertEquals(3, polyline.getPathSize(2));
+				assertFalse(polyline.isClosedPath(0));
+				polyline.setXY(9, new Point2D(80, 80));
+				ByteBuffer check = ByteBuffer.allocate(16).order(
+						ByteOrder.LITTLE_ENDIAN);
+				channel.read(check, 8 + 9 * 16);
+				assertEquals(80.0, check.getDouble(0));
+				assertEquals(80.0, check.getDouble(8));
+
+				// Growing a mapped geometry detaches the last chunk from the
+				// file.
+				polyline.lineTo(90, 90);
+				assertEquals(11, polyline.getPointCount());
+				assertEquals(new Point2D(80, 80), polyline.getXY(9));
+				assertEquals(file.length(), 8 + 10 * 16);
+
+				try {
+					OffHeapStorage.mapMultiPath(false, new int[] { 1, 4 },
+							channel, FileChannel.MapMode.READ_ONLY, 8,
+							ByteOrder.LITTLE_ENDIAN);
+					fail();
+				} catch (IllegalArgumentException e) {
+				}
+			} finally {
+				raf.close();
+			}
+		} finally {
+			file.delete();
+		}
+	}
+}
@@ -0,0 +1,249 @@
+/*
+ Copyright 1995-2019 Esri
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+
+ For additional information, contact:
+ Environmental Systems Research Institute, Inc.
+ Attn: Contracts Dept
+ 380 New York Street
+ Redlands, California, USA 92373
+
+ email: contracts@esri.com
+ */
+
+package com.esri.core.geometry;
+
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import junit.framework.TestCase;
+
+import org.junit.Test;
+
+public class TestParallelGeometryCursor extends TestCase {
+	@Override
+	protected void setUp() throws Exception {
+		super.setUp();
+	}
+
+	@Override
+	protected void tearDown() throws Exception {
+		super.tearDown();
+	}
+
+	@Test
+	public static void testMatchesSerialBuffer() {
+		final SpatialReference sr = SpatialReference.create(4326);
+		Random random = new Random(11);
+		Geometry[] points = new Geometry[300];
+		for (int i = 0; i < points.length; i++)
+			points[i] = new Point(random.nextDouble() * 100, random.nextDouble() * 100);
+
+		GeometryCursor serial = OperatorBuffer.local().execute(new SimpleGeometryCursor(points), sr,
+				new double[] { 1.5 }, false, null);
+
+		ExecutorService executor = Executors.newFixedThreadPool(4);
+		try {
+			GeometryCursor parallel = new ParallelGeometryCursor(new SimpleGeometryCursor(points),
+					new ParallelGeometryCursor.GeometryFunction() {
+						@Override
+						public Geometry execute(Geometry geometry) {
+							return OperatorBuffer.local().execute(geometry, sr, 1.5, null);
+						}
+					}, executor, 8);
+
+			int count = 0;
+			Geometry expected;
+			while ((expected = serial.next()) != null) {
+				Geometry actual = parallel.next();
+				assertNotNull(actual);
+				assertEquals(serial.getGeometryID(), parallel.getGeometryID());
+				assertTrue(expected.equals(actual));
+				count++;
+			}
+
+			assertNull(parallel.next());
+			assertEquals(points.length, count);
+		} finally {
+			executor.shutdown();
+		}
+	}
+
+	@Test
+	public static void testOrderAndWindow() {
+		final Random random = new Random(3);
+		final AtomicInteger inFlight = new AtomicInteger();
+		final AtomicInteger maxSeen = new AtomicInteger();
+		final int[] delays = new int[100];
+		Geometry[] points = new Geometry[delays.length];
+		for (int i = 0; i < delays.length; i++) {
+			delays[i] = random.nextInt(3);
+			points[i] = new Point(i, 0);
+		}
+
+		ExecutorService executor = Executors.newFixedThreadPool(6);
+		try {
+			GeometryCursor cursor = new ParallelGeometryCursor(new SimpleGeometryCursor(points),
+					new ParallelGeometryCursor.GeometryFunction() {
+						@Override
+						public Geometry execute(Geometry geometry) {
+							int n = inFlight.incrementAndGet();
+							while (true) {
+								int max = maxSeen.get();
+								if (n <= max || maxSeen.compareAndSet(max, n))
+									break;
+							}
+
+							try {
+								Thread.sleep(delays[(int) ((Point) geometry).getX()]);
+							} catch (InterruptedException e) {
+								throw new RuntimeException(e);
+							}
+
+							inFlight.decrementAndGet();
+							return geometry;
+						}
+					}, executor, 4);
+
+			for (int i = 0; i < points.length; i++) {
+				Geometry geom = cursor.next();
+				assertEquals(i, cursor.getGeometryID());
+				assertEquals((double) i, ((Point) geom).getX());
+			}
+
+			assertNull(cursor.next());
+			assertTrue(maxSeen.get() <= 4);
+		} finally {
+			executor.shutdown();
+		}
+	}
+
+	@Test
+	public static void testException() {
+		Geometry[] points = new Geometry[] { new Point(0, 0), new Point(1, 0), new Point(2, 0) };
+		ExecutorService executor = Executors.newFixedThreadPool(2);
+		try {
+			GeometryCursor cursor = new ParallelGeometryCursor(new SimpleGeometryCursor(points),
+					new ParallelGeometryCursor.GeometryFunction() {
+						@Override
+						public Geometry execute(Geometry geometry) {
+							if (((Point) geometry).getX() == 1)
+								throw new GeometryException("test");
+
+							return geometry;
+						}
+					}, executor, 2);
+
+			assertNotNull(cursor.next());
+			try {
+				cursor.next();
+				fail();
+			} catch (GeometryException e) {
+				assertEquals("test", e.getMessage());
+			}
+
+			assertNull(cursor.next());
+		} finally {
+			executor.shutdown();
+		}
+	}
+
+	@Test
+	public static void testNullResultAndInterrupt() {
+		Geometry[] points = new Geometry[] { new Point(0, 0), new Point(1, 0), new Point(2, 0) };
+		ExecutorService executor = Executors.newFixedThreadPool(2);
+		try {
+			GeometryCursor cursor = new ParallelGeometryCursor(new SimpleGeometryCursor(points),
+					new ParallelGeometryCursor.GeometryFunction() {
+						@Override
+						public Geometry execute(Geometry geometry) {
+							return ((Point) geometry).getX() == 0 ? null : geometry;
+						}
+					}, executor, 2);
+
+			try {
+				cursor.next();
+				fail();
+			} catch (GeometryException e) {
+			}
+
+			assertNull(cursor.next());
+
+			final CountDownLatch latch = new CountDownLatch(1);
+			cursor = new ParallelGeometryCursor(new SimpleGeometryCursor(points),
+					new ParallelGeometryCursor.GeometryFunction() {
+						@Override
+						public Geometry execute(Geometry geometry) {
+							try {
+								latch.await();
+							} catch (InterruptedException e) {
+								Thread.currentThread().interrupt();
+							}
+							return geometry;
+						}
+					}, executor, 2);
+
+			Thread.currentThread().interrupt();
+			try {
+				cursor.next();
+				fail();
+			} catch (UserCancelException e) {
+				assertTrue(Thread.interrupted());
+			} finally {
+				latch.countDown();
+			}
+		} finally {
+			executor.shutdown();
+		}
+	}
+
+	@Test
+	public static void testRejectedTask() {
+		Geometry[] points = new Geometry[] { new Point(0, 0), new Point(1, 0), new Point(2, 0) };
+		final AtomicInteger executions = new AtomicInteger();
+		// Rejects the second task and runs the others in the calling thread.
+		Executor executor = new Executor() {
+			@Override
+			public void execute(Runnable command) {
+				if (executions.incrementAndGet() == 2)
+					throw new RejectedExecutionException();
+
+				command.run();
+			}
+		};
+		GeometryCursor cursor = new ParallelGeometryCursor(new SimpleGeometryCursor(points),
+				new ParallelGeometryCursor.GeometryFunction() {
+					@Override
+					public Geometry execute(Geometry geometry) {
+						return geometry;
+					}
+				}, executor, 2);
+
+		try {
+			cursor.next();
+			fail();
+		} catch (RejectedExecutionException e) {
+		}
+
+		// The rejected task is not waited for.
+		assertEquals(0.0, ((Point) cursor.next()).getX());
+		assertEquals(2.0, ((Point) cursor.next()).getX());
+		assertNull(cursor.next());
+	}
+}
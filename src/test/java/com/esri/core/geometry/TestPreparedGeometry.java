@@ -0,0 +1,186 @@
+/*
+ Copyright 1995-2019 Esri
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+
+ For additional information, contact:
+ Environmental Systems Research Institute, Inc.
+ Attn: Contracts Dept
+ 380 New York Street
+ Redlands, California, USA 92373
+
+ email: contracts@esri.com
+ */
+
+package com.esri.core.geometry;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import junit.framework.TestCase;
+
+import org.junit.Test;
+
+public class TestPreparedGeometry extends TestCase {
+	@Override
+	protected void setUp() throws Exception {
+		super.setUp();
+	}
+
+	@Override
+	protected void tearDown() throws Exception {
+		super.tearDown();
+	}
+
+	private static Polygon makeStar(int pointCount) {
+		Polygon polygon = new Polygon();
+		for (int i = 0; i < pointCount; i++) {
+			double angle = -2 * Math.PI * i / pointCount;
+			double r = (i % 2 == 0) ? 100 : 60;
+			if (i == 0)
+				polygon.startPath(r * Math.cos(angle), r * Math.sin(angle));
+			else
+				polygon.lineTo(r * Math.cos(angle), r * Math.sin(angle));
+		}
+		return polygon;
+	}
+
+	@Test
+	public void testMatchesOperators() {
+		Polygon polygon = makeStar(200);
+		SpatialReference sr = SpatialReference.create(4326);
+		PreparedGeometry prepared = PreparedGeometry.create(polygon, sr,
+				Geometry.GeometryAccelerationDegree.enumHot);
+		assertTrue(prepared.isAccelerated());
+		assertTrue(prepared.getType() == Geometry.Type.Polygon);
+
+		Random random = new Random(1973);
+		for (int i = 0; i < 2000; i++) {
+			double x = 240 * random.nextDouble() - 120;
+			double y = 240 * random.nextDouble() - 120;
+			Point point = new Point(x, y);
+			boolean contains = OperatorContains.local().execute(polygon, point, sr, null);
+			boolean intersects = OperatorIntersects.local().execute(polygon, point, sr, null);
+			assertEquals(contains, prepared.contains(point));
+			assertEquals(contains, prepared.contains(x, y));
+			assertEquals(intersects, prepared.intersects(point));
+			assertEquals(intersects, prepared.intersects(x, y));
+			assertEquals(!intersects, prepared.disjoint(point));
+		}
+
+		Polyline line = new Polyline();
+		line.startPath(-200, 0);
+		line.lineTo(200, 0);
+		assertTrue(prepared.intersects(line));
+		assertTrue(prepared.crosses(line));
+		assertFalse(prepared.contains(line));
+		assertTrue(prepared.relate(line, "T********"));
+
+		Polygon inner = new Polygon();
+		inner.addEnvelope(new Envelope(-10, -10, 10, 10), false);
+		assertTrue(prepared.contains(inner));
+		assertFalse(prepared.within(inner));
+		assertFalse(prepared.overlaps(inner));
+		assertFalse(prepared.touches(inner));
+	}
+
+	@Test
+	public void testIsolatedFromSource() {
+		Polygon polygon = makeStar(100);
+		PreparedGeometry prepared = PreparedGeometry.create(polygon, null);
+		assertTrue(prepared.contains(0, 0));
+
+		// Moving the source must not change the prepared geometry.
+		Transformation2D shift = new Transformation2D();
+		shift.setShift(1000, 1000);
+		polygon.applyTransformation(shift);
+		assertTrue(prepared.contains(0, 0));
+		assertFalse(prepared.contains(1000, 1000));
+
+		// Nor must modifying the copy returned by getGeometry.
+		Polygon copy = (Polygon) prepared.getGeometry();
+		copy.applyTransformation(shift);
+		assertTrue(prepared.contains(0, 0));
+		assertTrue(prepared.isAccelerated());
+	}
+
+	@Test
+	public void testNonAccelerated() {
+		PreparedGeometry prepared = PreparedGeometry.create(new Point(1, 2), null);
+		assertFalse(prepared.isAccelerated());
+		assertTrue(prepared.intersects(new Point(1, 2)));
+		assertTrue(prepared.disjoint(new Point(3, 2)));
+
+		Envelope2D env = new Envelope2D();
+		prepared.queryEnvelope2D(env);
+		assertTrue(env.xmin == 1 && env.ymin == 2);
+
+		MultiPoint multiPoint = new MultiPoint();
+		multiPoint.add(0, 0);
+		multiPoint.add(10, 10);
+		prepared = PreparedGeometry.create(multiPoint, null);
+		assertTrue(prepared.contains(10, 10));
+		assertFalse(prepared.contains(5, 5));
+	}
+
+	@Test
+	public void testConcurrentQueries() throws Exception {
+		final Polygon polygon = makeStar(500);
+		final SpatialReference sr = SpatialReference.create(4326);
+		final PreparedGeometry prepared = PreparedGeometry.create(polygon, sr,
+				Geometry.GeometryAccelerationDegree.enumHot);
+
+		final int count = 5000;
+		final double[] xy = new double[2 * count];
+		final boolean[] expected = new boolean[count];
+		Random random = new Random(2019);
+		for (int i = 0; i < count; i++) {
+			xy[2 * i] = 240 * random.nextDouble() - 120;
+			xy[2 * i + 1] = 240 * random.nextDouble() - 120;
+			expected[i] = OperatorContains.local().execute(polygon,
+					new Point(xy[2 * i], xy[2 * i + 1]), sr, null);
+		}
+
+		ExecutorService executor = Executors.newFixedThreadPool(8);
+		try {
+			List<Future<Integer>> results = new ArrayList<Future<Integer>>();
+			for (int t = 0; t < 16; t++) {
+				results.add(executor.submit(new Callable<Integer>() {
+					@Override
+					public Integer call() {
+						int mismatches = 0;
+						for (int i = 0; i < count; i++) {
+							Point point = new Point(xy[2 * i], xy[2 * i + 1]);
+							if (prepared.contains(point) != expected[i])
+								mismatches++;
+							if (prepared.intersects(xy[2 * i], xy[2 * i + 1]) == prepared
+									.disjoint(point))
+								mismatches++;
+						}
+						return mismatches;
+					}
+				}));
+			}
+
+			for (Future<Integer> result : results)
+				assertEquals(0, result.get().intValue());
+		} finally {
+			executor.shutdown();
+		}
+	}
+}
@@ -0,0 +1,174 @@
+/*
+ Copyright 1995-2019 Esri
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+
+ For additional information, contact:
+ Environmental Systems Research Institute, Inc.
+ Attn: Contracts Dept
+ 380 New York Street
+ Redlands, California, USA 92373
+
+ email: contracts@esri.com
+ */
+
+package com.esri.core.geometry;
+
+import junit.framework.TestCase;
+
+import org.junit.Test;
+
+public class TestProject extends TestCase {
+	@Override
+	protected void setUp() throws Exception {
+		super.setUp();
+	}
+
+	@Override
+	protected void tearDown() throws Exception {
+		super.tearDown();
+	}
+
+	@Test
+	public static void testWebMercatorPoint() {
+		SpatialReference gcs = SpatialReference.create(4326);
+		SpatialReference pcs = SpatialReference.create(3857);
+		ProjectionTransformation transform = new ProjectionTransformation(gcs,
+				pcs);
+		Point point = (Point) OperatorProject.local().execute(
+				new Point(180, 0), transform, null);
+		assertEquals(20037508.342789244, point.getX(), 1e-6);
+		assertEquals(0, point.getY(), 1e-6);
+
+		point = (Point) OperatorProject.local().execute(new Point(-45, 60),
+				transform, null);
+		Point back = (Point) OperatorProject.local().execute(point,
+				transform.getReverse(), null);
+		assertEquals(-45, back.getX(), 1e-10);
+		assertEquals(60, back.getY(), 1e-10);
+
+		// Latitudes beyond the Web Mercator limit are clamped.
+		point = (Point) OperatorProject.local().execute(new Point(0, 90),
+				transform, null);
+		assertEquals(20037508.342789244, point.getY(), 1e-3);
+
+		// 102100 is the old id of 3857.
+		ProjectionTransformation identity = new ProjectionTransformation(pcs,
+				SpatialReference.create(102100));
+		assertTrue(identity.isIdentity());
+	}
+
+	@Test
+	public static void testProjectMultiPath() {
+		ProjectionTransformation transform = new ProjectionTransformation(
+				SpatialReference.create(4326), SpatialReference.create(3857));
+		Polygon polygon = new Polygon();
+		polygon.startPath(-10, -10);
+		polygon.lineTo(-10, 10);
+		polygon.lineTo(10, 10);
+		polygon.lineTo(10, -10);
+		Polygon projected = (Polygon) OperatorProject.local().execute(polygon,
+				transform, null);
+		assertEquals(-10.0, polygon.getPoint(0).getX());
+		assertEquals(4, projected.getPointCount());
+		Envelope2D env = new Envelope2D();
+		projected.queryEnvelope2D(env);
+		assertEquals(ProjectionTransformation.longitudeToWebMercatorX(10),
+				env.xmax, 1e-6);
+		assertEquals(ProjectionTransformation.latitudeToWebMercatorY(10),
+				env.ymax, 1e-6);
+
+		double[] coords = new double[] { -10, -10, 10, 10 };
+		OperatorProject.local().transform(transform, coords, 2);
+		assertEquals(env.xmin, coords[0], 1e-6);
+		assertEquals(env.ymax, coords[3], 1e-6);
+
+		SimpleGeometryCursor cursor = new SimpleGeometryCursor(
+				new Geometry[] { polygon, new Point(1, 1) });
+		GeometryCursor result = OperatorProject.local().execute(cursor,
+				transform, null);
+		assertTrue(result.next().equals(projected));
+		assertEquals(0, result.getGeometryID());
+		assertNotNull(result.next());
+		assertNull(result.next());
+	}
+
+	@Test
+	public static void testFoldInto360Range() {
+		SpatialReference sr = SpatialReference.create(4326);
+		Point point = (Point) OperatorProject.local().foldInto360Range(
+				new Point(190, 5), sr);
+		assertEquals(-170, point.getX(), 1e-12);
+
+		Polyline polyline = new Polyline();
+		polyline.startPath(170, 0);
+		polyline.lineTo(190, 10);
+		Polyline folded = (Polyline) OperatorProject.local()
+				.foldInto360Range(polyline, sr);
+		assertEquals(2, folded.getPathCount());
+		Envelope2D env = new Envelope2D();
+		folded.queryEnvelope2D(env);
+		assertEquals(-180, env.xmin, 1e-12);
+		assertEquals(180, env.xmax, 1e-12);
+		assertEquals(polyline.calculateLength2D(), folded.calculateLength2D(),
+				1e-9);
+
+		Polygon polygon = (Polygon) OperatorProject.local().foldInto360Range(
+				new Envelope(170, -10, 200, 10), sr);
+		assertEquals(2, polygon.getPathCount());
+		assertEquals(600, polygon.calculateArea2D(), 1e-9);
+
+		Polygon inside = new Polygon();
+		inside.addEnvelope(new Envelope(-10, -10, 10, 10), false);
+		assertTrue(OperatorProject.local().foldInto360Range(inside, sr) == inside);
+
+		// The Paris based systems in gradians do not fold at 180 degrees.
+		int[] gradians = { 4807, 4902 };
+		for (int wkid : gradians) {
+			try {
+				OperatorProject.local().foldInto360Range(new Point(190, 5),
+						SpatialReference.create(wkid));
+				fail();
+			} catch (IllegalArgumentException e) {
+			}
+		}
+	}
+
+	@Test
+	public static void testFoldInto360RangeGeodetic() {
+		SpatialReference sr = SpatialReference.create(4326);
+		Polyline polyline = new Polyline();
+		polyline.startPath(170, 40);
+		polyline.lineTo(190, 40);
+		Polyline folded = (Polyline) OperatorProject.local()
+				.foldInto360RangeGeodetic(polyline, sr,
+						GeodeticCurveType.Geodesic);
+		assertEquals(2, folded.getPathCount());
+		// The geodesic bulges toward the pole, so the fold vertex is north of
+		// the end points.
+		Point2D end = folded.getXY(folded.getPathEnd(0) - 1);
+		assertEquals(180, Math.abs(end.x), 1e-12);
+		assertTrue(end.y > 40.2);
+
+		// A loxodrome along a parallel stays on it.
+		folded = (Polyline) OperatorProject.local().foldInto360RangeGeodetic(
+				polyline, sr, GeodeticCurveType.Loxodrome);
+		end = folded.getXY(folded.getPathEnd(0) - 1);
+		assertEquals(40, end.y, 1e-9);
+
+		folded = (Polyline) OperatorProject.local().foldInto360RangeGeodetic(
+				polyline, sr, GeodeticCurveType.ShapePreserving);
+		end = folded.getXY(folded.getPathEnd(0) - 1);
+		assertEquals(40, end.y, 1e-12);
+	}
+}
@@ -455,6 +455,104 @@ public class TestQuadTree extends TestCase {
 	}
 
 
+	@Test
+	public static void testNearestIterator() {
+		for (int dup = 0; dup < 2; dup++) {
+			boolean bStoreDuplicates = dup == 1;
+			Random random = new Random(1973 + dup);
+			QuadTree quadTree = new QuadTree(Envelope2D.construct(0, 0, 1000, 1000), 8, bStoreDuplicates);
+			int count = 2000;
+			Envelope2D[] boxes = new Envelope2D[count];
+			for (int i = 0; i < count; i++) {
+				double x = random.nextDouble() * 990;
+				double y = random.nextDouble() * 990;
+				boxes[i] = Envelope2D.construct(x, y, x + random.nextDouble() * 10, y + random.nextDouble() * 10);
+				quadTree.insert(i, boxes[i]);
+			}
+
+			for (int q = 0; q < 20; q++) {
+				Point2D pt = new Point2D(random.nextDouble() * 1200 - 100, random.nextDouble() * 1200 - 100);
+				double maxDistance = q % 2 == 0 ? Double.POSITIVE_INFINITY : 50;
+				int expectedCount = 0;
+				for (int i = 0; i < count; i++) {
+					if (boxes[i].distance(pt) <= maxDistance)
+						expectedCount++;
+				}
+
+				QuadTree.QuadTreeNearestIterator iter = quadTree.getNearestIterator(pt, maxDistance);
+				Set<Integer> seen = new java.util.HashSet<Integer>();
+				double previous = 0;
+				for (int handle = iter.next(); handle != -1; handle = iter.next()) {
+					int element = quadTree.getElement(handle);
+					assertTrue(seen.add(element));
+					double distance = boxes[element].distance(pt);
+					assertEquals(distance, iter.getDistance(), 1e-12);
+					assertTrue(distance >= previous);
+					assertTrue(distance <= maxDistance);
+					previous = distance;
+				}
+
+				assertEquals(expectedCount, seen.size());
+			}
+		}
+
+		QuadTree empty = new QuadTree(Envelope2D.construct(0, 0, 1, 1), 4);
+		assertEquals(-1, empty.getNearestIterator(new Point2D(0, 0), Double.POSITIVE_INFINITY).next());
+	}
+
+	@Test
+	public static void testNearestIteratorWithDistanceFunction() {
+		// Long diagonal segments have big bounding boxes, so the box distance
+		// alone gives a wrong order.
+		final Polyline polyline = new Polyline();
+		Random random = new Random(7);
+		for (int i = 0; i < 300; i++) {
+			double x = random.nextDouble() * 900;
+			double y = random.nextDouble() * 900;
+			polyline.startPath(x, y);
+			polyline.lineTo(x + 100 * random.nextDouble(), y + 100 * random.nextDouble());
+		}
+
+		MultiPathImpl polylineImpl = (MultiPathImpl) polyline._getImpl();
+		final QuadTree quadTree = buildQuadTree_(polylineImpl, false);
+		final Point query = new Point(450, 450);
+		final OperatorDistance distanceOp = OperatorDistance.local();
+		QuadTree.DistanceFunction distanceFunction = new QuadTree.DistanceFunction() {
+			@Override
+			public double distance(int elementHandle) {
+				int vertexIndex = quadTree.getElement(elementHandle);
+				Polyline segment = new Polyline();
+				segment.addSegment(polyline.querySegmentIteratorAtVertex(vertexIndex).nextSegment(), true);
+				return distanceOp.execute(segment, query, null);
+			}
+		};
+
+		double[] expected = new double[polyline.getSegmentCount()];
+		SegmentIterator segIter = polyline.querySegmentIterator();
+		int k = 0;
+		while (segIter.nextPath()) {
+			while (segIter.hasNextSegment()) {
+				Polyline segment = new Polyline();
+				segment.addSegment(segIter.nextSegment(), true);
+				expected[k++] = distanceOp.execute(segment, query, null);
+			}
+		}
+		java.util.Arrays.sort(expected);
+
+		QuadTree.QuadTreeNearestIterator iter = quadTree.getNearestIterator(query, 200, distanceFunction);
+		int n = 0;
+		for (int handle = iter.next(); handle != -1; handle = iter.next()) {
+			assertEquals(expected[n], iter.getDistance(), 1e-9);
+			assertEquals(expected[n], distanceFunction.distance(handle), 1e-9);
+			n++;
+		}
+
+		int expectedCount = 0;
+		while (expectedCount < expected.length && expected[expectedCount] <= 200)
+			expectedCount++;
+		assertEquals(expectedCount, n);
+	}
+
 	public static Polyline makePolyline() {
 		Polyline poly = new Polyline();
 
@@ -0,0 +1,184 @@
+/*
+ Copyright 1995-2019 Esri
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+
+ For additional information, contact:
+ Environmental Systems Research Institute, Inc.
+ Attn: Contracts Dept
+ 380 New York Street
+ Redlands, California, USA 92373
+
+ email: contracts@esri.com
+ */
+
+package com.esri.core.geometry;
+
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+
+import junit.framework.TestCase;
+
+import org.junit.Test;
+
+public class TestSTRTree extends TestCase {
+	@Override
+	protected void setUp() throws Exception {
+		super.setUp();
+	}
+
+	@Override
+	protected void tearDown() throws Exception {
+		super.tearDown();
+	}
+
+	@Test
+	public static void testEmpty() {
+		STRTree tree = new STRTree();
+		tree.insert(0, new Envelope2D()); // empty box is ignored
+		tree.build();
+		assertEquals(0, tree.getElementCount());
+		assertEquals(0, tree.getHeight());
+		STRTree.STRTreeIterator iter = tree.getIterator(Envelope2D.construct(-1, -1, 1, 1), 0);
+		assertEquals(-1, iter.next());
+		assertFalse(tree.hasData(Envelope2D.construct(-1, -1, 1, 1), 0));
+	}
+
+	@Test
+	public static void testInvalidCalls() {
+		STRTree tree = new STRTree();
+		tree.insert(1, Envelope2D.construct(0, 0, 1, 1));
+		try {
+			tree.getIterator();
+			fail();
+		} catch (GeometryException e) {
+		}
+
+		tree.build();
+		try {
+			tree.insert(2, Envelope2D.construct(0, 0, 1, 1));
+			fail();
+		} catch (GeometryException e) {
+		}
+
+		try {
+			new STRTree(1);
+			fail();
+		} catch (IllegalArgumentException e) {
+		}
+	}
+
+	@Test
+	public static void testRandomBoxes() {
+		int[] counts = { 1, 2, 15, 16, 17, 255, 256, 257, 5000 };
+		int[] capacities = { 2, 4, 16 };
+		for (int count : counts) {
+			for (int capacity : capacities) {
+				checkRandomBoxes_(count, capacity, count * 31 + capacity);
+			}
+		}
+	}
+
+	@Test
+	public static void testSegmentQuery() {
+		Polyline polyline = new Polyline();
+		polyline.startPath(0, 0);
+		for (int i = 1; i <= 100; i++)
+			polyline.lineTo(i, (i % 2) * 10);
+
+		STRTree tree = new STRTree(4);
+		SegmentIterator segIter = polyline.querySegmentIterator();
+		segIter.nextPath();
+		Envelope2D env = new Envelope2D();
+		while (segIter.hasNextSegment()) {
+			Segment seg = segIter.nextSegment();
+			seg.queryEnvelope2D(env);
+			tree.insert(segIter.getStartPointIndex(), env);
+		}
+		tree.build();
+		assertEquals(100, tree.getElementCount());
+
+		// The envelope of the diagonal covers every segment, but the diagonal
+		// itself leaves the segment boxes at x = 10.
+		Line query = new Line(0, 0, 100, 100);
+		Set<Integer> expected = new HashSet<Integer>();
+		Envelope2D inflated = new Envelope2D();
+		Point2D a = new Point2D(), b = new Point2D();
+		for (int i = 0; i < 100; i++) {
+			polyline.getXY(i, a);
+			polyline.getXY(i + 1, b);
+			inflated.setCoords(Math.min(a.x, b.x), Math.min(a.y, b.y), Math.max(a.x, b.x), Math.max(a.y, b.y));
+			Point2D s = query.getStartXY(), e = query.getEndXY();
+			if (inflated.clipLine(s, e) > 0)
+				expected.add(i);
+		}
+
+		Set<Integer> actual = new HashSet<Integer>();
+		STRTree.STRTreeIterator iter = tree.getIterator(query, 0);
+		for (int h = iter.next(); h != -1; h = iter.next())
+			assertTrue(actual.add(tree.getElement(h)));
+
+		assertEquals(expected, actual);
+		Envelope2D queryEnv = new Envelope2D();
+		query.queryEnvelope2D(queryEnv);
+		assertTrue(actual.size() < tree.getIntersectionCount(queryEnv, 0, -1));
+	}
+
+	private static void checkRandomBoxes_(int count, int capacity, long seed) {
+		Random random = new Random(seed);
+		Envelope2D[] boxes = new Envelope2D[count];
+		STRTree tree = new STRTree(capacity);
+		for (int i = 0; i < count; i++) {
+			double x = random.nextDouble() * 1000;
+			double y = random.nextDouble() * 1000;
+			boxes[i] = Envelope2D.construct(x, y, x + random.nextDouble() * 20, y + random.nextDouble() * 20);
+			tree.insert(i, boxes[i]);
+		}
+		tree.build();
+		assertEquals(count, tree.getElementCount());
+
+		Set<Integer> all = new HashSet<Integer>();
+		STRTree.STRTreeIterator iter = tree.getIterator(tree.getDataExtent(), 0);
+		for (int h = iter.next(); h != -1; h = iter.next()) {
+			assertTrue(all.add(tree.getElement(h)));
+			assertTrue(tree.getElementExtent(h).equals(boxes[tree.getElement(h)]));
+		}
+		assertEquals(count, all.size());
+
+		for (int q = 0; q < 50; q++) {
+			double x = random.nextDouble() * 1000;
+			double y = random.nextDouble() * 1000;
+			Envelope2D query = Envelope2D.construct(x, y, x + random.nextDouble() * 100, y + random.nextDouble() * 100);
+			double tolerance = q % 2 == 0 ? 0 : 1;
+			Envelope2D inflated = new Envelope2D();
+			inflated.setCoords(query);
+			inflated.inflate(tolerance, tolerance);
+
+			Set<Integer> expected = new HashSet<Integer>();
+			for (int i = 0; i < count; i++) {
+				if (inflated.isIntersecting(boxes[i]))
+					expected.add(i);
+			}
+
+			Set<Integer> actual = new HashSet<Integer>();
+			iter.resetIterator(query, tolerance);
+			for (int h = iter.next(); h != -1; h = iter.next())
+				assertTrue(actual.add(tree.getElement(h)));
+
+			assertEquals(expected, actual);
+			assertEquals(expected.size(), tree.getIntersectionCount(query, tolerance, -1));
+			assertEquals(!expected.isEmpty(), tree.hasData(query, tolerance));
+		}
+	}
+}
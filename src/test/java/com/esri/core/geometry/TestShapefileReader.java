@@ -0,0 +1,307 @@
+/*
+ Copyright 1995-2019 Esri
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+
+ For additional information, contact:
+ Environmental Systems Research Institute, Inc.
+ Attn: Contracts Dept
+ 380 New York Street
+ Redlands, California, USA 92373
+
+ email: contracts@esri.com
+ */
+
+package com.esri.core.geometry;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.ArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Callable;
+
+import junit.framework.TestCase;
+
+import org.junit.Test;
+
+public class TestShapefileReader extends TestCase {
+	@Override
+	protected void setUp() throws Exception {
+		super.setUp();
+	}
+
+	@Override
+	protected void tearDown() throws Exception {
+		super.tearDown();
+	}
+
+	private static ArrayList<Geometry> createPolygons(int count) {
+		ArrayList<Geometry> polygons = new ArrayList<Geometry>();
+		for (int i = 0; i < count; i++) {
+			if (i % 10 == 7) {
+				polygons.add(null);
+				continue;
+			}
+
+			Polygon polygon = new Polygon();
+			polygon.startPath(i, 0);
+			polygon.lineTo(i, 1);
+			polygon.lineTo(i + 1, 1);
+			polygon.lineTo(i + 1, 0);
+			polygons.add(polygon);
+		}
+		return polygons;
+	}
+
+	// Writes the shapefile by hand, null entries become null shapes.
+	static void writeShapefile(File shpFile, int shapeType,
+			ArrayList<Geometry> geometries) throws IOException {
+		ArrayList<ByteBuffer> records = new ArrayList<ByteBuffer>();
+		int shpLength = 100;
+		Envelope2D extent = new Envelope2D();
+		extent.setEmpty();
+		for (Geometry geometry : geometries) {
+			ByteBuffer record;
+			if (geometry == null) {
+				record = ByteBuffer.allocate(4);
+			} else {
+				record = OperatorExportToESRIShape.local().execute(0, geometry);
+				Envelope2D env = new Envelope2D();
+				geometry.queryEnvelope2D(env);
+				extent.merge(env);
+			}
+			records.add(record);
+			shpLength += 8 + record.capacity();
+		}
+
+		ByteBuffer shp = ByteBuffer.allocate(shpLength);
+		ByteBuffer shx = ByteBuffer.allocate(100 + 8 * records.size());
+		writeHeader(shp, shapeType, shpLength, extent);
+		writeHeader(shx, shapeType, shx.capacity(), extent);
+		int offset = 100;
+		for (int i = 0; i < records.size(); i++) {
+			ByteBuffer record = records.get(i);
+			shx.order(ByteOrder.BIG_ENDIAN);
+			shx.putInt(100 + 8 * i, offset / 2);
+			shx.putInt(104 + 8 * i, record.capacity() / 2);
+			shp.order(ByteOrder.BIG_ENDIAN);
+			shp.putInt(offset, i + 1);
+			shp.putInt(offset + 4, record.capacity() / 2);
+			for (int j = 0; j < record.capacity(); j++)
+				shp.put(offset + 8 + j, record.get(j));
+			offset += 8 + record.capacity();
+		}
+
+		write(shpFile, shp);
+		write(ShapefileReader.indexFile_(shpFile), shx);
+	}
+
+	private static void writeHeader(ByteBuffer buffer, int shapeType,
+			int length, Envelope2D extent) {
+		buffer.order(ByteOrder.BIG_ENDIAN);
+		buffer.putInt(0, 9994);
+		buffer.putInt(24, length / 2);
+		buffer.order(ByteOrder.LITTLE_ENDIAN);
+		buffer.putInt(28, 1000);
+		buffer.putInt(32, shapeType);
+		buffer.putDouble(36, extent.xmin);
+		buffer.putDouble(44, extent.ymin);
+		buffer.putDouble(52, extent.xmax);
+		buffer.putDouble(60, extent.ymax);
+	}
+
+	private static void write(File file, ByteBuffer buffer) throws IOException {
+		FileOutputStream out = new FileOutputStream(file);
+		try {
+			out.write(buffer.array());
+		} finally {
+			out.close();
+		}
+	}
+
+	private static void deleteShapefile(File shpFile) {
+		shpFile.delete();
+		ShapefileReader.indexFile_(shpFile).delete();
+	}
+
+	private static void checkGeometry(Geometry expected, Geometry actual) {
+		if (expected == null) {
+			assertEquals(Geometry.Type.Polygon, actual.getType());
+			assertTrue(actual.isEmpty());
+		} else {
+			assertTrue(expected.equals(actual));
+		}
+	}
+
+	@Test
+	public static void testRead() throws Exception {
+		ArrayList<Geometry> polygons = createPolygons(100);
+		File shpFile = File.createTempFile("shapefile", ".shp");
+		try {
+			writeShapefile(shpFile, ShapeType.ShapePolygon, polygons);
+			ShapefileReader reader = new ShapefileReader(shpFile);
+			try {
+				assertEquals(100, reader.getRecordCount());
+				assertEquals(Geometry.Type.Polygon, reader.getGeometryType());
+				assertFalse(reader.hasZ());
+				assertFalse(reader.hasM());
+				Envelope2D extent = reader.getExtent();
+				assertEquals(0.0, extent.xmin);
+				assertEquals(100.0, extent.xmax);
+
+				GeometryCursor cursor = reader.getGeometries();
+				int count = 0;
+				Geometry geometry;
+				while ((geometry = cursor.next()) != null) {
+					count++;
+					assertEquals(count, cursor.getGeometryID());
+					checkGeometry(polygons.get(count - 1), geometry);
+				}
+				assertEquals(100, count);
+
+				// random access
+				checkGeometry(polygons.get(41), reader.getGeometry(42));
+				checkGeometry(polygons.get(7), reader.getGeometry(8));
+
+				cursor = reader.getGeometries(95, 3);
+				assertNotNull(cursor.next());
+				assertEquals(95, cursor.getGeometryID());
+				assertNotNull(cursor.next());
+				assertNotNull(cursor.next());
+				assertEquals(97, cursor.getGeometryID());
+				assertNull(cursor.next());
+			} finally {
+				reader.close();
+			}
+		} finally {
+			deleteShapefile(shpFile);
+		}
+	}
+
+	@Test
+	public static void testSplit() throws Exception {
+		final ArrayList<Geometry> polygons = createPolygons(1001);
+		File shpFile = File.createTempFile("shapefile", ".shp");
+		ExecutorService executor = Executors.newFixedThreadPool(4);
+		try {
+			writeShapefile(shpFile, ShapeType.ShapePolygon, polygons);
+			ShapefileReader reader = new ShapefileReader(shpFile);
+			try {
+				GeometryCursor[] cursors = reader.split(4);
+				assertEquals(4, cursors.length);
+				ArrayList<Future<Integer>> futures = new ArrayList<Future<Integer>>();
+				for (final GeometryCursor cursor : cursors) {
+					futures.add(executor.submit(new Callable<Integer>() {
+						@Override
+						public Integer call() {
+							int count = 0;
+							Geometry geometry;
+							while ((geometry = cursor.next()) != null) {
+								checkGeometry(
+										polygons.get(cursor.getGeometryID() - 1),
+										geometry);
+								count++;
+							}
+							return count;
+						}
+					}));
+				}
+
+				int total = 0;
+				for (Future<Integer> future : futures)
+					total += future.get();
+				assertEquals(1001, total);
+			} finally {
+				reader.close();
+			}
+		} finally {
+			executor.shutdown();
+			deleteShapefile(shpFile);
+		}
+	}
+
+	@Test
+	public static void testOver2GB() throws Exception {
+		// A sparse file with the records around and past the 2GB offset.
+		ArrayList<Geometry> polygons = createPolygons(5);
+		File shpFile = File.createTempFile("shapefile", ".shp");
+		try {
+			long offset = Integer.MAX_VALUE - 99;
+			ByteBuffer shx = ByteBuffer.allocate(100 + 8 * polygons.size());
+			RandomAccessFile shp = new RandomAccessFile(shpFile, "rw");
+			try {
+				for (int i = 0; i < polygons.size(); i++) {
+					ByteBuffer record = OperatorExportToESRIShape.local()
+							.execute(0, polygons.get(i));
+					ByteBuffer header = ByteBuffer.allocate(8);
+					header.putInt(0, i + 1);
+					header.putInt(4, record.capacity() / 2);
+					shx.putInt(100 + 8 * i, (int) (offset / 2));
+					shx.putInt(104 + 8 * i, record.capacity() / 2);
+					shp.seek(offset);
+					shp.write(header.array());
+					shp.write(record.array());
+					offset += 8 + record.capacity();
+				}
+
+				ByteBuffer header = ByteBuffer.allocate(100);
+				writeHeader(header, ShapeType.ShapePolygon, 0, new Envelope2D(
+						0, 0, 5, 1));
+				shp.seek(0);
+				shp.write(header.array());
+			} finally {
+				shp.close();
+			}
+			writeHeader(shx, ShapeType.ShapePolygon, shx.capacity(),
+					new Envelope2D(0, 0, 5, 1));
+			write(ShapefileReader.indexFile_(shpFile), shx);
+
+			ShapefileReader reader = new ShapefileReader(shpFile);
+			try {
+				assertEquals(5, reader.getRecordCount());
+				GeometryCursor cursor = reader.getGeometries();
+				for (int i = 0; i < polygons.size(); i++) {
+					checkGeometry(polygons.get(i), cursor.next());
+					checkGeometry(polygons.get(i), reader.getGeometry(i + 1));
+				}
+				assertNull(cursor.next());
+			} finally {
+				reader.close();
+			}
+		} finally {
+			deleteShapefile(shpFile);
+		}
+	}
+
+	@Test
+	public static void testInvalid() throws Exception {
+		File shpFile = File.createTempFile("shapefile", ".shp");
+		try {
+			write(shpFile, ByteBuffer.allocate(100));
+			write(ShapefileReader.indexFile_(shpFile), ByteBuffer.allocate(100));
+			try {
+				new ShapefileReader(shpFile);
+				fail();
+			} catch (GeometryException e) {
+			}
+		} finally {
+			deleteShapefile(shpFile);
+		}
+	}
+}
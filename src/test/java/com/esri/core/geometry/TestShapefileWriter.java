@@ -0,0 +1,317 @@
+/*
+ Copyright 1995-2019 Esri
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+
+ For additional information, contact:
+ Environmental Systems Research Institute, Inc.
+ Attn: Contracts Dept
+ 380 New York Street
+ Redlands, California, USA 92373
+
+ email: contracts@esri.com
+ */
+
+package com.esri.core.geometry;
+
+import java.io.File;
+import java.util.ArrayList;
+
+import junit.framework.TestCase;
+
+import org.junit.Test;
+
+import com.esri.core.geometry.VertexDescription.Semantics;
+
+public class TestShapefileWriter extends TestCase {
+	@Override
+	protected void setUp() throws Exception {
+		super.setUp();
+	}
+
+	@Override
+	protected void tearDown() throws Exception {
+		super.tearDown();
+	}
+
+	private static void deleteShapefile(File shpFile) {
+		shpFile.delete();
+		ShapefileReader.indexFile_(shpFile).delete();
+	}
+
+	@Test
+	public static void testRoundTrip() throws Exception {
+		ArrayList<Geometry> polylines = new ArrayList<Geometry>();
+		for (int i = 0; i < 5000; i++) {
+			Polyline polyline = new Polyline();
+			polyline.startPath(i, -i);
+			polyline.lineTo(i + 1, -i + 2);
+			polyline.lineTo(i + 3, -i);
+			polylines.add(polyline);
+		}
+
+		// Larger than the write buffer.
+		Polyline large = new Polyline();
+		large.startPath(0, 0);
+		for (int i = 1; i < 100000; i++)
+			large.lineTo(i * 0.01, i % 3);
+		polylines.add(large);
+		polylines.add(new Polyline());
+
+		File shpFile = File.createTempFile("shapefile", ".shp");
+		try {
+			ShapefileWriter writer = new ShapefileWriter(shpFile,
+					Geometry.Type.Polyline, false, false);
+			try {
+				assertEquals(polylines.size(), writer.write(
+						new SimpleGeometryCursor(polylines)));
+				assertEquals(polylines.size(), writer.getRecordCount());
+			} finally {
+				writer.close();
+			}
+
+			ShapefileReader reader = new ShapefileReader(shpFile);
+			try {
+				assertEquals(polylines.size(), reader.getRecordCount());
+				assertEquals(Geometry.Type.Polyline, reader.getGeometryType());
+				Envelope2D extent = reader.getExtent();
+				assertEquals(0.0, extent.xmin);
+				assertEquals(-4999.0, extent.ymin);
+				assertEquals(5002.0, extent.xmax);
+				assertEquals(2.0, extent.ymax);
+
+				GeometryCursor cursor = reader.getGeometries();
+				Geometry geometry;
+				int count = 0;
+				while ((geometry = cursor.next()) != null) {
+					assertTrue(polylines.get(count).equals(geometry));
+					count++;
+				}
+				assertEquals(polylines.size(), count);
+			} finally {
+				reader.close();
+			}
+		} finally {
+			deleteShapefile(shpFile);
+		}
+	}
+
+	@Test
+	public static void testZ() throws Exception {
+		File shpFile = File.createTempFile("shapefile", ".shp");
+		try {
+			ShapefileWriter writer = new ShapefileWriter(shpFile,
+					Geometry.Type.Point, true, false);
+			try {
+				writer.write(new Point(1, 2, 3));
+				writer.write((Geometry) null);
+				writer.write(new Point(4, 5, -6));
+				try {
+					writer.write(new Polyline());
+					writer.write(new MultiPoint());
+				} catch (GeometryException e) {
+					fail();
+				}
+				try {
+					Polyline polyline = new Polyline();
+					polyline.startPath(0, 0);
+					polyline.lineTo(1, 1);
+					writer.write(polyline);
+					fail();
+				} catch (GeometryException e) {
+				}
+			} finally {
+				writer.close();
+			}
+
+			ShapefileReader reader = new ShapefileReader(shpFile);
+			try {
+				assertEquals(5, reader.getRecordCount());
+				assertTrue(reader.hasZ());
+				assertTrue(reader.hasM());
+				Point point = (Point) reader.getGeometry(1);
+				assertEquals(1.0, point.getX());
+				assertEquals(2.0, point.getY());
+				assertEquals(3.0, point.getZ());
+				assertTrue(point.hasAttribute(Semantics.M));
+				assertTrue(reader.getGeometry(2).isEmpty());
+				point = (Point) reader.getGeometry(3);
+				assertEquals(-6.0, point.getZ());
+				assertTrue(reader.getGeometry(5).isEmpty());
+			} finally {
+				reader.close();
+			}
+		} finally {
+			deleteShapefile(shpFile);
+		}
+	}
+
+	@Test
+	public static void testZWithoutMs() throws Exception {
+		Polyline polyline = new Polyline();
+		polyline.startPath(new Point(0, 0, 1));
+		polyline.lineTo(new Point(1, 0, 2));
+		polyline.lineTo(new Point(1, 1, 3));
+		polyline.closePathWithLine();
+		polyline.startPath(new Point(5, 5, 4));
+		polyline.lineTo(new Point(6, 6, 5));
+		MultiPoint multiPoint = new MultiPoint();
+		multiPoint.add(new Point(1, 2, 3));
+		multiPoint.add(new Point(4, 5, 6));
+		Polygon polygon = new Polygon();
+		polygon.addEnvelope(new Envelope(0, 0, 10, 10), false);
+		polygon.addEnvelope(new Envelope(2, 2, 4, 4), true);
+		polygon.setAttribute(Semantics.Z, 3, 0, 7);
+		Envelope envelope = new Envelope(1, 1, 2, 2);
+		envelope.addAttribute(Semantics.Z);
+		envelope.setInterval(Semantics.Z, 0, 3, 4);
+
+		Geometry[][] files = { { polyline }, { multiPoint },
+				{ polygon, envelope }, { new Point(1, 2, 3) } };
+		for (Geometry[] geometries : files) {
+			File shpFile = File.createTempFile("shapefile", ".shp");
+			try {
+				Geometry.Type type = geometries[0].getType();
+				ShapefileWriter writer = new ShapefileWriter(shpFile, type,
+						true, false);
+				try {
+					for (Geometry geometry : geometries)
+						writer.write(geometry);
+				} finally {
+					writer.close();
+				}
+
+				// The records match the export of the geometries with the m
+				// values added.
+				long length = ShapefileReader.HEADER_SIZE;
+				ShapefileReader reader = new ShapefileReader(shpFile);
+				try {
+					for (int i = 0; i < geometries.length; i++) {
+						Geometry expected = geometries[i].copy();
+						expected.addAttribute(Semantics.M);
+						length += ShapefileReader.RECORD_HEADER_SIZE
+								+ OperatorExportToESRIShape.local()
+										.execute(0, expected).capacity();
+						if (expected.getType() == Geometry.Type.Envelope) {
+							Polygon p = new Polygon(expected.getDescription());
+							p.addEnvelope((Envelope) expected, false);
+							expected = p;
+						}
+
+						Geometry geometry = reader.getGeometry(i + 1);
+						assertTrue(geometry.hasAttribute(Semantics.M));
+						// The closed polyline paths come back with the closing
+						// vertex.
+						assertEquals(GeometryEngine.geometryToWkt(expected, 0),
+								GeometryEngine.geometryToWkt(geometry, 0));
+					}
+				} finally {
+					reader.close();
+				}
+
+				assertEquals(length, shpFile.length());
+			} finally {
+				deleteShapefile(shpFile);
+			}
+		}
+	}
+
+	@Test
+	public static void testMissingAttributes() throws Exception {
+		Polyline small = new Polyline();
+		small.startPath(0, 0);
+		small.lineTo(1, 0);
+		small.lineTo(1, 1);
+		Polyline large = new Polyline();
+		large.startPath(0, 0);
+		for (int i = 1; i < 100; i++)
+			large.lineTo(i, i % 7);
+		Polyline closed = new Polyline();
+		closed.startPath(0, 0);
+		closed.lineTo(1, 0);
+		closed.lineTo(1, 1);
+		closed.closePathWithLine();
+		Polyline measured = (Polyline) large.copy();
+		measured.addAttribute(Semantics.M);
+		for (int i = 0; i < measured.getPointCount(); i++)
+			measured.setAttribute(Semantics.M, i, 0, i);
+		MultiPoint multiPoint = new MultiPoint();
+		multiPoint.add(1, 2);
+		multiPoint.add(3, 4);
+		MultiPoint measuredMultiPoint = (MultiPoint) multiPoint.copy();
+		measuredMultiPoint.addAttribute(Semantics.M);
+		measuredMultiPoint.setAttribute(Semantics.M, 1, 0, 5);
+		Polygon polygon = new Polygon();
+		polygon.addEnvelope(new Envelope(0, 0, 10, 10), false);
+		polygon.addEnvelope(new Envelope(2, 2, 4, 4), true);
+		Point measuredPoint = new Point(1, 2);
+		measuredPoint.setM(3);
+
+		Geometry[][] files = { { small, large, closed, measured },
+				{ multiPoint, measuredMultiPoint },
+				{ polygon, new Envelope(1, 1, 2, 2) },
+				{ new Point(1, 2), measuredPoint } };
+		for (int hasZs = 0; hasZs < 2; hasZs++) {
+			for (Geometry[] geometries : files) {
+				File shpFile = File.createTempFile("shapefile", ".shp");
+				try {
+					Geometry.Type type = geometries[0].getType();
+					ShapefileWriter writer = new ShapefileWriter(shpFile,
+							type, hasZs == 1, true);
+					try {
+						for (Geometry geometry : geometries)
+							writer.write(geometry);
+					} finally {
+						writer.close();
+					}
+
+					// The records match the export of the geometries with the
+					// missing attributes added.
+					long length = ShapefileReader.HEADER_SIZE;
+					ShapefileReader reader = new ShapefileReader(shpFile);
+					try {
+						for (int i = 0; i < geometries.length; i++) {
+							Geometry expected = geometries[i].copy();
+							if (hasZs == 1)
+								expected.addAttribute(Semantics.Z);
+							expected.addAttribute(Semantics.M);
+							length += ShapefileReader.RECORD_HEADER_SIZE
+									+ OperatorExportToESRIShape.local()
+											.execute(0, expected).capacity();
+							if (expected.getType() == Geometry.Type.Envelope) {
+								Polygon p = new Polygon(
+										expected.getDescription());
+								p.addEnvelope((Envelope) expected, false);
+								expected = p;
+							}
+
+							Geometry geometry = reader.getGeometry(i + 1);
+							assertEquals(hasZs == 1,
+									geometry.hasAttribute(Semantics.Z));
+							assertTrue(geometry.hasAttribute(Semantics.M));
+							assertEquals(
+									GeometryEngine.geometryToWkt(expected, 0),
+									GeometryEngine.geometryToWkt(geometry, 0));
+						}
+					} finally {
+						reader.close();
+					}
+
+					assertEquals(length, shpFile.length());
+				} finally {
+					deleteShapefile(shpFile);
+				}
+			}
+		}
+	}
+}
@@ -0,0 +1,196 @@
+/*
+ Copyright 1995-2019 Esri
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+
+ For additional information, contact:
+ Environmental Systems Research Institute, Inc.
+ Attn: Contracts Dept
+ 380 New York Street
+ Redlands, California, USA 92373
+
+ email: contracts@esri.com
+ */
+
+package com.esri.core.geometry;
+
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+
+import junit.framework.TestCase;
+
+import org.junit.Test;
+
+public class TestSpatialJoin extends TestCase {
+	@Override
+	protected void setUp() throws Exception {
+		super.setUp();
+	}
+
+	@Override
+	protected void tearDown() throws Exception {
+		super.tearDown();
+	}
+
+	@Test
+	public static void testRelations() {
+		SpatialReference sr = SpatialReference.create(4326);
+		Geometry[] polygons = makePolygons_(40, 1);
+		Geometry[] others = makeMixed_(200, 2);
+		Operator.Type[] relations = { Operator.Type.Intersects, Operator.Type.Contains, Operator.Type.Within,
+				Operator.Type.Touches, Operator.Type.Crosses, Operator.Type.Overlaps };
+		for (Operator.Type relation : relations) {
+			OperatorSimpleRelation op = (OperatorSimpleRelation) OperatorFactoryLocal.getInstance().getOperator(relation);
+			Set<Long> expected = new HashSet<Long>();
+			for (int a = 0; a < polygons.length; a++) {
+				for (int b = 0; b < others.length; b++) {
+					if (op.execute(polygons[a], others[b], sr, null))
+						expected.add(pair_(a, b));
+				}
+			}
+
+			SpatialJoinCursor cursor = OperatorSpatialJoin.local().execute(new SimpleGeometryCursor(polygons),
+					new SimpleGeometryCursor(others), sr, relation, null);
+			assertEquals(relation.toString(), expected, collect_(cursor));
+		}
+
+		// The join accelerates private copies, not the input geometries.
+		for (Geometry polygon : polygons)
+			assertNull(((MultiVertexGeometryImpl) polygon._getImpl())._getAccelerators());
+	}
+
+	@Test
+	public static void testRelate() {
+		SpatialReference sr = SpatialReference.create(4326);
+		Geometry[] polygons = makePolygons_(20, 3);
+		Geometry[] others = makeMixed_(60, 4);
+		// The second pattern is the disjoint relation, it has to test every pair.
+		String[] patterns = { "T********", "1*T******", "FF*FF****" };
+		for (String pattern : patterns) {
+			Set<Long> expected = new HashSet<Long>();
+			for (int a = 0; a < polygons.length; a++) {
+				for (int b = 0; b < others.length; b++) {
+					if (OperatorRelate.local().execute(polygons[a], others[b], sr, pattern, null))
+						expected.add(pair_(a, b));
+				}
+			}
+
+			assertFalse(expected.isEmpty());
+			SpatialJoinCursor cursor = OperatorSpatialJoin.local().executeRelate(new SimpleGeometryCursor(polygons),
+					new SimpleGeometryCursor(others), sr, pattern, null);
+			assertEquals(pattern, expected, collect_(cursor));
+		}
+
+		try {
+			OperatorSpatialJoin.local().executeRelate(new SimpleGeometryCursor(polygons),
+					new SimpleGeometryCursor(others), sr, "T*", null);
+			fail();
+		} catch (GeometryException e) {
+		}
+
+		try {
+			OperatorSpatialJoin.local().execute(new SimpleGeometryCursor(polygons), new SimpleGeometryCursor(others),
+					sr, Operator.Type.Disjoint, null);
+			fail();
+		} catch (IllegalArgumentException e) {
+		}
+	}
+
+	@Test
+	public static void testDistanceWithin() {
+		Geometry[] a = makeMixed_(100, 5);
+		Geometry[] b = makeMixed_(100, 6);
+		double distance = 3;
+		Set<Long> expected = new HashSet<Long>();
+		for (int i = 0; i < a.length; i++) {
+			for (int j = 0; j < b.length; j++) {
+				if (OperatorDistance.local().execute(a[i], b[j], null) <= distance)
+					expected.add(pair_(i, j));
+			}
+		}
+
+		SpatialJoinCursor cursor = OperatorSpatialJoin.local().executeDistanceWithin(new SimpleGeometryCursor(a),
+				new SimpleGeometryCursor(b), null, distance, null);
+		Set<Long> actual = collect_(cursor);
+		assertEquals(expected, actual);
+		assertEquals(-1, cursor.getGeometryIDA());
+	}
+
+	@Test
+	public static void testEmptyInputs() {
+		Geometry[] polygons = makePolygons_(5, 7);
+		SpatialJoinCursor cursor = OperatorSpatialJoin.local().execute(new SimpleGeometryCursor(polygons),
+				new SimpleGeometryCursor(new Geometry[] { new Point(), new Polygon() }), null,
+				Operator.Type.Intersects, null);
+		assertFalse(cursor.next());
+	}
+
+	private static long pair_(int a, int b) {
+		return ((long) a << 32) | b;
+	}
+
+	private static Set<Long> collect_(SpatialJoinCursor cursor) {
+		Set<Long> pairs = new HashSet<Long>();
+		while (cursor.next())
+			assertTrue(pairs.add(pair_(cursor.getGeometryIDA(), cursor.getGeometryIDB())));
+
+		return pairs;
+	}
+
+	private static Geometry[] makePolygons_(int count, long seed) {
+		Random random = new Random(seed);
+		Geometry[] geoms = new Geometry[count];
+		for (int i = 0; i < count; i++) {
+			double x = random.nextDouble() * 90;
+			double y = random.nextDouble() * 90;
+			double size = 2 + random.nextDouble() * 8;
+			Polygon polygon = new Polygon();
+			polygon.startPath(x, y);
+			polygon.lineTo(x, y + size);
+			polygon.lineTo(x + size, y + size * random.nextDouble());
+			polygon.lineTo(x + size, y);
+			geoms[i] = polygon;
+		}
+
+		return geoms;
+	}
+
+	// Points, polylines and polygons, some of them on the grid of integers to
+	// produce touching geometries.
+	private static Geometry[] makeMixed_(int count, long seed) {
+		Random random = new Random(seed);
+		Geometry[] geoms = new Geometry[count];
+		for (int i = 0; i < count; i++) {
+			double x = random.nextInt(100);
+			double y = random.nextInt(100);
+			switch (i % 3) {
+			case 0:
+				geoms[i] = new Point(x, y);
+				break;
+			case 1: {
+				Polyline polyline = new Polyline();
+				polyline.startPath(x, y);
+				polyline.lineTo(x + random.nextInt(10), y + random.nextInt(10) - 5);
+				geoms[i] = polyline;
+				break;
+			}
+			default:
+				geoms[i] = makePolygons_(1, seed * 1000 + i)[0];
+				break;
+			}
+		}
+
+		return geoms;
+	}
+}
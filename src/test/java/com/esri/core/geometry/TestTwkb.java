@@ -0,0 +1,203 @@
+/*
+ Copyright 1995-2019 Esri
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+
+ For additional information, contact:
+ Environmental Systems Research Institute, Inc.
+ Attn: Contracts Dept
+ 380 New York Street
+ Redlands, California, USA 92373
+
+ email: contracts@esri.com
+ */
+
+package com.esri.core.geometry;
+
+import java.nio.ByteBuffer;
+
+import junit.framework.TestCase;
+
+import org.junit.Test;
+
+import com.esri.core.geometry.VertexDescription.Semantics;
+
+public class TestTwkb extends TestCase {
+	@Override
+	protected void setUp() throws Exception {
+		super.setUp();
+	}
+
+	@Override
+	protected void tearDown() throws Exception {
+		super.tearDown();
+	}
+
+	private static byte[] toBytes(ByteBuffer buffer) {
+		byte[] bytes = new byte[buffer.remaining()];
+		buffer.get(bytes);
+		return bytes;
+	}
+
+	@Test
+	public static void testEncoding() {
+		// POINT(1 2)
+		ByteBuffer twkb = OperatorExportToTwkb.local().execute(0,
+				new Point(1, 2), 0, 0, 0, null);
+		byte[] bytes = toBytes(twkb);
+		assertEquals(4, bytes.length);
+		assertEquals(0x01, bytes[0]);
+		assertEquals(0x00, bytes[1]);
+		assertEquals(0x02, bytes[2]);
+		assertEquals(0x04, bytes[3]);
+
+		// LINESTRING(1 2, 3 4) with the precision of 1: 10 20, +20 +20
+		Polyline polyline = new Polyline();
+		polyline.startPath(1, 2);
+		polyline.lineTo(3, 4);
+		bytes = toBytes(OperatorExportToTwkb.local().execute(0, polyline, 1,
+				0, 0, null));
+		byte[] expected = new byte[] { 0x22, 0x00, 0x02, 0x14, 0x28, 0x28,
+				0x28 };
+		assertEquals(expected.length, bytes.length);
+		for (int i = 0; i < expected.length; i++)
+			assertEquals(expected[i], bytes[i]);
+
+		// The size is the count of the bytes after it.
+		bytes = toBytes(OperatorExportToTwkb.local().execute(
+				TwkbExportFlags.twkbExportSize
+						| TwkbExportFlags.twkbExportBoundingBox, polyline, 1,
+				0, 0, null));
+		assertEquals(0x03, bytes[1]);
+		assertEquals(bytes.length - 3, bytes[2]);
+	}
+
+	@Test
+	public static void testRoundTrip() {
+		Polygon polygon = new Polygon();
+		polygon.startPath(0, 0);
+		polygon.lineTo(0, 10);
+		polygon.lineTo(10, 10);
+		polygon.lineTo(10, 0);
+		polygon.startPath(2, 2);
+		polygon.lineTo(4, 2);
+		polygon.lineTo(4, 4);
+		polygon.lineTo(2, 4);
+		polygon.startPath(20.125, 0);
+		polygon.lineTo(20.125, 5.5);
+		polygon.lineTo(25.375, 5.5);
+
+		int[] flags = { 0, TwkbExportFlags.twkbExportBoundingBox,
+				TwkbExportFlags.twkbExportSize,
+				TwkbExportFlags.twkbExportMultiGeometry };
+		for (int f : flags) {
+			ByteBuffer twkb = OperatorExportToTwkb.local().execute(f, polygon,
+					3, 0, 0, null);
+			Geometry imported = OperatorImportFromTwkb.local().execute(0,
+					Geometry.Type.Unknown, twkb, null);
+			assertEquals(0, twkb.remaining());
+			assertTrue(imported.equals(polygon));
+		}
+
+		ByteBuffer twkb = OperatorExportToTwkb.local().execute(0, polygon, 0,
+				0, 0, null);
+		Polygon rounded = (Polygon) OperatorImportFromTwkb.local().execute(0,
+				Geometry.Type.Polygon, twkb, null);
+		assertEquals(20.0, rounded.getXY(8).x);
+		assertEquals(25.0, rounded.getXY(10).x);
+		assertEquals(6.0, rounded.getXY(10).y);
+		assertEquals(100 - 4 + 15.0, rounded.calculateArea2D());
+
+		// negative precision
+		twkb = OperatorExportToTwkb.local().execute(0, new Point(123456, -7890),
+				-2, 0, 0, null);
+		Point point = (Point) OperatorImportFromTwkb.local().execute(0,
+				Geometry.Type.Unknown, twkb, null);
+		assertEquals(123500.0, point.getX());
+		assertEquals(-7900.0, point.getY());
+	}
+
+	@Test
+	public static void testZMAndIds() {
+		Polyline polyline = new Polyline();
+		polyline.startPath(new Point(1, 2, 3));
+		polyline.lineTo(new Point(4, 5, 6));
+		polyline.startPath(new Point(7, 8, 9));
+		polyline.lineTo(new Point(10, 11, 12));
+		polyline.addAttribute(Semantics.M);
+		polyline.addAttribute(Semantics.ID);
+		for (int i = 0; i < 4; i++)
+			polyline.setAttribute(Semantics.M, i, 0, i * 0.5);
+		polyline.setAttribute(Semantics.ID, 0, 0, 17);
+		polyline.setAttribute(Semantics.ID, 2, 0, -5);
+
+		ByteBuffer twkb = OperatorExportToTwkb.local().execute(
+				TwkbExportFlags.twkbExportIdList
+						| TwkbExportFlags.twkbExportBoundingBox, polyline, 0,
+				0, 1, null);
+		Polyline imported = (Polyline) OperatorImportFromTwkb.local().execute(
+				0, Geometry.Type.Polyline, twkb, null);
+		assertEquals(2, imported.getPathCount());
+		assertTrue(imported.hasAttribute(Semantics.Z));
+		assertTrue(imported.hasAttribute(Semantics.M));
+		assertEquals(12.0, imported.getPoint(3).getZ());
+		assertEquals(1.5, imported.getPoint(3).getM());
+		assertEquals(17, imported.getAttributeAsInt(Semantics.ID, 1, 0));
+		assertEquals(-5, imported.getAttributeAsInt(Semantics.ID, 3, 0));
+
+		twkb = OperatorExportToTwkb.local().execute(
+				TwkbExportFlags.twkbExportStripMs, polyline, 0, 0, 1, null);
+		imported = (Polyline) OperatorImportFromTwkb.local().execute(0,
+				Geometry.Type.Unknown, twkb, null);
+		assertFalse(imported.hasAttribute(Semantics.M));
+		assertFalse(imported.hasAttribute(Semantics.ID));
+	}
+
+	@Test
+	public static void testBufferAndEmpty() {
+		MultiPoint multipoint = new MultiPoint();
+		multipoint.add(1, 1);
+		multipoint.add(-3, 7);
+
+		// Consecutive geometries in a caller provided buffer
+		ByteBuffer buffer = ByteBuffer.allocate(64);
+		OperatorExportToTwkb exporter = OperatorExportToTwkb.local();
+		int size = exporter.execute(0, multipoint, 2, 0, 0, null, null);
+		assertEquals(size, exporter.execute(0, multipoint, 2, 0, 0, buffer,
+				null));
+		exporter.execute(0, new Polygon(), 2, 0, 0, buffer, null);
+		exporter.execute(0, new Point(), 2, 0, 0, buffer, null);
+		assertEquals(size + 4, buffer.position());
+
+		buffer.flip();
+		OperatorImportFromTwkb importer = OperatorImportFromTwkb.local();
+		assertTrue(importer.execute(0, Geometry.Type.Unknown, buffer, null)
+				.equals(multipoint));
+		Geometry polygon = importer.execute(0, Geometry.Type.Unknown, buffer,
+				null);
+		assertEquals(Geometry.Type.Polygon, polygon.getType());
+		assertTrue(polygon.isEmpty());
+		Geometry point = importer.execute(0, Geometry.Type.Unknown, buffer,
+				null);
+		assertEquals(Geometry.Type.Point, point.getType());
+		assertTrue(point.isEmpty());
+		assertEquals(0, buffer.remaining());
+
+		try {
+			buffer.rewind();
+			importer.execute(0, Geometry.Type.Polyline, buffer, null);
+			fail();
+		} catch (GeometryException e) {
+		}
+	}
+}
@@ -24,6 +24,10 @@
 
 package com.esri.core.geometry;
 
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicInteger;
+
 import junit.framework.TestCase;
 import org.junit.Test;
 
@@ -177,4 +181,71 @@ public class TestUnion extends TestCase {
 		assertEquals(new Point2D(3, 4), path.getXY(2));
 		assertEquals(new Point2D(3, 2), path.getXY(3));
 	}
+
+	@Test
+	public static void testParallelUnion() {
+		Geometry[] polygons = makeCircles_(400, 32);
+		SpatialReference sr = SpatialReference.create(4326);
+		Geometry serial = OperatorUnion.local().execute(new SimpleGeometryCursor(polygons), sr, null).next();
+
+		ForkJoinPool pool = new ForkJoinPool(4);
+		try {
+			GeometryCursor cursor = OperatorUnion.local().execute(new SimpleGeometryCursor(polygons), sr, pool, null);
+			Geometry parallel = cursor.next();
+			assertNull(cursor.next());
+			assertEquals(((Polygon) serial).getPathCount(), ((Polygon) parallel).getPathCount());
+			assertEquals(serial.calculateArea2D(), parallel.calculateArea2D(), 1e-6);
+			assertTrue(OperatorEquals.local().execute(serial, parallel, sr, null));
+
+			// Mixed dimensions: the result has the highest one.
+			Geometry[] mixed = new Geometry[] { new Point(0, 0), polygons[0], polygons[1], new Point(-50, -50) };
+			Geometry result = OperatorUnion.local().execute(new SimpleGeometryCursor(mixed), sr, pool, null).next();
+			assertEquals(2, result.getDimension());
+		} finally {
+			pool.shutdown();
+		}
+	}
+
+	@Test
+	public static void testParallelUnionCancel() {
+		Geometry[] polygons = makeCircles_(400, 32);
+		final AtomicInteger calls = new AtomicInteger();
+		ProgressTracker tracker = new ProgressTracker() {
+			@Override
+			public boolean progress(int step, int totalExpectedSteps) {
+				return calls.incrementAndGet() < 100;
+			}
+		};
+
+		ForkJoinPool pool = new ForkJoinPool(4);
+		try {
+			OperatorUnion.local().execute(new SimpleGeometryCursor(polygons), null, pool, tracker).next();
+			fail();
+		} catch (UserCancelException e) {
+		} finally {
+			pool.shutdown();
+		}
+	}
+
+	private static Geometry[] makeCircles_(int count, int vertexCount) {
+		Random random = new Random(5);
+		Geometry[] polygons = new Geometry[count];
+		for (int i = 0; i < count; i++) {
+			double cx = random.nextDouble() * 100;
+			double cy = random.nextDouble() * 100;
+			double r = 1 + random.nextDouble() * 2;
+			Polygon polygon = new Polygon();
+			for (int k = 0; k < vertexCount; k++) {
+				double angle = -2 * Math.PI * k / vertexCount;
+				if (k == 0)
+					polygon.startPath(cx + r * Math.cos(angle), cy + r * Math.sin(angle));
+				else
+					polygon.lineTo(cx + r * Math.cos(angle), cy + r * Math.sin(angle));
+			}
+
+			polygons[i] = polygon;
+		}
+
+		return polygons;
+	}
 }
@@ -0,0 +1,225 @@
+/*
+ Copyright 1995-2019 Esri
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+
+ For additional information, contact:
+ Environmental Systems Research Institute, Inc.
+ Attn: Contracts Dept
+ 380 New York Street
+ Redlands, California, USA 92373
+
+ email: contracts@esri.com
+ */
+
+package com.esri.core.geometry;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+
+import junit.framework.TestCase;
+
+import org.junit.Test;
+
+public class TestWkbStreamImport extends TestCase {
+	@Override
+	protected void setUp() throws Exception {
+		super.setUp();
+	}
+
+	@Override
+	protected void tearDown() throws Exception {
+		super.tearDown();
+	}
+
+	private static ArrayList<Geometry> createGeometries() {
+		ArrayList<Geometry> geometries = new ArrayList<Geometry>();
+		for (int i = 0; i < 500; i++) {
+			Point point = new Point(i, -i);
+			geometries.add(point);
+
+			Polyline polyline = new Polyline();
+			polyline.startPath(i, 0);
+			polyline.lineTo(i + 1, 1);
+			polyline.lineTo(i + 2, 0);
+			polyline.startPath(0, i);
+			polyline.lineTo(1, i + 1);
+			geometries.add(polyline);
+
+			Polygon polygon = new Polygon();
+			polygon.startPath(i, 0);
+			polygon.lineTo(i, 10);
+			polygon.lineTo(i + 10, 10);
+			polygon.lineTo(i + 10, 0);
+			polygon.startPath(i + 20, 0);
+			polygon.lineTo(i + 20, 10);
+			polygon.lineTo(i + 30, 10);
+			polygon.lineTo(i + 30, 0);
+			geometries.add(polygon);
+
+			MultiPoint multiPoint = new MultiPoint();
+			multiPoint.add(i, 1);
+			multiPoint.add(i, 2);
+			geometries.add(multiPoint);
+		}
+
+		// Larger than the initial buffer.
+		Polyline large = new Polyline();
+		large.startPath(0, 0);
+		for (int i = 1; i < 20000; i++)
+			large.lineTo(i, i % 7);
+		geometries.add(large);
+
+		Point pointZ = new Point(1, 2, 3);
+		geometries.add(pointZ);
+		return geometries;
+	}
+
+	private static byte[] toWkb(ArrayList<Geometry> geometries,
+			boolean bLengthPrefixed, ByteOrder prefixOrder) {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		for (Geometry geometry : geometries) {
+			ByteBuffer wkb = OperatorExportToWkb.local().execute(0, geometry,
+					null);
+			if (bLengthPrefixed) {
+				ByteBuffer prefix = ByteBuffer.allocate(4).order(prefixOrder);
+				prefix.putInt(0, wkb.capacity());
+				out.write(prefix.array(), 0, 4);
+			}
+
+			out.write(wkb.array(), 0, wkb.capacity());
+		}
+
+		return out.toByteArray();
+	}
+
+	private static void check(ArrayList<Geometry> geometries,
+			GeometryCursor cursor) {
+		int index = 0;
+		Geometry geometry;
+		while ((geometry = cursor.next()) != null) {
+			assertEquals(index, cursor.getGeometryID());
+			assertTrue(geometry.equals(geometries.get(index)));
+			index++;
+		}
+
+		assertEquals(geometries.size(), index);
+		assertNull(cursor.next());
+	}
+
+	@Test
+	public static void testInputStream() {
+		ArrayList<Geometry> geometries = createGeometries();
+		byte[] bytes = toWkb(geometries, false, null);
+		GeometryCursor cursor = OperatorImportFromWkb.local().execute(0,
+				Geometry.Type.Unknown, new ByteArrayInputStream(bytes), null);
+		check(geometries, cursor);
+	}
+
+	@Test
+	public static void testLengthPrefixedChannel() {
+		ArrayList<Geometry> geometries = createGeometries();
+		byte[] bytes = toWkb(geometries, true, ByteOrder.BIG_ENDIAN);
+		GeometryCursor cursor = OperatorImportFromWkb.local().execute(
+				WkbImportFlags.wkbImportLengthPrefixed
+						| WkbImportFlags.wkbImportLengthPrefixBigEndian,
+				Geometry.Type.Unknown,
+				Channels.newChannel(new ByteArrayInputStream(bytes)), null);
+		check(geometries, cursor);
+	}
+
+	@Test
+	public static void testMappedFile() throws Exception {
+		ArrayList<Geometry> geometries = createGeometries();
+		byte[] bytes = toWkb(geometries, false, null);
+		File file = File.createTempFile("wkbstream", ".wkb");
+		try {
+			FileOutputStream out = new FileOutputStream(file);
+			try {
+				// a header that is not part of the region
+				out.write(new byte[] { 1, 2, 3 });
+				out.write(bytes);
+			} finally {
+				out.close();
+			}
+
+			RandomAccessFile raf = new RandomAccessFile(file, "r");
+			try {
+				FileChannel channel = raf.getChannel();
+				GeometryCursor cursor = OperatorImportFromWkb.local().execute(
+						0, Geometry.Type.Unknown, channel, 3, bytes.length,
+						null);
+				check(geometries, cursor);
+			} finally {
+				raf.close();
+			}
+		} finally {
+			file.delete();
+		}
+	}
+
+	@Test
+	public static void testBigEndianRecords() {
+		// Two big endian points, the second one is XYZ.
+		ByteBuffer buffer = ByteBuffer.allocate(21 + 29).order(
+				ByteOrder.BIG_ENDIAN);
+		buffer.put((byte) 0);
+		buffer.putInt(WkbGeometryType.wkbPoint);
+		buffer.putDouble(1);
+		buffer.putDouble(2);
+		buffer.put((byte) 0);
+		buffer.putInt(WkbGeometryType.wkbPointZ);
+		buffer.putDouble(3);
+		buffer.putDouble(4);
+		buffer.putDouble(5);
+		GeometryCursor cursor = OperatorImportFromWkb.local().execute(0,
+				Geometry.Type.Unknown,
+				new ByteArrayInputStream(buffer.array()), null);
+		Point point = (Point) cursor.next();
+		assertEquals(1.0, point.getX());
+		assertEquals(2.0, point.getY());
+		point = (Point) cursor.next();
+		assertEquals(3.0, point.getX());
+		assertEquals(4.0, point.getY());
+		assertEquals(5.0, point.getZ());
+		assertNull(cursor.next());
+	}
+
+	@Test
+	public static void testTruncated() {
+		ArrayList<Geometry> geometries = new ArrayList<Geometry>();
+		geometries.add(new Point(1, 2));
+		Polyline polyline = new Polyline();
+		polyline.startPath(0, 0);
+		polyline.lineTo(1, 1);
+		geometries.add(polyline);
+		byte[] bytes = toWkb(geometries, false, null);
+		GeometryCursor cursor = OperatorImportFromWkb.local().execute(0,
+				Geometry.Type.Unknown,
+				new ByteArrayInputStream(bytes, 0, bytes.length - 3), null);
+		assertNotNull(cursor.next());
+		try {
+			cursor.next();
+			fail();
+		} catch (GeometryException e) {
+		}
+	}
+}
@@ -0,0 +1,117 @@
+/*
+ Copyright 1995-2019 Esri
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+
+ For additional information, contact:
+ Environmental Systems Research Institute, Inc.
+ Attn: Contracts Dept
+ 380 New York Street
+ Redlands, California, USA 92373
+
+ email: contracts@esri.com
+ */
+
+package com.esri.core.geometry;
+
+import java.util.Random;
+
+import junit.framework.TestCase;
+
+import org.junit.Test;
+
+public class TestWktRegionImport extends TestCase {
+	@Override
+	protected void setUp() throws Exception {
+		super.setUp();
+	}
+
+	@Override
+	protected void tearDown() throws Exception {
+		super.tearDown();
+	}
+
+	@Test
+	public static void testDecimalToDouble() {
+		String[] numbers = { "0", "-0", "+1", ".5", "5.", "0.1", "1e22",
+				"1e23", "-1.5E-3", "9007199254740993", "9999999999999999999",
+				"2.2250738585072011e-308", "4.9e-324", "2.4703282292062328e-324",
+				"1.7976931348623157e308", "1.7976931348623159e308", "1e-400",
+				"123456789012345678901234567890", "0.30000000000000004" };
+		for (String number : numbers) {
+			String s = "(" + number + ")";
+			assertEquals(Double.parseDouble(number),
+					DecimalToDouble.parse(s, 1, s.length() - 1));
+		}
+
+		Random random = new Random(11);
+		for (int i = 0; i < 100000; i++) {
+			double v = Double.longBitsToDouble(random.nextLong());
+			if (Double.isNaN(v) || Double.isInfinite(v))
+				continue;
+
+			String s = Double.toString(v);
+			assertEquals(v, DecimalToDouble.parse(s, 0, s.length()));
+		}
+
+		try {
+			DecimalToDouble.parse("1e", 0, 2);
+			fail();
+		} catch (NumberFormatException e) {
+		}
+	}
+
+	@Test
+	public static void testRegions() {
+		String[] records = {
+				"POINT (1.5 -2.25)",
+				"LINESTRING Z (0 0 1, 10 10.5 2, 20 0 3)",
+				"MULTIPOLYGON (((0 0, 0 10, 10 10, 10 0, 0 0), (2 2, 4 2, 4 4, 2 4, 2 2)), ((20 0, 20 5, 25 5, 20 0)))",
+				"MULTIPOINT M ((1 2 3), (4 5 6))", "POLYGON EMPTY",
+				"POINT (1e3 -2.5E-2)" };
+		StringBuilder csv = new StringBuilder();
+		int[] starts = new int[records.length];
+		for (int i = 0; i < records.length; i++) {
+			csv.append(i).append(";");
+			starts[i] = csv.length();
+			csv.append(records[i]).append(";x\n");
+		}
+		char[] chars = csv.toString().toCharArray();
+
+		OperatorImportFromWkt op = OperatorImportFromWkt.local();
+		for (int i = 0; i < records.length; i++) {
+			Geometry expected = op.execute(0, Geometry.Type.Unknown,
+					records[i], null);
+			int end = starts[i] + records[i].length();
+			Geometry fromSequence = op.execute(0, Geometry.Type.Unknown, csv,
+					starts[i], end, null);
+			Geometry fromChars = op.execute(0, Geometry.Type.Unknown, chars,
+					starts[i], records[i].length(), null);
+			assertTrue(expected.equals(fromSequence));
+			assertTrue(expected.equals(fromChars));
+		}
+
+		Point point = (Point) op.execute(0, Geometry.Type.Point, csv,
+				starts[5], starts[5] + records[5].length(), null);
+		assertEquals(1000.0, point.getX());
+		assertEquals(-0.025, point.getY());
+
+		// The region ends before the closing parenthesis.
+		try {
+			op.execute(0, Geometry.Type.Unknown, csv, starts[0],
+					starts[0] + records[0].length() - 1, null);
+			fail();
+		} catch (IllegalArgumentException e) {
+		}
+	}
+}